@@ -38,6 +38,7 @@ abstract public class StandardImmutableDeck<T extends StandardImmutableDeck<T, E
     @Override
     public boolean equals(Object obj)
     {
+        if (obj == this) return true;
         if (! getClass().isInstance(obj)) return false;
         
         @SuppressWarnings("unchecked")
@@ -30,6 +30,7 @@ abstract public class StandardImmutableMapDeck<T extends StandardImmutableMapDec
     @Override
     public boolean equals(Object obj)
     {
+        if (obj == this) return true;
         if (! getClass().isInstance(obj)) return false;
         
         @SuppressWarnings("unchecked")
@@ -127,9 +127,14 @@ final public class Book extends StandardImmutableObject<Book>
 	 */
 	public void freeze()
 	{
-		authors.freeze();
+		authors.freezeCompact();
 	}
 	
+	/**
+	 * Books are shared by many decks (and so are serialized many times over)
+	 */
+	public boolean isSerializedFormCacheable() { return true; }
+	
 	public String getSimpleTitle() { return title; } 
 	public int getSimplePageCount() { return page_count; }
 	
@@ -158,7 +163,16 @@ final public class Book extends StandardImmutableObject<Book>
 
 	public int hashCode() 
 	{
-		return Objects.hash(getSimpleTitle(), getSimplePageCount(), getOptionalISBN(null), getSimpleBinding());
+		int ret = getOptionalCachedHashCode(0);
+		if ( ret != 0 ) return ret;
+		
+		// As Objects.hash(title, page_count, isbn, binding), without the varargs array (or boxing)
+		ret = 31 + Objects.hashCode(getSimpleTitle());
+		ret = 31 * ret + getSimplePageCount();
+		ret = 31 * ret + Objects.hashCode(getOptionalISBN(null));
+		ret = 31 * ret + Objects.hashCode(getSimpleBinding());
+		
+		return cacheHashCode(ret);
 	}
 
 	public boolean equals(Object obj) 
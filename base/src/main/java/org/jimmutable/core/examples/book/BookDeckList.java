@@ -2,10 +2,11 @@ package org.jimmutable.core.examples.book;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
 
 import org.jimmutable.core.decks.StandardImmutableListDeck;
-import org.jimmutable.core.fields.FieldArrayList;
 import org.jimmutable.core.fields.FieldList;
+import org.jimmutable.core.fields.FieldPersistentVector;
 import org.jimmutable.core.serialization.FieldName;
 import org.jimmutable.core.serialization.TypeName;
 import org.jimmutable.core.serialization.reader.ObjectParseTree;
@@ -37,7 +38,7 @@ final public class BookDeckList extends StandardImmutableListDeck<BookDeckList,
 	{
 		super();
 		
-		this.books = new FieldArrayList();
+		this.books = new FieldPersistentVector();
 		this.books.addAll(books);
 		
 		complete();
@@ -45,12 +46,12 @@ final public class BookDeckList extends StandardImmutableListDeck<BookDeckList,
 	
 	private BookDeckList(Builder builder)
 	{
-		books = new FieldArrayList();
+		books = new FieldPersistentVector();
 	}
 	
 	public BookDeckList(ObjectParseTree t)
 	{
-		books = t.getCollection(FIELD_BOOKS, new FieldArrayList(), ReadAs.OBJECT, ObjectParseTree.OnError.SKIP);
+		books = t.getCollection(FIELD_BOOKS, new FieldPersistentVector(), ReadAs.OBJECT, ObjectParseTree.OnError.SKIP, ForkJoinPool.commonPool());
 	}
 	
 	public TypeName getTypeName() 
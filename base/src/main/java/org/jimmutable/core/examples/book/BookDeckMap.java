@@ -2,11 +2,12 @@ package org.jimmutable.core.examples.book;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.jimmutable.core.decks.StandardImmutableMapDeck;
-import org.jimmutable.core.fields.FieldHashMap;
-import org.jimmutable.core.fields.FieldHashSet;
 import org.jimmutable.core.fields.FieldMap;
+import org.jimmutable.core.fields.FieldPersistentHashMap;
+import org.jimmutable.core.fields.FieldPersistentHashSet;
 import org.jimmutable.core.serialization.FieldName;
 import org.jimmutable.core.serialization.TypeName;
 import org.jimmutable.core.serialization.reader.ObjectParseTree;
@@ -30,7 +31,7 @@ final public class BookDeckMap extends StandardImmutableMapDeck<BookDeckMap, Str
 	
 	private BookDeckMap(Builder builder)
 	{
-		books = new FieldHashMap<>();
+		books = new FieldPersistentHashMap<>();
 	}
 	
 	public BookDeckMap()
@@ -42,7 +43,7 @@ final public class BookDeckMap extends StandardImmutableMapDeck<BookDeckMap, Str
 	{
 		super();
 		
-		books = new FieldHashMap<>();
+		books = new FieldPersistentHashMap<>();
 		
 		if ( initial_contents != null )
 		{
@@ -54,7 +55,7 @@ final public class BookDeckMap extends StandardImmutableMapDeck<BookDeckMap, Str
 	
 	public BookDeckMap(ObjectParseTree t)
 	{
-		books = t.getMap(FIELD_BOOKS, new FieldHashMap(), ReadAs.STRING, ReadAs.OBJECT, ObjectParseTree.OnError.SKIP);
+		books = t.getMap(FIELD_BOOKS, new FieldPersistentHashMap(), ReadAs.STRING, ReadAs.OBJECT, ObjectParseTree.OnError.SKIP, ForkJoinPool.commonPool());
 	}
 	
 	public TypeName getTypeName() 
@@ -2,10 +2,10 @@ package org.jimmutable.core.examples.book;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
 
 import org.jimmutable.core.decks.StandardImmutableSetDeck;
-import org.jimmutable.core.fields.FieldArrayList;
-import org.jimmutable.core.fields.FieldHashSet;
+import org.jimmutable.core.fields.FieldPersistentHashSet;
 import org.jimmutable.core.fields.FieldSet;
 import org.jimmutable.core.serialization.FieldName;
 import org.jimmutable.core.serialization.TypeName;
@@ -37,7 +37,7 @@ final public class BookDeckSet extends StandardImmutableSetDeck<BookDeckSet, Boo
 	{
 		super();
 		
-		this.books = new FieldHashSet();
+		this.books = new FieldPersistentHashSet();
 		this.books.addAll(books);
 		
 		complete();
@@ -45,12 +45,12 @@ final public class BookDeckSet extends StandardImmutableSetDeck<BookDeckSet, Boo
 
 	private BookDeckSet(Builder builder)
 	{
-		books = new FieldHashSet<>();
+		books = new FieldPersistentHashSet<>();
 	}
 	
 	public BookDeckSet(ObjectParseTree t)
 	{
-		books = t.getCollection(FIELD_BOOKS, new FieldHashSet(), ReadAs.OBJECT, ObjectParseTree.OnError.SKIP);
+		books = t.getCollection(FIELD_BOOKS, new FieldPersistentHashSet(), ReadAs.OBJECT, ObjectParseTree.OnError.SKIP, ForkJoinPool.commonPool());
 	}
 	
 	public TypeName getTypeName() 
@@ -2,8 +2,10 @@ package org.jimmutable.core.examples.product_data;
 
 import org.jimmutable.core.exceptions.ValidationException;
 import org.jimmutable.core.objects.Stringable;
+import org.jimmutable.core.objects.StringableInternCache;
 import org.jimmutable.core.serialization.FieldName;
 import org.jimmutable.core.serialization.TypeName;
+import org.jimmutable.core.serialization.reader.ReadAs;
 import org.jimmutable.core.utils.Normalizer;
 import org.jimmutable.core.utils.Validator;
 
@@ -15,12 +17,40 @@ import org.jimmutable.core.utils.Validator;
  */
 public class BrandCode extends Stringable
 {
+	/**
+	 * The maximum number of distinct brand codes that will be interned.
+	 * Beyond this, intern simply returns new (validated) instances
+	 */
+	static public final int MAXIMUM_INTERNED_CODES = 100_000;
+	
+	static private final StringableInternCache<BrandCode> interned_codes = new StringableInternCache<>(MAXIMUM_INTERNED_CODES, BrandCode::new);
+	
+	/**
+	 * Reads brand codes as canonical (interned) instances
+	 */
+	static public final ReadAs READ_AS = interned_codes.getSimpleReadAs();
+	
 	public BrandCode(String code)
 	{
 		super(code);
 	}
 
 	
+	/**
+	 * Get the canonical BrandCode for a given code (see ItemAttribute.intern)
+	 * 
+	 * @param code
+	 *            The code (need not be normalized)
+	 * @return The canonical BrandCode for code
+	 * 
+	 * @throws ValidationException
+	 *             if code is not a valid BrandCode
+	 */
+	static public BrandCode intern(String code)
+	{
+		return interned_codes.intern(code);
+	}
+	
 	public void normalize() 
 	{
 		normalizeTrim();
@@ -2,7 +2,7 @@ package org.jimmutable.core.examples.product_data;
 
 import org.jimmutable.core.exceptions.ValidationException;
 import org.jimmutable.core.objects.Stringable;
-import org.jimmutable.core.serialization.reader.ObjectParseTree;
+import org.jimmutable.core.objects.StringableInternCache;
 import org.jimmutable.core.serialization.reader.ReadAs;
 import org.jimmutable.core.utils.Validator;
 
@@ -16,10 +16,21 @@ import org.jimmutable.core.utils.Validator;
 
 public class ItemAttribute extends Stringable
 {
-	static public final ReadAs READ_AS = new ReadAsItemAttribute();
+	/**
+	 * The maximum number of distinct attributes that will be interned. Beyond
+	 * this, intern (and READ_AS) simply return new (validated) instances
+	 */
+	static public final int MAXIMUM_INTERNED_ATTRIBUTES = 10_000;
 	
-	static public final ItemAttribute ATTRIBUTE_BRAND = new ItemAttribute("BRAND");
-	static public final ItemAttribute ATTRIBUTE_PN = new ItemAttribute("PN");
+	static private final StringableInternCache<ItemAttribute> interned_attributes = new StringableInternCache<>(MAXIMUM_INTERNED_ATTRIBUTES, ItemAttribute::new);
+	
+	/**
+	 * Reads attributes as canonical (interned) instances
+	 */
+	static public final ReadAs READ_AS = interned_attributes.getSimpleReadAs();
+	
+	static public final ItemAttribute ATTRIBUTE_BRAND = intern("BRAND");
+	static public final ItemAttribute ATTRIBUTE_PN = intern("PN");
 	
 	
 	public ItemAttribute(String code)
@@ -51,11 +62,21 @@ public class ItemAttribute extends Stringable
 		}
 	}
 	
-	static private class ReadAsItemAttribute extends ReadAs
+	/**
+	 * Get the canonical ItemAttribute for a given code. There are few
+	 * distinct attributes, each of which occurs very many times, so an
+	 * attribute read (or interned) again is the same, already validated,
+	 * object
+	 * 
+	 * @param code
+	 *            The code (need not be normalized)
+	 * @return The canonical ItemAttribute for code
+	 * 
+	 * @throws ValidationException
+	 *             if code is not a valid ItemAttribute
+	 */
+	static public ItemAttribute intern(String code)
 	{
-		public Object readAs(ObjectParseTree t) 
-		{
-			return new ItemAttribute(t.asString(null));
-		}
+		return interned_attributes.intern(code);
 	}
 }
@@ -6,6 +6,7 @@ import org.jimmutable.core.objects.StandardImmutableObject;
 import org.jimmutable.core.serialization.FieldName;
 import org.jimmutable.core.serialization.TypeName;
 import org.jimmutable.core.serialization.reader.ObjectParseTree;
+import org.jimmutable.core.serialization.reader.ObjectStreamReader;
 import org.jimmutable.core.serialization.writer.ObjectWriter;
 import org.jimmutable.core.utils.Comparison;
 import org.jimmutable.core.utils.Validator;
@@ -44,10 +45,25 @@ public class ItemKey extends StandardImmutableObject<ItemKey>
 	
 	public ItemKey(ObjectParseTree r)
 	{
-		brand = new BrandCode(r.getString(FIELD_BRAND_CODE, null));
+		brand = BrandCode.intern(r.getString(FIELD_BRAND_CODE, null));
 		pn = new PartNumber(r.getString(FIELD_PN, null));
 	}
 	
+	public ItemKey(ObjectStreamReader r)
+	{
+		String brand_code = null;
+		String part_number = null;
+		
+		while ( r.nextField() )
+		{
+			if ( r.isField(FIELD_BRAND_CODE) ) brand_code = r.readString(null);
+			else if ( r.isField(FIELD_PN) ) part_number = r.readString(null);
+		}
+		
+		brand = BrandCode.intern(brand_code);
+		pn = new PartNumber(part_number);
+	}
+	
 	public void write(ObjectWriter writer) 
 	{
 		writer.writeStringable(FIELD_BRAND_CODE, brand);
@@ -67,6 +83,8 @@ public class ItemKey extends StandardImmutableObject<ItemKey>
 
 	public void freeze() {}
 	public void normalize() {}
+	
+	public boolean isSerializedFormCacheable() { return true; } // keys are written over and over again
 
 	
 	public void validate() 
@@ -76,7 +94,10 @@ public class ItemKey extends StandardImmutableObject<ItemKey>
 
 	public int hashCode() 
 	{
-		return Objects.hash(brand,pn);
+		int ret = getOptionalCachedHashCode(0);
+		if ( ret != 0 ) return ret;
+		
+		return cacheHashCode(31 * (31 + Objects.hashCode(brand)) + Objects.hashCode(pn)); // as Objects.hash(brand,pn), without the varargs array
 	}
 
 	
@@ -6,7 +6,9 @@ import org.jimmutable.core.objects.StandardImmutableObject;
 import org.jimmutable.core.serialization.FieldName;
 import org.jimmutable.core.serialization.Format;
 import org.jimmutable.core.serialization.TypeName;
+import org.jimmutable.core.serialization.reader.FieldSwitch;
 import org.jimmutable.core.serialization.reader.ObjectParseTree;
+import org.jimmutable.core.serialization.reader.ObjectStreamReader;
 import org.jimmutable.core.serialization.reader.ReadAs;
 import org.jimmutable.core.serialization.writer.ObjectWriter;
 import org.jimmutable.core.serialization.writer.WriteAs;
@@ -25,6 +27,8 @@ public class ItemSpecifications extends StandardImmutableObject<ItemSpecificatio
 	static private final FieldName FIELD_ITEM_KEY = new FieldName("item_key");
 	static private final FieldName FIELD_ATTRIBUTES = new FieldName("attributes");
 	
+	static private final FieldSwitch STREAMED_FIELDS = new FieldSwitch(FIELD_ITEM_KEY, FIELD_ATTRIBUTES);
+	
 	private ItemKey item_key; // required
 	private FieldMap<ItemAttribute,String> attributes;
 	
@@ -38,6 +42,22 @@ public class ItemSpecifications extends StandardImmutableObject<ItemSpecificatio
 		item_key = (ItemKey)reader.getObject(FIELD_ITEM_KEY, null);
 		attributes = reader.getMap(FIELD_ATTRIBUTES, new FieldHashMap(), ItemAttribute.READ_AS, ReadAs.STRING, ObjectParseTree.OnError.SKIP);
 	}
+	
+	public ItemSpecifications(ObjectStreamReader reader)
+	{
+		attributes = new FieldHashMap();
+		
+		int field;
+		
+		while ( (field = reader.nextField(STREAMED_FIELDS)) != FieldSwitch.END_OF_OBJECT )
+		{
+			switch(field)
+			{
+			case 0: item_key = (ItemKey)reader.readObject(null); break;
+			case 1: reader.readMap(attributes, ItemAttribute.READ_AS, ReadAs.STRING, ObjectParseTree.OnError.SKIP); break;
+			}
+		}
+	}
 
 	public void write(ObjectWriter writer) 
 	{
@@ -52,7 +72,7 @@ public class ItemSpecifications extends StandardImmutableObject<ItemSpecificatio
 
 	public void freeze() 
 	{
-		attributes.freeze();
+		attributes.freezeCompact();
 	}
 
 	
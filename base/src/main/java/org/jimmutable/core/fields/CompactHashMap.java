@@ -0,0 +1,165 @@
+package org.jimmutable.core.fields;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read only {@link Map}, holding a copy of another map in as little memory
+ * as possible. The keys and values are held in a single dense array (in the
+ * iteration order of the source map, which is kept), and are found through an
+ * open addressing (linear probing) table of int(s). Compared with a HashMap
+ * there is no entry object per mapping and no resize slack.
+ *
+ * Used by {@link FieldHashMap} when it is frozen compact (see
+ * {@link Field#freezeCompact()}). Reads behave exactly as they do on the
+ * source map
+ *
+ * @author jim.kane
+ *
+ * @param <K>
+ *            the type of keys maintained by this map
+ * @param <V>
+ *            the type of mapped values
+ */
+final class CompactHashMap<K,V> extends AbstractMap<K,V>
+{
+	private Object entries[]; // required, key0, value0, key1, value1, ...
+	private int index[]; // required, see createIndex
+	
+	/**
+	 * Create a compact copy of a map
+	 *
+	 * @param src
+	 *            The map to copy (must not hold a null key)
+	 */
+	CompactHashMap(Map<K,V> src)
+	{
+		entries = new Object[src.size() * 2];
+		
+		int i = 0;
+		
+		for ( Map.Entry<K,V> entry : src.entrySet() )
+		{
+			entries[i++] = entry.getKey();
+			entries[i++] = entry.getValue();
+		}
+		
+		index = createIndex(entries, 2);
+	}
+	
+	@Override
+	public int size() { return entries.length / 2; }
+	
+	@Override
+	public boolean containsKey(Object key) { return find(index, entries, 2, key) != -1; }
+	
+	@Override
+	public V get(Object key)
+	{
+		int i = find(index, entries, 2, key);
+		
+		return i == -1 ? null : (V)entries[i * 2 + 1];
+	}
+	
+	@Override
+	public Set<Map.Entry<K,V>> entrySet()
+	{
+		return new AbstractSet<Map.Entry<K,V>>()
+		{
+			public int size() { return CompactHashMap.this.size(); }
+			
+			public Iterator<Map.Entry<K,V>> iterator()
+			{
+				return new Iterator<Map.Entry<K,V>>()
+				{
+					private int next; // the index (in entries) of the next key
+					
+					public boolean hasNext() { return next < entries.length; }
+					
+					public Map.Entry<K,V> next()
+					{
+						if ( next >= entries.length ) throw new NoSuchElementException();
+						
+						Map.Entry<K,V> ret = new AbstractMap.SimpleImmutableEntry<>((K)entries[next], (V)entries[next + 1]);
+						next += 2;
+						
+						return ret;
+					}
+				};
+			}
+		};
+	}
+	
+	/**
+	 * Build the open addressing table over the keys of an array. The table
+	 * is a power of two in size, at most three quarters full, and each slot
+	 * holds the (key) number of an element plus one (zero marks an empty
+	 * slot)
+	 *
+	 * @param keys
+	 *            The array holding the keys (which must be distinct, and not
+	 *            null)
+	 * @param stride
+	 *            The distance between keys in the array (1 for a set, 2 for a
+	 *            map)
+	 * @return The table
+	 */
+	static int[] createIndex(Object keys[], int stride)
+	{
+		int count = keys.length / stride;
+		
+		if ( count == 0 ) return new int[1];
+		
+		int ret[] = new int[Integer.highestOneBit(count + count / 3) << 1];
+		int mask = ret.length - 1;
+		
+		for ( int i = 0; i < count; i++ )
+		{
+			int slot = hash(keys[i * stride]) & mask;
+			
+			while ( ret[slot] != 0 )
+			{
+				slot = (slot + 1) & mask;
+			}
+			
+			ret[slot] = i + 1;
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Find a key
+	 *
+	 * @return The number of the key (its index in keys divided by stride), or
+	 *         -1 if keys does not hold key
+	 */
+	static int find(int index[], Object keys[], int stride, Object key)
+	{
+		if ( key == null ) return -1;
+		
+		int mask = index.length - 1;
+		
+		for ( int slot = hash(key) & mask; ; slot = (slot + 1) & mask )
+		{
+			int entry = index[slot];
+			
+			if ( entry == 0 ) return -1;
+			
+			Object k = keys[(entry - 1) * stride];
+			
+			if ( key == k || key.equals(k) ) return entry - 1;
+		}
+	}
+	
+	static private int hash(Object key)
+	{
+		int h = key.hashCode();
+		
+		return h ^ (h >>> 16);
+	}
+}
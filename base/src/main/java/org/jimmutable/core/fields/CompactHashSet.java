@@ -0,0 +1,64 @@
+package org.jimmutable.core.fields;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read only {@link Set}, holding a copy of another set in as little memory
+ * as possible: a dense array of the elements (in the iteration order of the
+ * source set), found through an open addressing table of int(s) (see
+ * {@link CompactHashMap}).
+ *
+ * Used by {@link FieldHashSet} when it is frozen compact (see
+ * {@link Field#freezeCompact()}). Reads behave exactly as they do on the
+ * source set
+ *
+ * @author jim.kane
+ *
+ * @param <E>
+ *            The type of elements in this set
+ */
+final class CompactHashSet<E> extends AbstractSet<E>
+{
+	private Object elements[]; // required
+	private int index[]; // required, see CompactHashMap.createIndex
+	
+	/**
+	 * Create a compact copy of a set
+	 *
+	 * @param src
+	 *            The set to copy (must not hold null)
+	 */
+	CompactHashSet(Collection<E> src)
+	{
+		elements = src.toArray();
+		index = CompactHashMap.createIndex(elements, 1);
+	}
+	
+	@Override
+	public int size() { return elements.length; }
+	
+	@Override
+	public boolean contains(Object o) { return CompactHashMap.find(index, elements, 1, o) != -1; }
+	
+	@Override
+	public Iterator<E> iterator()
+	{
+		return new Iterator<E>()
+		{
+			private int next;
+			
+			public boolean hasNext() { return next < elements.length; }
+			
+			public E next()
+			{
+				if ( next >= elements.length ) throw new NoSuchElementException();
+				
+				return (E)elements[next++];
+			}
+		};
+	}
+}
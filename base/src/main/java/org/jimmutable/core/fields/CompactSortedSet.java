@@ -0,0 +1,68 @@
+package org.jimmutable.core.fields;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read only {@link Set}, holding a copy of a naturally ordered sorted set
+ * (e.g. a TreeSet) as a sorted array. Elements are found by binary search
+ * (using compareTo, just as a TreeSet does), and iteration is in ascending
+ * order.
+ *
+ * Used by {@link FieldTreeSet} when it is frozen compact (see
+ * {@link Field#freezeCompact()}). Reads behave exactly as they do on the
+ * source set
+ *
+ * @author jim.kane
+ *
+ * @param <E>
+ *            The type of elements in this set
+ */
+final class CompactSortedSet<E> extends AbstractSet<E>
+{
+	private Object elements[]; // required, in ascending order
+	
+	/**
+	 * Create a compact copy of a set
+	 *
+	 * @param src
+	 *            The set to copy (must iterate in ascending natural order)
+	 */
+	CompactSortedSet(Collection<E> src)
+	{
+		elements = src.toArray();
+	}
+	
+	@Override
+	public int size() { return elements.length; }
+	
+	@Override
+	public boolean contains(Object o)
+	{
+		if ( o == null ) throw new NullPointerException(); // as TreeSet
+		
+		return Arrays.binarySearch(elements, o) >= 0;
+	}
+	
+	@Override
+	public Iterator<E> iterator()
+	{
+		return new Iterator<E>()
+		{
+			private int next;
+			
+			public boolean hasNext() { return next < elements.length; }
+			
+			public E next()
+			{
+				if ( next >= elements.length ) throw new NoSuchElementException();
+				
+				return (E)elements[next++];
+			}
+		};
+	}
+}
@@ -29,6 +29,23 @@ public interface Field
 	 */
 	public void freeze();
 	
+	/**
+	 * {@link #freeze() Freeze} this object, first compacting its contents into
+	 * a read only form that uses as little memory as possible (e.g. a dense
+	 * array in place of a {@link java.util.HashMap}). Reads (including the
+	 * order of iteration) behave exactly as they do after {@link #freeze()}.
+	 * 
+	 * <p>Worthwhile for objects that are held in memory in large numbers
+	 * (catalogs, caches) once built. Fields with no compact form are simply
+	 * frozen.
+	 * 
+	 * @see StandardImmutableObject#freeze()
+	 */
+	default public void freezeCompact()
+	{
+		freeze();
+	}
+	
 	/**
      * Returns {@code true} if this object is {@link #freeze() frozen}.
      *
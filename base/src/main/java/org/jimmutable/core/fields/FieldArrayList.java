@@ -1,6 +1,7 @@
 package org.jimmutable.core.fields;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -51,4 +52,12 @@ final public class FieldArrayList<E> extends FieldList<E>
 	{
 		return new ArrayList<>();
 	}
+	
+	@Override
+	protected Collection<E> createCompactInstance(Collection<E> contents)
+	{
+		((ArrayList<E>)contents).trimToSize(); // already a dense array, minus the spare capacity
+		
+		return contents;
+	}
 }
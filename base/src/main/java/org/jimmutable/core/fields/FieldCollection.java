@@ -6,6 +6,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 
+import org.jimmutable.core.objects.StandardImmutableObject;
 
 
 /**
@@ -49,7 +50,15 @@ import java.util.LinkedList;
  */
 abstract public class FieldCollection<E> implements Field, Collection<E> 
 {
-	transient volatile private boolean is_frozen;
+	/*
+	 * Not volatile: a field is built (and frozen) by one thread, and is
+	 * published along with the object that holds it (see
+	 * StandardImmutableObject.complete), so checking it costs a plain read.
+	 */
+	transient private boolean is_frozen;
+	
+	transient private int hash_code; // cached once frozen, if every element is immutable (0 if not cached)
+	transient private boolean hash_code_not_cacheable; // true if an element is mutable (so its hash code may change)
 	
 	/*
 	 * Never access _contents_ directly.
@@ -89,6 +98,17 @@ abstract public class FieldCollection<E> implements Field, Collection<E>
 	@Override
 	public void freeze() { is_frozen = true; }
 	
+	@Override
+	public void freezeCompact()
+	{
+		if ( isFrozen() ) return;
+		
+		Collection<E> compact = createCompactInstance(contents);
+		if ( compact != null ) contents = compact;
+		
+		freeze();
+	}
+	
 	@Override
 	public boolean isFrozen()  { return is_frozen; }
 
@@ -171,15 +191,73 @@ abstract public class FieldCollection<E> implements Field, Collection<E>
 		getContents().clear();
 	}
 	
+	/**
+	 * The hash code of the contents. Once frozen, the hash code of a
+	 * collection of immutable values (see
+	 * {@link StandardImmutableObject#isImmutableValue(Object)}) is computed
+	 * only once
+	 */
 	@Override
 	public int hashCode() 
 	{
-		return getContents().hashCode();
+		int ret = hash_code;
+		if ( ret != 0 ) return ret;
+		
+		ret = getContents().hashCode();
+		
+		if ( isFrozen() && !hash_code_not_cacheable )
+		{
+			for ( E element : getContents() )
+			{
+				if ( !StandardImmutableObject.isImmutableValue(element) )
+				{
+					hash_code_not_cacheable = true;
+					return ret;
+				}
+			}
+			
+			hash_code = ret;
+		}
+		
+		return ret;
 	}
 
+	/**
+	 * Test to see if this collection and another are known to be unequal,
+	 * without looking at a single element: both are Field collections of the
+	 * same kind (both lists, or both sets) whose hash codes are cached, and
+	 * differ
+	 * 
+	 * @param obj
+	 *            The object being compared with this collection
+	 * @return true if obj is known to be unequal to this collection
+	 */
+	final boolean hasDifferentCachedHashCode(Object obj)
+	{
+		if ( !(obj instanceof FieldCollection) ) return false;
+		
+		int other_hash_code = ((FieldCollection<?>)obj).hash_code;
+		
+		return hash_code != 0 && other_hash_code != 0 && hash_code != other_hash_code;
+	}
+	
+	/**
+	 * Unwrap a Field collection, so that equality can be tested directly
+	 * against its contents
+	 * 
+	 * @param obj
+	 *            The object being compared with this collection
+	 * @return The contents of obj, if it is a FieldCollection, otherwise obj
+	 */
+	static Object unwrap(Object obj)
+	{
+		return obj instanceof FieldCollection ? ((FieldCollection<?>)obj).getContents() : obj;
+	}
+	
 	@Override
 	public boolean equals(Object obj) 
 	{
+		if ( obj == this ) return true;
 		if (!(obj instanceof Collection) ) return false;
 		
 		Collection<?> other = (Collection<?>)obj;
@@ -240,5 +318,20 @@ abstract public class FieldCollection<E> implements Field, Collection<E>
 	 * @return The new {@link Collection} instance
 	 */
 	abstract protected Collection<E> createNewMutableInstance();
+	
+	/**
+	 * Create a compact, read only copy of the contents, for
+	 * {@link #freezeCompact()}. Reads of the copy must behave exactly as
+	 * reads of contents do (including the order of iteration).
+	 * 
+	 * @param contents
+	 *            The (mutable) contents of this collection
+	 * @return The compact copy, or null if this class has no compact form
+	 *         (the default)
+	 */
+	protected Collection<E> createCompactInstance(Collection<E> contents)
+	{
+		return null;
+	}
 }
 
@@ -0,0 +1,283 @@
+package org.jimmutable.core.fields;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jimmutable.core.exceptions.ImmutableException;
+
+/**
+ * A list of double(s), held in a double[] (with no boxing), that begins life
+ * as mutable but can, at any time, be "{@link #freeze() frozen}" (made
+ * immutable). Use in place of a {@code FieldArrayList<Double>}.
+ *
+ * <p>Equal to (and with the same hash code as) any other
+ * {@code FieldDoubleArrayList} holding the same values in the same order; the hash
+ * code is that of a {@link List} of the (boxed) values. Values are compared
+ * as {@link Double#equals(Object)} compares them (NaN equals NaN).
+ *
+ * @author Jim Kane
+ *
+ * @see FieldPrimitive
+ */
+final public class FieldDoubleArrayList extends FieldPrimitive
+{
+	static private final double EMPTY[] = new double[0];
+	
+	private double values[] = EMPTY; // required, values[0..size) are the contents
+	private int size;
+	
+	/**
+	 * Default constructor (for an empty list)
+	 */
+	public FieldDoubleArrayList()
+	{
+	}
+	
+	/**
+	 * Constructs a list containing a copy of an array
+	 *
+	 * @param values
+	 *            The values to place into this list, in order
+	 */
+	public FieldDoubleArrayList(double values[])
+	{
+		this.values = values.clone();
+		this.size = values.length;
+	}
+	
+	@Override
+	public int size() { return size; }
+	
+	/**
+	 * Get the value at an index
+	 *
+	 * @param index
+	 *            The index of the value
+	 * @return The value at index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is out of range
+	 */
+	public double get(int index)
+	{
+		checkIndex(index);
+		return values[index];
+	}
+	
+	/**
+	 * Replace the value at an index
+	 *
+	 * @param index
+	 *            The index of the value to replace
+	 * @param value
+	 *            The value to store at index
+	 * @return The value previously at index
+	 * @throws ImmutableException
+	 *             if this list is frozen
+	 */
+	public double set(int index, double value)
+	{
+		assertNotFrozen();
+		checkIndex(index);
+		
+		double ret = values[index];
+		values[index] = value;
+		
+		return ret;
+	}
+	
+	/**
+	 * Add a value to the end of this list
+	 *
+	 * @param value
+	 *            The value to add
+	 * @throws ImmutableException
+	 *             if this list is frozen
+	 */
+	public void add(double value)
+	{
+		assertNotFrozen();
+		
+		if ( size == values.length ) grow(size + 1);
+		
+		values[size++] = value;
+	}
+	
+	/**
+	 * Insert a value, moving the value at index (and every value after it)
+	 * one to the right
+	 *
+	 * @param index
+	 *            The index to insert value at
+	 * @param value
+	 *            The value to insert
+	 * @throws ImmutableException
+	 *             if this list is frozen
+	 */
+	public void add(int index, double value)
+	{
+		assertNotFrozen();
+		if ( index < 0 || index > size ) throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+		
+		if ( size == values.length ) grow(size + 1);
+		
+		System.arraycopy(values, index, values, index + 1, size - index);
+		values[index] = value;
+		size++;
+	}
+	
+	/**
+	 * Add every value of an array to the end of this list
+	 *
+	 * @param values
+	 *            The values to add
+	 * @throws ImmutableException
+	 *             if this list is frozen
+	 */
+	public void addAll(double values[])
+	{
+		assertNotFrozen();
+		
+		if ( size + values.length > this.values.length ) grow(size + values.length);
+		
+		System.arraycopy(values, 0, this.values, size, values.length);
+		size += values.length;
+	}
+	
+	/**
+	 * Remove the value at an index, moving every value after it one to the
+	 * left
+	 *
+	 * @param index
+	 *            The index of the value to remove
+	 * @return The value removed
+	 * @throws ImmutableException
+	 *             if this list is frozen
+	 */
+	public double removeAt(int index)
+	{
+		assertNotFrozen();
+		checkIndex(index);
+		
+		double ret = values[index];
+		
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		
+		return ret;
+	}
+	
+	@Override
+	public void clear()
+	{
+		assertNotFrozen();
+		size = 0;
+	}
+	
+	/**
+	 * Find the first occurrence of a value
+	 *
+	 * @param value
+	 *            The value to find
+	 * @return The index of the first occurrence of value, or -1 if this list
+	 *         does not contain value
+	 */
+	public int indexOf(double value)
+	{
+		for ( int i = 0; i < size; i++ )
+		{
+			if ( Double.doubleToLongBits(values[i]) == Double.doubleToLongBits(value) ) return i;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Test to see if this list contains a value
+	 *
+	 * @param value
+	 *            The value to look for
+	 * @return {@code true} if this list contains value
+	 */
+	public boolean contains(double value) { return indexOf(value) != -1; }
+	
+	/**
+	 * Copy the contents of this list into a new array
+	 *
+	 * @return The values of this list, in order
+	 */
+	public double[] toArray()
+	{
+		return Arrays.copyOf(values, size);
+	}
+	
+	@Override
+	public FieldDoubleArrayList createMutableCopy()
+	{
+		return new FieldDoubleArrayList(toArray());
+	}
+	
+	@Override
+	void compact()
+	{
+		if ( values.length != size ) values = toArray();
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		int ret = hash_code;
+		if ( ret != 0 ) return ret;
+		
+		ret = 1;
+		
+		for ( int i = 0; i < size; i++ )
+		{
+			ret = 31 * ret + Double.hashCode(values[i]);
+		}
+		
+		return cacheHashCode(ret);
+	}
+	
+	@Override
+	public boolean equals(Object obj)
+	{
+		if ( obj == this ) return true;
+		if ( !(obj instanceof FieldDoubleArrayList) ) return false;
+		
+		FieldDoubleArrayList other = (FieldDoubleArrayList)obj;
+		
+		if ( size != other.size ) return false;
+		if ( hash_code != 0 && other.hash_code != 0 && hash_code != other.hash_code ) return false;
+		
+		for ( int i = 0; i < size; i++ )
+		{
+			if ( Double.doubleToLongBits(values[i]) != Double.doubleToLongBits(other.values[i]) ) return false;
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public String toString()
+	{
+		StringBuilder ret = new StringBuilder("[");
+		
+		for ( int i = 0; i < size; i++ )
+		{
+			if ( i != 0 ) ret.append(", ");
+			ret.append(values[i]);
+		}
+		
+		return ret.append(']').toString();
+	}
+	
+	private void grow(int minimum_capacity)
+	{
+		values = Arrays.copyOf(values, Math.max(minimum_capacity, Math.max(10, values.length + (values.length >> 1))));
+	}
+	
+	private void checkIndex(int index)
+	{
+		if ( index < 0 || index >= size ) throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+	}
+}
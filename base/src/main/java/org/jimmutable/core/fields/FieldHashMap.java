@@ -52,4 +52,10 @@ final public class FieldHashMap<K,V> extends FieldMap<K,V>
 	{
 		return new HashMap<>();
 	}
+	
+	@Override
+	protected Map<K, V> createCompactInstance(Map<K, V> contents)
+	{
+		return new CompactHashMap<>(contents);
+	}
 }
@@ -1,5 +1,6 @@
 package org.jimmutable.core.fields;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -50,4 +51,10 @@ final public class FieldHashSet<E> extends FieldSet<E>
 	{
 		return new HashSet<>();
 	}
+	
+	@Override
+	protected Collection<E> createCompactInstance(Collection<E> contents)
+	{
+		return new CompactHashSet<>(contents);
+	}
 }
@@ -94,30 +94,23 @@ abstract public class FieldList<E> extends FieldCollection<E> implements List<E>
 		return new FieldArrayList<>(getContentsAsList().subList(from_index, to_index));
 	}
 	
+	/**
+	 * Lists are equal if they hold equal elements in the same order (see
+	 * {@link List#equals(Object)}). Comparing a list with itself, with a list
+	 * of a different size, or with a Field list whose (cached) hash code
+	 * differs, returns without looking at the elements; otherwise the two
+	 * lists are walked once, side by side
+	 */
 	@Override
 	public boolean equals(Object obj) 
 	{
+		if ( obj == this ) return true;
 		if (! (obj instanceof List)) return false;
 		
-		// (Copied from AbstractList.equals)
-		// Using ListIterator behaves will for both sequential and
-		// random access lists (where other methods such as get may not)
-        ListIterator<E> my_it = listIterator();
-        ListIterator<?> other_it = ((List<?>) obj).listIterator();
-        
-		while (my_it.hasNext() && other_it.hasNext())
-		{
-			E my_elem = my_it.next();
-			Object other_elem = other_it.next();
-			
-			if (! (my_elem == null ? other_elem == null : my_elem.equals(other_elem)))
-			{
-				return false;
-			}
-		}
+		if ( size() != ((List<?>)obj).size() ) return false;
+		if ( hasDifferentCachedHashCode(obj) ) return false;
 		
-		// Check that the sizes are the same
-		return ! (my_it.hasNext() || other_it.hasNext());
+		return getContentsAsList().equals(unwrap(obj));
 	}
 
 	/**
@@ -0,0 +1,209 @@
+package org.jimmutable.core.fields;
+
+import java.util.Map;
+
+import org.jimmutable.core.exceptions.ImmutableException;
+
+/**
+ * A map of long keys to double values, held in an open addressing hash table
+ * of long[] and double[] (with no boxing), that begins life as mutable but
+ * can, at any time, be "{@link #freeze() frozen}" (made immutable). Use in
+ * place of a {@code FieldHashMap<Long,Double>}.
+ *
+ * <p>Equal to (and with the same hash code as) any other
+ * {@code FieldLongDoubleHashMap} holding the same mappings; the hash code is
+ * that of a {@link Map} of the (boxed) keys and values, and values are
+ * compared as {@link Double#equals(Object)} compares them. Iteration order is
+ * unspecified.
+ *
+ * @author Jim Kane
+ *
+ * @see FieldPrimitive
+ */
+final public class FieldLongDoubleHashMap extends FieldPrimitive
+{
+	/**
+	 * An action performed for each entry of a map, by
+	 * {@link FieldLongDoubleHashMap#forEach(EntryConsumer)}
+	 */
+	@FunctionalInterface
+	static public interface EntryConsumer
+	{
+		public void accept(long key, double value);
+	}
+	
+	private LongHashTable table = new LongHashTable(true); // required
+	
+	/**
+	 * Default constructor (for an empty map)
+	 */
+	public FieldLongDoubleHashMap()
+	{
+	}
+	
+	@Override
+	public int size() { return table.size(); }
+	
+	/**
+	 * Test to see if this map contains a key
+	 *
+	 * @param key
+	 *            The key to look for
+	 * @return {@code true} if this map contains key
+	 */
+	public boolean containsKey(long key) { return table.find(key) != -1; }
+	
+	/**
+	 * Get the value of a key
+	 *
+	 * @param key
+	 *            The key to look up
+	 * @param default_value
+	 *            The value to return if this map does not contain key
+	 * @return The value of key, or default_value if this map does not contain
+	 *         key
+	 */
+	public double get(long key, double default_value)
+	{
+		int slot = table.find(key);
+		
+		return slot == -1 ? default_value : table.valueAt(slot);
+	}
+	
+	/**
+	 * Map a key to a value, replacing any previous value of the key
+	 *
+	 * @param key
+	 *            The key
+	 * @param value
+	 *            The value
+	 * @throws ImmutableException
+	 *             if this map is frozen
+	 */
+	public void put(long key, double value)
+	{
+		assertNotFrozen();
+		table.setValueAt(table.insert(key), value);
+	}
+	
+	/**
+	 * Remove a key (and its value) from this map
+	 *
+	 * @param key
+	 *            The key to remove
+	 * @return {@code true} if this map contained key
+	 * @throws ImmutableException
+	 *             if this map is frozen
+	 */
+	public boolean remove(long key)
+	{
+		assertNotFrozen();
+		return table.remove(key);
+	}
+	
+	@Override
+	public void clear()
+	{
+		assertNotFrozen();
+		table.clear();
+	}
+	
+	/**
+	 * Perform an action for each entry in this map
+	 *
+	 * @param action
+	 *            The action to perform
+	 */
+	public void forEach(EntryConsumer action)
+	{
+		for ( int slot = table.nextSlot(0); slot != -1; slot = table.nextSlot(slot + 1) )
+		{
+			action.accept(table.keyAt(slot), table.valueAt(slot));
+		}
+	}
+	
+	/**
+	 * Copy the keys of this map into a new array
+	 *
+	 * @return The keys of this map, in iteration order
+	 */
+	public long[] keysToArray()
+	{
+		long ret[] = new long[table.size()];
+		int i = 0;
+		
+		for ( int slot = table.nextSlot(0); slot != -1; slot = table.nextSlot(slot + 1) )
+		{
+			ret[i++] = table.keyAt(slot);
+		}
+		
+		return ret;
+	}
+	
+	@Override
+	public FieldLongDoubleHashMap createMutableCopy()
+	{
+		FieldLongDoubleHashMap ret = new FieldLongDoubleHashMap();
+		ret.table = table.copy(false);
+		
+		return ret;
+	}
+	
+	@Override
+	void compact()
+	{
+		table = table.copy(true);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		int ret = hash_code;
+		if ( ret != 0 ) return ret;
+		
+		ret = 0;
+		
+		for ( int slot = table.nextSlot(0); slot != -1; slot = table.nextSlot(slot + 1) )
+		{
+			ret += Long.hashCode(table.keyAt(slot)) ^ Double.hashCode(table.valueAt(slot));
+		}
+		
+		return cacheHashCode(ret);
+	}
+	
+	@Override
+	public boolean equals(Object obj)
+	{
+		if ( obj == this ) return true;
+		if ( !(obj instanceof FieldLongDoubleHashMap) ) return false;
+		
+		FieldLongDoubleHashMap other = (FieldLongDoubleHashMap)obj;
+		
+		if ( size() != other.size() ) return false;
+		if ( hash_code != 0 && other.hash_code != 0 && hash_code != other.hash_code ) return false;
+		
+		for ( int slot = table.nextSlot(0); slot != -1; slot = table.nextSlot(slot + 1) )
+		{
+			int other_slot = other.table.find(table.keyAt(slot));
+			
+			if ( other_slot == -1 ) return false;
+			if ( Double.doubleToLongBits(table.valueAt(slot)) != Double.doubleToLongBits(other.table.valueAt(other_slot)) ) return false;
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public String toString()
+	{
+		StringBuilder ret = new StringBuilder("{");
+		
+		for ( int slot = table.nextSlot(0); slot != -1; slot = table.nextSlot(slot + 1) )
+		{
+			if ( ret.length() != 1 ) ret.append(", ");
+			ret.append(table.keyAt(slot)).append('=').append(table.valueAt(slot));
+		}
+		
+		return ret.append('}').toString();
+	}
+}
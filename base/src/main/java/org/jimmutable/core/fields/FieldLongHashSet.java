@@ -0,0 +1,195 @@
+package org.jimmutable.core.fields;
+
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+import org.jimmutable.core.exceptions.ImmutableException;
+
+/**
+ * A set of long(s), held in an open addressing hash table of long[] (with no
+ * boxing), that begins life as mutable but can, at any time, be
+ * "{@link #freeze() frozen}" (made immutable). Use in place of a
+ * {@code FieldHashSet<Long>}.
+ *
+ * <p>Equal to (and with the same hash code as) any other
+ * {@code FieldLongHashSet} holding the same values; the hash code is that of
+ * a {@link Set} of the (boxed) values. Iteration order is unspecified.
+ *
+ * @author Jim Kane
+ *
+ * @see FieldPrimitive
+ */
+final public class FieldLongHashSet extends FieldPrimitive
+{
+	private LongHashTable table = new LongHashTable(false); // required
+	
+	/**
+	 * Default constructor (for an empty set)
+	 */
+	public FieldLongHashSet()
+	{
+	}
+	
+	/**
+	 * Constructs a set containing the values of an array
+	 *
+	 * @param values
+	 *            The values to place into this set
+	 */
+	public FieldLongHashSet(long values[])
+	{
+		for ( long value : values )
+		{
+			table.insert(value);
+		}
+	}
+	
+	@Override
+	public int size() { return table.size(); }
+	
+	/**
+	 * Test to see if this set contains a value
+	 *
+	 * @param value
+	 *            The value to look for
+	 * @return {@code true} if this set contains value
+	 */
+	public boolean contains(long value) { return table.find(value) != -1; }
+	
+	/**
+	 * Add a value to this set
+	 *
+	 * @param value
+	 *            The value to add
+	 * @return {@code true} if this set did not already contain value
+	 * @throws ImmutableException
+	 *             if this set is frozen
+	 */
+	public boolean add(long value)
+	{
+		assertNotFrozen();
+		
+		int size = table.size();
+		table.insert(value);
+		
+		return table.size() != size;
+	}
+	
+	/**
+	 * Remove a value from this set
+	 *
+	 * @param value
+	 *            The value to remove
+	 * @return {@code true} if this set contained value
+	 * @throws ImmutableException
+	 *             if this set is frozen
+	 */
+	public boolean remove(long value)
+	{
+		assertNotFrozen();
+		return table.remove(value);
+	}
+	
+	@Override
+	public void clear()
+	{
+		assertNotFrozen();
+		table.clear();
+	}
+	
+	/**
+	 * Perform an action for each value in this set
+	 *
+	 * @param action
+	 *            The action to perform
+	 */
+	public void forEach(LongConsumer action)
+	{
+		for ( int slot = table.nextSlot(0); slot != -1; slot = table.nextSlot(slot + 1) )
+		{
+			action.accept(table.keyAt(slot));
+		}
+	}
+	
+	/**
+	 * Copy the contents of this set into a new array
+	 *
+	 * @return The values of this set, in iteration order
+	 */
+	public long[] toArray()
+	{
+		long ret[] = new long[table.size()];
+		int i = 0;
+		
+		for ( int slot = table.nextSlot(0); slot != -1; slot = table.nextSlot(slot + 1) )
+		{
+			ret[i++] = table.keyAt(slot);
+		}
+		
+		return ret;
+	}
+	
+	@Override
+	public FieldLongHashSet createMutableCopy()
+	{
+		FieldLongHashSet ret = new FieldLongHashSet();
+		ret.table = table.copy(false);
+		
+		return ret;
+	}
+	
+	@Override
+	void compact()
+	{
+		table = table.copy(true);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		int ret = hash_code;
+		if ( ret != 0 ) return ret;
+		
+		ret = 0;
+		
+		for ( int slot = table.nextSlot(0); slot != -1; slot = table.nextSlot(slot + 1) )
+		{
+			ret += Long.hashCode(table.keyAt(slot));
+		}
+		
+		return cacheHashCode(ret);
+	}
+	
+	@Override
+	public boolean equals(Object obj)
+	{
+		if ( obj == this ) return true;
+		if ( !(obj instanceof FieldLongHashSet) ) return false;
+		
+		FieldLongHashSet other = (FieldLongHashSet)obj;
+		
+		if ( size() != other.size() ) return false;
+		if ( hash_code != 0 && other.hash_code != 0 && hash_code != other.hash_code ) return false;
+		
+		for ( int slot = table.nextSlot(0); slot != -1; slot = table.nextSlot(slot + 1) )
+		{
+			if ( !other.contains(table.keyAt(slot)) ) return false;
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public String toString()
+	{
+		StringBuilder ret = new StringBuilder("[");
+		
+		for ( int slot = table.nextSlot(0); slot != -1; slot = table.nextSlot(slot + 1) )
+		{
+			if ( ret.length() != 1 ) ret.append(", ");
+			ret.append(table.keyAt(slot));
+		}
+		
+		return ret.append(']').toString();
+	}
+}
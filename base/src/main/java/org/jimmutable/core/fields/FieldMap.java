@@ -6,6 +6,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
+import org.jimmutable.core.objects.StandardImmutableObject;
+
 
 /**
  * An implementation of a {@link Collection} that begins life as mutable but
@@ -33,7 +35,15 @@ import java.util.TreeMap;
  */
 abstract public class FieldMap<K,V> implements Map<K,V>, Field
 {
-	transient volatile private boolean is_frozen;
+	/*
+	 * Not volatile: a field is built (and frozen) by one thread, and is
+	 * published along with the object that holds it (see
+	 * StandardImmutableObject.complete), so checking it costs a plain read.
+	 */
+	transient private boolean is_frozen;
+	
+	transient private int hash_code; // cached once frozen, if every key and value is immutable (0 if not cached)
+	transient private boolean hash_code_not_cacheable; // true if a key or value is mutable (so its hash code may change)
 	
 	/*
 	 * Never access _contents_ directly.
@@ -95,6 +105,32 @@ abstract public class FieldMap<K,V> implements Map<K,V>, Field
 	@Override
 	public void freeze() { is_frozen = true; }
 	
+	@Override
+	public void freezeCompact()
+	{
+		if ( isFrozen() ) return;
+		
+		Map<K,V> compact = createCompactInstance(contents);
+		if ( compact != null ) contents = compact;
+		
+		freeze();
+	}
+	
+	/**
+	 * Create a compact, read only copy of the contents, for
+	 * {@link #freezeCompact()}. Reads of the copy must behave exactly as
+	 * reads of contents do (including the order of iteration).
+	 * 
+	 * @param contents
+	 *            The (mutable) contents of this map
+	 * @return The compact copy, or null if this class has no compact form
+	 *         (the default)
+	 */
+	protected Map<K,V> createCompactInstance(Map<K,V> contents)
+	{
+		return null;
+	}
+	
 	@Override
 	public boolean isFrozen()  { return is_frozen; }
 	
@@ -168,13 +204,55 @@ abstract public class FieldMap<K,V> implements Map<K,V>, Field
 	@Override
 	public boolean equals(Object obj) 
 	{
+		if ( obj == this ) return true;
 		if ( !(obj instanceof Map) ) return false;
 		
 		Map<?, ?> other = (Map<?, ?>)obj;
 		
 		if ( size() != other.size() ) return false;
 		
-		return entrySet().equals(other.entrySet());
+		if ( other instanceof FieldMap )
+		{
+			FieldMap<?, ?> other_field = (FieldMap<?, ?>)other;
+			
+			// Known to be unequal, without looking at a single entry
+			if ( hash_code != 0 && other_field.hash_code != 0 && hash_code != other_field.hash_code ) return false;
+			
+			other = other_field.getContents();
+		}
+		
+		return getContents().equals(other);
+	}
+	
+	/**
+	 * The hash code of the contents (as specified by {@link Map#hashCode()}).
+	 * Once frozen, the hash code of a map of immutable keys and values (see
+	 * {@link StandardImmutableObject#isImmutableValue(Object)}) is computed
+	 * only once
+	 */
+	@Override
+	public int hashCode()
+	{
+		int ret = hash_code;
+		if ( ret != 0 ) return ret;
+		
+		ret = getContents().hashCode();
+		
+		if ( isFrozen() && !hash_code_not_cacheable )
+		{
+			for ( Map.Entry<K,V> entry : getContents().entrySet() )
+			{
+				if ( !StandardImmutableObject.isImmutableValue(entry.getKey()) || !StandardImmutableObject.isImmutableValue(entry.getValue()) )
+				{
+					hash_code_not_cacheable = true;
+					return ret;
+				}
+			}
+			
+			hash_code = ret;
+		}
+		
+		return ret;
 	}
 	
 	@Override
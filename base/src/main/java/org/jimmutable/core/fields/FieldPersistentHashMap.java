@@ -0,0 +1,70 @@
+package org.jimmutable.core.fields;
+
+import java.util.Map;
+
+/**
+ * An implementation of a {@link Map} that begins life as mutable but can,
+ * at any time, be "{@link #freeze() frozen}" (made immutable), and whose
+ * contents are held in a persistent hash array mapped trie.
+ * 
+ * <p>A copy of a {@code FieldPersistentHashMap} (see
+ * {@link #createMutableCopy()}) shares the whole trie with the original, so a
+ * builder that puts (or removes) a few entries of a large deck copies only the
+ * paths to those entries (O(log n)).
+ * 
+ * <p><b>Note:</b> {@code FieldPersistentHashMap} is not thread safe. This is
+ * generally not a concern once "{@link #freeze() frozen}".
+ * 
+ * @author Jim Kane
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * 
+ * @see FieldMap
+ * @see PersistentField
+ */
+final public class FieldPersistentHashMap<K,V> extends FieldMap<K,V> implements PersistentField
+{
+	/**
+	 * Default constructor (for an empty map)
+	 */
+	public FieldPersistentHashMap()
+	{
+		super();
+	}
+	
+	/**
+     * Constructs a collection containing the elements of the specified {@link Map},
+     * in the order they are returned by the {@link Iterable#iterator() iterator}.
+     *
+     * @param objs The {@code Map} whose elements are to be placed into this map
+     * 
+     * @throws NullPointerException if the specified {@code Map} is {@code null}
+	 */
+	public FieldPersistentHashMap(Map<K,V> initial_values)
+	{
+		super(initial_values);
+	}
+	
+	@Override
+	public FieldPersistentHashMap<K,V> createMutableCopy()
+	{
+		FieldPersistentHashMap<K,V> ret = new FieldPersistentHashMap<>();
+		
+		((PersistentHashMap<K,V>)ret.getContents()).shareContentsOf((PersistentHashMap<K,V>)getContents(), !isFrozen());
+		
+		return ret;
+	}
+	
+	@Override
+	public boolean containsOnlyImmutableValues()
+	{
+		return ((PersistentHashMap<K,V>)getContents()).containsOnlyImmutableValues();
+	}
+	
+	@Override
+	protected Map<K, V> createNewMutableInstance() 
+	{
+		return new PersistentHashMap<>();
+	}
+}
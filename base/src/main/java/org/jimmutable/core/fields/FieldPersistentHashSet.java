@@ -0,0 +1,68 @@
+package org.jimmutable.core.fields;
+
+import java.util.Set;
+
+/**
+ * An implementation of a {@link Set} that begins life as mutable but can,
+ * at any time, be "{@link #freeze() frozen}" (made immutable), and whose
+ * contents are held in a persistent hash array mapped trie.
+ * 
+ * <p>A copy of a {@code FieldPersistentHashSet} (see
+ * {@link #createMutableCopy()}) shares the whole trie with the original, so a
+ * builder that adds or removes a few elements of a large deck copies only the
+ * paths to those elements (O(log n)).
+ * 
+ * <p><b>Note:</b> {@code FieldPersistentHashSet} is not thread safe. This is
+ * generally not a concern once "{@link #freeze() frozen}".
+ * 
+ * @author Jim Kane
+ *
+ * @param <E> The type of elements in this set
+ * 
+ * @see FieldSet
+ * @see PersistentField
+ */
+final public class FieldPersistentHashSet<E> extends FieldSet<E> implements PersistentField
+{
+	/**
+	 * Default constructor (for an empty set)
+	 */
+	public FieldPersistentHashSet()
+	{
+		super();
+	}
+	
+	/**
+     * Constructs a set containing the elements of the specified {@link Iterable}
+     *
+     * @param objs The {code Iterable} whose elements are to be placed into this set
+     * 
+     * @throws NullPointerException if the specified {@code Iterable} is {@code null}
+	 */
+	public FieldPersistentHashSet(Iterable<E> objs)
+	{
+		super(objs);
+	}
+	
+	@Override
+	public FieldPersistentHashSet<E> createMutableCopy()
+	{
+		FieldPersistentHashSet<E> ret = new FieldPersistentHashSet<>();
+		
+		((PersistentHashSet<E>)ret.getContents()).shareContentsOf((PersistentHashSet<E>)getContents(), !isFrozen());
+		
+		return ret;
+	}
+	
+	@Override
+	public boolean containsOnlyImmutableValues()
+	{
+		return ((PersistentHashSet<E>)getContents()).containsOnlyImmutableValues();
+	}
+	
+	@Override
+	protected Set<E> createNewMutableInstance()
+	{
+		return new PersistentHashSet<>();
+	}
+}
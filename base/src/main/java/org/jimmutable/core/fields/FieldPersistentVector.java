@@ -0,0 +1,71 @@
+package org.jimmutable.core.fields;
+
+import java.util.List;
+
+/**
+ * An implementation of a {@link List} that begins life as mutable but can,
+ * at any time, be "{@link #freeze() frozen}" (made immutable), and whose
+ * contents are held in a persistent vector (a trie of 32 element arrays).
+ * 
+ * <p>{@link #get(int) get}, {@link #set(int, Object) set} and appending are
+ * O(log<sub>32</sub> n), and a copy of a {@code FieldPersistentVector} (see
+ * {@link #createMutableCopy()}) shares the whole trie with the original, so a
+ * builder that changes a few elements of a large deck copies only the paths
+ * to those elements. Inserting into (or removing from) the middle of the list
+ * is O(n), as it is for an {@link java.util.ArrayList}.
+ * 
+ * <p><b>Note:</b> {@code FieldPersistentVector} is not thread safe. This is
+ * generally not a concern once "{@link #freeze() frozen}".
+ * 
+ * @author Jim Kane
+ *
+ * @param <E> The type of elements in this list
+ * 
+ * @see FieldList
+ * @see PersistentField
+ */
+final public class FieldPersistentVector<E> extends FieldList<E> implements PersistentField
+{
+	/**
+	 * Default constructor (for an empty list)
+	 */
+	public FieldPersistentVector()
+	{
+		super();
+	}
+	
+	/**
+     * Constructs a list containing the elements of the specified {@link Iterable},
+     * in the order they are returned by the {@link Iterable#iterator() iterator}.
+     *
+     * @param objs The {code Iterable} whose elements are to be placed into this list
+     * 
+     * @throws NullPointerException if the specified {@code Iterable} is {@code null}
+	 */
+	public FieldPersistentVector(Iterable<E> objs)
+	{
+		super(objs);
+	}
+	
+	@Override
+	public FieldPersistentVector<E> createMutableCopy()
+	{
+		FieldPersistentVector<E> ret = new FieldPersistentVector<>();
+		
+		((PersistentVector<E>)ret.getContents()).shareContentsOf((PersistentVector<E>)getContents(), !isFrozen());
+		
+		return ret;
+	}
+	
+	@Override
+	public boolean containsOnlyImmutableValues()
+	{
+		return ((PersistentVector<E>)getContents()).containsOnlyImmutableValues();
+	}
+	
+	@Override
+	protected List<E> createNewMutableInstance() 
+	{
+		return new PersistentVector<>();
+	}
+}
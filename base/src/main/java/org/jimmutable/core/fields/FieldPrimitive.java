@@ -0,0 +1,107 @@
+package org.jimmutable.core.fields;
+
+import org.jimmutable.core.exceptions.ImmutableException;
+
+/**
+ * A {@link Field} that holds primitive values (int(s), long(s), double(s)) in
+ * primitive arrays, in place of a collection of boxed values. A
+ * {@code FieldIntArrayList} holds a million values in a single int[], where a
+ * {@code FieldArrayList<Integer>} holds a million Integer objects (plus the
+ * array that points to them).
+ *
+ * <p>Just like a {@link FieldCollection}, a primitive field begins life as
+ * mutable but can, at any time, be "{@link #freeze() frozen}" (made
+ * immutable), after which every method that would change its contents throws
+ * an {@link ImmutableException}. Primitive values are themselves immutable, so
+ * a frozen primitive field may be shared by an object and all of its copies.
+ *
+ * <p>ObjectWriter and ObjectParseTree write and read primitive fields without
+ * boxing, in the same form as a collection (or map) written with
+ * WriteAs.NUMBER.
+ *
+ * @author Jim Kane
+ *
+ * @see FieldIntArrayList
+ * @see FieldLongArrayList
+ * @see FieldDoubleArrayList
+ * @see FieldLongHashSet
+ * @see FieldLongDoubleHashMap
+ */
+abstract public class FieldPrimitive implements Field
+{
+	/*
+	 * Not volatile, for the same reasons as FieldCollection.is_frozen
+	 */
+	transient private boolean is_frozen;
+	
+	transient int hash_code; // cached once frozen (0 if not cached), see cacheHashCode
+	
+	@Override
+	public void freeze() { is_frozen = true; }
+	
+	/**
+	 * {@link #freeze() Freeze} this field, first trimming its arrays to the
+	 * size of its contents
+	 */
+	@Override
+	public void freezeCompact()
+	{
+		if ( isFrozen() ) return;
+		
+		compact();
+		freeze();
+	}
+	
+	@Override
+	public boolean isFrozen() { return is_frozen; }
+	
+	/**
+	 * The number of values (or, in a map, keys) held by this field
+	 *
+	 * @return The number of values held by this field
+	 */
+	abstract public int size();
+	
+	/**
+	 * Test to see if this field holds no values
+	 *
+	 * @return {@code true} if this field holds no values
+	 */
+	public boolean isEmpty() { return size() == 0; }
+	
+	/**
+	 * Remove every value from this field
+	 *
+	 * @throws ImmutableException
+	 *             if this field is frozen
+	 */
+	abstract public void clear();
+	
+	/**
+	 * Create a new, mutable ({@link #isFrozen() unfrozen}) field of the same
+	 * class, holding a copy of the contents of this field
+	 *
+	 * @return The copy
+	 */
+	abstract public FieldPrimitive createMutableCopy();
+	
+	/**
+	 * Shrink the arrays that hold the contents of this field as far as
+	 * possible (called by {@link #freezeCompact()})
+	 */
+	abstract void compact();
+	
+	/**
+	 * Cache the hash code of this field, once it is frozen
+	 *
+	 * @param hash_code
+	 *            The hash code of the contents of this field
+	 * @return hash_code
+	 */
+	final int cacheHashCode(int hash_code)
+	{
+		if ( isFrozen() ) this.hash_code = hash_code;
+		
+		return hash_code;
+	}
+}
@@ -36,4 +36,23 @@ abstract public class FieldSet<E> extends FieldCollection<E> implements Set<E>
 	{
 		super(objs);
 	}
+	
+	/**
+	 * Sets are equal if they hold equal elements (see
+	 * {@link Set#equals(Object)}). Comparing a set with itself, with a set of a
+	 * different size, or with a Field set whose (cached) hash code differs,
+	 * returns without looking at the elements; otherwise each element of the
+	 * other set is looked up (by hash, or by comparison) in this one
+	 */
+	@Override
+	public boolean equals(Object obj)
+	{
+		if ( obj == this ) return true;
+		if ( !(obj instanceof Set) ) return false;
+		
+		if ( size() != ((Set<?>)obj).size() ) return false;
+		if ( hasDifferentCachedHashCode(obj) ) return false;
+		
+		return getContents().equals(unwrap(obj));
+	}
 }
@@ -1,5 +1,6 @@
 package org.jimmutable.core.fields;
 
+import java.util.Collection;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -51,4 +52,10 @@ final public class FieldTreeSet<E> extends FieldSet<E>
 	{
 		return new TreeSet<>();
 	}
+	
+	@Override
+	protected Collection<E> createCompactInstance(Collection<E> contents)
+	{
+		return new CompactSortedSet<>(contents);
+	}
 }
@@ -0,0 +1,208 @@
+package org.jimmutable.core.fields;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing (linear probing) hash table of long keys, each
+ * optionally mapped to a double value, held in primitive arrays. Removal
+ * shifts later entries back into the hole (so there are no tombstones).
+ *
+ * The contents of {@link FieldLongHashSet} (with no values) and
+ * {@link FieldLongDoubleHashMap}. Iterate through the slots with
+ * {@link #nextSlot(int)}:
+ *
+ * <pre>
+ * for ( int slot = table.nextSlot(0); slot != -1; slot = table.nextSlot(slot + 1) )
+ * {
+ * 	long key = table.keyAt(slot);
+ * }
+ * </pre>
+ *
+ * @author jim.kane
+ */
+final class LongHashTable
+{
+	static private final int MINIMUM_CAPACITY = 8;
+	
+	private long keys[]; // required, a power of two in length
+	private double values[]; // optional (null in a set), the same length as keys
+	private boolean used[]; // required, true for each slot that holds a key
+	private int size;
+	
+	/**
+	 * Create an empty table
+	 *
+	 * @param with_values
+	 *            true if each key is mapped to a value
+	 */
+	LongHashTable(boolean with_values)
+	{
+		this(with_values, MINIMUM_CAPACITY);
+	}
+	
+	private LongHashTable(boolean with_values, int capacity)
+	{
+		keys = new long[capacity];
+		values = with_values ? new double[capacity] : null;
+		used = new boolean[capacity];
+	}
+	
+	int size() { return size; }
+	
+	long keyAt(int slot) { return keys[slot]; }
+	double valueAt(int slot) { return values[slot]; }
+	
+	void setValueAt(int slot, double value) { values[slot] = value; }
+	
+	/**
+	 * Find the slot of a key
+	 *
+	 * @return The slot holding key, or -1 if the table does not hold key
+	 */
+	int find(long key)
+	{
+		int mask = keys.length - 1;
+		
+		for ( int slot = slotFor(key, mask); used[slot]; slot = (slot + 1) & mask )
+		{
+			if ( keys[slot] == key ) return slot;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Find the slot of a key, adding the key (with a value of 0) if the table
+	 * does not hold it
+	 *
+	 * @return The slot holding key
+	 */
+	int insert(long key)
+	{
+		if ( (size + 1) * 2 > keys.length ) rehash(keys.length * 2);
+		
+		int mask = keys.length - 1;
+		int slot = slotFor(key, mask);
+		
+		for ( ; used[slot]; slot = (slot + 1) & mask )
+		{
+			if ( keys[slot] == key ) return slot;
+		}
+		
+		keys[slot] = key;
+		if ( values != null ) values[slot] = 0;
+		used[slot] = true;
+		size++;
+		
+		return slot;
+	}
+	
+	/**
+	 * Remove a key (and its value)
+	 *
+	 * @return true if the table held key
+	 */
+	boolean remove(long key)
+	{
+		int hole = find(key);
+		if ( hole == -1 ) return false;
+		
+		int mask = keys.length - 1;
+		
+		// Move back each following entry that may fill the hole (without being moved before its home slot)
+		for ( int slot = (hole + 1) & mask; used[slot]; slot = (slot + 1) & mask )
+		{
+			int home = slotFor(keys[slot], mask);
+			
+			if ( ((slot - home) & mask) >= ((slot - hole) & mask) )
+			{
+				keys[hole] = keys[slot];
+				if ( values != null ) values[hole] = values[slot];
+				hole = slot;
+			}
+		}
+		
+		used[hole] = false;
+		size--;
+		
+		return true;
+	}
+	
+	void clear()
+	{
+		Arrays.fill(used, false);
+		size = 0;
+	}
+	
+	/**
+	 * Get the first slot, at or after slot, that holds a key
+	 *
+	 * @return The slot, or -1 if there are no more keys
+	 */
+	int nextSlot(int slot)
+	{
+		for ( ; slot < used.length; slot++ )
+		{
+			if ( used[slot] ) return slot;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Create a copy of this table, sized to its contents (at most three
+	 * quarters full when compact, otherwise at most half full)
+	 */
+	LongHashTable copy(boolean compact)
+	{
+		int capacity = compact ? Integer.highestOneBit(size + size / 3) << 1 : keys.length;
+		
+		LongHashTable ret = new LongHashTable(values != null, Math.max(capacity, MINIMUM_CAPACITY));
+		ret.putAll(this);
+		
+		return ret;
+	}
+	
+	private void rehash(int capacity)
+	{
+		LongHashTable old = new LongHashTable(values != null, 0);
+		
+		old.keys = keys;
+		old.values = values;
+		old.used = used;
+		
+		keys = new long[capacity];
+		values = values == null ? null : new double[capacity];
+		used = new boolean[capacity];
+		size = 0;
+		
+		putAll(old);
+	}
+	
+	private void putAll(LongHashTable src)
+	{
+		int mask = keys.length - 1;
+		
+		for ( int i = src.nextSlot(0); i != -1; i = src.nextSlot(i + 1) )
+		{
+			int slot = slotFor(src.keys[i], mask);
+			
+			while ( used[slot] )
+			{
+				slot = (slot + 1) & mask;
+			}
+			
+			keys[slot] = src.keys[i];
+			if ( values != null ) values[slot] = src.values[i];
+			used[slot] = true;
+			size++;
+		}
+	}
+	
+	static private int slotFor(long key, int mask)
+	{
+		long h = key * 0x9E3779B97F4A7C15L; // spread sequential keys across the table
+		
+		return (int)(h ^ (h >>> 32)) & mask;
+	}
+}
@@ -0,0 +1,41 @@
+package org.jimmutable.core.fields;
+
+import org.jimmutable.core.objects.StandardImmutableObject;
+
+/**
+ * A {@link Field} whose contents are held in a persistent (structurally
+ * shared) data structure, and so can be copied in constant time.
+ *
+ * <p>Builders derived from a frozen deck copy the deck's fields. A
+ * {@code PersistentField} (holding only immutable values) is copied by
+ * sharing its contents with the copy: neither field changes the other, and
+ * changing one element of the copy copies only the path to that element
+ * (O(log n)) rather than the whole field.
+ *
+ * @author Jim Kane
+ *
+ * @see FieldPersistentVector
+ * @see FieldPersistentHashSet
+ * @see FieldPersistentHashMap
+ */
+public interface PersistentField extends Field
+{
+	/**
+	 * Create a new, mutable ({@link #isFrozen() unfrozen}) field of the same
+	 * class, holding the same contents as this one, in constant time. The
+	 * elements themselves are not copied
+	 *
+	 * @return The copy
+	 */
+	public PersistentField createMutableCopy();
+	
+	/**
+	 * Test to see if every element (key and value) ever added to this field
+	 * was immutable when it was added (see
+	 * {@link StandardImmutableObject#isImmutableValue(Object)}). A deep copy of
+	 * such a field need not copy its elements
+	 *
+	 * @return {@code true} if this field holds only immutable values
+	 */
+	public boolean containsOnlyImmutableValues();
+}
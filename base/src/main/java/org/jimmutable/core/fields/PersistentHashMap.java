@@ -0,0 +1,640 @@
+package org.jimmutable.core.fields;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.jimmutable.core.objects.StandardImmutableObject;
+
+/**
+ * A hash array mapped trie (HAMT) that implements {@link Map}, and whose
+ * contents can be shared, in constant time, with another PersistentHashMap
+ * (see {@link #shareContentsOf(PersistentHashMap, boolean)}).
+ *
+ * The trie is made of nodes of up to 32 slots (one slot per five bits of hash
+ * code). Each node is owned by the map that created it (its edit token), and
+ * an owner modifies its nodes in place. Sharing the contents of a map takes
+ * ownership of every node away from both maps, after which each map copies
+ * only the path to the slot it modifies (O(log n)), leaving the other map's
+ * view untouched.
+ *
+ * Iterating over the map has no side effects (so a frozen map may be read by
+ * any number of threads at once). Just as with a HashMap, iterators are fail
+ * fast: adding or removing a key while an iterator is in use (other than
+ * through Iterator.remove) causes the iterator to throw a
+ * ConcurrentModificationException. Iterator.remove takes ownership of the
+ * nodes away from the map first, so that the nodes being iterated over never
+ * change. The entries returned by the iterator support setValue.
+ *
+ * Null keys are not allowed. PersistentHashMap is not thread safe; it is the
+ * contents of a {@link FieldPersistentHashMap} (and, through
+ * {@link PersistentHashSet}, of a {@link FieldPersistentHashSet})
+ *
+ * @author jim.kane
+ *
+ * @param <K>
+ *            the type of keys maintained by this map
+ * @param <V>
+ *            the type of mapped values
+ */
+final class PersistentHashMap<K,V> extends AbstractMap<K,V>
+{
+	static private final int BITS = 5;
+	static private final int MASK = (1 << BITS) - 1;
+	
+	static private final Object NOT_FOUND = new Object();
+	
+	private Node root; // null when the map is empty
+	private int size;
+	
+	private Object edit = new Object(); // required, the token marking the nodes this map owns
+	private int mod_count; // the number of times a key has been added or removed, see EntryIterator
+	
+	private boolean contains_only_immutable_values = true; // true if every key and value put was immutable (see StandardImmutableObject.isImmutableValue)
+	
+	/**
+	 * Replace the contents of this map with the contents of another map, in
+	 * constant time. From here on, the two maps share (and copy on write)
+	 * every node of the trie
+	 *
+	 * @param other
+	 *            The map to share the contents of
+	 * @param other_may_change
+	 *            false if other will never be changed again (it is frozen),
+	 *            in which case other is left untouched (and keeps ownership
+	 *            of its nodes)
+	 */
+	void shareContentsOf(PersistentHashMap<K,V> other, boolean other_may_change)
+	{
+		root = other.root;
+		size = other.size;
+		contains_only_immutable_values = other.contains_only_immutable_values;
+		
+		edit = new Object();
+		mod_count++;
+		
+		if ( other_may_change ) other.edit = new Object();
+	}
+	
+	/**
+	 * Test to see if every key and value ever put into this map (since it was
+	 * last cleared) was immutable when it was put
+	 */
+	boolean containsOnlyImmutableValues()
+	{
+		return contains_only_immutable_values;
+	}
+	
+	@Override
+	public int size() { return size; }
+	
+	@Override
+	public boolean containsKey(Object key)
+	{
+		if ( key == null || root == null ) return false;
+		
+		return root.find(0, hash(key), key) != NOT_FOUND;
+	}
+	
+	@Override
+	public V get(Object key)
+	{
+		if ( key == null || root == null ) return null;
+		
+		Object ret = root.find(0, hash(key), key);
+		
+		return ret == NOT_FOUND ? null : (V)ret;
+	}
+	
+	@Override
+	public V put(K key, V value)
+	{
+		if ( key == null ) throw new NullPointerException();
+		
+		if ( !StandardImmutableObject.isImmutableValue(key) || !StandardImmutableObject.isImmutableValue(value) )
+			contains_only_immutable_values = false;
+		
+		Change change = new Change();
+		
+		if ( root == null ) root = new BitmapNode(edit, 0, new Object[0]);
+		
+		root = root.put(edit, 0, hash(key), key, value, change);
+		
+		if ( change.size_changed )
+		{
+			size++;
+			mod_count++;
+		}
+		
+		return (V)change.old_value;
+	}
+	
+	@Override
+	public V remove(Object key)
+	{
+		if ( key == null || root == null ) return null;
+		
+		Change change = new Change();
+		
+		root = root.remove(edit, 0, hash(key), key, change);
+		
+		if ( change.size_changed )
+		{
+			size--;
+			mod_count++;
+		}
+		
+		return (V)change.old_value;
+	}
+	
+	@Override
+	public void clear()
+	{
+		root = null;
+		size = 0;
+		contains_only_immutable_values = true;
+		mod_count++;
+	}
+	
+	@Override
+	public Set<Map.Entry<K,V>> entrySet()
+	{
+		return new EntrySet();
+	}
+	
+	/**
+	 * Iterate over the keys of this map (without creating an entry per key)
+	 */
+	Iterator<K> keyIterator()
+	{
+		return new TrieIterator<K>()
+		{
+			protected K create(Object key, Object value) { return (K)key; }
+		};
+	}
+	
+	static private int hash(Object key)
+	{
+		int h = key.hashCode();
+		
+		return h ^ (h >>> 16);
+	}
+	
+	/**
+	 * The outcome of a put or remove
+	 */
+	static private class Change
+	{
+		private Object old_value;
+		private boolean size_changed;
+	}
+	
+	/**
+	 * A node of the trie. Both kinds of node hold their contents in a single
+	 * array of (key, value) pairs. In a BitmapNode, a pair with a null key
+	 * holds a child node (as its value)
+	 */
+	static private abstract class Node
+	{
+		protected Object edit; // required, the token of the map that owns this node
+		protected Object array[]; // required
+		
+		protected Node(Object edit, Object array[])
+		{
+			this.edit = edit;
+			this.array = array;
+		}
+		
+		abstract protected Object find(int shift, int hash, Object key);
+		abstract protected Node put(Object edit, int shift, int hash, Object key, Object value, Change change);
+		abstract protected Node remove(Object edit, int shift, int hash, Object key, Change change); // null if the node is left empty
+	}
+	
+	static private final class BitmapNode extends Node
+	{
+		private int bitmap;
+		
+		private BitmapNode(Object edit, int bitmap, Object array[])
+		{
+			super(edit, array);
+			this.bitmap = bitmap;
+		}
+		
+		protected Object find(int shift, int hash, Object key)
+		{
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ( (bitmap & bit) == 0 ) return NOT_FOUND;
+			
+			int index = 2 * Integer.bitCount(bitmap & (bit - 1));
+			
+			Object k = array[index];
+			Object v = array[index + 1];
+			
+			if ( k == null ) return ((Node)v).find(shift + BITS, hash, key);
+			
+			return key == k || key.equals(k) ? v : NOT_FOUND;
+		}
+		
+		protected Node put(Object edit, int shift, int hash, Object key, Object value, Change change)
+		{
+			int bit = 1 << ((hash >>> shift) & MASK);
+			int index = 2 * Integer.bitCount(bitmap & (bit - 1));
+			
+			if ( (bitmap & bit) == 0 )
+			{
+				change.size_changed = true;
+				
+				Object new_array[] = new Object[array.length + 2];
+				
+				System.arraycopy(array, 0, new_array, 0, index);
+				new_array[index] = key;
+				new_array[index + 1] = value;
+				System.arraycopy(array, index, new_array, index + 2, array.length - index);
+				
+				return withArray(edit, bitmap | bit, new_array);
+			}
+			
+			Object k = array[index];
+			Object v = array[index + 1];
+			
+			if ( k == null )
+			{
+				Node child = (Node)v;
+				Node new_child = child.put(edit, shift + BITS, hash, key, value, change);
+				
+				if ( new_child == child ) return this;
+				
+				return withSlot(edit, index + 1, new_child);
+			}
+			
+			if ( key == k || key.equals(k) )
+			{
+				change.old_value = v;
+				
+				if ( value == v ) return this;
+				
+				return withSlot(edit, index + 1, value);
+			}
+			
+			change.size_changed = true;
+			
+			Node child = createNode(edit, shift + BITS, hash(k), k, v, hash, key, value);
+			
+			BitmapNode ret = (BitmapNode)withSlot(edit, index, null);
+			ret.array[index + 1] = child;
+			
+			return ret;
+		}
+		
+		protected Node remove(Object edit, int shift, int hash, Object key, Change change)
+		{
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ( (bitmap & bit) == 0 ) return this;
+			
+			int index = 2 * Integer.bitCount(bitmap & (bit - 1));
+			
+			Object k = array[index];
+			Object v = array[index + 1];
+			
+			if ( k == null )
+			{
+				Node child = (Node)v;
+				Node new_child = child.remove(edit, shift + BITS, hash, key, change);
+				
+				if ( new_child == child ) return this;
+				
+				if ( new_child != null )
+				{
+					// A child left holding a single key/value pair is pulled up into this node
+					if ( new_child instanceof BitmapNode && new_child.array.length == 2 && new_child.array[0] != null )
+					{
+						BitmapNode ret = (BitmapNode)withSlot(edit, index, new_child.array[0]);
+						ret.array[index + 1] = new_child.array[1];
+						
+						return ret;
+					}
+					
+					return withSlot(edit, index + 1, new_child);
+				}
+			}
+			else
+			{
+				if ( key != k && !key.equals(k) ) return this;
+				
+				change.old_value = v;
+			}
+			
+			change.size_changed = true;
+			
+			if ( bitmap == bit ) return null;
+			
+			Object new_array[] = new Object[array.length - 2];
+			
+			System.arraycopy(array, 0, new_array, 0, index);
+			System.arraycopy(array, index + 2, new_array, index, array.length - index - 2);
+			
+			return withArray(edit, bitmap ^ bit, new_array);
+		}
+		
+		private Node withArray(Object edit, int new_bitmap, Object new_array[])
+		{
+			if ( this.edit != edit ) return new BitmapNode(edit, new_bitmap, new_array);
+			
+			bitmap = new_bitmap;
+			array = new_array;
+			
+			return this;
+		}
+		
+		private Node withSlot(Object edit, int index, Object value)
+		{
+			BitmapNode ret = this.edit == edit ? this : new BitmapNode(edit, bitmap, array.clone());
+			
+			ret.array[index] = value;
+			
+			return ret;
+		}
+	}
+	
+	/**
+	 * Holds the pairs whose keys have the same (full) hash code
+	 */
+	static private final class CollisionNode extends Node
+	{
+		private int hash;
+		
+		private CollisionNode(Object edit, int hash, Object array[])
+		{
+			super(edit, array);
+			this.hash = hash;
+		}
+		
+		protected Object find(int shift, int hash, Object key)
+		{
+			if ( hash != this.hash ) return NOT_FOUND;
+			
+			int index = indexOf(key);
+			
+			return index == -1 ? NOT_FOUND : array[index + 1];
+		}
+		
+		protected Node put(Object edit, int shift, int hash, Object key, Object value, Change change)
+		{
+			if ( hash != this.hash )
+			{
+				// Nest this node in a bitmap node, which can tell the two hash codes apart
+				BitmapNode parent = new BitmapNode(edit, 1 << ((this.hash >>> shift) & MASK), new Object[] { null, this });
+				
+				return parent.put(edit, shift, hash, key, value, change);
+			}
+			
+			int index = indexOf(key);
+			
+			if ( index != -1 )
+			{
+				change.old_value = array[index + 1];
+				
+				if ( array[index + 1] == value ) return this;
+				
+				CollisionNode ret = this.edit == edit ? this : new CollisionNode(edit, hash, array.clone());
+				ret.array[index + 1] = value;
+				
+				return ret;
+			}
+			
+			change.size_changed = true;
+			
+			Object new_array[] = new Object[array.length + 2];
+			
+			System.arraycopy(array, 0, new_array, 0, array.length);
+			new_array[array.length] = key;
+			new_array[array.length + 1] = value;
+			
+			if ( this.edit != edit ) return new CollisionNode(edit, hash, new_array);
+			
+			array = new_array;
+			
+			return this;
+		}
+		
+		protected Node remove(Object edit, int shift, int hash, Object key, Change change)
+		{
+			if ( hash != this.hash ) return this;
+			
+			int index = indexOf(key);
+			if ( index == -1 ) return this;
+			
+			change.old_value = array[index + 1];
+			change.size_changed = true;
+			
+			if ( array.length == 4 )
+			{
+				int other = index == 0 ? 2 : 0;
+				
+				return new BitmapNode(edit, 1 << ((hash >>> shift) & MASK), new Object[] { array[other], array[other + 1] });
+			}
+			
+			Object new_array[] = new Object[array.length - 2];
+			
+			System.arraycopy(array, 0, new_array, 0, index);
+			System.arraycopy(array, index + 2, new_array, index, array.length - index - 2);
+			
+			if ( this.edit != edit ) return new CollisionNode(edit, hash, new_array);
+			
+			array = new_array;
+			
+			return this;
+		}
+		
+		private int indexOf(Object key)
+		{
+			for ( int i = 0; i < array.length; i += 2 )
+			{
+				if ( key == array[i] || key.equals(array[i]) ) return i;
+			}
+			
+			return -1;
+		}
+	}
+	
+	/**
+	 * Create the node (at shift) that holds two pairs
+	 */
+	static private Node createNode(Object edit, int shift, int hash1, Object key1, Object value1, int hash2, Object key2, Object value2)
+	{
+		if ( hash1 == hash2 ) return new CollisionNode(edit, hash1, new Object[] { key1, value1, key2, value2 });
+		
+		int index1 = (hash1 >>> shift) & MASK;
+		int index2 = (hash2 >>> shift) & MASK;
+		
+		if ( index1 == index2 )
+			return new BitmapNode(edit, 1 << index1, new Object[] { null, createNode(edit, shift + BITS, hash1, key1, value1, hash2, key2, value2) });
+		
+		if ( index1 < index2 )
+			return new BitmapNode(edit, (1 << index1) | (1 << index2), new Object[] { key1, value1, key2, value2 });
+		
+		return new BitmapNode(edit, (1 << index1) | (1 << index2), new Object[] { key2, value2, key1, value1 });
+	}
+	
+	private class EntrySet extends AbstractSet<Map.Entry<K,V>>
+	{
+		public Iterator<Map.Entry<K,V>> iterator()
+		{
+			return new TrieIterator<Map.Entry<K,V>>()
+			{
+				protected Map.Entry<K,V> create(Object key, Object value) { return new Entry((K)key, (V)value); }
+			};
+		}
+		
+		public int size() { return size; }
+		
+		public boolean contains(Object o)
+		{
+			if ( !(o instanceof Map.Entry) ) return false;
+			
+			Map.Entry<?,?> entry = (Map.Entry<?,?>)o;
+			
+			if ( !containsKey(entry.getKey()) ) return false;
+			
+			Object value = get(entry.getKey());
+			
+			return value == null ? entry.getValue() == null : value.equals(entry.getValue());
+		}
+		
+		public boolean remove(Object o)
+		{
+			if ( !contains(o) ) return false;
+			
+			PersistentHashMap.this.remove(((Map.Entry<?,?>)o).getKey());
+			
+			return true;
+		}
+		
+		public void clear() { PersistentHashMap.this.clear(); }
+	}
+	
+	/**
+	 * An entry whose setValue writes through to the map
+	 */
+	private class Entry extends AbstractMap.SimpleEntry<K,V>
+	{
+		private Entry(K key, V value)
+		{
+			super(key, value);
+		}
+		
+		public V setValue(V value)
+		{
+			PersistentHashMap.this.put(getKey(), value); // does not add a key, so iteration carries on
+			
+			return super.setValue(value);
+		}
+	}
+	
+	/**
+	 * Walks the trie (depth first). Creating and using the iterator does not
+	 * change the map in any way
+	 */
+	private abstract class TrieIterator<T> implements Iterator<T>
+	{
+		private Object arrays[][] = new Object[16][]; // the arrays of the nodes on the path to the next pair
+		private int positions[] = new int[16];
+		private int depth = -1;
+		
+		private Object next_key; // null when there are no more pairs
+		private Object next_value;
+		
+		private Object last_key; // null when there is nothing to remove
+		
+		private int expected_mod_count = mod_count;
+		private boolean owns_no_nodes; // true once the map has given up ownership of the nodes being iterated over
+		
+		private TrieIterator()
+		{
+			if ( root != null )
+			{
+				depth = 0;
+				arrays[0] = root.array;
+			}
+			
+			advance();
+		}
+		
+		abstract protected T create(Object key, Object value);
+		
+		private void advance()
+		{
+			next_key = null;
+			next_value = null;
+			
+			while ( depth >= 0 )
+			{
+				Object array[] = arrays[depth];
+				int position = positions[depth];
+				
+				if ( position >= array.length )
+				{
+					arrays[depth] = null;
+					positions[depth] = 0;
+					depth--;
+					
+					continue;
+				}
+				
+				positions[depth] = position + 2;
+				
+				if ( array[position] == null )
+				{
+					depth++;
+					arrays[depth] = ((Node)array[position + 1]).array;
+					
+					continue;
+				}
+				
+				next_key = array[position];
+				next_value = array[position + 1];
+				
+				return;
+			}
+		}
+		
+		public boolean hasNext()
+		{
+			return next_key != null;
+		}
+		
+		public T next()
+		{
+			if ( mod_count != expected_mod_count ) throw new ConcurrentModificationException();
+			if ( next_key == null ) throw new NoSuchElementException();
+			
+			T ret = create(next_key, next_value);
+			
+			last_key = next_key;
+			advance();
+			
+			return ret;
+		}
+		
+		public void remove()
+		{
+			if ( last_key == null ) throw new IllegalStateException();
+			if ( mod_count != expected_mod_count ) throw new ConcurrentModificationException();
+			
+			if ( !owns_no_nodes )
+			{
+				edit = new Object(); // from here on, the map copies (rather than modifies) the nodes being iterated over
+				owns_no_nodes = true;
+			}
+			
+			PersistentHashMap.this.remove(last_key);
+			
+			last_key = null;
+			expected_mod_count = mod_count;
+		}
+	}
+}
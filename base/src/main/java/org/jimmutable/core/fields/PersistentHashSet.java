@@ -0,0 +1,66 @@
+package org.jimmutable.core.fields;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A {@link Set} backed by a {@link PersistentHashMap} (just as a HashSet is
+ * backed by a HashMap), and so whose contents can be shared, in constant time,
+ * with another PersistentHashSet.
+ *
+ * Null elements are not allowed. PersistentHashSet is not thread safe; it is
+ * the contents of a {@link FieldPersistentHashSet}
+ *
+ * @author jim.kane
+ *
+ * @param <E>
+ *            The type of elements in this set
+ */
+final class PersistentHashSet<E> extends AbstractSet<E>
+{
+	static private final Object PRESENT = Boolean.TRUE;
+	
+	private PersistentHashMap<E,Object> map = new PersistentHashMap<>(); // required
+	
+	/**
+	 * Replace the contents of this set with the contents of another set, in
+	 * constant time (see PersistentHashMap.shareContentsOf)
+	 *
+	 * @param other
+	 *            The set to share the contents of
+	 * @param other_may_change
+	 *            false if other will never be changed again (it is frozen)
+	 */
+	void shareContentsOf(PersistentHashSet<E> other, boolean other_may_change)
+	{
+		map.shareContentsOf(other.map, other_may_change);
+	}
+	
+	/**
+	 * Test to see if every element ever added to this set (since it was last
+	 * cleared) was immutable when it was added
+	 */
+	boolean containsOnlyImmutableValues()
+	{
+		return map.containsOnlyImmutableValues();
+	}
+	
+	@Override
+	public int size() { return map.size(); }
+	
+	@Override
+	public boolean contains(Object o) { return map.containsKey(o); }
+	
+	@Override
+	public boolean add(E e) { return map.put(e, PRESENT) == null; }
+	
+	@Override
+	public boolean remove(Object o) { return map.remove(o) != null; }
+	
+	@Override
+	public void clear() { map.clear(); }
+	
+	@Override
+	public Iterator<E> iterator() { return map.keyIterator(); }
+}
@@ -0,0 +1,364 @@
+package org.jimmutable.core.fields;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.jimmutable.core.objects.StandardImmutableObject;
+
+/**
+ * A bit partitioned vector trie that implements {@link List}, and whose
+ * contents can be shared, in constant time, with another PersistentVector
+ * (see {@link #shareContentsOf(PersistentVector, boolean)}).
+ *
+ * Elements are held in leaves of 32, under a trie of nodes of 32 slots (one
+ * slot per five bits of index), with the last (partial) leaf held apart as
+ * the tail. get, set, add (at the end) and remove (of the last element) are
+ * O(log n) (with a base of 32, so effectively constant). Inserting or removing
+ * anywhere else moves every element after the index, just as it does in an
+ * ArrayList.
+ *
+ * Nodes are owned and shared exactly as in {@link PersistentHashMap}: an owner
+ * modifies its nodes in place, and once contents are shared each vector copies
+ * only the path to the element it changes.
+ *
+ * PersistentVector is not thread safe; it is the contents of a
+ * {@link FieldPersistentVector}
+ *
+ * @author jim.kane
+ *
+ * @param <E>
+ *            The type of elements in this list
+ */
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess
+{
+	static private final int BITS = 5;
+	static private final int WIDTH = 1 << BITS;
+	static private final int MASK = WIDTH - 1;
+	
+	private int size;
+	private int shift; // the number of index bits below the root
+	private Node root; // required
+	private Object tail[]; // required, the last (partial) leaf, always owned by this vector
+	
+	private Object edit = new Object(); // required, the token marking the nodes this vector owns
+	
+	private boolean contains_only_immutable_values = true; // true if every element added (or set) was immutable (see StandardImmutableObject.isImmutableValue)
+	
+	static private final class Node
+	{
+		private Object edit; // required, the token of the vector that owns this node
+		private Object array[]; // required, child nodes (or, in a leaf, elements)
+		
+		private Node(Object edit, Object array[])
+		{
+			this.edit = edit;
+			this.array = array;
+		}
+		
+		private Node editable(Object edit)
+		{
+			return this.edit == edit ? this : new Node(edit, array.clone());
+		}
+	}
+	
+	public PersistentVector()
+	{
+		reset();
+	}
+	
+	/**
+	 * Replace the contents of this vector with the contents of another vector,
+	 * in constant time. From here on, the two vectors share (and copy on
+	 * write) every node of the trie
+	 *
+	 * @param other
+	 *            The vector to share the contents of
+	 * @param other_may_change
+	 *            false if other will never be changed again (it is frozen),
+	 *            in which case other is left untouched (and keeps ownership
+	 *            of its nodes)
+	 */
+	void shareContentsOf(PersistentVector<E> other, boolean other_may_change)
+	{
+		size = other.size;
+		shift = other.shift;
+		root = other.root;
+		tail = other.tail.clone();
+		contains_only_immutable_values = other.contains_only_immutable_values;
+		
+		edit = new Object();
+		if ( other_may_change ) other.edit = new Object();
+		
+		modCount++;
+	}
+	
+	/**
+	 * Test to see if every element ever added to (or set in) this vector
+	 * (since it was last cleared) was immutable at the time
+	 */
+	boolean containsOnlyImmutableValues()
+	{
+		return contains_only_immutable_values;
+	}
+	
+	@Override
+	public int size() { return size; }
+	
+	@Override
+	public E get(int index)
+	{
+		checkIndex(index);
+		
+		return (E)leafFor(index)[index & MASK];
+	}
+	
+	@Override
+	public E set(int index, E element)
+	{
+		checkIndex(index);
+		checkElement(element);
+		
+		if ( index >= tailOffset() )
+		{
+			Object ret = tail[index & MASK];
+			tail[index & MASK] = element;
+			
+			return (E)ret;
+		}
+		
+		Object ret = leafFor(index)[index & MASK];
+		
+		root = set(shift, root, index, element);
+		
+		return (E)ret;
+	}
+	
+	@Override
+	public boolean add(E element)
+	{
+		checkElement(element);
+		
+		if ( size - tailOffset() < WIDTH )
+		{
+			tail[size - tailOffset()] = element;
+		}
+		else
+		{
+			// The tail is full: push it into the trie, and start a new one
+			Node tail_node = new Node(edit, tail);
+			
+			if ( (size >>> BITS) > (1 << shift) )
+			{
+				Node new_root = new Node(edit, new Object[WIDTH]);
+				
+				new_root.array[0] = root;
+				new_root.array[1] = newPath(shift, tail_node);
+				
+				root = new_root;
+				shift += BITS;
+			}
+			else
+			{
+				root = pushTail(shift, root, tail_node);
+			}
+			
+			tail = new Object[WIDTH];
+			tail[0] = element;
+		}
+		
+		size++;
+		modCount++;
+		
+		return true;
+	}
+	
+	@Override
+	public void add(int index, E element)
+	{
+		if ( index < 0 || index > size ) throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+		
+		if ( index == size )
+		{
+			add(element);
+			return;
+		}
+		
+		checkElement(element);
+		
+		add(get(size - 1));
+		
+		for ( int i = size - 2; i > index; i-- )
+		{
+			set(i, get(i - 1));
+		}
+		
+		set(index, element);
+	}
+	
+	@Override
+	public E remove(int index)
+	{
+		E ret = get(index);
+		
+		for ( int i = index; i < size - 1; i++ )
+		{
+			set(i, get(i + 1));
+		}
+		
+		removeLast();
+		
+		return ret;
+	}
+	
+	@Override
+	public void clear()
+	{
+		reset();
+		modCount++;
+	}
+	
+	private void reset()
+	{
+		size = 0;
+		shift = BITS;
+		root = new Node(edit, new Object[WIDTH]);
+		tail = new Object[WIDTH];
+		contains_only_immutable_values = true;
+	}
+	
+	private void removeLast()
+	{
+		if ( size == 1 )
+		{
+			reset();
+			modCount++;
+			
+			return;
+		}
+		
+		if ( size - tailOffset() > 1 )
+		{
+			tail[size - tailOffset() - 1] = null;
+		}
+		else
+		{
+			// The tail is about to be empty: the last leaf of the trie becomes the tail
+			Object new_tail[] = leafFor(size - 2).clone();
+			
+			Node new_root = popTail(shift, root);
+			
+			if ( new_root == null ) new_root = new Node(edit, new Object[WIDTH]);
+			
+			if ( shift > BITS && new_root.array[1] == null )
+			{
+				new_root = (Node)new_root.array[0];
+				shift -= BITS;
+			}
+			
+			root = new_root;
+			tail = new_tail;
+		}
+		
+		size--;
+		modCount++;
+	}
+	
+	private int tailOffset()
+	{
+		return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+	}
+	
+	private Object[] leafFor(int index)
+	{
+		if ( index >= tailOffset() ) return tail;
+		
+		Node node = root;
+		
+		for ( int level = shift; level > 0; level -= BITS )
+		{
+			node = (Node)node.array[(index >>> level) & MASK];
+		}
+		
+		return node.array;
+	}
+	
+	private Node set(int level, Node node, int index, Object element)
+	{
+		Node ret = node.editable(edit);
+		
+		if ( level == 0 )
+		{
+			ret.array[index & MASK] = element;
+		}
+		else
+		{
+			int slot = (index >>> level) & MASK;
+			ret.array[slot] = set(level - BITS, (Node)node.array[slot], index, element);
+		}
+		
+		return ret;
+	}
+	
+	private Node pushTail(int level, Node parent, Node tail_node)
+	{
+		Node ret = parent.editable(edit);
+		int slot = ((size - 1) >>> level) & MASK;
+		
+		if ( level == BITS )
+		{
+			ret.array[slot] = tail_node;
+		}
+		else
+		{
+			Node child = (Node)parent.array[slot];
+			ret.array[slot] = child == null ? newPath(level - BITS, tail_node) : pushTail(level - BITS, child, tail_node);
+		}
+		
+		return ret;
+	}
+	
+	private Node popTail(int level, Node node)
+	{
+		int slot = ((size - 2) >>> level) & MASK;
+		
+		if ( level > BITS )
+		{
+			Node new_child = popTail(level - BITS, (Node)node.array[slot]);
+			
+			if ( new_child == null && slot == 0 ) return null;
+			
+			Node ret = node.editable(edit);
+			ret.array[slot] = new_child;
+			
+			return ret;
+		}
+		
+		if ( slot == 0 ) return null;
+		
+		Node ret = node.editable(edit);
+		ret.array[slot] = null;
+		
+		return ret;
+	}
+	
+	private Node newPath(int level, Node node)
+	{
+		if ( level == 0 ) return node;
+		
+		Node ret = new Node(edit, new Object[WIDTH]);
+		ret.array[0] = newPath(level - BITS, node);
+		
+		return ret;
+	}
+	
+	private void checkIndex(int index)
+	{
+		if ( index < 0 || index >= size ) throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+	}
+	
+	private void checkElement(Object element)
+	{
+		if ( !StandardImmutableObject.isImmutableValue(element) ) contains_only_immutable_values = false;
+	}
+}
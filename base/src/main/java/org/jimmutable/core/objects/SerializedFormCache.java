@@ -0,0 +1,292 @@
+package org.jimmutable.core.objects;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+import org.jimmutable.core.serialization.Format;
+import org.jimmutable.core.utils.Validator;
+
+import com.fasterxml.jackson.core.SerializableString;
+
+/**
+ * Keeps track of the serialized forms of completed immutable objects.
+ *
+ * A StandardImmutableObject never changes once it is complete, so its
+ * serialized form never changes either. Objects that are serialized over and
+ * over again (reference objects, keys, etc.) can opt in (by overriding
+ * StandardImmutableObject.isSerializedFormCacheable) to having each text
+ * format (JSON, JSON_PRETTY_PRINT, XML, XML_PRETTY_PRINT) of themselves
+ * cached the first time they are serialized (by serialize, serializeToBytes
+ * or toString). The cached form is returned by later calls, and (in
+ * Format.JSON) is spliced straight into any document the object is written
+ * into. Writing an object into a larger document never, by itself, caches
+ * the form of the object.
+ *
+ * The forms are held by the objects themselves (so finding one is a field
+ * read, with no hashing and no locking), but the total size of all of the
+ * cached forms is bounded by a single, process wide budget. Once the budget is
+ * used up, the forms cached first are dropped to make room (first in, first
+ * out).
+ *
+ * The cache only weakly references the objects whose forms it holds, so
+ * caching a form never keeps an object (or its form) from being garbage
+ * collected. The entries of collected objects are dropped (and stop counting
+ * against the budget) as soon as the collection is noticed (the next time a
+ * form is cached).
+ *
+ * SerializedFormCache is thread safe
+ *
+ * @author jim.kane
+ *
+ */
+final public class SerializedFormCache
+{
+	/**
+	 * The default budget, in (approximate) bytes, for all of the cached forms
+	 */
+	static public final long DEFAULT_MAXIMUM_CACHED_BYTES = 32*1024*1024;
+	
+	static private long maximum_cached_bytes = DEFAULT_MAXIMUM_CACHED_BYTES;
+	static private long cached_bytes;
+	
+	static private CachedForm oldest; // optional, the head of a doubly linked list of every cached form, oldest first
+	static private CachedForm newest; // optional, the tail of the list
+	static private int cached_form_count;
+	
+	static private final ReferenceQueue<StandardImmutableObject> collected = new ReferenceQueue<>();
+	
+	static private class CachedForm extends WeakReference<StandardImmutableObject>
+	{
+		private Format format; // required
+		private long bytes;
+		
+		private CachedForm older; // optional
+		private CachedForm newer; // optional
+		private boolean linked; // true while the form is in the list
+		
+		private CachedForm(StandardImmutableObject obj, Format format, long bytes)
+		{
+			super(obj, collected);
+			
+			this.format = format;
+			this.bytes = bytes;
+		}
+	}
+	
+	private SerializedFormCache()
+	{
+	}
+	
+	/**
+	 * Test to see if the form of an object in a given format may be cached
+	 *
+	 * @param obj
+	 *            The object (can be null)
+	 * @param format
+	 *            The format
+	 * @return true if obj is complete, has opted in to caching, and format is
+	 *         a text format
+	 */
+	static public boolean isCacheable(StandardImmutableObject obj, Format format)
+	{
+		if ( obj == null || format == null ) return false;
+		if ( format.isBinary() || format == Format.TOKEN_BUFFER ) return false;
+		
+		return obj.isComplete() && obj.isSerializedFormCacheable();
+	}
+	
+	/**
+	 * Get the cached form of an object
+	 *
+	 * @param obj
+	 *            The object
+	 * @param format
+	 *            The format
+	 * @param default_value
+	 *            The value to return if the form of obj in format is not
+	 *            cached
+	 * @return The cached form, or default_value
+	 */
+	static public SerializableString getOptional(StandardImmutableObject obj, Format format, SerializableString default_value)
+	{
+		SerializableString forms[] = obj.serialized_forms;
+		if ( forms == null ) return default_value;
+		
+		SerializableString ret = forms[format.ordinal()];
+		
+		return ret == null ? default_value : ret;
+	}
+	
+	/**
+	 * Cache the form of an object. Does nothing if the object or format is not
+	 * cacheable (see isCacheable), or if the form on its own would use up more
+	 * than a quarter of the budget
+	 *
+	 * @param obj
+	 *            The object
+	 * @param format
+	 *            The format of form
+	 * @param form
+	 *            obj, serialized in format
+	 */
+	static public void put(StandardImmutableObject obj, Format format, SerializableString form)
+	{
+		Validator.notNull(form);
+		
+		if ( !isCacheable(obj, format) ) return;
+		if ( getOptional(obj, format, null) != null ) return; // another thread got here first
+		
+		long bytes = estimateBytes(form);
+		CachedForm cached_form = new CachedForm(obj, format, bytes); // allocated before taking the lock
+		
+		synchronized(SerializedFormCache.class)
+		{
+			if ( bytes > maximum_cached_bytes / 4 ) return;
+			if ( getOptional(obj, format, null) != null ) return;
+			
+			releaseCollected();
+			evict(maximum_cached_bytes - bytes);
+			
+			setForm(obj, format, form);
+			link(cached_form);
+		}
+	}
+	
+	/**
+	 * Set the budget for all of the cached forms (dropping cached forms, if
+	 * need be)
+	 *
+	 * @param bytes
+	 *            The budget, in (approximate) bytes. Zero disables caching
+	 */
+	static synchronized public void setMaximumCachedBytes(long bytes)
+	{
+		Validator.min(bytes, 0);
+		
+		maximum_cached_bytes = bytes;
+		
+		releaseCollected();
+		evict(maximum_cached_bytes);
+	}
+	
+	/**
+	 * Get the (approximate) number of bytes used by the cached forms
+	 *
+	 * @return The number of bytes used
+	 */
+	static synchronized public long getSimpleCachedBytes()
+	{
+		return cached_bytes;
+	}
+	
+	/**
+	 * Get the number of cached forms (the forms of garbage collected objects
+	 * are counted until the collection is noticed)
+	 *
+	 * @return The number of cached forms
+	 */
+	static synchronized public int getSimpleCachedFormCount()
+	{
+		return cached_form_count;
+	}
+	
+	/**
+	 * Drop every cached form
+	 */
+	static synchronized public void clear()
+	{
+		evict(0);
+	}
+	
+	/**
+	 * Drop the oldest forms, until no more than bytes are used
+	 */
+	static private void evict(long bytes)
+	{
+		while ( cached_bytes > bytes && oldest != null )
+		{
+			CachedForm form = oldest;
+			StandardImmutableObject obj = form.get();
+			
+			if ( obj != null ) setForm(obj, form.format, null);
+			
+			unlink(form);
+		}
+	}
+	
+	/**
+	 * Drop the forms of garbage collected objects (wherever they are in the
+	 * list)
+	 */
+	static private void releaseCollected()
+	{
+		CachedForm form;
+		
+		while ( (form = (CachedForm)collected.poll()) != null )
+		{
+			unlink(form);
+		}
+	}
+	
+	/**
+	 * Add a form to the (newest) end of the list
+	 */
+	static private void link(CachedForm form)
+	{
+		form.older = newest;
+		
+		if ( newest == null ) oldest = form;
+		else newest.newer = form;
+		
+		newest = form;
+		form.linked = true;
+		
+		cached_form_count++;
+		cached_bytes += form.bytes;
+	}
+	
+	/**
+	 * Remove a form from the list. Does nothing if the form has already been
+	 * removed (e.g. evicted before its object was collected)
+	 */
+	static private void unlink(CachedForm form)
+	{
+		if ( !form.linked ) return;
+		
+		if ( form.older == null ) oldest = form.newer;
+		else form.older.newer = form.newer;
+		
+		if ( form.newer == null ) newest = form.older;
+		else form.newer.older = form.older;
+		
+		form.older = null;
+		form.newer = null;
+		form.linked = false;
+		
+		cached_form_count--;
+		cached_bytes -= form.bytes;
+	}
+	
+	/**
+	 * Set (or clear) the cached form of obj in format. The forms of an object
+	 * are copied on write, so that they can be read without locking
+	 */
+	static private void setForm(StandardImmutableObject obj, Format format, SerializableString form)
+	{
+		SerializableString forms[] = obj.serialized_forms;
+		
+		forms = forms == null ? new SerializableString[Format.values().length] : forms.clone();
+		forms[format.ordinal()] = form;
+		
+		obj.serialized_forms = forms;
+	}
+	
+	/**
+	 * A form is held both as a String (two bytes per char) and, once it has
+	 * been written to a stream, as UTF-8 (about one byte per char)
+	 */
+	static private long estimateBytes(SerializableString form)
+	{
+		return 3L * form.charLength();
+	}
+}
@@ -1,11 +1,15 @@
 package org.jimmutable.core.objects;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 import org.jimmutable.core.exceptions.ImmutableException;
 import org.jimmutable.core.fields.Field;
 import org.jimmutable.core.serialization.Format;
 import org.jimmutable.core.serialization.reader.ObjectParseTree;
 import org.jimmutable.core.serialization.writer.ObjectWriter;
 
+import com.fasterxml.jackson.core.SerializableString;
+
 /**
  * An abstract base class for {@link StandardObject standard} objects
  * that want to guarantee immutability.
@@ -23,7 +27,16 @@ import org.jimmutable.core.serialization.writer.ObjectWriter;
  */
 abstract public class StandardImmutableObject<T extends StandardImmutableObject<T>> extends StandardObject<T>
 {
-	transient volatile private boolean is_complete = false;
+	static private final int UNDER_CONSTRUCTION = 0;
+	static private final int COMPLETE = 1;
+	
+	static private final AtomicIntegerFieldUpdater<StandardImmutableObject> COMPLETE_STATE = AtomicIntegerFieldUpdater.newUpdater(StandardImmutableObject.class, "complete_state");
+	
+	transient volatile private int complete_state = UNDER_CONSTRUCTION; // only ever set to COMPLETE with a release store (see complete)
+	
+	transient volatile SerializableString serialized_forms[]; // optional, indexed by Format ordinal, maintained by SerializedFormCache
+	
+	transient int hash_code; // set by cacheHashCode once complete (0 if not cached), cleared in copies by StructuralCopier
 	
 	/**
 	 * Make any changes to this object required to make this object
@@ -46,17 +59,23 @@ abstract public class StandardImmutableObject<T extends StandardImmutableObject<
 	 * immutable objects. Future invocations will result in an
 	 * {@link ImmutableException}.
 	 * 
+	 * <p>An object is built (and completed) by a single thread, as it is by
+	 * a constructor or a builder, so {@code complete} takes no lock. Instead,
+	 * the object is marked complete with a single release store, which
+	 * publishes every write made while building, normalizing and freezing it
+	 * to any thread that then sees it complete.
+	 * 
 	 * @throws ImmutableException if the object is {@link #isComplete() complete}
 	 */
 	@Override
-	synchronized public void complete()
+	public void complete()
 	{
 		assertNotComplete();
 		
 		super.complete();
 		freeze();
 		
-		is_complete = true;
+		COMPLETE_STATE.lazySet(this, COMPLETE);
 	}
 	
 	/**
@@ -66,7 +85,7 @@ abstract public class StandardImmutableObject<T extends StandardImmutableObject<
 	 */
 	public void assertNotComplete()
 	{
-		if ( is_complete ) 
+		if ( complete_state == COMPLETE ) 
 			throw new ImmutableException("Attempt to modify an object after construction is complete");
 	}
 	
@@ -75,7 +94,85 @@ abstract public class StandardImmutableObject<T extends StandardImmutableObject<
      *
      * @return {@code true} if this object is {@link #complete() complete}
      */
-	public boolean isComplete() { return is_complete; }
+	public boolean isComplete() { return complete_state == COMPLETE; }
+	
+	/**
+	 * Get the hash code cached by {@link #cacheHashCode(int)}
+	 * 
+	 * @param default_value
+	 *            The value to return if no hash code has been cached
+	 * @return The cached hash code, or default_value
+	 */
+	final protected int getOptionalCachedHashCode(int default_value)
+	{
+		int ret = hash_code;
+		
+		return ret == 0 ? default_value : ret;
+	}
+	
+	/**
+	 * Cache the hash code of this object, so that {@link #hashCode()} only has
+	 * to compute it once. Nothing is cached until the object is
+	 * {@link #isComplete() complete} (until then, it may yet change). Only
+	 * suitable for objects whose hash code depends on immutable values alone.
+	 * A typical hashCode:
+	 * 
+	 * <pre>
+	 * public int hashCode()
+	 * {
+	 * 	int ret = getOptionalCachedHashCode(0);
+	 * 	if ( ret != 0 ) return ret;
+	 * 
+	 * 	return cacheHashCode(31 * brand.hashCode() + pn.hashCode());
+	 * }
+	 * </pre>
+	 * 
+	 * @param hash_code
+	 *            The hash code of this object
+	 * @return hash_code
+	 */
+	final protected int cacheHashCode(int hash_code)
+	{
+		if ( isComplete() ) this.hash_code = hash_code;
+		
+		return hash_code;
+	}
+	
+	/**
+	 * Test to see if a value is immutable: null, a String, a boxed primitive,
+	 * an enum or a {@link #isComplete() complete} StandardImmutableObject.
+	 * Immutable values can be shared freely (e.g. by an object and its deep
+	 * clone)
+	 * 
+	 * @param value
+	 *            The value to test (can be null)
+	 * @return {@code true} if value is immutable
+	 */
+	static public boolean isImmutableValue(Object value)
+	{
+		if ( value == null ) return true;
+		
+		if ( value instanceof String ) return true;
+		if ( value instanceof Enum ) return true;
+		
+		if ( value instanceof Integer || value instanceof Long || value instanceof Boolean || value instanceof Double ) return true;
+		if ( value instanceof Character || value instanceof Byte || value instanceof Short || value instanceof Float ) return true;
+		
+		if ( value instanceof StandardImmutableObject ) return ((StandardImmutableObject)value).isComplete();
+		
+		return false;
+	}
+	
+	/**
+	 * Should the serialized forms of this object be cached (once it is
+	 * complete)? Override (to return true) in classes whose instances are
+	 * serialized many times over, typically reference objects and keys.
+	 * 
+	 * @return false, by default
+	 * 
+	 * @see SerializedFormCache
+	 */
+	public boolean isSerializedFormCacheable() { return false; }
 	
 	/**
 	 * Create an identical copy of this object that is still mutable.
@@ -86,6 +183,38 @@ abstract public class StandardImmutableObject<T extends StandardImmutableObject<
 	 */
 	protected T deepMutableCloneForBuilder()
 	{
-		return (T)ObjectParseTree.deserialize(ObjectWriter.serializeToTokenBuffer(this), false);
+		T ret = StructuralCopier.copy(this, false, false);
+		
+		if ( ret == null ) 
+			return (T)ObjectParseTree.deserialize(ObjectWriter.serializeToTokenBuffer(this), false);
+		
+		COMPLETE_STATE.lazySet((StandardImmutableObject<T>)ret, UNDER_CONSTRUCTION); // the copy is confined to the builder
+		
+		return ret;
+	}
+	
+	/**
+	 * Deeply clone the object. A complete object is copied field by field,
+	 * sharing its frozen fields, and is not normalized or validated again (it
+	 * already has been). The copy is frozen again, as any field that could not
+	 * be shared (e.g. a frozen list holding an incomplete object) is copied
+	 * into a new, mutable container
+	 * 
+	 * @return A deep copy of this object
+	 */
+	@Override
+	public T deepClone()
+	{
+		if ( !isComplete() ) return super.deepClone();
+		
+		T ret = StructuralCopier.copy(this, true, true);
+		
+		if ( ret == null ) 
+			return (T)ObjectParseTree.deserialize(ObjectWriter.serializeToTokenBuffer(this), true);
+		
+		ret.freeze();
+		COMPLETE_STATE.lazySet((StandardImmutableObject<T>)ret, COMPLETE); // publish the frozen fields along with the copy
+		
+		return ret;
 	}
 }
@@ -35,7 +35,7 @@ import org.jimmutable.core.utils.Validator;
  * 
  * @see StandardImmutableObject
  */
-abstract public class StandardObject<T extends StandardObject<T>> implements Comparable<T>, StandardWritable
+abstract public class StandardObject<T extends StandardObject<T>> implements Comparable<T>, StandardWritable, Cloneable
 {
 	/**
 	 * Normalize the fields of the object. The idea is to clean up the values of
@@ -92,16 +92,38 @@ abstract public class StandardObject<T extends StandardObject<T>> implements Com
 	}
 	
 	/**
-	 * Use XML serialization to deeply clone the object
+	 * Deeply clone the object. The clone is copied field by field (see
+	 * StructuralCopier), and then completed. An object holding a value that
+	 * can not be copied field by field is cloned by serializing it and reading
+	 * it back in
 	 * 
 	 * @return A deep copy of this object
-	 * 
-	 * @see #fromXML(String)
-	 * @see #toXML()
 	 */
 	public T deepClone()
 	{
-		return (T)ObjectParseTree.deserialize(ObjectWriter.serializeToTokenBuffer(this), true);
+		T ret = StructuralCopier.copy(this, false, true);
+		
+		if ( ret == null ) 
+			return (T)ObjectParseTree.deserialize(ObjectWriter.serializeToTokenBuffer(this), true);
+		
+		ret.complete();
+		
+		return ret;
+	}
+	
+	/**
+	 * Create a shallow copy of this object (used by StructuralCopier)
+	 */
+	final StandardObject<T> shallowClone()
+	{
+		try
+		{
+			return (StandardObject<T>)super.clone();
+		}
+		catch(CloneNotSupportedException e)
+		{
+			throw new IllegalStateException(e); // not possible, StandardObject is Cloneable
+		}
 	}
 	
 	/**
@@ -125,6 +147,26 @@ abstract public class StandardObject<T extends StandardObject<T>> implements Com
 		return (StandardObject)ObjectParseTree.deserialize(serialized_data);
 	}
 	
+	/**
+	 * Serialize this object as bytes. Text formats are UTF-8 encoded; this is
+	 * the only way to serialize a StandardObject in a binary format (SMILE,
+	 * CBOR)
+	 */
+	public byte[] serializeToBytes(Format format)
+	{
+		Validator.notEqual(format, Format.TOKEN_BUFFER);
+		return ObjectWriter.serializeToBytes(format, this);
+	}
+	
+	/**
+	 * Deserialize an object from bytes, in any format (detected from the first
+	 * few bytes)
+	 */
+	static public StandardObject deserialize(byte serialized_data[])
+	{
+		return (StandardObject)ObjectParseTree.deserialize(serialized_data, true);
+	}
+	
 	/**
 	 * Create Java source code that will construct an identical copy of this object.
 	 * 
@@ -74,6 +74,7 @@ abstract public class Stringable extends StandardImmutableObject<Stringable>
 
 	public boolean equals(Object obj) 
 	{
+		if ( obj == this ) return true; // (interned instances, see StringableInternCache)
 		if ( !(obj instanceof Stringable) ) return false;
 		
 		Stringable other = (Stringable)obj;
@@ -0,0 +1,105 @@
+package org.jimmutable.core.objects;
+
+import java.util.function.Function;
+
+import org.jimmutable.core.serialization.reader.ObjectParseTree;
+import org.jimmutable.core.serialization.reader.ReadAs;
+import org.jimmutable.core.threading.InternCache;
+
+/**
+ * A bounded cache of canonical instances of one Stringable type (the
+ * flyweight pattern). Where a Stringable type has few distinct values that
+ * occur very many times (attribute names, brand codes), interning returns a
+ * shared, already normalized and validated instance for each repeated value,
+ * in place of a new object (and new strings) per occurrence.
+ *
+ * Interning is opt-in, per type. A type typically holds its cache in a static
+ * field, and reads through {@link #getSimpleReadAs()}:
+ *
+ * <pre>
+ * static private final StringableInternCache&lt;BrandCode&gt; interned_codes = new StringableInternCache&lt;&gt;(MAXIMUM_INTERNED_CODES, BrandCode::new);
+ *
+ * static public final ReadAs READ_AS = interned_codes.getSimpleReadAs();
+ *
+ * static public BrandCode intern(String code) { return interned_codes.intern(code); }
+ * </pre>
+ *
+ * Instances are cached under both the value they were created from and their
+ * (normalized) value, so normalization must be idempotent (as trimming and
+ * changing case are). Once the cache is full, values that are not already
+ * cached are simply created (see {@link InternCache}). Types with (nearly) as
+ * many distinct values as occurrences, such as part numbers, gain nothing from
+ * interning.
+ *
+ * @author jim.kane
+ *
+ * @param <S>
+ *            The Stringable type
+ */
+public class StringableInternCache<S extends Stringable>
+{
+	private InternCache<String,S> interned; // required
+	private Function<String,S> constructor; // required
+	private ReadAs read_as; // required
+	
+	/**
+	 * Create an empty cache
+	 *
+	 * @param maximum_size
+	 *            The maximum number of entries the cache will hold (an
+	 *            instance may be cached under two entries, see above)
+	 * @param constructor
+	 *            Creates a (normalized and validated) new instance from a
+	 *            value, typically the constructor of S
+	 */
+	public StringableInternCache(int maximum_size, Function<String,S> constructor)
+	{
+		interned = new InternCache<>(maximum_size);
+		this.constructor = constructor;
+		read_as = new ReadAsInterned();
+	}
+	
+	/**
+	 * Get the canonical instance for a value
+	 *
+	 * @param value
+	 *            The value (normalized or not)
+	 * @return The canonical instance for value (or, if the cache is full, a
+	 *         new instance)
+	 * @throws org.jimmutable.core.exceptions.ValidationException
+	 *             if value is not valid (exactly as the constructor of S
+	 *             would)
+	 */
+	public S intern(String value)
+	{
+		S ret = interned.get(value, null);
+		if ( ret != null ) return ret;
+		
+		ret = constructor.apply(value);
+		ret = interned.intern(ret.getSimpleValue(), ret);
+		
+		return interned.intern(value, ret);
+	}
+	
+	/**
+	 * Get a ReadAs that reads (string) values as canonical instances
+	 *
+	 * @return The ReadAs
+	 */
+	public ReadAs getSimpleReadAs() { return read_as; }
+	
+	/**
+	 * Get the number of entries in the cache
+	 *
+	 * @return The number of entries in the cache
+	 */
+	public int size() { return interned.size(); }
+	
+	private class ReadAsInterned extends ReadAs
+	{
+		public Object readAs(ObjectParseTree t)
+		{
+			return intern(t.asString(null));
+		}
+	}
+}
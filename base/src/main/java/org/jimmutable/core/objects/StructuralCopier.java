@@ -0,0 +1,276 @@
+package org.jimmutable.core.objects;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.jimmutable.core.fields.Field;
+import org.jimmutable.core.fields.FieldPrimitive;
+import org.jimmutable.core.fields.PersistentField;
+
+/**
+ * Copies standard objects field by field (structurally), instead of writing
+ * them out and reading them back in.
+ *
+ * A copy starts out as a shallow copy (Object.clone), after which every
+ * (non transient) field is fixed up:
+ *
+ * <ul>
+ * <li>Immutable values (Strings, boxed primitives, enums and completed
+ * StandardImmutableObject(s)) are shared, as is</li>
+ * <li>Field containers (collections and maps) are copied (or, when the copy
+ * will never be modified again, shared, if they are frozen and hold only
+ * immutable values). A PersistentField holding only immutable values is
+ * copied in constant time, by sharing its structure, and a FieldPrimitive
+ * by copying its arrays</li>
+ * <li>Mutable standard objects are copied (structurally)</li>
+ * </ul>
+ *
+ * Any other value (an array, a java.util.Date, etc.) can not be copied this
+ * way. When one is found, the copy is abandoned (null is returned) and the
+ * caller falls back to serializing and parsing the object.
+ *
+ * @author jim.kane
+ *
+ */
+final class StructuralCopier
+{
+	/**
+	 * The (non static, non transient) reference fields of each class, found
+	 * (and made accessible) once
+	 */
+	static private final ClassValue<java.lang.reflect.Field[]> copied_fields = new ClassValue<java.lang.reflect.Field[]>()
+	{
+		protected java.lang.reflect.Field[] computeValue(Class<?> c)
+		{
+			List<java.lang.reflect.Field> ret = new ArrayList<>();
+			
+			for ( Class<?> cur = c; cur != null && cur != Object.class; cur = cur.getSuperclass() )
+			{
+				for ( java.lang.reflect.Field field : cur.getDeclaredFields() )
+				{
+					int modifiers = field.getModifiers();
+					
+					if ( Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) ) continue;
+					if ( field.getType().isPrimitive() ) continue; // copied by clone
+					
+					field.setAccessible(true);
+					ret.add(field);
+				}
+			}
+			
+			return ret.toArray(new java.lang.reflect.Field[ret.size()]);
+		}
+	};
+	
+	/**
+	 * The no argument constructor of each Field container class (null if it
+	 * does not have one)
+	 */
+	static private final ClassValue<MethodHandle> container_constructors = new ClassValue<MethodHandle>()
+	{
+		protected MethodHandle computeValue(Class<?> c)
+		{
+			try
+			{
+				return MethodHandles.publicLookup().findConstructor(c, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+			}
+			catch(Exception e)
+			{
+				return null;
+			}
+		}
+	};
+	
+	/**
+	 * Thrown (internally) when a value that can not be copied is found
+	 */
+	static private class NotCopyableException extends Exception
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private NotCopyableException()
+		{
+			super(null, null, false, false); // no stack trace, it is never seen
+		}
+	}
+	
+	static private final NotCopyableException NOT_COPYABLE = new NotCopyableException();
+	
+	private StructuralCopier()
+	{
+	}
+	
+	/**
+	 * Copy a standard object
+	 *
+	 * @param obj
+	 *            The object to copy
+	 * @param share_frozen
+	 *            If true, frozen Field containers that hold only immutable
+	 *            values are shared (only safe if the copy will never be
+	 *            normalized or modified)
+	 * @param complete_children
+	 *            If true, the copies of any mutable standard objects obj
+	 *            refers to are completed (the copy of obj itself never is)
+	 * @return The copy, or null if obj can not be copied structurally
+	 */
+	static <T extends StandardObject<T>> T copy(StandardObject<T> obj, boolean share_frozen, boolean complete_children)
+	{
+		try
+		{
+			return (T)copyObject(obj, share_frozen, complete_children);
+		}
+		catch(NotCopyableException e)
+		{
+			return null;
+		}
+	}
+	
+	static private StandardObject copyObject(StandardObject obj, boolean share_frozen, boolean complete_children) throws NotCopyableException
+	{
+		StandardObject ret = obj.shallowClone();
+		
+		if ( ret instanceof StandardImmutableObject )
+		{
+			// The copy may yet change
+			((StandardImmutableObject)ret).serialized_forms = null;
+			((StandardImmutableObject)ret).hash_code = 0;
+		}
+		
+		try
+		{
+			for ( java.lang.reflect.Field field : copied_fields.get(obj.getClass()) )
+			{
+				Object value = field.get(obj);
+				Object copy = copyValue(value, share_frozen, complete_children);
+				
+				if ( copy != value ) field.set(ret, copy);
+			}
+		}
+		catch(IllegalAccessException e)
+		{
+			throw NOT_COPYABLE;
+		}
+		
+		return ret;
+	}
+	
+	static private Object copyValue(Object value, boolean share_frozen, boolean complete_children) throws NotCopyableException
+	{
+		if ( isImmutable(value) ) return value;
+		
+		if ( value instanceof Field )
+		{
+			if ( share_frozen && isShareable(value) ) return value;
+			
+			if ( value instanceof PersistentField && ((PersistentField)value).containsOnlyImmutableValues() )
+				return ((PersistentField)value).createMutableCopy(); // O(1), the copy shares structure
+			
+			if ( value instanceof FieldPrimitive )
+				return ((FieldPrimitive)value).createMutableCopy(); // an array copy, there are no elements to copy
+			
+			return copyContainer((Field)value, share_frozen, complete_children);
+		}
+		
+		if ( value instanceof StandardObject )
+		{
+			StandardObject ret = copyObject((StandardObject)value, share_frozen, complete_children);
+			
+			if ( complete_children ) ret.complete();
+			
+			return ret;
+		}
+		
+		throw NOT_COPYABLE;
+	}
+	
+	/**
+	 * Create a new (mutable) container of the same class as src, holding
+	 * copies of src's contents
+	 */
+	static private Object copyContainer(Field src, boolean share_frozen, boolean complete_children) throws NotCopyableException
+	{
+		if ( !(src instanceof Collection) && !(src instanceof Map) ) throw NOT_COPYABLE;
+		
+		MethodHandle constructor = container_constructors.get(src.getClass());
+		if ( constructor == null ) throw NOT_COPYABLE;
+		
+		Object ret;
+		
+		try
+		{
+			ret = (Object)constructor.invokeExact();
+		}
+		catch(Throwable t)
+		{
+			throw NOT_COPYABLE;
+		}
+		
+		if ( src instanceof Collection )
+		{
+			Collection<Object> dest = (Collection<Object>)ret;
+			
+			for ( Object element : (Collection<?>)src )
+			{
+				dest.add(copyValue(element, share_frozen, complete_children));
+			}
+		}
+		else
+		{
+			Map<Object,Object> dest = (Map<Object,Object>)ret;
+			
+			for ( Map.Entry<?,?> entry : ((Map<?,?>)src).entrySet() )
+			{
+				dest.put(copyValue(entry.getKey(), share_frozen, complete_children), copyValue(entry.getValue(), share_frozen, complete_children));
+			}
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Test to see if a value can be shared by an object and its copy
+	 */
+	static private boolean isShareable(Object value)
+	{
+		if ( isImmutable(value) ) return true;
+		
+		if ( !(value instanceof Field) || !((Field)value).isFrozen() ) return false;
+		
+		if ( value instanceof PersistentField && ((PersistentField)value).containsOnlyImmutableValues() ) return true;
+		if ( value instanceof FieldPrimitive ) return true; // primitive values are immutable
+		
+		if ( value instanceof Collection )
+		{
+			for ( Object element : (Collection<?>)value )
+			{
+				if ( !isShareable(element) ) return false;
+			}
+			
+			return true;
+		}
+		
+		if ( value instanceof Map )
+		{
+			for ( Map.Entry<?,?> entry : ((Map<?,?>)value).entrySet() )
+			{
+				if ( !isShareable(entry.getKey()) || !isShareable(entry.getValue()) ) return false;
+			}
+			
+			return true;
+		}
+		
+		return false;
+	}
+	
+	static private boolean isImmutable(Object value)
+	{
+		return StandardImmutableObject.isImmutableValue(value);
+	}
+}
@@ -4,8 +4,12 @@ import org.jimmutable.core.exceptions.ValidationException;
 import org.jimmutable.core.objects.StandardImmutableObject;
 import org.jimmutable.core.serialization.reader.ObjectParseTree;
 import org.jimmutable.core.serialization.writer.ObjectWriter;
+import org.jimmutable.core.threading.InternCache;
 import org.jimmutable.core.utils.Validator;
 
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
 /**
  * A nice encapsulation of a FieldName. FieldName(s) may only contain lower case
  * letters, numbers and underscores
@@ -15,20 +19,29 @@ import org.jimmutable.core.utils.Validator;
  */
 final public class FieldName extends StandardImmutableObject
 {
+	/**
+	 * The maximum number of distinct field names that will be interned. Beyond
+	 * this, intern simply returns new (validated) instances
+	 */
+	static public final int MAXIMUM_INTERNED_NAMES = 100_000;
+	
+	static private final InternCache<String,FieldName> interned_names = new InternCache<>(MAXIMUM_INTERNED_NAMES);
+	
 	static public final TypeName TYPE_NAME = new TypeName("jimmutable.FieldName");
 	static private final FieldName FIELD_NAME = new FieldName("name");
 	
-	static public FieldName FIELD_NAME_TYPE_HINT = new FieldName("type_hint");
-	static public FieldName FIELD_NAME_PRIMITIVE_VALUE = new FieldName("primitive_value");
-	static public FieldName FIELD_NAME_PRIMITIVE_VALUE_BASE64 = new FieldName("primitive_value_base_64");
-	static public FieldName FIELD_DOCUMENT_ROOT = new FieldName("parsed_document_root_element");
+	static public FieldName FIELD_NAME_TYPE_HINT = FieldName.intern("type_hint");
+	static public FieldName FIELD_NAME_PRIMITIVE_VALUE = FieldName.intern("primitive_value");
+	static public FieldName FIELD_NAME_PRIMITIVE_VALUE_BASE64 = FieldName.intern("primitive_value_base_64");
+	static public FieldName FIELD_DOCUMENT_ROOT = FieldName.intern("parsed_document_root_element");
 	
-	static public final FieldName FIELD_KEY = new FieldName("key");
-	static public final FieldName FIELD_VALUE = new FieldName("value");
+	static public final FieldName FIELD_KEY = FieldName.intern("key");
+	static public final FieldName FIELD_VALUE = FieldName.intern("value");
 	
-	static public final FieldName FIELD_ARRAY_ELEMENT = new FieldName("array_element_do_not_write_field_name");
+	static public final FieldName FIELD_ARRAY_ELEMENT = FieldName.intern("array_element_do_not_write_field_name");
 	
 	private String name; 
+	private SerializableString serialized_name; // optional, created on first use
 	
 	public FieldName(String name)
 	{ 
@@ -43,6 +56,30 @@ final public class FieldName extends StandardImmutableObject
 		name = t.getString(FIELD_NAME, null);
 	}
 	
+	/**
+	 * Get the canonical FieldName for a given name. The parsers use this (instead
+	 * of the constructor) so that each distinct name is validated once, and
+	 * so that equal names are (almost always) the same object.
+	 * 
+	 * The names handed out by Jackson are themselves canonicalized (by its
+	 * symbol tables), so the lookup is typically a cached hash code plus an
+	 * identity comparison.
+	 * 
+	 * @param name
+	 *            The name
+	 * @return The canonical FieldName for name
+	 * 
+	 * @throws ValidationException
+	 *             if name is not a valid FieldName
+	 */
+	static public FieldName intern(String name)
+	{
+		FieldName ret = interned_names.get(name, null);
+		if ( ret != null ) return ret;
+		
+		return interned_names.intern(name, new FieldName(name));
+	}
+	
 	public TypeName getTypeName() { return TYPE_NAME; }
 
 	public void write(ObjectWriter writer) 
@@ -51,6 +88,27 @@ final public class FieldName extends StandardImmutableObject
 	}
 
 	public String getSimpleName() { return name; }
+	
+	/**
+	 * Get the name in a form that can be written by Jackson generators
+	 * without being escaped and encoded again. Each encoding (quoted UTF-8,
+	 * unquoted UTF-8, chars) is computed once, the first time it is needed, so
+	 * writing a FieldName constant costs nothing after the first write.
+	 * 
+	 * @return The name, ready to be written
+	 */
+	public SerializableString getSimpleSerializedName()
+	{
+		SerializableString ret = serialized_name;
+		
+		if ( ret == null )
+		{
+			ret = new SerializedString(getSimpleName());
+			serialized_name = ret; // a harmless race, SerializedString is thread safe
+		}
+		
+		return ret;
+	}
 
 	public int compareTo(Object o)  
 	{
@@ -106,6 +164,7 @@ final public class FieldName extends StandardImmutableObject
 	
 	public boolean equals(Object o) 
 	{
+		if ( o == this ) return true;
 		if ( !(o instanceof FieldName) ) return false;
 		
 		FieldName other = (FieldName)o;
@@ -12,5 +12,20 @@ public enum Format
 	JSON_PRETTY_PRINT,
 	XML, 
 	XML_PRETTY_PRINT, 
-	TOKEN_BUFFER
+	TOKEN_BUFFER,
+	SMILE, // binary JSON (see https://github.com/FasterXML/smile-format-specification)
+	CBOR, // binary JSON (RFC 7049)
+	JIMMUTABLE_BINARY; // compact binary, with per stream field name and type name dictionaries (see org.jimmutable.core.serialization.binary)
+	
+	/**
+	 * Is this a binary format? Binary formats can only be written to, and read
+	 * from, bytes (OutputStream, byte[] etc.), never chars (Writer, String
+	 * etc.)
+	 * 
+	 * @return true if this is a binary format, false otherwise
+	 */
+	public boolean isBinary()
+	{
+		return this == SMILE || this == CBOR || this == JIMMUTABLE_BINARY;
+	}
 }
@@ -0,0 +1,111 @@
+package org.jimmutable.core.serialization;
+
+import org.jimmutable.core.exceptions.SerializeException;
+import org.jimmutable.core.serialization.binary.BinaryFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.xml.XmlFactory;
+
+/**
+ * The (process wide) Jackson factories used by the reader and writer packages.
+ *
+ * Jackson factories are thread safe once configured, and are expensive to
+ * create (each one owns its own symbol tables for canonicalizing field names).
+ * Sharing a single instance of each means every parser gets pre-warmed symbol
+ * tables, and every parser and generator draws its working buffers from
+ * Jackson's per thread BufferRecycler instead of allocating new ones.
+ *
+ * All of the factories are created (and safely published) when this class is
+ * initialized. Do *not* re-configure them.
+ *
+ * @author jim.kane
+ *
+ */
+final public class JacksonFactories
+{
+	static private final JsonFactory json_factory = new JsonFactory();
+	static private final XmlFactory xml_factory = new XmlFactory();
+	static private final SmileFactory smile_factory = new SmileFactory();
+	static private final CBORFactory cbor_factory = new CBORFactory();
+	static private final BinaryFactory binary_factory = new BinaryFactory();
+	
+	private JacksonFactories()
+	{
+	}
+	
+	/**
+	 * Get the shared JSON factory
+	 *
+	 * @return The factory to use for all JSON parsers and generators
+	 */
+	static public JsonFactory getSimpleJsonFactory() { return json_factory; }
+	
+	/**
+	 * Get the shared XML factory
+	 *
+	 * @return The factory to use for all XML parsers and generators
+	 */
+	static public XmlFactory getSimpleXmlFactory() { return xml_factory; }
+	
+	/**
+	 * Get the shared factory for a given format
+	 *
+	 * @param format
+	 *            The format (any format other than TOKEN_BUFFER)
+	 * @return The factory to use for all parsers and generators of format
+	 */
+	static public JsonFactory getSimpleFactory(Format format)
+	{
+		switch(format)
+		{
+		case JSON:
+		case JSON_PRETTY_PRINT:
+			return json_factory;
+			
+		case XML:
+		case XML_PRETTY_PRINT:
+			return xml_factory;
+			
+		case SMILE:
+			return smile_factory;
+			
+		case CBOR:
+			return cbor_factory;
+			
+		case JIMMUTABLE_BINARY:
+			return binary_factory;
+			
+		default:
+			throw new SerializeException("No Jackson factory for the format "+format);
+		}
+	}
+	
+	/**
+	 * Create a writer that builds a String out of buffers recycled (per
+	 * thread) by Jackson. Use in place of a StringWriter when serializing to a
+	 * String. Calling getAndClear() on the writer returns the String and
+	 * releases the buffers
+	 *
+	 * @return A new, empty SegmentedStringWriter
+	 */
+	static public SegmentedStringWriter createStringWriter()
+	{
+		return new SegmentedStringWriter(json_factory._getBufferRecycler());
+	}
+	
+	/**
+	 * Create an output stream that builds a byte[] out of buffers recycled
+	 * (per thread) by Jackson. Call release() once the bytes have been
+	 * retrieved (via toByteArray())
+	 *
+	 * @return A new, empty ByteArrayBuilder
+	 */
+	static public ByteArrayBuilder createByteArrayBuilder()
+	{
+		return new ByteArrayBuilder(json_factory._getBufferRecycler());
+	}
+}
@@ -4,8 +4,12 @@ import org.jimmutable.core.exceptions.ValidationException;
 import org.jimmutable.core.objects.StandardImmutableObject;
 import org.jimmutable.core.serialization.reader.ObjectParseTree;
 import org.jimmutable.core.serialization.writer.ObjectWriter;
+import org.jimmutable.core.threading.InternCache;
 import org.jimmutable.core.utils.Validator;
 
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
 /**
  * A nice encapsulation of a TypeName. TypeName(s) may only contain letters,
  * numbers, underscores, periods (.) and dollar signs ($). This matches legal
@@ -17,26 +21,35 @@ import org.jimmutable.core.utils.Validator;
 
 public class TypeName extends StandardImmutableObject
 {
-	static public final TypeName TYPE_NAME = new TypeName("jimmutable.TypeName");
+	/**
+	 * The maximum number of distinct type names that will be interned. Beyond
+	 * this, intern simply returns new (validated) instances
+	 */
+	static public final int MAXIMUM_INTERNED_NAMES = 100_000;
+	
+	static private final InternCache<String,TypeName> interned_names = new InternCache<>(MAXIMUM_INTERNED_NAMES);
+	
+	static public final TypeName TYPE_NAME = TypeName.intern("jimmutable.TypeName");
 	static private final FieldName FIELD_NAME = new FieldName("name");
 	
-	static public TypeName TYPE_NAME_OBJECT = new TypeName("object");
-	static public TypeName TYPE_NAME_STRING = new TypeName("string");
+	static public TypeName TYPE_NAME_OBJECT = TypeName.intern("object");
+	static public TypeName TYPE_NAME_STRING = TypeName.intern("string");
 	
-	static public TypeName TYPE_NAME_BOOLEAN = new TypeName("boolean");
-	static public TypeName TYPE_NAME_CHAR = new TypeName("char");
-	static public TypeName TYPE_NAME_BYTE = new TypeName("byte");
-	static public TypeName TYPE_NAME_SHORT = new TypeName("short");
-	static public TypeName TYPE_NAME_INT = new TypeName("int");
-	static public TypeName TYPE_NAME_LONG = new TypeName("long");
-	static public TypeName TYPE_NAME_FLOAT = new TypeName("float");
-	static public TypeName TYPE_NAME_DOUBLE = new TypeName("double");
+	static public TypeName TYPE_NAME_BOOLEAN = TypeName.intern("boolean");
+	static public TypeName TYPE_NAME_CHAR = TypeName.intern("char");
+	static public TypeName TYPE_NAME_BYTE = TypeName.intern("byte");
+	static public TypeName TYPE_NAME_SHORT = TypeName.intern("short");
+	static public TypeName TYPE_NAME_INT = TypeName.intern("int");
+	static public TypeName TYPE_NAME_LONG = TypeName.intern("long");
+	static public TypeName TYPE_NAME_FLOAT = TypeName.intern("float");
+	static public TypeName TYPE_NAME_DOUBLE = TypeName.intern("double");
 	
-	static public TypeName TYPE_NAME_NULL = new TypeName("null");
+	static public TypeName TYPE_NAME_NULL = TypeName.intern("null");
 	
-	static public TypeName TYPE_NAME_MAP_ENTRY = new TypeName("MapEntry");
+	static public TypeName TYPE_NAME_MAP_ENTRY = TypeName.intern("MapEntry");
 	
 	private String name; 
+	private SerializableString serialized_name; // optional, created on first use
 	
 	public TypeName(String name)
 	{ 
@@ -51,6 +64,30 @@ public class TypeName extends StandardImmutableObject
 		name = t.getString(FIELD_NAME, null);
 	}
 	
+	/**
+	 * Get the canonical TypeName for a given name. The parsers use this (instead
+	 * of the constructor) so that each distinct name is validated once, and
+	 * so that equal names are (almost always) the same object.
+	 * 
+	 * The names handed out by Jackson are themselves canonicalized (by its
+	 * symbol tables), so the lookup is typically a cached hash code plus an
+	 * identity comparison.
+	 * 
+	 * @param name
+	 *            The name
+	 * @return The canonical TypeName for name
+	 * 
+	 * @throws ValidationException
+	 *             if name is not a valid TypeName
+	 */
+	static public TypeName intern(String name)
+	{
+		TypeName ret = interned_names.get(name, null);
+		if ( ret != null ) return ret;
+		
+		return interned_names.intern(name, new TypeName(name));
+	}
+	
 	public TypeName getTypeName() { return TYPE_NAME; }
 
 	public void write(ObjectWriter writer) 
@@ -59,6 +96,27 @@ public class TypeName extends StandardImmutableObject
 	}
 
 	public String getSimpleName() { return name; }
+	
+	/**
+	 * Get the name in a form that can be written by Jackson generators
+	 * without being escaped and encoded again. Each encoding (quoted UTF-8,
+	 * unquoted UTF-8, chars) is computed once, the first time it is needed, so
+	 * writing a TypeName constant costs nothing after the first write.
+	 * 
+	 * @return The name, ready to be written
+	 */
+	public SerializableString getSimpleSerializedName()
+	{
+		SerializableString ret = serialized_name;
+		
+		if ( ret == null )
+		{
+			ret = new SerializedString(getSimpleName());
+			serialized_name = ret; // a harmless race, SerializedString is thread safe
+		}
+		
+		return ret;
+	}
 
 	public int compareTo(Object o)  
 	{
@@ -118,6 +176,7 @@ public class TypeName extends StandardImmutableObject
 	
 	public boolean equals(Object o) 
 	{
+		if ( o == this ) return true;
 		if ( !(o instanceof TypeName) ) return false;
 		
 		TypeName other = (TypeName)o;
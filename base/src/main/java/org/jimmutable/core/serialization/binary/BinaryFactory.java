@@ -0,0 +1,89 @@
+package org.jimmutable.core.serialization.binary;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.IOContext;
+
+/**
+ * The Jackson factory for Format.JIMMUTABLE_BINARY. Like all Jackson
+ * factories, a single (shared) instance should be used for the whole process
+ * (see JacksonFactories.getSimpleFactory)
+ *
+ * Being a binary format, it can only be read from bytes and written to an
+ * OutputStream. Every char based method throws UnsupportedOperationException
+ *
+ * @author jim.kane
+ *
+ */
+public class BinaryFactory extends JsonFactory
+{
+	private static final long serialVersionUID = 1L;
+	
+	public BinaryFactory()
+	{
+	}
+	
+	public BinaryFactory copy()
+	{
+		return new BinaryFactory();
+	}
+	
+	public String getFormatName()
+	{
+		return "JIMMUTABLE_BINARY";
+	}
+	
+	public boolean canUseCharArrays()
+	{
+		return false;
+	}
+	
+	protected JsonParser _createParser(InputStream in, IOContext io_context) throws IOException
+	{
+		return new BinaryParser(io_context, _parserFeatures, _objectCodec, in);
+	}
+	
+	protected JsonParser _createParser(byte[] data, int offset, int len, IOContext io_context) throws IOException
+	{
+		return new BinaryParser(io_context, _parserFeatures, _objectCodec, data, offset, len);
+	}
+	
+	protected JsonParser _createParser(Reader r, IOContext io_context) throws IOException
+	{
+		throw new UnsupportedOperationException("The jimmutable binary format can not be read from chars");
+	}
+	
+	protected JsonParser _createParser(char[] data, int offset, int len, IOContext io_context, boolean recyclable) throws IOException
+	{
+		throw new UnsupportedOperationException("The jimmutable binary format can not be read from chars");
+	}
+	
+	protected JsonParser _createParser(DataInput input, IOContext io_context) throws IOException
+	{
+		throw new UnsupportedOperationException("The jimmutable binary format can not be read from a DataInput");
+	}
+	
+	protected JsonGenerator _createUTF8Generator(OutputStream out, IOContext io_context) throws IOException
+	{
+		return new BinaryGenerator(io_context, _generatorFeatures, _objectCodec, out);
+	}
+	
+	protected JsonGenerator _createGenerator(Writer out, IOContext io_context) throws IOException
+	{
+		throw new UnsupportedOperationException("The jimmutable binary format can not be written to chars");
+	}
+	
+	protected Writer _createWriter(OutputStream out, JsonEncoding enc, IOContext io_context) throws IOException
+	{
+		throw new UnsupportedOperationException("The jimmutable binary format can not be written to chars");
+	}
+}
@@ -0,0 +1,89 @@
+package org.jimmutable.core.serialization.binary;
+
+/**
+ * The constants that define Format.JIMMUTABLE_BINARY.
+ *
+ * A stream starts with a four byte header (HEADER), and is then a sequence of
+ * tokens, each an op code byte followed by its payload (if any):
+ *
+ * <pre>
+ * START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, TRUE, FALSE, NULL   (no payload)
+ * FIELD_NAME_DEFINE      varint length, UTF-8 bytes (the name gets the next field name id)
+ * FIELD_NAME_REFERENCE   varint id
+ * STRING                 varint length, UTF-8 bytes
+ * STRING_DEFINE          varint length, UTF-8 bytes (the value gets the next string id)
+ * STRING_REFERENCE       varint id
+ * INT                    zig zag varint
+ * FLOAT                  4 bytes (IEEE 754, big endian)
+ * DOUBLE                 8 bytes (IEEE 754, big endian)
+ * BIG_INTEGER            varint length, ASCII digits
+ * BIG_DECIMAL            varint length, ASCII digits
+ * </pre>
+ *
+ * The two dictionaries (field names, and string values) belong to the stream,
+ * not to any one document in it: a bulk file holding a million documents of
+ * the same type spells out each field name (and the type name) exactly once.
+ * String values are only put into the dictionary when they are type hints.
+ *
+ * @author jim.kane
+ *
+ */
+final public class BinaryFormat
+{
+	static final byte HEADER[] = { (byte)0x89, 'J', 'B', 1 };
+	
+	static final byte START_OBJECT = 0x01;
+	static final byte END_OBJECT = 0x02;
+	static final byte START_ARRAY = 0x03;
+	static final byte END_ARRAY = 0x04;
+	
+	static final byte FIELD_NAME_DEFINE = 0x05;
+	static final byte FIELD_NAME_REFERENCE = 0x06;
+	
+	static final byte STRING = 0x07;
+	static final byte STRING_DEFINE = 0x08;
+	static final byte STRING_REFERENCE = 0x09;
+	
+	static final byte INT = 0x0A;
+	static final byte FLOAT = 0x0B;
+	static final byte DOUBLE = 0x0C;
+	static final byte BIG_INTEGER = 0x0D;
+	static final byte BIG_DECIMAL = 0x0E;
+	
+	static final byte TRUE = 0x0F;
+	static final byte FALSE = 0x10;
+	static final byte NULL = 0x11;
+	
+	/**
+	 * The maximum number of entries in each of a stream's dictionaries (once
+	 * full, new names/values are simply written out in full)
+	 */
+	static final int MAXIMUM_DICTIONARY_SIZE = 64 * 1024;
+	
+	private BinaryFormat()
+	{
+	}
+	
+	/**
+	 * Test to see if data starts with HEADER
+	 *
+	 * @param data
+	 *            The array holding the data
+	 * @param offset
+	 *            The index of the first byte of the data
+	 * @param length
+	 *            The number of bytes available
+	 * @return true if the data is in Format.JIMMUTABLE_BINARY
+	 */
+	static public boolean hasHeader(byte data[], int offset, int length)
+	{
+		if ( length < HEADER.length ) return false;
+		
+		for ( int i = 0; i < HEADER.length; i++ )
+		{
+			if ( data[offset+i] != HEADER[i] ) return false;
+		}
+		
+		return true;
+	}
+}
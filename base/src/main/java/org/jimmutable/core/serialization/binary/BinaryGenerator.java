@@ -0,0 +1,428 @@
+package org.jimmutable.core.serialization.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jimmutable.core.serialization.FieldName;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.base.GeneratorBase;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.json.JsonWriteContext;
+
+/**
+ * A Jackson generator that writes Format.JIMMUTABLE_BINARY (see BinaryFormat
+ * for a description of the encoding)
+ *
+ * Generators are created by BinaryFactory (via
+ * JacksonFactories.getSimpleFactory(Format.JIMMUTABLE_BINARY)), and, like all
+ * Jackson generators, are not thread safe.
+ *
+ * @author jim.kane
+ *
+ */
+public class BinaryGenerator extends GeneratorBase
+{
+	private IOContext io_context; // required
+	private OutputStream out; // required
+	
+	private byte buffer[]; // required, recycled (via io_context)
+	private int buffer_length; // the number of bytes in buffer waiting to be written to out
+	
+	private Map<String,Integer> field_names = new HashMap<>(); // required, the field name dictionary
+	private Map<String,Integer> strings = new HashMap<>(); // required, the (type hint) string dictionary
+	
+	private boolean next_string_is_type_hint; // set when the last field name written was type_hint
+	
+	BinaryGenerator(IOContext io_context, int features, ObjectCodec codec, OutputStream out)
+	{
+		super(features, codec);
+		
+		this.io_context = io_context;
+		this.out = out;
+		
+		buffer = io_context.allocWriteEncodingBuffer();
+		
+		System.arraycopy(BinaryFormat.HEADER, 0, buffer, 0, BinaryFormat.HEADER.length);
+		buffer_length = BinaryFormat.HEADER.length;
+	}
+	
+	public Version version()
+	{
+		return Version.unknownVersion();
+	}
+	
+	public void writeStartArray() throws IOException
+	{
+		_verifyValueWrite("start an array");
+		_writeContext = _writeContext.createChildArrayContext();
+		writeOpCode(BinaryFormat.START_ARRAY);
+	}
+	
+	public void writeEndArray() throws IOException
+	{
+		if ( !_writeContext.inArray() )
+			_reportError("Current context not an array but "+_writeContext.typeDesc());
+		
+		_writeContext = _writeContext.clearAndGetParent();
+		writeOpCode(BinaryFormat.END_ARRAY);
+	}
+	
+	public void writeStartObject() throws IOException
+	{
+		_verifyValueWrite("start an object");
+		_writeContext = _writeContext.createChildObjectContext();
+		writeOpCode(BinaryFormat.START_OBJECT);
+	}
+	
+	public void writeEndObject() throws IOException
+	{
+		if ( !_writeContext.inObject() )
+			_reportError("Current context not an object but "+_writeContext.typeDesc());
+		
+		_writeContext = _writeContext.clearAndGetParent();
+		writeOpCode(BinaryFormat.END_OBJECT);
+	}
+	
+	public void writeFieldName(String name) throws IOException
+	{
+		if ( _writeContext.writeFieldName(name) == JsonWriteContext.STATUS_EXPECT_VALUE )
+			_reportError("Can not write a field name, expecting a value");
+		
+		next_string_is_type_hint = name.equals(FieldName.FIELD_NAME_TYPE_HINT.getSimpleName());
+		
+		writeDictionaryString(field_names, name, BinaryFormat.FIELD_NAME_DEFINE, BinaryFormat.FIELD_NAME_REFERENCE);
+	}
+	
+	public void writeString(String text) throws IOException
+	{
+		if ( text == null )
+		{
+			writeNull();
+			return;
+		}
+		
+		_verifyValueWrite("write a string");
+		
+		if ( next_string_is_type_hint )
+		{
+			writeDictionaryString(strings, text, BinaryFormat.STRING_DEFINE, BinaryFormat.STRING_REFERENCE);
+			return;
+		}
+		
+		writeOpCode(BinaryFormat.STRING);
+		writeUTF8(text);
+	}
+	
+	public void writeString(char[] text, int offset, int len) throws IOException
+	{
+		writeString(new String(text, offset, len));
+	}
+	
+	public void writeRawUTF8String(byte[] text, int offset, int length) throws IOException
+	{
+		writeUTF8String(text, offset, length);
+	}
+	
+	public void writeUTF8String(byte[] text, int offset, int length) throws IOException
+	{
+		_verifyValueWrite("write a string");
+		
+		writeOpCode(BinaryFormat.STRING);
+		writeVarInt(length);
+		writeBytes(text, offset, length);
+	}
+	
+	public void writeRaw(String text) throws IOException
+	{
+		throw new UnsupportedOperationException("Raw output is not supported by the jimmutable binary format");
+	}
+	
+	public void writeRaw(String text, int offset, int len) throws IOException
+	{
+		writeRaw(text);
+	}
+	
+	public void writeRaw(char[] text, int offset, int len) throws IOException
+	{
+		writeRaw(new String(text, offset, len));
+	}
+	
+	public void writeRaw(char c) throws IOException
+	{
+		writeRaw(String.valueOf(c));
+	}
+	
+	/**
+	 * Binary data is written as a (base64) string, so that it reads back the
+	 * same way it does from every other format
+	 */
+	public void writeBinary(Base64Variant variant, byte[] data, int offset, int len) throws IOException
+	{
+		_verifyValueWrite("write binary value");
+		
+		writeOpCode(BinaryFormat.STRING);
+		writeUTF8(variant.encode(offset == 0 && len == data.length ? data : Arrays.copyOfRange(data, offset, offset+len)));
+	}
+	
+	public void writeNumber(int v) throws IOException
+	{
+		writeNumber((long)v);
+	}
+	
+	public void writeNumber(long v) throws IOException
+	{
+		_verifyValueWrite("write a number");
+		
+		writeOpCode(BinaryFormat.INT);
+		writeVarLong((v << 1) ^ (v >> 63));
+	}
+	
+	public void writeNumber(BigInteger v) throws IOException
+	{
+		if ( v == null )
+		{
+			writeNull();
+			return;
+		}
+		
+		_verifyValueWrite("write a number");
+		
+		writeOpCode(BinaryFormat.BIG_INTEGER);
+		writeUTF8(v.toString());
+	}
+	
+	public void writeNumber(double v) throws IOException
+	{
+		_verifyValueWrite("write a number");
+		
+		ensureCapacity(9);
+		
+		long bits = Double.doubleToRawLongBits(v);
+		
+		buffer[buffer_length++] = BinaryFormat.DOUBLE;
+		for ( int shift = 56; shift >= 0; shift -= 8 )
+			buffer[buffer_length++] = (byte)(bits >> shift);
+	}
+	
+	public void writeNumber(float v) throws IOException
+	{
+		_verifyValueWrite("write a number");
+		
+		ensureCapacity(5);
+		
+		int bits = Float.floatToRawIntBits(v);
+		
+		buffer[buffer_length++] = BinaryFormat.FLOAT;
+		for ( int shift = 24; shift >= 0; shift -= 8 )
+			buffer[buffer_length++] = (byte)(bits >> shift);
+	}
+	
+	public void writeNumber(BigDecimal v) throws IOException
+	{
+		if ( v == null )
+		{
+			writeNull();
+			return;
+		}
+		
+		_verifyValueWrite("write a number");
+		
+		writeOpCode(BinaryFormat.BIG_DECIMAL);
+		writeUTF8(_asString(v));
+	}
+	
+	public void writeNumber(String encoded_value) throws IOException
+	{
+		if ( encoded_value == null )
+		{
+			writeNull();
+			return;
+		}
+		
+		_verifyValueWrite("write a number");
+		
+		writeOpCode(BinaryFormat.BIG_DECIMAL);
+		writeUTF8(encoded_value);
+	}
+	
+	public void writeBoolean(boolean state) throws IOException
+	{
+		_verifyValueWrite("write a boolean value");
+		writeOpCode(state ? BinaryFormat.TRUE : BinaryFormat.FALSE);
+	}
+	
+	public void writeNull() throws IOException
+	{
+		_verifyValueWrite("write a null");
+		writeOpCode(BinaryFormat.NULL);
+	}
+	
+	public void flush() throws IOException
+	{
+		flushBuffer();
+		
+		if ( isEnabled(Feature.FLUSH_PASSED_TO_STREAM) )
+			out.flush();
+	}
+	
+	public void close() throws IOException
+	{
+		if ( isClosed() ) return;
+		
+		super.close();
+		
+		flushBuffer();
+		
+		if ( io_context.isResourceManaged() || isEnabled(Feature.AUTO_CLOSE_TARGET) )
+			out.close();
+		else if ( isEnabled(Feature.FLUSH_PASSED_TO_STREAM) )
+			out.flush();
+		
+		_releaseBuffers();
+	}
+	
+	protected void _releaseBuffers()
+	{
+		if ( buffer == null ) return;
+		
+		io_context.releaseWriteEncodingBuffer(buffer);
+		buffer = null;
+	}
+	
+	protected void _verifyValueWrite(String type_msg) throws IOException
+	{
+		if ( _writeContext.writeValue() == JsonWriteContext.STATUS_EXPECT_NAME )
+			_reportError("Can not "+type_msg+", expecting field name");
+	}
+	
+	/**
+	 * Write str as a reference to its dictionary entry, adding it to the
+	 * dictionary (and writing it out in full) the first time it is seen
+	 */
+	private void writeDictionaryString(Map<String,Integer> dictionary, String str, byte define_op_code, byte reference_op_code) throws IOException
+	{
+		Integer id = dictionary.get(str);
+		
+		if ( id != null )
+		{
+			writeOpCode(reference_op_code);
+			writeVarInt(id);
+			return;
+		}
+		
+		if ( dictionary.size() < BinaryFormat.MAXIMUM_DICTIONARY_SIZE )
+		{
+			dictionary.put(str, dictionary.size());
+			
+			writeOpCode(define_op_code);
+			writeUTF8(str);
+			return;
+		}
+		
+		/*
+		 * The dictionary is full: the value is written out in full (the reader
+		 * does not add definitions to a full dictionary either)
+		 */
+		writeOpCode(define_op_code);
+		writeUTF8(str);
+	}
+	
+	private void writeOpCode(byte op_code) throws IOException
+	{
+		ensureCapacity(1);
+		buffer[buffer_length++] = op_code;
+	}
+	
+	/**
+	 * Write a length prefixed UTF-8 string. Pure ASCII strings (the common
+	 * case) are copied straight into the output buffer
+	 */
+	private void writeUTF8(String str) throws IOException
+	{
+		int len = str.length();
+		
+		for ( int i = 0; i < len; i++ )
+		{
+			if ( str.charAt(i) >= 0x80 )
+			{
+				byte bytes[] = str.getBytes(StandardCharsets.UTF_8);
+				
+				writeVarInt(bytes.length);
+				writeBytes(bytes, 0, bytes.length);
+				return;
+			}
+		}
+		
+		writeVarInt(len);
+		
+		int offset = 0;
+		
+		while ( offset < len )
+		{
+			ensureCapacity(1);
+			
+			int count = Math.min(len - offset, buffer.length - buffer_length);
+			
+			for ( int i = 0; i < count; i++ )
+				buffer[buffer_length++] = (byte)str.charAt(offset++);
+		}
+	}
+	
+	private void writeVarInt(int value) throws IOException
+	{
+		writeVarLong(value & 0xFFFFFFFFL);
+	}
+	
+	private void writeVarLong(long value) throws IOException
+	{
+		ensureCapacity(10);
+		
+		while ( (value & ~0x7FL) != 0 )
+		{
+			buffer[buffer_length++] = (byte)((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		
+		buffer[buffer_length++] = (byte)value;
+	}
+	
+	private void writeBytes(byte[] data, int offset, int len) throws IOException
+	{
+		if ( len > buffer.length - buffer_length )
+		{
+			flushBuffer();
+			
+			if ( len > buffer.length )
+			{
+				out.write(data, offset, len);
+				return;
+			}
+		}
+		
+		System.arraycopy(data, offset, buffer, buffer_length, len);
+		buffer_length += len;
+	}
+	
+	private void ensureCapacity(int bytes) throws IOException
+	{
+		if ( buffer_length + bytes > buffer.length )
+			flushBuffer();
+	}
+	
+	private void flushBuffer() throws IOException
+	{
+		if ( buffer_length == 0 ) return;
+		
+		out.write(buffer, 0, buffer_length);
+		buffer_length = 0;
+	}
+}
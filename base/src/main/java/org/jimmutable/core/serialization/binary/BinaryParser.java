@@ -0,0 +1,537 @@
+package org.jimmutable.core.serialization.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jimmutable.core.serialization.FieldName;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.base.ParserMinimalBase;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.json.JsonReadContext;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+/**
+ * A Jackson parser that reads Format.JIMMUTABLE_BINARY (see BinaryFormat for a
+ * description of the encoding)
+ *
+ * Field names are decoded once per stream. Every later occurrence of a field
+ * is just a dictionary id, for which getCurrentFieldName() returns the
+ * (interned) FieldName directly -- no bytes are decoded, and no strings are
+ * hashed.
+ *
+ * Parsers are created by BinaryFactory (via
+ * JacksonFactories.getSimpleFactory(Format.JIMMUTABLE_BINARY)), and, like all
+ * Jackson parsers, are not thread safe.
+ *
+ * @author jim.kane
+ *
+ */
+public class BinaryParser extends ParserMinimalBase
+{
+	private IOContext io_context; // required
+	private ObjectCodec codec; // optional
+	private InputStream in; // optional, null when parsing a byte[]
+	
+	private byte buffer[]; // required
+	private boolean buffer_recyclable; // true if buffer was allocated from io_context
+	private int position; // the index of the next byte to read in buffer
+	private int end; // the index one past the last byte available in buffer
+	private long bytes_before_buffer; // the number of stream bytes consumed before buffer[0]
+	
+	private boolean header_read;
+	private boolean closed;
+	
+	private JsonReadContext context; // required
+	
+	private List<FieldName> field_names = new ArrayList<>(); // required, the field name dictionary
+	private List<String> strings = new ArrayList<>(); // required, the (type hint) string dictionary
+	
+	private FieldName current_field_name; // set when the current token is FIELD_NAME
+	private String text; // set when the current token is VALUE_STRING (or a big number)
+	private long long_value; // set when the current token is VALUE_NUMBER_INT
+	private double double_value; // set when the current token is VALUE_NUMBER_FLOAT
+	private NumberType number_type; // set when the current token is a number
+	
+	BinaryParser(IOContext io_context, int features, ObjectCodec codec, InputStream in)
+	{
+		super(features);
+		
+		this.io_context = io_context;
+		this.codec = codec;
+		this.in = in;
+		
+		buffer = io_context.allocReadIOBuffer();
+		buffer_recyclable = true;
+		
+		context = JsonReadContext.createRootContext(null);
+	}
+	
+	BinaryParser(IOContext io_context, int features, ObjectCodec codec, byte data[], int offset, int length)
+	{
+		super(features);
+		
+		this.io_context = io_context;
+		this.codec = codec;
+		
+		buffer = data;
+		position = offset;
+		end = offset + length;
+		bytes_before_buffer = -offset;
+		
+		context = JsonReadContext.createRootContext(null);
+	}
+	
+	public Version version()
+	{
+		return Version.unknownVersion();
+	}
+	
+	public ObjectCodec getCodec() { return codec; }
+	public void setCodec(ObjectCodec codec) { this.codec = codec; }
+	
+	/**
+	 * Get the field name of the current FIELD_NAME token
+	 *
+	 * @return The current field name (the same FieldName instance for every
+	 *         occurrence of the field in the stream)
+	 */
+	public FieldName getCurrentFieldName()
+	{
+		return current_field_name;
+	}
+	
+	public JsonToken nextToken() throws IOException
+	{
+		if ( closed ) return null;
+		
+		if ( !header_read )
+		{
+			if ( !ensureAvailable(1) )
+				return endOfInput();
+			
+			readHeader();
+		}
+		
+		text = null;
+		current_field_name = null;
+		number_type = null;
+		
+		if ( !ensureAvailable(1) )
+			return endOfInput();
+		
+		byte op_code = buffer[position++];
+		
+		switch(op_code)
+		{
+		case BinaryFormat.START_OBJECT:
+			context.expectComma();
+			context = context.createChildObjectContext(-1, -1);
+			return _currToken = JsonToken.START_OBJECT;
+		
+		case BinaryFormat.END_OBJECT:
+			if ( !context.inObject() ) _reportError("Unexpected end of object");
+			context = context.getParent();
+			return _currToken = JsonToken.END_OBJECT;
+		
+		case BinaryFormat.START_ARRAY:
+			context.expectComma();
+			context = context.createChildArrayContext(-1, -1);
+			return _currToken = JsonToken.START_ARRAY;
+		
+		case BinaryFormat.END_ARRAY:
+			if ( !context.inArray() ) _reportError("Unexpected end of array");
+			context = context.getParent();
+			return _currToken = JsonToken.END_ARRAY;
+		
+		case BinaryFormat.FIELD_NAME_DEFINE:
+			current_field_name = FieldName.intern(readUTF8());
+			if ( field_names.size() < BinaryFormat.MAXIMUM_DICTIONARY_SIZE ) field_names.add(current_field_name);
+			context.setCurrentName(current_field_name.getSimpleName());
+			return _currToken = JsonToken.FIELD_NAME;
+		
+		case BinaryFormat.FIELD_NAME_REFERENCE:
+			current_field_name = field_names.get(readDictionaryId(field_names.size()));
+			context.setCurrentName(current_field_name.getSimpleName());
+			return _currToken = JsonToken.FIELD_NAME;
+		
+		case BinaryFormat.STRING:
+			context.expectComma();
+			text = readUTF8();
+			return _currToken = JsonToken.VALUE_STRING;
+		
+		case BinaryFormat.STRING_DEFINE:
+			context.expectComma();
+			text = readUTF8();
+			if ( strings.size() < BinaryFormat.MAXIMUM_DICTIONARY_SIZE ) strings.add(text);
+			return _currToken = JsonToken.VALUE_STRING;
+		
+		case BinaryFormat.STRING_REFERENCE:
+			context.expectComma();
+			text = strings.get(readDictionaryId(strings.size()));
+			return _currToken = JsonToken.VALUE_STRING;
+		
+		case BinaryFormat.INT:
+			context.expectComma();
+			long zig_zag = readVarLong();
+			long_value = (zig_zag >>> 1) ^ -(zig_zag & 1);
+			number_type = long_value == (int)long_value ? NumberType.INT : NumberType.LONG;
+			return _currToken = JsonToken.VALUE_NUMBER_INT;
+		
+		case BinaryFormat.FLOAT:
+			context.expectComma();
+			double_value = Float.intBitsToFloat((int)readFixed(4));
+			number_type = NumberType.FLOAT;
+			return _currToken = JsonToken.VALUE_NUMBER_FLOAT;
+		
+		case BinaryFormat.DOUBLE:
+			context.expectComma();
+			double_value = Double.longBitsToDouble(readFixed(8));
+			number_type = NumberType.DOUBLE;
+			return _currToken = JsonToken.VALUE_NUMBER_FLOAT;
+		
+		case BinaryFormat.BIG_INTEGER:
+			context.expectComma();
+			text = readUTF8();
+			number_type = NumberType.BIG_INTEGER;
+			return _currToken = JsonToken.VALUE_NUMBER_INT;
+		
+		case BinaryFormat.BIG_DECIMAL:
+			context.expectComma();
+			text = readUTF8();
+			number_type = NumberType.BIG_DECIMAL;
+			return _currToken = JsonToken.VALUE_NUMBER_FLOAT;
+		
+		case BinaryFormat.TRUE:
+			context.expectComma();
+			return _currToken = JsonToken.VALUE_TRUE;
+		
+		case BinaryFormat.FALSE:
+			context.expectComma();
+			return _currToken = JsonToken.VALUE_FALSE;
+		
+		case BinaryFormat.NULL:
+			context.expectComma();
+			return _currToken = JsonToken.VALUE_NULL;
+		
+		default:
+			_reportError("Invalid jimmutable binary op code 0x"+Integer.toHexString(op_code & 0xFF));
+			return null;
+		}
+	}
+	
+	private JsonToken endOfInput() throws IOException
+	{
+		_handleEOF();
+		close();
+		return _currToken = null;
+	}
+	
+	protected void _handleEOF() throws JsonParseException
+	{
+		if ( !context.inRoot() )
+			_reportInvalidEOF(": expected close marker for "+context.typeDesc(), null);
+	}
+	
+	private void readHeader() throws IOException
+	{
+		header_read = true;
+		
+		if ( !ensureAvailable(BinaryFormat.HEADER.length) || !BinaryFormat.hasHeader(buffer, position, end - position) )
+			_reportError("Missing the jimmutable binary header");
+		
+		position += BinaryFormat.HEADER.length;
+	}
+	
+	public String getCurrentName() throws IOException
+	{
+		if ( _currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY )
+		{
+			JsonReadContext parent = context.getParent();
+			return parent == null ? null : parent.getCurrentName();
+		}
+		
+		return context.getCurrentName();
+	}
+	
+	public void overrideCurrentName(String name)
+	{
+		try
+		{
+			context.setCurrentName(name);
+		}
+		catch(IOException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	public void close() throws IOException
+	{
+		if ( closed ) return;
+		
+		closed = true;
+		
+		if ( in != null && (io_context.isResourceManaged() || isEnabled(Feature.AUTO_CLOSE_SOURCE)) )
+			in.close();
+		
+		if ( buffer_recyclable )
+		{
+			io_context.releaseReadIOBuffer(buffer);
+			buffer_recyclable = false;
+		}
+		
+		buffer = null;
+	}
+	
+	public boolean isClosed() { return closed; }
+	
+	public JsonStreamContext getParsingContext() { return context; }
+	
+	public JsonLocation getTokenLocation() { return getCurrentLocation(); }
+	
+	public JsonLocation getCurrentLocation()
+	{
+		return new JsonLocation(io_context.getSourceReference(), bytes_before_buffer + position, -1, -1);
+	}
+	
+	public String getText() throws IOException
+	{
+		if ( _currToken == null ) return null;
+		
+		switch(_currToken)
+		{
+		case FIELD_NAME: return current_field_name.getSimpleName();
+		case VALUE_STRING: return text;
+		case VALUE_NUMBER_INT:
+		case VALUE_NUMBER_FLOAT: return text != null ? text : getNumberValue().toString();
+		default: return _currToken.asString();
+		}
+	}
+	
+	public char[] getTextCharacters() throws IOException
+	{
+		String ret = getText();
+		return ret == null ? null : ret.toCharArray();
+	}
+	
+	public boolean hasTextCharacters() { return false; }
+	
+	public int getTextLength() throws IOException
+	{
+		String ret = getText();
+		return ret == null ? 0 : ret.length();
+	}
+	
+	public int getTextOffset() throws IOException { return 0; }
+	
+	public byte[] getBinaryValue(Base64Variant variant) throws IOException
+	{
+		if ( _currToken != JsonToken.VALUE_STRING )
+			_reportError("Current token ("+_currToken+") not VALUE_STRING, can not access as binary");
+		
+		ByteArrayBuilder builder = new ByteArrayBuilder();
+		_decodeBase64(text, builder, variant);
+		return builder.toByteArray();
+	}
+	
+	public NumberType getNumberType() throws IOException
+	{
+		return number_type;
+	}
+	
+	public Number getNumberValue() throws IOException
+	{
+		checkNumber();
+		
+		switch(number_type)
+		{
+		case INT: return (int)long_value;
+		case LONG: return long_value;
+		case FLOAT: return (float)double_value;
+		case DOUBLE: return double_value;
+		case BIG_INTEGER: return new BigInteger(text);
+		default: return new BigDecimal(text);
+		}
+	}
+	
+	public int getIntValue() throws IOException
+	{
+		checkNumber();
+		
+		if ( number_type == NumberType.INT ) return (int)long_value;
+		
+		return getNumberValue().intValue();
+	}
+	
+	public long getLongValue() throws IOException
+	{
+		checkNumber();
+		
+		if ( number_type == NumberType.INT || number_type == NumberType.LONG ) return long_value;
+		
+		return getNumberValue().longValue();
+	}
+	
+	public BigInteger getBigIntegerValue() throws IOException
+	{
+		checkNumber();
+		
+		if ( number_type == NumberType.BIG_INTEGER ) return new BigInteger(text);
+		if ( number_type == NumberType.INT || number_type == NumberType.LONG ) return BigInteger.valueOf(long_value);
+		
+		return getDecimalValue().toBigInteger();
+	}
+	
+	public float getFloatValue() throws IOException
+	{
+		return (float)getDoubleValue();
+	}
+	
+	public double getDoubleValue() throws IOException
+	{
+		checkNumber();
+		
+		if ( number_type == NumberType.FLOAT || number_type == NumberType.DOUBLE ) return double_value;
+		if ( number_type == NumberType.INT || number_type == NumberType.LONG ) return long_value;
+		
+		return Double.parseDouble(text);
+	}
+	
+	public BigDecimal getDecimalValue() throws IOException
+	{
+		checkNumber();
+		
+		switch(number_type)
+		{
+		case INT:
+		case LONG: return BigDecimal.valueOf(long_value);
+		case FLOAT:
+		case DOUBLE: return BigDecimal.valueOf(double_value);
+		default: return new BigDecimal(text);
+		}
+	}
+	
+	private void checkNumber() throws IOException
+	{
+		if ( number_type == null )
+			_reportError("Current token ("+_currToken+") not numeric, can not use numeric value accessors");
+	}
+	
+	private int readDictionaryId(int dictionary_size) throws IOException
+	{
+		long id = readVarLong();
+		
+		if ( id < 0 || id >= dictionary_size )
+			_reportError("Invalid jimmutable binary dictionary reference "+id);
+		
+		return (int)id;
+	}
+	
+	private String readUTF8() throws IOException
+	{
+		long len = readVarLong();
+		
+		if ( len < 0 || len > Integer.MAX_VALUE )
+			_reportError("Invalid jimmutable binary string length "+len);
+		
+		if ( !ensureAvailable((int)len) )
+			_reportInvalidEOF();
+		
+		String ret = new String(buffer, position, (int)len, StandardCharsets.UTF_8);
+		position += (int)len;
+		
+		return ret;
+	}
+	
+	private long readVarLong() throws IOException
+	{
+		long ret = 0;
+		
+		for ( int shift = 0; shift < 64; shift += 7 )
+		{
+			if ( !ensureAvailable(1) )
+				_reportInvalidEOF();
+			
+			byte b = buffer[position++];
+			ret |= (long)(b & 0x7F) << shift;
+			
+			if ( (b & 0x80) == 0 ) return ret;
+		}
+		
+		_reportError("Malformed jimmutable binary varint");
+		return 0;
+	}
+	
+	private long readFixed(int bytes) throws IOException
+	{
+		if ( !ensureAvailable(bytes) )
+			_reportInvalidEOF();
+		
+		long ret = 0;
+		
+		for ( int i = 0; i < bytes; i++ )
+			ret = (ret << 8) | (buffer[position++] & 0xFF);
+		
+		return ret;
+	}
+	
+	/**
+	 * Make sure that (at least) count bytes are available in buffer, starting
+	 * at position, reading more from the input stream as required.
+	 *
+	 * buffer only grows (doubling) as the bytes actually arrive, so a corrupt
+	 * (huge) length read from the stream can not allocate a huge buffer up
+	 * front
+	 *
+	 * @return false if the input ends first
+	 */
+	private boolean ensureAvailable(int count) throws IOException
+	{
+		if ( end - position >= count ) return true;
+		if ( in == null || buffer == null ) return false;
+		
+		int remaining = end - position;
+		
+		System.arraycopy(buffer, position, buffer, 0, remaining);
+		
+		bytes_before_buffer += position;
+		position = 0;
+		end = remaining;
+		
+		while ( end < count )
+		{
+			if ( end == buffer.length )
+				growBuffer((int)Math.min(count, buffer.length * 2L));
+			
+			int read = in.read(buffer, end, buffer.length - end);
+			if ( read < 0 ) return false;
+			
+			end += read;
+		}
+		
+		return true;
+	}
+	
+	private void growBuffer(int capacity)
+	{
+		byte bigger[] = Arrays.copyOf(buffer, capacity);
+		
+		if ( buffer_recyclable ) io_context.releaseReadIOBuffer(buffer);
+		
+		buffer = bigger;
+		buffer_recyclable = false;
+	}
+}
@@ -0,0 +1,124 @@
+package org.jimmutable.core.serialization.reader;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+
+import org.jimmutable.core.exceptions.SerializeException;
+import org.jimmutable.core.serialization.FieldName;
+import org.jimmutable.core.serialization.Format;
+import org.jimmutable.core.utils.Validator;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads the documents written by a DocumentStreamWriter, one at a time. The
+ * format of the stream is detected from its first few bytes.
+ *
+ * <pre>
+ * DocumentStreamReader r = new DocumentStreamReader(in);
+ * Object document;
+ * while ( (document = r.readDocument(null)) != null ) ...
+ * r.close();
+ * </pre>
+ *
+ * @author jim.kane
+ *
+ */
+public class DocumentStreamReader
+{
+	private JsonParser json_parser; // required
+	private Parser tree_parser; // required
+	
+	private boolean end_of_stream;
+	
+	/**
+	 * Create a reader that reads documents from in. in is not closed when
+	 * this reader is closed
+	 *
+	 * @param in
+	 *            The stream to read from
+	 */
+	public DocumentStreamReader(InputStream in)
+	{
+		Validator.notNull(in);
+		
+		try
+		{
+			if ( !in.markSupported() ) in = new BufferedInputStream(in);
+			
+			Format format = Parser.figureFormat(in);
+			
+			json_parser = Parser.createJsonParser(format, in);
+			json_parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+			
+			tree_parser = new Parser(json_parser);
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error creating document stream reader", e2);
+		}
+	}
+	
+	/**
+	 * Read the next document
+	 *
+	 * @param default_value
+	 *            The value to return when there are no more documents
+	 * @return The next object in the stream (which may be null, if null was
+	 *         written), or default_value if the end of the stream has been
+	 *         reached
+	 */
+	public Object readDocument(Object default_value)
+	{
+		if ( end_of_stream ) return default_value;
+		
+		try
+		{
+			JsonToken token = json_parser.nextToken();
+			
+			if ( token == null )
+			{
+				end_of_stream = true;
+				return default_value;
+			}
+			
+			if ( token != JsonToken.START_OBJECT )
+				throw new SerializeException("Expected the start of a document, found "+token);
+			
+			ObjectParseTree t = tree_parser.processObjectTokens(tree_parser.createNode(FieldName.FIELD_DOCUMENT_ROOT), null);
+			
+			Object ret = t.asObject(null, true);
+			tree_parser.releaseTree(t);
+			
+			return ret;
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while reading document", e2);
+		}
+	}
+	
+	/**
+	 * Close this reader (the underlying stream is not closed)
+	 */
+	public void close()
+	{
+		try
+		{
+			json_parser.close();
+		}
+		catch(Exception e)
+		{
+			throw new SerializeException("Error closing document stream reader", e);
+		}
+	}
+}
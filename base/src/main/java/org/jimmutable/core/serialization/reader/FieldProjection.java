@@ -0,0 +1,147 @@
+package org.jimmutable.core.serialization.reader;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jimmutable.core.serialization.FieldName;
+import org.jimmutable.core.utils.Validator;
+
+/**
+ * A FieldProjection tells Parser which fields of a document to read. Every
+ * other field is skipped by the underlying Jackson parser (via skipChildren)
+ * without ever being turned into ObjectParseTree nodes, which makes extracting
+ * a few fields out of a large document much cheaper than a full parse.
+ *
+ * Each field in a projection is either read in full, or (when it holds an
+ * object, or an array of objects) read through a nested projection of its
+ * own. The type hint (and, for primitives, the value) of every object read
+ * is always kept.
+ *
+ * FieldProjection is immutable, and therefore thread safe (a single instance
+ * can, and should, be shared by all of the parses that use it)
+ *
+ * <pre>
+ * FieldProjection key_only = new FieldProjection(FIELD_ITEM_KEY);
+ * ObjectParseTree t = Parser.parse(document, key_only);
+ * ItemKey key = (ItemKey)t.getObject(FIELD_ITEM_KEY, null);
+ * </pre>
+ *
+ * @author jim.kane
+ *
+ */
+final public class FieldProjection
+{
+	private Map<FieldName,FieldProjection> fields; // required, a null value means "the whole field"
+	
+	/**
+	 * Create a projection that reads the specified fields in full
+	 *
+	 * @param field_names
+	 *            The fields to read
+	 */
+	public FieldProjection(FieldName... field_names)
+	{
+		this(field_names == null ? null : Arrays.asList(field_names));
+	}
+	
+	/**
+	 * Create a projection that reads the specified fields in full
+	 *
+	 * @param field_names
+	 *            The fields to read
+	 */
+	public FieldProjection(Collection<FieldName> field_names)
+	{
+		Validator.notNull(field_names);
+		
+		fields = new HashMap<>();
+		
+		for ( FieldName field_name : field_names )
+		{
+			Validator.notNull(field_name);
+			fields.put(field_name, null);
+		}
+	}
+	
+	private FieldProjection(Map<FieldName,FieldProjection> fields)
+	{
+		this.fields = fields;
+	}
+	
+	/**
+	 * Create a new projection that also reads field_name in full
+	 *
+	 * @param field_name
+	 *            The field to add
+	 * @return A new FieldProjection (this one is not modified)
+	 */
+	public FieldProjection withField(FieldName field_name)
+	{
+		Validator.notNull(field_name);
+		
+		Map<FieldName,FieldProjection> new_fields = new HashMap<>(fields);
+		new_fields.put(field_name, null);
+		
+		return new FieldProjection(new_fields);
+	}
+	
+	/**
+	 * Create a new projection that also reads field_name, but only the parts
+	 * of it selected by nested_projection
+	 *
+	 * @param field_name
+	 *            The field to add
+	 * @param nested_projection
+	 *            The projection to apply to the object(s) held by field_name
+	 * @return A new FieldProjection (this one is not modified)
+	 */
+	public FieldProjection withField(FieldName field_name, FieldProjection nested_projection)
+	{
+		Validator.notNull(field_name, nested_projection);
+		
+		Map<FieldName,FieldProjection> new_fields = new HashMap<>(fields);
+		new_fields.put(field_name, nested_projection);
+		
+		return new FieldProjection(new_fields);
+	}
+	
+	/**
+	 * Test to see if a field is selected by this projection. The type hint
+	 * (and primitive value) fields are always selected
+	 *
+	 * @param field_name
+	 *            The field to test
+	 * @return true if the field should be read, false if it should be skipped
+	 */
+	public boolean includes(FieldName field_name)
+	{
+		if ( field_name == null ) return false;
+		if ( field_name.equals(FieldName.FIELD_NAME_TYPE_HINT) ) return true;
+		if ( field_name.equals(FieldName.FIELD_NAME_PRIMITIVE_VALUE) ) return true;
+		if ( field_name.equals(FieldName.FIELD_NAME_PRIMITIVE_VALUE_BASE64) ) return true;
+		
+		return fields.containsKey(field_name);
+	}
+	
+	/**
+	 * Get the nested projection of a field
+	 *
+	 * @param field_name
+	 *            The field
+	 * @param default_value
+	 *            The value to return if the field is read in full (or is not
+	 *            selected at all)
+	 * @return The projection to apply to the object(s) held by field_name
+	 */
+	public FieldProjection getOptionalNestedProjection(FieldName field_name, FieldProjection default_value)
+	{
+		if ( field_name == null ) return default_value;
+		
+		FieldProjection ret = fields.get(field_name);
+		if ( ret == null ) return default_value;
+		
+		return ret;
+	}
+}
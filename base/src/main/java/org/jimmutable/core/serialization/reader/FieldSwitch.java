@@ -0,0 +1,141 @@
+package org.jimmutable.core.serialization.reader;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jimmutable.core.exceptions.SerializeException;
+import org.jimmutable.core.serialization.FieldName;
+import org.jimmutable.core.utils.Validator;
+
+/**
+ * A FieldSwitch maps the fields a streaming constructor reads to case
+ * numbers, so that the constructor can dispatch on each field with a single
+ * table lookup and a switch statement (instead of testing the field against
+ * every field name in turn).
+ *
+ * The case number of a field is its position in the list the switch was
+ * created with. The hash table is built once (when the switch is created), and
+ * field names are compared by identity before equality (field names read by
+ * ObjectStreamReader are interned), so a lookup is usually one hash and one
+ * reference comparison.
+ *
+ * FieldSwitch is immutable, and therefore thread safe. Create one per class,
+ * as a static final:
+ *
+ * <pre>
+ * static private final FieldSwitch STREAMED_FIELDS = new FieldSwitch(FIELD_ITEM_KEY, FIELD_ATTRIBUTES);
+ *
+ * public ItemSpecifications(ObjectStreamReader reader)
+ * {
+ * 	int field;
+ *
+ * 	while ( (field = reader.nextField(STREAMED_FIELDS)) != FieldSwitch.END_OF_OBJECT )
+ * 	{
+ * 		switch(field)
+ * 		{
+ * 		case 0: item_key = (ItemKey)reader.readObject(null); break;
+ * 		case 1: reader.readMap(attributes, ItemAttribute.READ_AS, ReadAs.STRING, OnError.SKIP); break;
+ * 		}
+ * 	}
+ * }
+ * </pre>
+ *
+ * @author jim.kane
+ *
+ */
+final public class FieldSwitch
+{
+	/**
+	 * The case number of any field not in the switch
+	 */
+	static public final int NO_MATCH = -1;
+	
+	/**
+	 * Returned by ObjectStreamReader.nextField(FieldSwitch) once there are no
+	 * more fields to read
+	 */
+	static public final int END_OF_OBJECT = -2;
+	
+	private FieldName table_names[]; // required, open addressing hash table of the field names
+	private int table_cases[]; // required, the case number of each slot in table_names
+	private int mask;
+	
+	private int size;
+	
+	/**
+	 * Create a switch
+	 *
+	 * @param field_names
+	 *            The fields to switch on. The case number of each field is its
+	 *            (zero based) index in this list
+	 */
+	public FieldSwitch(FieldName... field_names)
+	{
+		Validator.notNull((Object)field_names);
+		
+		size = field_names.length;
+		
+		int table_size = Integer.highestOneBit(Math.max(size, 1)) << 2; // always at least twice size
+		mask = table_size-1;
+		
+		table_names = new FieldName[table_size];
+		table_cases = new int[table_size];
+		
+		Set<FieldName> seen = new HashSet<>();
+		
+		for ( int i = 0; i < size; i++ )
+		{
+			FieldName field_name = field_names[i];
+			
+			Validator.notNull(field_name);
+			
+			if ( !seen.add(field_name) )
+				throw new SerializeException("The field "+field_name+" appears more than once in a FieldSwitch");
+			
+			int slot = field_name.hashCode() & mask;
+			
+			while ( table_names[slot] != null )
+			{
+				slot = (slot+1) & mask;
+			}
+			
+			table_names[slot] = FieldName.intern(field_name.getSimpleName());
+			table_cases[slot] = i;
+		}
+	}
+	
+	/**
+	 * Get the case number of a field
+	 *
+	 * @param field_name
+	 *            The field
+	 * @return The case number of field_name, or NO_MATCH if field_name is not
+	 *         part of this switch
+	 */
+	public int getSimpleCase(FieldName field_name)
+	{
+		if ( field_name == null ) return NO_MATCH;
+		
+		int slot = field_name.hashCode() & mask;
+		
+		while ( true )
+		{
+			FieldName name = table_names[slot];
+			
+			if ( name == null ) return NO_MATCH;
+			if ( name == field_name || name.equals(field_name) ) return table_cases[slot];
+			
+			slot = (slot+1) & mask;
+		}
+	}
+	
+	/**
+	 * Get the number of fields in this switch
+	 *
+	 * @return The number of fields (cases)
+	 */
+	public int size()
+	{
+		return size;
+	}
+}
@@ -0,0 +1,277 @@
+package org.jimmutable.core.serialization.reader;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import org.jimmutable.core.exceptions.SerializeException;
+import org.jimmutable.core.utils.Validator;
+
+/**
+ * Reads a stream of JSON documents (e.g. as written by a DocumentStreamWriter)
+ * that arrives in chunks, typically from a non-blocking NIO channel. Chunks
+ * are fed in as they arrive, and each document becomes available (as an
+ * object) as soon as its last byte has been fed -- the caller never blocks,
+ * and never has to assemble a whole payload first.
+ *
+ * Every chunk is scanned for the end of the current document as it is fed (so
+ * scanning overlaps I/O), and only the bytes of the document in progress are
+ * retained. A document larger than maximum_document_size is rejected (its
+ * bytes are dropped, and the rest of it is skipped as it arrives), which
+ * bounds the memory used per connection.
+ *
+ * A document that is too large, or that can not be read, does not stop the
+ * reader: feed throws a SerializeException, but reading resumes with the next
+ * document in the stream.
+ *
+ * <pre>
+ * IncrementalDocumentReader r = new IncrementalDocumentReader(1024*1024);
+ * ...
+ * channel.read(buffer);
+ * buffer.flip();
+ * r.feed(buffer);
+ * buffer.clear();
+ *
+ * Object document;
+ * while ( (document = r.readDocument(null)) != null ) ...
+ * </pre>
+ *
+ * IncrementalDocumentReader is not thread safe (use one per connection)
+ *
+ * @author jim.kane
+ *
+ */
+public class IncrementalDocumentReader
+{
+	static private final Object NULL_DOCUMENT = new Object(); // stands in for null (written as a NullPrimative) in documents
+
+	private int maximum_document_size;
+
+	private byte buffer[] = new byte[8192]; // required, holds the (partial) document being read
+	private int length; // the number of bytes held in buffer
+	private int scan_position; // the index of the next byte in buffer to scan
+
+	private boolean in_document; // true once the first byte of a document has been seen
+	private int depth; // the nesting depth of objects/arrays
+	private boolean in_string;
+	private boolean escape; // true if the previous byte (in a string) was a backslash
+	private boolean skipping; // true while the rest of a document that is too large is skipped (none of its bytes are kept)
+
+	private ArrayDeque<Object> documents = new ArrayDeque<>(); // required, documents read but not yet returned
+
+	/**
+	 * Create a reader
+	 *
+	 * @param maximum_document_size
+	 *            The largest document (in bytes) that will be read
+	 */
+	public IncrementalDocumentReader(int maximum_document_size)
+	{
+		Validator.min(maximum_document_size, 1);
+
+		this.maximum_document_size = maximum_document_size;
+	}
+
+	/**
+	 * Feed the remaining bytes (position to limit) of a chunk to the reader.
+	 * The position of chunk is advanced to its limit
+	 *
+	 * @param chunk
+	 *            The next chunk of the stream
+	 * @throws SerializeException
+	 *             if a document in the chunk is too large, or can not be
+	 *             read. The whole chunk is consumed all the same (the
+	 *             documents after the bad one are read), and the first error
+	 *             is thrown
+	 */
+	public void feed(ByteBuffer chunk)
+	{
+		Validator.notNull(chunk);
+
+		SerializeException first_error = null;
+
+		while ( true )
+		{
+			// Never buffer more than one byte past the maximum document size
+			int count = Math.min(chunk.remaining(), maximum_document_size + 1 - length);
+
+			ensureCapacity(count);
+
+			chunk.get(buffer, length, count);
+			length += count;
+
+			try
+			{
+				scan();
+			}
+			catch(SerializeException e)
+			{
+				if ( first_error == null ) first_error = e;
+				continue; // scan the bytes after the error
+			}
+
+			if ( !chunk.hasRemaining() ) break;
+		}
+
+		if ( first_error != null ) throw first_error;
+	}
+
+	/**
+	 * Feed bytes to the reader
+	 *
+	 * @param data
+	 *            The array holding the next chunk of the stream
+	 * @param offset
+	 *            The index of the first byte of the chunk
+	 * @param count
+	 *            The number of bytes in the chunk
+	 * @throws SerializeException
+	 *             see {@link #feed(ByteBuffer)}
+	 */
+	public void feed(byte data[], int offset, int count)
+	{
+		Validator.notNull(data);
+
+		feed(ByteBuffer.wrap(data, offset, count));
+	}
+
+	/**
+	 * Get the next complete document
+	 *
+	 * @param default_value
+	 *            The value to return if no complete document is available (yet)
+	 * @return The next document (which may be null, if null was written), or
+	 *         default_value if no document is available
+	 */
+	public Object readDocument(Object default_value)
+	{
+		Object ret = documents.poll();
+
+		if ( ret == null ) return default_value;
+		if ( ret == NULL_DOCUMENT ) return null;
+
+		return ret;
+	}
+
+	/**
+	 * Test to see if part of a document has been fed, but not the rest of it.
+	 * Useful for detecting a truncated stream once the channel reaches its
+	 * end
+	 *
+	 * @return true if a document is in progress
+	 */
+	public boolean hasPartialDocument()
+	{
+		return in_document;
+	}
+
+	/**
+	 * Scan the bytes fed since the last scan for the end of the current
+	 * document, reading each document that is completed.
+	 *
+	 * If a document can not be read, its bytes are discarded (all the same)
+	 * before the exception is thrown, so the reader is left ready to read
+	 * the rest of the stream. Any bytes that follow the bad document are
+	 * left to be scanned by the next call.
+	 *
+	 * If the document in progress grows too large, its bytes are discarded
+	 * and the reader skips the rest of it
+	 */
+	private void scan()
+	{
+		int document_start = 0;
+		int next = scan_position; // the index of the next byte to scan
+
+		try
+		{
+			while ( next < length )
+			{
+				byte b = buffer[next++];
+
+				if ( !in_document )
+				{
+					if ( b == ' ' || b == '\t' || b == '\r' || b == '\n' ) continue;
+
+					if ( b != '{' )
+						throw new SerializeException("Expected the start of a JSON document, found "+(char)(b & 0xFF));
+
+					in_document = true;
+					document_start = next - 1;
+					depth = 1;
+
+					continue;
+				}
+
+				if ( in_string )
+				{
+					if ( escape ) escape = false;
+					else if ( b == '\\' ) escape = true;
+					else if ( b == '"' ) in_string = false;
+
+					continue;
+				}
+
+				switch(b)
+				{
+				case '"':
+					in_string = true;
+					break;
+
+				case '{':
+				case '[':
+					depth++;
+					break;
+
+				case '}':
+				case ']':
+					if ( --depth == 0 )
+					{
+						in_document = false; // before reading, so that a bad document is discarded too
+
+						if ( skipping ) skipping = false;
+						else readDocument(document_start, next);
+					}
+					break;
+				}
+			}
+		}
+		finally
+		{
+			// Discard everything scanned, but the document in progress
+			int keep_from = in_document && !skipping ? document_start : next;
+
+			System.arraycopy(buffer, keep_from, buffer, 0, length - keep_from);
+			length -= keep_from;
+			scan_position = next - keep_from;
+		}
+
+		if ( length > maximum_document_size )
+		{
+			skipping = true;
+			length = 0;
+			scan_position = 0;
+
+			throw new SerializeException(String.format("Document exceeds the maximum size of %,d bytes", maximum_document_size));
+		}
+	}
+
+	private void readDocument(int from, int to)
+	{
+		if ( to - from > maximum_document_size )
+			throw new SerializeException(String.format("Document exceeds the maximum size of %,d bytes", maximum_document_size));
+
+		ObjectParseTree t = Parser.parse(buffer, from, to - from);
+		
+		Object document = t.asObject(null, true);
+		ParseTreeArena.releaseToCurrentThreadArena(t);
+
+		documents.add(document == null ? NULL_DOCUMENT : document);
+	}
+
+	private void ensureCapacity(int count)
+	{
+		if ( length + count <= buffer.length ) return;
+
+		buffer = Arrays.copyOf(buffer, Math.min(Math.max(buffer.length * 2, length + count), maximum_document_size + 1));
+	}
+}
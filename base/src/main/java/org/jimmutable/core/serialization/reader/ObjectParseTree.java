@@ -1,16 +1,27 @@
 package org.jimmutable.core.serialization.reader;
 
-import java.lang.reflect.Constructor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.jimmutable.core.exceptions.SerializeException;
 import org.jimmutable.core.exceptions.ValidationException;
+import org.jimmutable.core.fields.FieldDoubleArrayList;
+import org.jimmutable.core.fields.FieldIntArrayList;
+import org.jimmutable.core.fields.FieldLongArrayList;
+import org.jimmutable.core.fields.FieldLongDoubleHashMap;
+import org.jimmutable.core.fields.FieldLongHashSet;
 import org.jimmutable.core.objects.StandardObject;
 import org.jimmutable.core.serialization.FieldName;
 import org.jimmutable.core.serialization.TypeName;
@@ -30,12 +41,59 @@ import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 final public class ObjectParseTree implements Iterable<ObjectParseTree>
 {
-	static private Map<TypeName,Class> standard_object_types = new ConcurrentHashMap();
+	/**
+	 * The (ObjectParseTree) constructor of each registered type, resolved once
+	 * at registration
+	 */
+	static private Map<TypeName,MethodHandle> standard_object_constructors = new ConcurrentHashMap();
+	
+	/**
+	 * Nodes with fewer children than this are searched linearly (which, for
+	 * small nodes, is faster than hashing and costs no memory)
+	 */
+	static private final int MINIMUM_CHILDREN_TO_INDEX = 8;
+	
+	/**
+	 * Nodes pooled by a ParseTreeArena keep child arrays up to this size
+	 * (larger arrays, e.g. those of big collections, are left to the GC)
+	 */
+	static private final int MAXIMUM_CHILDREN_TO_KEEP_WHEN_CLEARED = 64;
+	
+	/**
+	 * Collections and maps with fewer elements than this are always read on
+	 * the calling thread, even when a ForkJoinPool is supplied (below this
+	 * size, splitting the work up costs more than it saves)
+	 */
+	static public final int MINIMUM_ELEMENTS_TO_READ_IN_PARALLEL = 1024;
+	
+	/**
+	 * The number of elements each (leaf) task reads when a collection or map
+	 * is read in parallel
+	 */
+	static private final int ELEMENTS_PER_TASK = 256;
+	
+	/**
+	 * The ways in which a node can hold its value. Scalars that arrive from the
+	 * parser as native JSON numbers and booleans are kept in primitive_value
+	 * (no String is ever made for them, unless asked for)
+	 */
+	static private final byte VALUE_TYPE_TEXT = 0; // value (which may be null)
+	static private final byte VALUE_TYPE_LONG = 1; // primitive_value is the long
+	static private final byte VALUE_TYPE_DOUBLE = 2; // primitive_value is the raw bits of the double
+	static private final byte VALUE_TYPE_BOOLEAN = 3; // primitive_value is 1 (true) or 0 (false)
 	
 	private FieldName field_name; // required
 	private String value; // optional
+	private byte value_type = VALUE_TYPE_TEXT;
+	private long primitive_value;
 	private TypeName type_hint; // optional
-	private LinkedList<ObjectParseTree> children; // optional
+	
+	private ObjectParseTree children[]; // optional
+	private int child_count;
+	
+	private int first_child_with_name[]; // optional, open addressing hash table of child indexes (-1 is empty)
+	private int next_child_with_same_name[]; // optional, for each child the index of the next child with the same name (-1 is none)
+	private int field_index_mask = -1; // the mask of the slots of first_child_with_name in use, -1 when there is no field name index
 	
 	/**
 	 * Construct an ObjectParseTree.
@@ -62,21 +120,58 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	protected void setValue(String value)
 	{
 		this.value = value;
+		this.value_type = VALUE_TYPE_TEXT;
 		
 		// We always intern the type hint, for faster comparison later on
 		if ( field_name.equals(FieldName.FIELD_NAME_TYPE_HINT) )
 		{
-			this.type_hint = new TypeName(value);
+			this.type_hint = TypeName.intern(value);
 		}
 		
 		// The base 64 primative values are handled quite gently...
 		if ( field_name.equals(FieldName.FIELD_NAME_PRIMITIVE_VALUE_BASE64) )
 		{
 			field_name = FieldName.FIELD_NAME_PRIMITIVE_VALUE;
-			this.value = new String(Base64.getDecoder().decode(value));
+			this.value = new String(Base64.getDecoder().decode(value), StandardCharsets.UTF_8);
 		}
 	}
 	
+	/**
+	 * Set the value to a (native) integer
+	 * 
+	 * @param value The value to set
+	 */
+	protected void setValue(long value)
+	{
+		this.value = null;
+		this.value_type = VALUE_TYPE_LONG;
+		this.primitive_value = value;
+	}
+	
+	/**
+	 * Set the value to a (native) floating point number
+	 * 
+	 * @param value The value to set
+	 */
+	protected void setValue(double value)
+	{
+		this.value = null;
+		this.value_type = VALUE_TYPE_DOUBLE;
+		this.primitive_value = Double.doubleToRawLongBits(value);
+	}
+	
+	/**
+	 * Set the value to a (native) boolean
+	 * 
+	 * @param value The value to set
+	 */
+	protected void setValue(boolean value)
+	{
+		this.value = null;
+		this.value_type = VALUE_TYPE_BOOLEAN;
+		this.primitive_value = value ? 1 : 0;
+	}
+	
 	/**
 	 * Get the field name of this node in the parse tree
 	 * 
@@ -94,7 +189,7 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	 */
 	public boolean hasChildren() 
 	{ 
-		return children != null && !children.isEmpty(); 
+		return child_count > 0; 
 	}
 	
 	/**
@@ -105,7 +200,7 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	 */
 	public boolean hasValue() 
 	{ 
-		return value != null; 
+		return value != null || value_type != VALUE_TYPE_TEXT; 
 	}
 	
 	/**
@@ -121,15 +216,41 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	 */
 	private String getOptionalValue(String default_value) 
 	{ 
-		if ( !hasValue() ) return default_value;
+		switch(value_type)
+		{
+		case VALUE_TYPE_LONG: return Long.toString(primitive_value);
+		case VALUE_TYPE_DOUBLE: return Double.toString(Double.longBitsToDouble(primitive_value));
+		case VALUE_TYPE_BOOLEAN: return primitive_value != 0 ? "true" : "false";
+		}
+		
+		if ( value == null ) return default_value;
 		return value;
 	}
 	
+	/**
+	 * Find the node that holds the value of this (primitive) node: either this
+	 * node itself, or, for primitives in complete object form, the
+	 * primitive_value child
+	 * 
+	 * @return The node holding the value, or null if there is no value
+	 */
+	private ObjectParseTree getPrimativeValueNode()
+	{
+		if ( hasValue() ) return this;
+		
+		if ( isTypeHint(TypeName.TYPE_NAME_NULL) ) return null;
+		
+		if ( isPrimativeObject() )
+			return findChild(FieldName.FIELD_NAME_PRIMITIVE_VALUE, null);
+		
+		return null;
+	}
+	
 	private String getPrimativeValueAsString(String default_value)
 	{
 		if ( hasValue() )
 		{
-			return value;
+			return getOptionalValue(default_value);
 		}
 		
 		if ( isTypeHint(TypeName.TYPE_NAME_NULL) )
@@ -157,9 +278,25 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	 */
 	public Iterator<ObjectParseTree> iterator() 
 	{
-		if ( children == null ) return Collections.emptyIterator();
+		if ( child_count == 0 ) return Collections.emptyIterator();
+		
+		return new ChildIterator();
+	}
+	
+	private class ChildIterator implements Iterator<ObjectParseTree>
+	{
+		private int next_index = 0;
+		
+		public boolean hasNext()
+		{
+			return next_index < child_count;
+		}
 		
-		return children.iterator();
+		public ObjectParseTree next()
+		{
+			if ( !hasNext() ) throw new NoSuchElementException();
+			return children[next_index++];
+		}
 	}
 	
 	/**
@@ -170,8 +307,116 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	protected void add(ObjectParseTree child)
 	{
 		Validator.notNull(child);
-		if ( children == null ) children = new LinkedList();
-		children.add(child);
+		
+		if ( children == null ) 
+			children = new ObjectParseTree[4];
+		else if ( child_count == children.length ) 
+			children = Arrays.copyOf(children, child_count*2);
+		
+		children[child_count++] = child;
+		
+		clearFieldIndex();
+	}
+	
+	/**
+	 * Build the field name index of this node. Called by Parser once all of
+	 * the children of this node have been added. Until this is called (or if
+	 * this node has only a handful of children) children are found by a linear
+	 * search.
+	 */
+	protected void buildFieldIndex()
+	{
+		clearFieldIndex();
+		
+		if ( child_count < MINIMUM_CHILDREN_TO_INDEX ) return;
+		
+		int table_size = Integer.highestOneBit(child_count) << 2; // always at least twice child_count
+		int mask = table_size-1;
+		
+		// The arrays of a node pooled by a ParseTreeArena are reused when they are large enough
+		if ( first_child_with_name == null || first_child_with_name.length < table_size ) 
+			first_child_with_name = new int[table_size];
+		
+		Arrays.fill(first_child_with_name, 0, table_size, -1);
+		
+		if ( next_child_with_same_name == null || next_child_with_same_name.length < child_count ) 
+			next_child_with_same_name = new int[child_count];
+		
+		// Walk backwards, so that each slot ends up holding the first child with a given name and each chain runs in document order
+		for ( int i = child_count-1; i >= 0; i-- )
+		{
+			FieldName name = children[i].field_name;
+			
+			int slot = name.hashCode() & mask;
+			
+			while ( first_child_with_name[slot] != -1 && !children[first_child_with_name[slot]].field_name.equals(name) )
+			{
+				slot = (slot+1) & mask;
+			}
+			
+			next_child_with_same_name[i] = first_child_with_name[slot];
+			first_child_with_name[slot] = i;
+		}
+		
+		field_index_mask = mask;
+	}
+	
+	/**
+	 * Stop using the field name index (its arrays are kept, to be reused by
+	 * the next call to buildFieldIndex)
+	 */
+	private void clearFieldIndex()
+	{
+		field_index_mask = -1;
+	}
+	
+	/**
+	 * Get the index of the first child with a given name
+	 * 
+	 * @return The index of the first child with field_name, or -1 if there is
+	 *         no such child
+	 */
+	private int firstChildIndex(FieldName field_name)
+	{
+		if ( field_index_mask == -1 ) 
+			return nextChildIndex(field_name, 0);
+		
+		int mask = field_index_mask;
+		int slot = field_name.hashCode() & mask;
+		
+		while ( true )
+		{
+			int index = first_child_with_name[slot];
+			
+			if ( index == -1 ) return -1;
+			if ( children[index].field_name.equals(field_name) ) return index;
+			
+			slot = (slot+1) & mask;
+		}
+	}
+	
+	/**
+	 * Get the index of the next child with the same name as the child at index
+	 * 
+	 * @return The index of the next child with the same field name, or -1 if
+	 *         there is no such child
+	 */
+	private int nextChildIndex(int index)
+	{
+		if ( field_index_mask != -1 ) 
+			return next_child_with_same_name[index];
+		
+		return nextChildIndex(children[index].field_name, index+1);
+	}
+	
+	private int nextChildIndex(FieldName field_name, int from)
+	{
+		for ( int i = from; i < child_count; i++ )
+		{
+			if ( children[i].field_name.equals(field_name) ) return i;
+		}
+		
+		return -1;
 	}
 	
 	/**
@@ -189,15 +434,10 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	{
 		if ( field_name == null ) return default_value;
 		
-		for ( ObjectParseTree child : this )
-		{
-			if ( child.getSimpleFieldName().equals(field_name) )
-			{
-				return child;
-			}
-		}
+		int index = firstChildIndex(field_name);
+		if ( index == -1 ) return default_value;
 		
-		return default_value;
+		return children[index];
 	}
 	
 	/**
@@ -259,14 +499,74 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 		return tn.equals(name_to_test);
 	}
 	
+	/**
+	 * Get the number of children. Used by ParseTreeArena
+	 */
+	int getSimpleChildCount()
+	{
+		return child_count;
+	}
+	
+	/**
+	 * Get the child at index. Used by ParseTreeArena
+	 */
+	ObjectParseTree getSimpleChild(int index)
+	{
+		return children[index];
+	}
+	
+	/**
+	 * Wipe this node (but not its children), so that it can be pooled by a
+	 * ParseTreeArena. A small child array (and its field name index arrays)
+	 * are kept, to be filled again by the next tree the node is part of
+	 */
+	void clear()
+	{
+		field_name = null;
+		value = null;
+		value_type = VALUE_TYPE_TEXT;
+		primitive_value = 0;
+		type_hint = null;
+		
+		if ( children != null )
+		{
+			if ( children.length > MAXIMUM_CHILDREN_TO_KEEP_WHEN_CLEARED ) 
+				children = null;
+			else
+				Arrays.fill(children, 0, child_count, null);
+		}
+		
+		if ( next_child_with_same_name != null && next_child_with_same_name.length > MAXIMUM_CHILDREN_TO_KEEP_WHEN_CLEARED )
+		{
+			first_child_with_name = null;
+			next_child_with_same_name = null;
+		}
+		
+		child_count = 0;
+		
+		clearFieldIndex();
+	}
+	
+	/**
+	 * Give a (cleared) node pooled by a ParseTreeArena a new field name
+	 */
+	void reuse(FieldName field_name)
+	{
+		Validator.notNull(field_name);
+		
+		this.field_name = field_name;
+	}
+	
 	/**
 	 * Called by Parser only
 	 */
 	protected void removeLast()
 	{
-		if ( children == null ) return;
+		if ( child_count == 0 ) return;
+		
+		children[--child_count] = null;
 		
-		children.removeLast();
+		clearFieldIndex();
 	}
 	
 	/**
@@ -328,8 +628,11 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	 */
 	public Character asCharacter(Character default_value)
 	{
-		String primative_value =  getPrimativeValueAsString(null);
-		
+		return toCharacter(getPrimativeValueAsString(null), default_value);
+	}
+	
+	static Character toCharacter(String primative_value, Character default_value)
+	{
 		if ( primative_value == null ) return default_value;
 		if ( primative_value.length() > 1 ) return default_value;
 		
@@ -347,8 +650,38 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	 */
 	public Boolean asBoolean(Boolean default_value)
 	{
-		String primative_value =  getPrimativeValueAsString(null);
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
+		
+		if ( node.value_type == VALUE_TYPE_BOOLEAN ) return node.primitive_value != 0;
+		
+		return toBoolean(node.getOptionalValue(null), default_value);
+	}
+	
+	/**
+	 * Interpret the current node as a boolean, without boxing
+	 * 
+	 * @param default_value
+	 *            The value to return if this node can not be interpreted as a
+	 *            boolean
+	 * @return This node, interpreted as a boolean, or default_value if this is
+	 *         not possible.
+	 */
+	public boolean asBooleanValue(boolean default_value)
+	{
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
+		
+		if ( node.value_type == VALUE_TYPE_BOOLEAN ) return node.primitive_value != 0;
 		
+		Boolean ret = toBoolean(node.getOptionalValue(null), null);
+		if ( ret == null ) return default_value;
+		
+		return ret; // Boolean.TRUE or Boolean.FALSE, no allocation
+	}
+	
+	static Boolean toBoolean(String primative_value, Boolean default_value)
+	{
 		if ( primative_value == null ) return default_value;
 		
 		if ( primative_value.equalsIgnoreCase("true") ) return true;
@@ -373,60 +706,58 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	 */
 	public Byte asByte(Byte default_value)
 	{
-		String primative_value =  getPrimativeValueAsString(null);
-		if ( primative_value == null ) return default_value;
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
 		
-		try
-		{
-			return new Byte(primative_value);
-		}
-		catch(Exception e)
+		if ( node.value_type == VALUE_TYPE_LONG )
 		{
-			return default_value;
+			if ( node.primitive_value < Byte.MIN_VALUE || node.primitive_value > Byte.MAX_VALUE ) return default_value;
+			return (byte)node.primitive_value;
 		}
+		
+		return toByte(node.getOptionalValue(null), default_value);
 	}
 	
 	/**
-	 * Interpret the current node as a short
+	 * Interpret the current node as a byte, without boxing
 	 * 
 	 * @param default_value
 	 *            The value to return if this node can not be interpreted as a
-	 *            short
-	 * @return This node, interpreted as a short, or default_value if this is
+	 *            byte
+	 * @return This node, interpreted as a byte, or default_value if this is
 	 *         not possible.
 	 */
-	public Short asShort(Short default_value)
+	public byte asByteValue(byte default_value)
 	{
-		String primative_value =  getPrimativeValueAsString(null);
-		if ( primative_value == null ) return default_value;
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
+		
+		if ( node.value_type == VALUE_TYPE_LONG )
+		{
+			if ( node.primitive_value < Byte.MIN_VALUE || node.primitive_value > Byte.MAX_VALUE ) return default_value;
+			return (byte)node.primitive_value;
+		}
+		
+		String text = node.getOptionalValue(null);
+		if ( text == null ) return default_value;
 		
 		try
 		{
-			return new Short(primative_value);
+			return Byte.parseByte(text);
 		}
-		catch(Exception e)
+		catch(NumberFormatException e)
 		{
 			return default_value;
 		}
 	}
 	
-	/**
-	 * Interpret the current node as a int
-	 * 
-	 * @param default_value
-	 *            The value to return if this node can not be interpreted as a
-	 *            int
-	 * @return This node, interpreted as a int, or default_value if this is
-	 *         not possible.
-	 */
-	public Integer asInteger(Integer default_value)
+	static Byte toByte(String primative_value, Byte default_value)
 	{
-		String primative_value =  getPrimativeValueAsString(null);
 		if ( primative_value == null ) return default_value;
 		
 		try
 		{
-			return new Integer(primative_value);
+			return new Byte(primative_value);
 		}
 		catch(Exception e)
 		{
@@ -435,88 +766,346 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	}
 	
 	/**
-	 * Interpret the current node as a long
+	 * Interpret the current node as a short
 	 * 
 	 * @param default_value
 	 *            The value to return if this node can not be interpreted as a
-	 *            long
-	 * @return This node, interpreted as a long, or default_value if this is
+	 *            short
+	 * @return This node, interpreted as a short, or default_value if this is
 	 *         not possible.
 	 */
-	
-	public Long asLong(Long default_value)
+	public Short asShort(Short default_value)
 	{
-		String primative_value =  getPrimativeValueAsString(null);
-		if ( primative_value == null ) return default_value;
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
 		
-		try
+		if ( node.value_type == VALUE_TYPE_LONG )
 		{
-			return new Long(primative_value);
-		}
-		catch(Exception e)
-		{
-			return default_value;
+			if ( node.primitive_value < Short.MIN_VALUE || node.primitive_value > Short.MAX_VALUE ) return default_value;
+			return (short)node.primitive_value;
 		}
+		
+		return toShort(node.getOptionalValue(null), default_value);
 	}
 	
 	/**
-	 * Interpret the current node as a float
+	 * Interpret the current node as a short, without boxing
 	 * 
 	 * @param default_value
 	 *            The value to return if this node can not be interpreted as a
-	 *            float
-	 * @return This node, interpreted as a float, or default_value if this is
+	 *            short
+	 * @return This node, interpreted as a short, or default_value if this is
 	 *         not possible.
 	 */
-	
-	public Float asFloat(Float default_value)
+	public short asShortValue(short default_value)
 	{
-		String primative_value =  getPrimativeValueAsString(null);
-		if ( primative_value == null ) return default_value;
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
+		
+		if ( node.value_type == VALUE_TYPE_LONG )
+		{
+			if ( node.primitive_value < Short.MIN_VALUE || node.primitive_value > Short.MAX_VALUE ) return default_value;
+			return (short)node.primitive_value;
+		}
+		
+		String text = node.getOptionalValue(null);
+		if ( text == null ) return default_value;
 		
 		try
 		{
-			return new Float(primative_value);
+			return Short.parseShort(text);
 		}
-		catch(Exception e)
+		catch(NumberFormatException e)
 		{
 			return default_value;
 		}
 	}
 	
-	/**
-	 * Interpret the current node as a double
-	 * 
-	 * @param default_value
-	 *            The value to return if this node can not be interpreted as a
-	 *            double
-	 * @return This node, interpreted as a double, or default_value if this is
-	 *         not possible.
-	 */
-	
-	public Double asDouble(Double default_value)
+	static Short toShort(String primative_value, Short default_value)
 	{
-		String primative_value =  getPrimativeValueAsString(null);
 		if ( primative_value == null ) return default_value;
 		
 		try
 		{
-			return new Double(primative_value);
+			return new Short(primative_value);
 		}
 		catch(Exception e)
 		{
 			return default_value;
 		}
 	}
-	 
+	
 	/**
-	 * Interpret the current node as an Object (either StandardObject or a
-	 * primative object)
+	 * Interpret the current node as a int
 	 * 
 	 * @param default_value
 	 *            The value to return if this node can not be interpreted as a
-	 *            object
-	 * @return This node, interpreted as an object, or default_value if this is
+	 *            int
+	 * @return This node, interpreted as a int, or default_value if this is
+	 *         not possible.
+	 */
+	public Integer asInteger(Integer default_value)
+	{
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
+		
+		if ( node.value_type == VALUE_TYPE_LONG )
+		{
+			if ( node.primitive_value < Integer.MIN_VALUE || node.primitive_value > Integer.MAX_VALUE ) return default_value;
+			return (int)node.primitive_value;
+		}
+		
+		return toInteger(node.getOptionalValue(null), default_value);
+	}
+	
+	/**
+	 * Interpret the current node as a int, without boxing
+	 * 
+	 * @param default_value
+	 *            The value to return if this node can not be interpreted as a
+	 *            int
+	 * @return This node, interpreted as a int, or default_value if this is
+	 *         not possible.
+	 */
+	public int asIntValue(int default_value)
+	{
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
+		
+		if ( node.value_type == VALUE_TYPE_LONG )
+		{
+			if ( node.primitive_value < Integer.MIN_VALUE || node.primitive_value > Integer.MAX_VALUE ) return default_value;
+			return (int)node.primitive_value;
+		}
+		
+		String text = node.getOptionalValue(null);
+		if ( text == null ) return default_value;
+		
+		try
+		{
+			return Integer.parseInt(text);
+		}
+		catch(NumberFormatException e)
+		{
+			return default_value;
+		}
+	}
+	
+	static Integer toInteger(String primative_value, Integer default_value)
+	{
+		if ( primative_value == null ) return default_value;
+		
+		try
+		{
+			return new Integer(primative_value);
+		}
+		catch(Exception e)
+		{
+			return default_value;
+		}
+	}
+	
+	/**
+	 * Interpret the current node as a long
+	 * 
+	 * @param default_value
+	 *            The value to return if this node can not be interpreted as a
+	 *            long
+	 * @return This node, interpreted as a long, or default_value if this is
+	 *         not possible.
+	 */
+	
+	public Long asLong(Long default_value)
+	{
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
+		
+		if ( node.value_type == VALUE_TYPE_LONG ) return node.primitive_value;
+		
+		return toLong(node.getOptionalValue(null), default_value);
+	}
+	
+	/**
+	 * Interpret the current node as a long, without boxing
+	 * 
+	 * @param default_value
+	 *            The value to return if this node can not be interpreted as a
+	 *            long
+	 * @return This node, interpreted as a long, or default_value if this is
+	 *         not possible.
+	 */
+	public long asLongValue(long default_value)
+	{
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
+		
+		if ( node.value_type == VALUE_TYPE_LONG ) return node.primitive_value;
+		
+		String text = node.getOptionalValue(null);
+		if ( text == null ) return default_value;
+		
+		try
+		{
+			return Long.parseLong(text);
+		}
+		catch(NumberFormatException e)
+		{
+			return default_value;
+		}
+	}
+	
+	static Long toLong(String primative_value, Long default_value)
+	{
+		if ( primative_value == null ) return default_value;
+		
+		try
+		{
+			return new Long(primative_value);
+		}
+		catch(Exception e)
+		{
+			return default_value;
+		}
+	}
+	
+	/**
+	 * Interpret the current node as a float
+	 * 
+	 * @param default_value
+	 *            The value to return if this node can not be interpreted as a
+	 *            float
+	 * @return This node, interpreted as a float, or default_value if this is
+	 *         not possible.
+	 */
+	
+	public Float asFloat(Float default_value)
+	{
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
+		
+		if ( node.value_type == VALUE_TYPE_DOUBLE ) return (float)Double.longBitsToDouble(node.primitive_value);
+		if ( node.value_type == VALUE_TYPE_LONG ) return (float)node.primitive_value;
+		
+		return toFloat(node.getOptionalValue(null), default_value);
+	}
+	
+	/**
+	 * Interpret the current node as a float, without boxing
+	 * 
+	 * @param default_value
+	 *            The value to return if this node can not be interpreted as a
+	 *            float
+	 * @return This node, interpreted as a float, or default_value if this is
+	 *         not possible.
+	 */
+	public float asFloatValue(float default_value)
+	{
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
+		
+		if ( node.value_type == VALUE_TYPE_DOUBLE ) return (float)Double.longBitsToDouble(node.primitive_value);
+		if ( node.value_type == VALUE_TYPE_LONG ) return (float)node.primitive_value;
+		
+		String text = node.getOptionalValue(null);
+		if ( text == null ) return default_value;
+		
+		try
+		{
+			return Float.parseFloat(text);
+		}
+		catch(NumberFormatException e)
+		{
+			return default_value;
+		}
+	}
+	
+	static Float toFloat(String primative_value, Float default_value)
+	{
+		if ( primative_value == null ) return default_value;
+		
+		try
+		{
+			return new Float(primative_value);
+		}
+		catch(Exception e)
+		{
+			return default_value;
+		}
+	}
+	
+	/**
+	 * Interpret the current node as a double
+	 * 
+	 * @param default_value
+	 *            The value to return if this node can not be interpreted as a
+	 *            double
+	 * @return This node, interpreted as a double, or default_value if this is
+	 *         not possible.
+	 */
+	
+	public Double asDouble(Double default_value)
+	{
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
+		
+		if ( node.value_type == VALUE_TYPE_DOUBLE ) return Double.longBitsToDouble(node.primitive_value);
+		if ( node.value_type == VALUE_TYPE_LONG ) return (double)node.primitive_value;
+		
+		return toDouble(node.getOptionalValue(null), default_value);
+	}
+	
+	/**
+	 * Interpret the current node as a double, without boxing
+	 * 
+	 * @param default_value
+	 *            The value to return if this node can not be interpreted as a
+	 *            double
+	 * @return This node, interpreted as a double, or default_value if this is
+	 *         not possible.
+	 */
+	public double asDoubleValue(double default_value)
+	{
+		ObjectParseTree node = getPrimativeValueNode();
+		if ( node == null ) return default_value;
+		
+		if ( node.value_type == VALUE_TYPE_DOUBLE ) return Double.longBitsToDouble(node.primitive_value);
+		if ( node.value_type == VALUE_TYPE_LONG ) return (double)node.primitive_value;
+		
+		String text = node.getOptionalValue(null);
+		if ( text == null ) return default_value;
+		
+		try
+		{
+			return Double.parseDouble(text);
+		}
+		catch(NumberFormatException e)
+		{
+			return default_value;
+		}
+	}
+	
+	static Double toDouble(String primative_value, Double default_value)
+	{
+		if ( primative_value == null ) return default_value;
+		
+		try
+		{
+			return new Double(primative_value);
+		}
+		catch(Exception e)
+		{
+			return default_value;
+		}
+	}
+	 
+	/**
+	 * Interpret the current node as an Object (either StandardObject or a
+	 * primative object)
+	 * 
+	 * @param default_value
+	 *            The value to return if this node can not be interpreted as a
+	 *            object
+	 * @return This node, interpreted as an object, or default_value if this is
 	 *         not possible.
 	 */
 	
@@ -525,7 +1114,7 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 		return asObject(default_value,true);
 	}
 	
-	private Object asObject(Object default_value, boolean complete_standard_object) 
+	Object asObject(Object default_value, boolean complete_standard_object) 
 	{
 		// Special handling for null fields
 		if ( !hasChildren() && !hasValue() )
@@ -609,43 +1198,36 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 		if ( type_name == null )
 			throw new SerializeException("Attempt to read object, but not a primitive and no type hint present");
 		
-		Class c = standard_object_types.get(type_name); 
+		MethodHandle constructor = standard_object_constructors.get(type_name);
 		
-		if ( c == null )
+		if ( constructor == null )
 		{
 			throw new SerializeException(String.format("The type name %s is not registered.  Register with ObjectReader.registerTypeName",type_name.getSimpleName()));
 		}
 		
-		// Standard object converter...
-		if ( c != null )
+		try
 		{
-			try
-			{
-				Constructor constructor = c.getConstructor(ObjectParseTree.class);
-				Object ret = constructor.newInstance(this);
-				
-				if ( complete_standard_object && ret instanceof StandardObject )
-				{
-					((StandardObject)ret).complete();
-				}
-				
-				return ret;
-			}
-			catch(NoSuchMethodException e)
-			{
-				throw new SerializeException(String.format("No constructor found %s(ReadTree t)", c.getSimpleName()),e);
-			}
-			catch(SerializeException e2)
-			{
-				throw e2;
-			}
-			catch(Exception e3)
+			Object ret = constructor.invokeExact(this);
+			
+			if ( complete_standard_object && ret instanceof StandardObject )
 			{
-				throw new SerializeException("Error reading object",e3);
+				((StandardObject)ret).complete();
 			}
+			
+			return ret;
+		}
+		catch(SerializeException e2)
+		{
+			throw e2;
+		}
+		catch(Exception e3)
+		{
+			throw new SerializeException("Error reading object",e3);
+		}
+		catch(Throwable t)
+		{
+			throw (Error)t;
 		}
-		
-		return default_value;
 	}
 	
 	/**
@@ -709,33 +1291,103 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	}
 	
 	/**
-	 * Get the value of a given child (field_name) as a long
+	 * Get the value of a given child (field_name) as a long
+	 */
+	public Long getInt(FieldName field_name, Long default_value)
+	{
+		ObjectParseTree child = findChild(field_name, null);
+		if ( child == null ) return default_value;
+		return child.asLong(default_value);
+	}
+	
+	/**
+	 * Get the value of a given child (field_name) as a float
+	 */
+	public Float getFloat(FieldName field_name, Float default_value)
+	{
+		ObjectParseTree child = findChild(field_name, null);
+		if ( child == null ) return default_value;
+		return child.asFloat(default_value);
+	}
+	
+	/**
+	 * Get the value of a given child (field_name) as a double
+	 */
+	public Double getDouble(FieldName field_name, Double default_value)
+	{
+		ObjectParseTree child = findChild(field_name, null);
+		if ( child == null ) return default_value;
+		return child.asDouble(default_value);
+	}
+	
+	/**
+	 * Get the value of a given child (field_name) as a boolean, without boxing
+	 */
+	public boolean getBooleanValue(FieldName field_name, boolean default_value)
+	{
+		ObjectParseTree child = findChild(field_name, null);
+		if ( child == null ) return default_value;
+		return child.asBooleanValue(default_value);
+	}
+	
+	/**
+	 * Get the value of a given child (field_name) as a byte, without boxing
+	 */
+	public byte getByteValue(FieldName field_name, byte default_value)
+	{
+		ObjectParseTree child = findChild(field_name, null);
+		if ( child == null ) return default_value;
+		return child.asByteValue(default_value);
+	}
+	
+	/**
+	 * Get the value of a given child (field_name) as a short, without boxing
+	 */
+	public short getShortValue(FieldName field_name, short default_value)
+	{
+		ObjectParseTree child = findChild(field_name, null);
+		if ( child == null ) return default_value;
+		return child.asShortValue(default_value);
+	}
+	
+	/**
+	 * Get the value of a given child (field_name) as a int, without boxing
+	 */
+	public int getIntValue(FieldName field_name, int default_value)
+	{
+		ObjectParseTree child = findChild(field_name, null);
+		if ( child == null ) return default_value;
+		return child.asIntValue(default_value);
+	}
+	
+	/**
+	 * Get the value of a given child (field_name) as a long, without boxing
 	 */
-	public Long getInt(FieldName field_name, Long default_value)
+	public long getLongValue(FieldName field_name, long default_value)
 	{
 		ObjectParseTree child = findChild(field_name, null);
 		if ( child == null ) return default_value;
-		return child.asLong(default_value);
+		return child.asLongValue(default_value);
 	}
 	
 	/**
-	 * Get the value of a given child (field_name) as a float
+	 * Get the value of a given child (field_name) as a float, without boxing
 	 */
-	public Float getFloat(FieldName field_name, Float default_value)
+	public float getFloatValue(FieldName field_name, float default_value)
 	{
 		ObjectParseTree child = findChild(field_name, null);
 		if ( child == null ) return default_value;
-		return child.asFloat(default_value);
+		return child.asFloatValue(default_value);
 	}
 	
 	/**
-	 * Get the value of a given child (field_name) as a double
+	 * Get the value of a given child (field_name) as a double, without boxing
 	 */
-	public Double getDouble(FieldName field_name, Double default_value)
+	public double getDoubleValue(FieldName field_name, double default_value)
 	{
 		ObjectParseTree child = findChild(field_name, null);
 		if ( child == null ) return default_value;
-		return child.asDouble(default_value);
+		return child.asDoubleValue(default_value);
 	}
 	
 	/**
@@ -779,6 +1431,41 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	 * @return empty_collection "filled"
 	 */
 	public <C extends Collection> C getCollection(FieldName field_name, C empty_collection, ReadAs type, OnError on_error)
+	{
+		return getCollection(field_name, empty_collection, type, on_error, null);
+	}
+	
+	/**
+	 * Get (read) a collection, optionally reading (constructing) its elements
+	 * in parallel.
+	 * 
+	 * When pool is specified, and the collection has at least
+	 * MINIMUM_ELEMENTS_TO_READ_IN_PARALLEL elements, the elements are split
+	 * into batches that are read (and, for StandardObject(s), completed) on
+	 * the threads of pool. The elements are always added to empty_collection
+	 * in document order, on the calling thread, so empty_collection need not
+	 * be thread safe. type must be thread safe (all of the standard ReadAs
+	 * objects are)
+	 * 
+	 * @param field_name
+	 *            The field name that contains the collection
+	 * @param empty_collection
+	 *            A mutable, empty collection (will be returned "filled", but
+	 *            still mutable)
+	 * @param type
+	 *            A ReadAs object that specifies the type to read as. If you are
+	 *            working with a collection of StandardObject(s), use
+	 *            ReadAs.OBJECT
+	 * @param on_error
+	 *            What to do if an error is encountered while reading an element
+	 *            of the collection (skip it, throw a SerializeException)
+	 * @param pool
+	 *            The pool to read large collections with (typically
+	 *            ForkJoinPool.commonPool()), or null to read every element on
+	 *            the calling thread
+	 * @return empty_collection "filled"
+	 */
+	public <C extends Collection> C getCollection(FieldName field_name, C empty_collection, ReadAs type, OnError on_error, ForkJoinPool pool)
 	{
 		Validator.notNull(field_name);
 		Validator.notNull(empty_collection);
@@ -786,12 +1473,16 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 		
 		C ret = empty_collection;
 		
-		for ( ObjectParseTree child : children )
+		int child_indexes[] = pool == null ? null : getChildIndexes(field_name, MINIMUM_ELEMENTS_TO_READ_IN_PARALLEL);
+		
+		if ( child_indexes != null )
 		{
-			if ( child.getSimpleFieldName().equals(field_name) ) 
+			Object elements[] = new Object[child_indexes.length];
+			
+			pool.invoke(new ReadElementsTask(children, child_indexes, 0, child_indexes.length, type, elements, null, null));
+			
+			for ( Object obj : elements )
 			{
-				Object obj = type.readAs(child);
-				
 				if ( obj == null ) 
 				{
 					if ( on_error == OnError.SKIP ) continue;
@@ -800,6 +1491,23 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 				
 				ret.add(obj);
 			}
+			
+			return ret;
+		}
+		
+		for ( int i = firstChildIndex(field_name); i != -1; i = nextChildIndex(i) )
+		{
+			ObjectParseTree child = children[i];
+			
+			Object obj = type.readAs(child);
+			
+			if ( obj == null ) 
+			{
+				if ( on_error == OnError.SKIP ) continue;
+				else throw new SerializeException("Could not read object in collection");
+			}
+			
+			ret.add(obj);
 		}
 		
 		return ret;
@@ -823,6 +1531,40 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	 * @return empty_map "filled"
 	 */
 	public <M extends Map> M getMap(FieldName field_name, M empty_map, ReadAs key_type, ReadAs value_type, OnError on_error)
+	{
+		return getMap(field_name, empty_map, key_type, value_type, on_error, null);
+	}
+	
+	/**
+	 * Get (read) a Map, optionally reading (constructing) its entries in
+	 * parallel.
+	 * 
+	 * When pool is specified, and the map has at least
+	 * MINIMUM_ELEMENTS_TO_READ_IN_PARALLEL entries, the entries are split into
+	 * batches that are read on the threads of pool. The entries are always put
+	 * into empty_map in document order, on the calling thread, so empty_map
+	 * need not be thread safe. key_type and value_type must be thread safe (all
+	 * of the standard ReadAs objects are)
+	 * 
+	 * @param field_name
+	 *            The field name to read the map from
+	 * @param empty_map
+	 *            A mutable, empty map (will be returned "filled", but still
+	 *            mutable)
+	 * @param key_type
+	 *            A ReadAs object that specifies the type to read keys as
+	 * @param value_type
+	 *            A ReadAs object that specifies the type read values as
+	 * @param on_error
+	 *            What to do when an error (reading a key or value) occours
+	 *            (skip, throw and exception)
+	 * @param pool
+	 *            The pool to read large maps with (typically
+	 *            ForkJoinPool.commonPool()), or null to read every entry on
+	 *            the calling thread
+	 * @return empty_map "filled"
+	 */
+	public <M extends Map> M getMap(FieldName field_name, M empty_map, ReadAs key_type, ReadAs value_type, OnError on_error, ForkJoinPool pool)
 	{
 		Validator.notNull(field_name);
 		Validator.notNull(empty_map);
@@ -832,33 +1574,334 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 		
 		M ret = empty_map;
 		
-		for ( ObjectParseTree entry : children )
+		int child_indexes[] = pool == null ? null : getChildIndexes(field_name, MINIMUM_ELEMENTS_TO_READ_IN_PARALLEL);
+		
+		if ( child_indexes != null )
 		{
-			if ( entry.getSimpleFieldName().equals(field_name) ) 
+			Object keys[] = new Object[child_indexes.length];
+			Object values[] = new Object[child_indexes.length];
+			
+			pool.invoke(new ReadElementsTask(children, child_indexes, 0, child_indexes.length, key_type, keys, value_type, values));
+			
+			for ( int i = 0; i < keys.length; i++ )
 			{
-				ObjectParseTree key_tree = entry.findChild(FieldName.FIELD_KEY, null);
-				ObjectParseTree value_tree = entry.findChild(FieldName.FIELD_VALUE, null);
-				
-				if ( key_tree == null || value_tree == null ) 
+				if ( keys[i] == null || values[i] == null ) 
 				{
 					if ( on_error == OnError.SKIP ) continue;
 					if ( on_error == OnError.THROW_EXCEPTION ) throw new SerializeException("Could not read key/value pair");
 				}
 				
-				Object key = key_type.readAs(key_tree);
-				Object value = value_type.readAs(value_tree);
+				ret.put(keys[i], values[i]);
+			}
+			
+			return ret;
+		}
+		
+		for ( int i = firstChildIndex(field_name); i != -1; i = nextChildIndex(i) )
+		{
+			ObjectParseTree entry = children[i];
+			
+			ObjectParseTree key_tree = entry.findChild(FieldName.FIELD_KEY, null);
+			ObjectParseTree value_tree = entry.findChild(FieldName.FIELD_VALUE, null);
+			
+			if ( key_tree == null || value_tree == null ) 
+			{
+				if ( on_error == OnError.SKIP ) continue;
+				if ( on_error == OnError.THROW_EXCEPTION ) throw new SerializeException("Could not read key/value pair");
+			}
+			
+			Object key = key_type.readAs(key_tree);
+			Object value = value_type.readAs(value_tree);
+			
+			if ( key == null || value == null ) 
+			{
+				if ( on_error == OnError.SKIP ) continue;
+				if ( on_error == OnError.THROW_EXCEPTION ) throw new SerializeException("Could not read key/value pair");
+			}
+			
+			ret.put(key, value);
+		}
+		
+		return ret;
+	}
+	
+	/*
+	 * The primitive readers below tell a value that can not be read from a
+	 * value that happens to equal the default, without boxing, by reading
+	 * (only) such values a second time with a different default.
+	 */
+	
+	/**
+	 * Get (read) a list of int(s), without boxing. Reads any collection of
+	 * numbers (e.g. one written with WriteAs.NUMBER)
+	 * 
+	 * @param field_name
+	 *            The field name that contains the list
+	 * @param empty_list
+	 *            A mutable, empty list (will be returned "filled", but still
+	 *            mutable)
+	 * @param on_error
+	 *            What to do if an element can not be read as an int (skip
+	 *            it, throw a SerializeException)
+	 * @return empty_list "filled"
+	 */
+	public FieldIntArrayList getIntList(FieldName field_name, FieldIntArrayList empty_list, OnError on_error)
+	{
+		Validator.notNull(field_name, empty_list, on_error);
+		
+		for ( int i = firstChildIndex(field_name); i != -1; i = nextChildIndex(i) )
+		{
+			int value = children[i].asIntValue(Integer.MIN_VALUE);
+			
+			if ( value == Integer.MIN_VALUE && children[i].asIntValue(0) == 0 ) 
+			{
+				if ( on_error == OnError.SKIP ) continue;
+				else throw new SerializeException("Could not read int in collection");
+			}
+			
+			empty_list.add(value);
+		}
+		
+		return empty_list;
+	}
+	
+	/**
+	 * Get (read) a list of long(s), without boxing. Reads any collection of
+	 * numbers (e.g. one written with WriteAs.NUMBER)
+	 * 
+	 * @param field_name
+	 *            The field name that contains the list
+	 * @param empty_list
+	 *            A mutable, empty list (will be returned "filled", but still
+	 *            mutable)
+	 * @param on_error
+	 *            What to do if an element can not be read as a long (skip
+	 *            it, throw a SerializeException)
+	 * @return empty_list "filled"
+	 */
+	public FieldLongArrayList getLongList(FieldName field_name, FieldLongArrayList empty_list, OnError on_error)
+	{
+		Validator.notNull(field_name, empty_list, on_error);
+		
+		for ( int i = firstChildIndex(field_name); i != -1; i = nextChildIndex(i) )
+		{
+			long value = children[i].asLongValue(Long.MIN_VALUE);
+			
+			if ( value == Long.MIN_VALUE && children[i].asLongValue(0) == 0 ) 
+			{
+				if ( on_error == OnError.SKIP ) continue;
+				else throw new SerializeException("Could not read long in collection");
+			}
+			
+			empty_list.add(value);
+		}
+		
+		return empty_list;
+	}
+	
+	/**
+	 * Get (read) a list of double(s), without boxing. Reads any collection of
+	 * numbers (e.g. one written with WriteAs.NUMBER)
+	 * 
+	 * @param field_name
+	 *            The field name that contains the list
+	 * @param empty_list
+	 *            A mutable, empty list (will be returned "filled", but still
+	 *            mutable)
+	 * @param on_error
+	 *            What to do if an element can not be read as a double (skip
+	 *            it, throw a SerializeException)
+	 * @return empty_list "filled"
+	 */
+	public FieldDoubleArrayList getDoubleList(FieldName field_name, FieldDoubleArrayList empty_list, OnError on_error)
+	{
+		Validator.notNull(field_name, empty_list, on_error);
+		
+		for ( int i = firstChildIndex(field_name); i != -1; i = nextChildIndex(i) )
+		{
+			double value = children[i].asDoubleValue(Double.NaN);
+			
+			if ( Double.isNaN(value) && children[i].asDoubleValue(0) == 0 ) 
+			{
+				if ( on_error == OnError.SKIP ) continue;
+				else throw new SerializeException("Could not read double in collection");
+			}
+			
+			empty_list.add(value);
+		}
+		
+		return empty_list;
+	}
+	
+	/**
+	 * Get (read) a set of long(s), without boxing. Reads any collection of
+	 * numbers (e.g. one written with WriteAs.NUMBER)
+	 * 
+	 * @param field_name
+	 *            The field name that contains the set
+	 * @param empty_set
+	 *            A mutable, empty set (will be returned "filled", but still
+	 *            mutable)
+	 * @param on_error
+	 *            What to do if an element can not be read as a long (skip
+	 *            it, throw a SerializeException)
+	 * @return empty_set "filled"
+	 */
+	public FieldLongHashSet getLongSet(FieldName field_name, FieldLongHashSet empty_set, OnError on_error)
+	{
+		Validator.notNull(field_name, empty_set, on_error);
+		
+		for ( int i = firstChildIndex(field_name); i != -1; i = nextChildIndex(i) )
+		{
+			long value = children[i].asLongValue(Long.MIN_VALUE);
+			
+			if ( value == Long.MIN_VALUE && children[i].asLongValue(0) == 0 ) 
+			{
+				if ( on_error == OnError.SKIP ) continue;
+				else throw new SerializeException("Could not read long in collection");
+			}
+			
+			empty_set.add(value);
+		}
+		
+		return empty_set;
+	}
+	
+	/**
+	 * Get (read) a map of long(s) to double(s), without boxing. Reads any map
+	 * of numbers to numbers (e.g. one written with WriteAs.NUMBER for both
+	 * keys and values)
+	 * 
+	 * @param field_name
+	 *            The field name to read the map from
+	 * @param empty_map
+	 *            A mutable, empty map (will be returned "filled", but still
+	 *            mutable)
+	 * @param on_error
+	 *            What to do when a key or value can not be read (skip, throw
+	 *            a SerializeException)
+	 * @return empty_map "filled"
+	 */
+	public FieldLongDoubleHashMap getLongDoubleMap(FieldName field_name, FieldLongDoubleHashMap empty_map, OnError on_error)
+	{
+		Validator.notNull(field_name, empty_map, on_error);
+		
+		for ( int i = firstChildIndex(field_name); i != -1; i = nextChildIndex(i) )
+		{
+			ObjectParseTree key_tree = children[i].findChild(FieldName.FIELD_KEY, null);
+			ObjectParseTree value_tree = children[i].findChild(FieldName.FIELD_VALUE, null);
+			
+			boolean ok = key_tree != null && value_tree != null;
+			
+			long key = ok ? key_tree.asLongValue(Long.MIN_VALUE) : 0;
+			if ( ok && key == Long.MIN_VALUE && key_tree.asLongValue(0) == 0 ) ok = false;
+			
+			double value = ok ? value_tree.asDoubleValue(Double.NaN) : 0;
+			if ( ok && Double.isNaN(value) && value_tree.asDoubleValue(0) == 0 ) ok = false;
+			
+			if ( !ok ) 
+			{
+				if ( on_error == OnError.SKIP ) continue;
+				else throw new SerializeException("Could not read key/value pair");
+			}
+			
+			empty_map.put(key, value);
+		}
+		
+		return empty_map;
+	}
+	
+	/**
+	 * Get the indexes (in document order) of all of the children with a given
+	 * name, but only if there are at least minimum_count of them
+	 * 
+	 * @return The indexes, or null if there are fewer than minimum_count
+	 *         children with field_name
+	 */
+	private int[] getChildIndexes(FieldName field_name, int minimum_count)
+	{
+		if ( child_count < minimum_count ) return null;
+		
+		int ret[] = new int[child_count];
+		int count = 0;
+		
+		for ( int i = firstChildIndex(field_name); i != -1; i = nextChildIndex(i) )
+		{
+			ret[count++] = i;
+		}
+		
+		if ( count < minimum_count ) return null;
+		
+		return count == ret.length ? ret : Arrays.copyOf(ret, count);
+	}
+	
+	/**
+	 * Reads a range of the elements of a collection (or the entries of a map,
+	 * when value_type is set) into arrays, splitting itself in half until
+	 * each task has no more than ELEMENTS_PER_TASK elements to read.
+	 * 
+	 * An element (key, value) that can not be read is left null
+	 * 
+	 * @author jim.kane
+	 *
+	 */
+	static private class ReadElementsTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private ObjectParseTree children[]; // required
+		private int child_indexes[]; // required
+		private int from; // the first index (into child_indexes) to read
+		private int to; // one past the last index (into child_indexes) to read
+		
+		private ReadAs type; // required, the type of the elements (or keys)
+		private Object results[]; // required
+		
+		private ReadAs value_type; // optional, set when reading map entries
+		private Object value_results[]; // optional, set when reading map entries
+		
+		private ReadElementsTask(ObjectParseTree children[], int child_indexes[], int from, int to, ReadAs type, Object results[], ReadAs value_type, Object value_results[])
+		{
+			this.children = children;
+			this.child_indexes = child_indexes;
+			this.from = from;
+			this.to = to;
+			this.type = type;
+			this.results = results;
+			this.value_type = value_type;
+			this.value_results = value_results;
+		}
+		
+		protected void compute()
+		{
+			if ( to - from > ELEMENTS_PER_TASK )
+			{
+				int middle = (from + to) >>> 1;
+				
+				invokeAll(new ReadElementsTask(children, child_indexes, from, middle, type, results, value_type, value_results), 
+						new ReadElementsTask(children, child_indexes, middle, to, type, results, value_type, value_results));
+				return;
+			}
+			
+			for ( int i = from; i < to; i++ )
+			{
+				ObjectParseTree child = children[child_indexes[i]];
 				
-				if ( key == null || value == null ) 
+				if ( value_type == null )
 				{
-					if ( on_error == OnError.SKIP ) continue;
-					if ( on_error == OnError.THROW_EXCEPTION ) throw new SerializeException("Could not read key/value pair");
+					results[i] = type.readAs(child);
+					continue;
 				}
 				
-				ret.put(key, value);
+				ObjectParseTree key_tree = child.findChild(FieldName.FIELD_KEY, null);
+				ObjectParseTree value_tree = child.findChild(FieldName.FIELD_VALUE, null);
+				
+				if ( key_tree == null || value_tree == null ) continue;
+				
+				results[i] = type.readAs(key_tree);
+				value_results[i] = value_type.readAs(value_tree);
 			}
 		}
-		
-		return ret;
 	}
 	
 	/**
@@ -914,6 +1957,35 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 		if ( ret == null ) 
 			throw new SerializeException("Unable to read document!");
 		
+		ParseTreeArena.releaseToCurrentThreadArena(t);
+		
+		return ret;
+	}
+	
+	/**
+	 * Construct an object from previously serialized (encoded, typically
+	 * UTF-8) bytes. The format is automatically detected from the first few
+	 * bytes, and the bytes are parsed directly (they are never decoded into a
+	 * String)
+	 * 
+	 * @param document
+	 *            The data to read from
+	 * @param complete_standard_object
+	 *            Should the StandardObject read be completed prior to being
+	 *            returned?
+	 * @return The object previously serialized
+	 */
+	static public Object deserialize(byte document[], boolean complete_standard_object)
+	{
+		ObjectParseTree t = Parser.parse(document);
+		
+		Object ret = t.asObject(null, complete_standard_object);
+		
+		if ( ret == null ) 
+			throw new SerializeException("Unable to read document!");
+		
+		ParseTreeArena.releaseToCurrentThreadArena(t);
+		
 		return ret;
 	}
 	
@@ -935,6 +2007,8 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 		if ( ret == null ) 
 			throw new SerializeException("Unable to read document!");
 		
+		ParseTreeArena.releaseToCurrentThreadArena(t);
+		
 		return ret;
 	}
 	
@@ -947,24 +2021,66 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	 * JimmutableTypeNameRegister). Rember to invoke this (pretty much first
 	 * thing) at boot time.
 	 * 
-	 * Classes must have a static public method named TYPE_NAME to be registered
+	 * Classes must have a static public field named TYPE_NAME and a public
+	 * constructor that takes an ObjectParseTree to be registered. Both are
+	 * looked up here (once), so that a class that is missing either one fails
+	 * at boot time and not when the first document of its type is read.
 	 * 
 	 * @param c
 	 *            The class to register
+	 * 
+	 * @throws SerializeException
+	 *             if c can not be registered
 	 */
 	static public void registerTypeName(Class c)
 	{
+		Validator.notNull(c);
+		
+		TypeName type_name;
+		
+		try
+		{
+			type_name = (TypeName)c.getField("TYPE_NAME").get(null);
+		}
+		catch(Exception e)
+		{
+			throw new SerializeException(String.format("Unable to register a type name for %s, could not read static public field %s.TYPE_NAME", c.getSimpleName(),c.getSimpleName()),e);
+		}
+		
+		if ( type_name == null ) throw new SerializeException(String.format("Unable to register a type name for %s, %s.TYPE_NAME is null", c.getSimpleName(),c.getSimpleName()));
+		if ( type_name.isPrimative() ) throw new SerializeException("Attempt to register a primative type name using registerTypeName.  Did you try to register a Stringable?");
+		
 		try
 		{
-			TypeName type_name = (TypeName)c.getField("TYPE_NAME").get(null);
-			if ( type_name.isPrimative() ) throw new SerializeException("Attempt to register a primative type name using registerTypeName.  Did you try to register a Stringable?");
-			standard_object_types.put(type_name, c);
+			standard_object_constructors.put(type_name, findConstructor(c, ObjectParseTree.class));
 		}
 		catch(Exception e)
 		{
-			System.err.println(String.format("Unable to register a type name for %s, could not read static public field %s.TYPE_NAME", c.getSimpleName(),c.getSimpleName()));
-			e.printStackTrace();
+			throw new SerializeException(String.format("Unable to register a type name for %s, no public constructor %s(ObjectParseTree t)", c.getSimpleName(),c.getSimpleName()),e);
 		}
+		
+		ObjectStreamReader.registerStreamingType(type_name, c);
+	}
+	
+	/**
+	 * Resolve the public constructor c(argument_type) to a MethodHandle of
+	 * type (argument_type)Object, suitable for invokeExact
+	 * 
+	 * @param c
+	 *            The class whose constructor to find
+	 * @param argument_type
+	 *            The type of the constructor's single argument
+	 * @return The constructor
+	 * 
+	 * @throws NoSuchMethodException
+	 *             if c has no public constructor that takes argument_type
+	 * @throws IllegalAccessException
+	 *             if c is not public
+	 */
+	static MethodHandle findConstructor(Class c, Class argument_type) throws NoSuchMethodException, IllegalAccessException
+	{
+		MethodHandle constructor = MethodHandles.publicLookup().findConstructor(c, MethodType.methodType(void.class, argument_type));
+		return constructor.asType(MethodType.methodType(Object.class, argument_type));
 	}
 	
 	/**
@@ -977,7 +2093,7 @@ final public class ObjectParseTree implements Iterable<ObjectParseTree>
 	static public boolean isTypeRegistered(TypeName type)
 	{
 		if ( type == null ) return false;
-		return standard_object_types.containsKey(type);
+		return standard_object_constructors.containsKey(type);
 	}
 }
 
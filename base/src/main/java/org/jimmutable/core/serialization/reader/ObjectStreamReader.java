@@ -0,0 +1,937 @@
+package org.jimmutable.core.serialization.reader;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.invoke.MethodHandle;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jimmutable.core.exceptions.SerializeException;
+import org.jimmutable.core.objects.StandardObject;
+import org.jimmutable.core.serialization.FieldName;
+import org.jimmutable.core.serialization.TypeName;
+import org.jimmutable.core.serialization.reader.ObjectParseTree.OnError;
+import org.jimmutable.core.utils.Validator;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * ObjectStreamReader is a pull based alternative to ObjectParseTree.
+ *
+ * Instead of building a complete ObjectParseTree and then handing it to the
+ * (ObjectParseTree) constructor of an object, ObjectStreamReader walks the
+ * Jackson token stream directly and hands itself to the (ObjectStreamReader)
+ * constructor of the object. No intermediate tree is created.
+ *
+ * A streaming constructor walks the fields of the object, in document order,
+ * and reads the ones it cares about. For example:
+ *
+ * <pre>
+ * public ItemKey(ObjectStreamReader r)
+ * {
+ * 	while ( r.nextField() )
+ * 	{
+ * 		if ( r.isField(FIELD_BRAND_CODE) ) brand = new BrandCode(r.readString(null));
+ * 		else if ( r.isField(FIELD_PN) ) pn = new PartNumber(r.readString(null));
+ * 	}
+ * }
+ * </pre>
+ *
+ * Classes that read more than a couple of fields can dispatch with a switch
+ * statement instead (see FieldSwitch and nextField(FieldSwitch)), and read
+ * numbers and booleans straight off the token stream, without boxing, via
+ * readIntValue, readLongValue etc.
+ *
+ * Fields that are not read are skipped. A field may appear more than once
+ * (this is how XML represents collections and maps), which is why
+ * readCollection and readMap add to the collection/map they are given.
+ *
+ * Streaming constructors are optional. Any registered type without one (or
+ * any object whose type_hint is not its first field) is transparently read
+ * via ObjectParseTree, so every document that can be read by ObjectParseTree
+ * can be read by ObjectStreamReader.
+ *
+ * Outside of the reader package, ObjectStreamReader can only be obtained by a
+ * streaming constructor
+ *
+ * @author jim.kane
+ *
+ */
+final public class ObjectStreamReader
+{
+	static private Map<TypeName,MethodHandle> streaming_object_constructors = new ConcurrentHashMap();
+	
+	private JsonParser json_parser; // required
+	private Parser tree_parser; // required, used to read objects that can not be streamed
+	
+	private FieldName current_field_name; // optional
+	private boolean value_pending; // true when the FIELD_NAME token has been consumed but its value has not
+	private int open_objects; // the number of objects whose END_OBJECT token has not yet been consumed
+	
+	private ObjectStreamReader(JsonParser json_parser)
+	{
+		Validator.notNull(json_parser);
+		
+		this.json_parser = json_parser;
+		this.tree_parser = new Parser(json_parser);
+	}
+	
+	/**
+	 * Advance to the next field of the object being read. If the value of the
+	 * current field was not read, it is skipped.
+	 *
+	 * @return true if positioned on a field, false when the end of the object
+	 *         has been reached (after which nextField must not be called again
+	 *         by the constructor)
+	 */
+	public boolean nextField()
+	{
+		try
+		{
+			if ( value_pending ) skipValue();
+			
+			JsonToken token = json_parser.nextToken();
+			
+			if ( token == null )
+				throw new SerializeException("Unexpected end of input");
+			
+			if ( token == JsonToken.END_OBJECT )
+			{
+				open_objects--;
+				current_field_name = null;
+				return false;
+			}
+			
+			if ( token != JsonToken.FIELD_NAME )
+				throw new SerializeException("Expected a field name, found "+token);
+			
+			current_field_name = Parser.getCurrentFieldName(json_parser);
+			value_pending = true;
+			
+			return true;
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while reading field",e2);
+		}
+	}
+	
+	/**
+	 * Advance to the next field of the object being read, and look it up in a
+	 * FieldSwitch. If the value of the current field was not read, it is
+	 * skipped.
+	 *
+	 * @param fields
+	 *            The fields the caller reads
+	 * @return The case number of the field (its index in fields),
+	 *         FieldSwitch.NO_MATCH for a field not in fields, or
+	 *         FieldSwitch.END_OF_OBJECT when the end of the object has been
+	 *         reached (after which nextField must not be called again by the
+	 *         constructor)
+	 */
+	public int nextField(FieldSwitch fields)
+	{
+		if ( !nextField() ) return FieldSwitch.END_OF_OBJECT;
+		
+		return fields.getSimpleCase(current_field_name);
+	}
+	
+	/**
+	 * Get the name of the current field
+	 *
+	 * @return The name of the field the reader is positioned on (null when not
+	 *         positioned on a field)
+	 */
+	public FieldName getSimpleFieldName()
+	{
+		return current_field_name;
+	}
+	
+	/**
+	 * Test to see if the reader is positioned on a given field
+	 *
+	 * @param field_name
+	 *            The field name to test
+	 * @return True if the current field is field_name, false otherwise
+	 */
+	public boolean isField(FieldName field_name)
+	{
+		if ( current_field_name == null ) return false;
+		return current_field_name.equals(field_name);
+	}
+	
+	/**
+	 * Skip the value of the current field (does nothing if the value has
+	 * already been read)
+	 */
+	public void skipValue()
+	{
+		if ( !value_pending ) return;
+		
+		try
+		{
+			JsonToken token = nextValueToken();
+			
+			if ( token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY )
+				json_parser.skipChildren();
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while skipping field",e2);
+		}
+	}
+	
+	/**
+	 * Consume the (first) token of the value of the current field
+	 */
+	private JsonToken nextValueToken() throws Exception
+	{
+		if ( !value_pending )
+			throw new SerializeException(String.format("The value of field %s has already been read", current_field_name));
+		
+		value_pending = false;
+		
+		JsonToken token = json_parser.nextToken();
+		if ( token == null )
+			throw new SerializeException("Unexpected end of input");
+		
+		return token;
+	}
+	
+	/**
+	 * Read the value of the current field as a primitive, in either primitive
+	 * or complete object form
+	 */
+	private String readPrimativeValueAsString()
+	{
+		try
+		{
+			JsonToken token = nextValueToken();
+			
+			switch(token)
+			{
+			case VALUE_STRING:
+			case VALUE_NUMBER_INT:
+			case VALUE_NUMBER_FLOAT:
+			case VALUE_TRUE:
+			case VALUE_FALSE:
+				return json_parser.getValueAsString();
+			
+			case START_OBJECT:
+				ObjectParseTree tree = readTree(current_field_name);
+				
+				String ret = tree.asString(null);
+				tree_parser.releaseTree(tree);
+				
+				return ret;
+			
+			case START_ARRAY:
+				json_parser.skipChildren();
+				return null;
+			
+			case VALUE_NULL:
+				return null;
+			
+			default:
+				throw new SerializeException("Unexpected token while reading a primitive "+token);
+			}
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while reading field",e2);
+		}
+	}
+	
+	/**
+	 * Read the value of the current field as a primitive node (the value of a
+	 * field in primitive form becomes a stand alone leaf node). Used by the
+	 * unboxed reads for any value that is not already the native type they
+	 * want
+	 */
+	private ObjectParseTree readPrimativeValueNode(JsonToken token) throws Exception
+	{
+		switch(token)
+		{
+		case VALUE_STRING:
+		case VALUE_NUMBER_INT:
+		case VALUE_NUMBER_FLOAT:
+		case VALUE_TRUE:
+		case VALUE_FALSE:
+			ObjectParseTree ret = tree_parser.createNode(current_field_name);
+			Parser.setValue(ret, json_parser, token);
+			return ret;
+		
+		case START_OBJECT:
+			return readTree(current_field_name);
+		
+		case START_ARRAY:
+			json_parser.skipChildren();
+			return null;
+		
+		case VALUE_NULL:
+			return null;
+		
+		default:
+			throw new SerializeException("Unexpected token while reading a primitive "+token);
+		}
+	}
+	
+	/**
+	 * Read the value of the current field as a String
+	 */
+	public String readString(String default_value)
+	{
+		String ret = readPrimativeValueAsString();
+		if ( ret == null ) return default_value;
+		return ret;
+	}
+	
+	/**
+	 * Read the value of the current field as a boolean
+	 */
+	public Boolean readBoolean(Boolean default_value)
+	{
+		return ObjectParseTree.toBoolean(readPrimativeValueAsString(), default_value);
+	}
+	
+	/**
+	 * Read the value of the current field as a char
+	 */
+	public Character readCharacter(Character default_value)
+	{
+		return ObjectParseTree.toCharacter(readPrimativeValueAsString(), default_value);
+	}
+	
+	/**
+	 * Read the value of the current field as a byte
+	 */
+	public Byte readByte(Byte default_value)
+	{
+		return ObjectParseTree.toByte(readPrimativeValueAsString(), default_value);
+	}
+	
+	/**
+	 * Read the value of the current field as a short
+	 */
+	public Short readShort(Short default_value)
+	{
+		return ObjectParseTree.toShort(readPrimativeValueAsString(), default_value);
+	}
+	
+	/**
+	 * Read the value of the current field as a int
+	 */
+	public Integer readInt(Integer default_value)
+	{
+		return ObjectParseTree.toInteger(readPrimativeValueAsString(), default_value);
+	}
+	
+	/**
+	 * Read the value of the current field as a long
+	 */
+	public Long readLong(Long default_value)
+	{
+		return ObjectParseTree.toLong(readPrimativeValueAsString(), default_value);
+	}
+	
+	/**
+	 * Read the value of the current field as a float
+	 */
+	public Float readFloat(Float default_value)
+	{
+		return ObjectParseTree.toFloat(readPrimativeValueAsString(), default_value);
+	}
+	
+	/**
+	 * Read the value of the current field as a double
+	 */
+	public Double readDouble(Double default_value)
+	{
+		return ObjectParseTree.toDouble(readPrimativeValueAsString(), default_value);
+	}
+	
+	/**
+	 * Read the value of the current field as a boolean, without boxing
+	 */
+	public boolean readBooleanValue(boolean default_value)
+	{
+		try
+		{
+			JsonToken token = nextValueToken();
+			
+			if ( token == JsonToken.VALUE_TRUE ) return true;
+			if ( token == JsonToken.VALUE_FALSE ) return false;
+			
+			ObjectParseTree node = readPrimativeValueNode(token);
+			return node == null ? default_value : node.asBooleanValue(default_value);
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while reading field",e2);
+		}
+	}
+	
+	/**
+	 * Read the value of the current field as a int, without boxing
+	 */
+	public int readIntValue(int default_value)
+	{
+		try
+		{
+			JsonToken token = nextValueToken();
+			
+			if ( token == JsonToken.VALUE_NUMBER_INT && json_parser.getNumberType() == NumberType.INT ) 
+				return json_parser.getIntValue();
+			
+			ObjectParseTree node = readPrimativeValueNode(token);
+			return node == null ? default_value : node.asIntValue(default_value);
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while reading field",e2);
+		}
+	}
+	
+	/**
+	 * Read the value of the current field as a long, without boxing
+	 */
+	public long readLongValue(long default_value)
+	{
+		try
+		{
+			JsonToken token = nextValueToken();
+			
+			if ( token == JsonToken.VALUE_NUMBER_INT && json_parser.getNumberType() != NumberType.BIG_INTEGER ) 
+				return json_parser.getLongValue();
+			
+			ObjectParseTree node = readPrimativeValueNode(token);
+			return node == null ? default_value : node.asLongValue(default_value);
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while reading field",e2);
+		}
+	}
+	
+	/**
+	 * Read the value of the current field as a float, without boxing
+	 */
+	public float readFloatValue(float default_value)
+	{
+		try
+		{
+			JsonToken token = nextValueToken();
+			
+			if ( token == JsonToken.VALUE_NUMBER_FLOAT && json_parser.getNumberType() == NumberType.FLOAT ) 
+				return json_parser.getFloatValue();
+			
+			ObjectParseTree node = readPrimativeValueNode(token);
+			return node == null ? default_value : node.asFloatValue(default_value);
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while reading field",e2);
+		}
+	}
+	
+	/**
+	 * Read the value of the current field as a double, without boxing
+	 */
+	public double readDoubleValue(double default_value)
+	{
+		try
+		{
+			JsonToken token = nextValueToken();
+			
+			if ( token == JsonToken.VALUE_NUMBER_FLOAT && json_parser.getNumberType() == NumberType.DOUBLE ) 
+				return json_parser.getDoubleValue();
+			
+			ObjectParseTree node = readPrimativeValueNode(token);
+			return node == null ? default_value : node.asDoubleValue(default_value);
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while reading field",e2);
+		}
+	}
+	
+	/**
+	 * Read the value of the current field as an Object (either StandardObject
+	 * or a primitive object). StandardObject(s) are completed.
+	 */
+	public Object readObject(Object default_value)
+	{
+		FieldName field_name = current_field_name;
+		
+		try
+		{
+			return readValue(nextValueToken(), field_name, ReadAs.OBJECT, default_value);
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while reading field",e2);
+		}
+		finally
+		{
+			current_field_name = field_name;
+		}
+	}
+	
+	/**
+	 * Read (the elements of) a collection from the current field
+	 *
+	 * @param collection
+	 *            The (mutable) collection to add the elements to. In XML each
+	 *            element of a collection is its own field, so this method is
+	 *            called once per element.
+	 * @param type
+	 *            A ReadAs object that specifies the type to read as. If you are
+	 *            working with a collection of StandardObject(s), use
+	 *            ReadAs.OBJECT
+	 * @param on_error
+	 *            What to do if an error is encountered while reading an element
+	 *            of the collection (skip it, throw a SerializeException)
+	 * @return collection, with the elements read added
+	 */
+	public <C extends Collection> C readCollection(C collection, ReadAs type, OnError on_error)
+	{
+		Validator.notNull(collection, type, on_error);
+		
+		FieldName field_name = current_field_name;
+		
+		try
+		{
+			JsonToken token = nextValueToken();
+			
+			if ( token != JsonToken.START_ARRAY )
+			{
+				addElement(collection, readValue(token, field_name, type, null), on_error);
+				return collection;
+			}
+			
+			while(true)
+			{
+				token = json_parser.nextToken();
+				
+				if ( token == null ) throw new SerializeException("Unexpected end of input");
+				if ( token == JsonToken.END_ARRAY ) return collection;
+				
+				addElement(collection, readValue(token, field_name, type, null), on_error);
+			}
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while reading collection",e2);
+		}
+		finally
+		{
+			current_field_name = field_name;
+		}
+	}
+	
+	private void addElement(Collection collection, Object obj, OnError on_error)
+	{
+		if ( obj == null )
+		{
+			if ( on_error == OnError.SKIP ) return;
+			else throw new SerializeException("Could not read object in collection");
+		}
+		
+		collection.add(obj);
+	}
+	
+	/**
+	 * Read (the entries of) a Map from the current field
+	 *
+	 * @param map
+	 *            The (mutable) map to put the entries into. In XML each entry
+	 *            of a map is its own field, so this method is called once per
+	 *            entry.
+	 * @param key_type
+	 *            A ReadAs object that specifies the type to read keys as
+	 * @param value_type
+	 *            A ReadAs object that specifies the type read values as
+	 * @param on_error
+	 *            What to do when an error (reading a key or value) occours
+	 *            (skip, throw and exception)
+	 * @return map, with the entries read added
+	 */
+	public <M extends Map> M readMap(M map, ReadAs key_type, ReadAs value_type, OnError on_error)
+	{
+		Validator.notNull(map, key_type, value_type);
+		Validator.notNull(on_error);
+		
+		FieldName field_name = current_field_name;
+		
+		try
+		{
+			JsonToken token = nextValueToken();
+			
+			if ( token != JsonToken.START_ARRAY )
+			{
+				readMapEntry(token, map, key_type, value_type, on_error);
+				return map;
+			}
+			
+			while(true)
+			{
+				token = json_parser.nextToken();
+				
+				if ( token == null ) throw new SerializeException("Unexpected end of input");
+				if ( token == JsonToken.END_ARRAY ) return map;
+				
+				readMapEntry(token, map, key_type, value_type, on_error);
+			}
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while reading map",e2);
+		}
+		finally
+		{
+			current_field_name = field_name;
+		}
+	}
+	
+	private void readMapEntry(JsonToken token, Map map, ReadAs key_type, ReadAs value_type, OnError on_error) throws Exception
+	{
+		if ( token != JsonToken.START_OBJECT )
+		{
+			if ( token == JsonToken.START_ARRAY ) json_parser.skipChildren();
+			
+			if ( on_error == OnError.THROW_EXCEPTION ) throw new SerializeException("Could not read key/value pair");
+			return;
+		}
+		
+		open_objects++;
+		
+		boolean has_key = false, has_value = false;
+		Object key = null, value = null;
+		
+		while ( nextField() )
+		{
+			if ( !has_key && isField(FieldName.FIELD_KEY) )
+			{
+				has_key = true;
+				key = readValue(nextValueToken(), FieldName.FIELD_KEY, key_type, null);
+			}
+			else if ( !has_value && isField(FieldName.FIELD_VALUE) )
+			{
+				has_value = true;
+				value = readValue(nextValueToken(), FieldName.FIELD_VALUE, value_type, null);
+			}
+		}
+		
+		if ( key == null || value == null )
+		{
+			if ( on_error == OnError.THROW_EXCEPTION ) throw new SerializeException("Could not read key/value pair");
+			return;
+		}
+		
+		map.put(key, value);
+	}
+	
+	/**
+	 * Read a value (whose first token, token, has already been consumed) using
+	 * a ReadAs
+	 */
+	private Object readValue(JsonToken token, FieldName field_name, ReadAs type, Object default_value) throws Exception
+	{
+		switch(token)
+		{
+		case VALUE_STRING:
+		case VALUE_NUMBER_INT:
+		case VALUE_NUMBER_FLOAT:
+		case VALUE_TRUE:
+		case VALUE_FALSE:
+		case VALUE_NULL:
+		
+			if ( type == ReadAs.STRING )
+			{
+				String text = token == JsonToken.VALUE_NULL ? null : json_parser.getValueAsString();
+				return text == null ? default_value : text;
+			}
+			
+			ObjectParseTree value_object = tree_parser.createNode(field_name);
+			Parser.setValue(value_object, json_parser, token);
+			
+			Object ret = type.readAs(value_object);
+			tree_parser.releaseTree(value_object);
+			
+			return ret == null ? default_value : ret;
+		
+		case START_OBJECT:
+		
+			if ( type == ReadAs.OBJECT )
+				return readObjectBody(field_name, default_value, true);
+			
+			ObjectParseTree tree = readTree(field_name);
+			
+			Object obj = type.readAs(tree);
+			tree_parser.releaseTree(tree);
+			
+			return obj == null ? default_value : obj;
+		
+		case START_ARRAY:
+			throw new SerializeException("ERROR: Encountered start of array while in array");
+		
+		default:
+			throw new SerializeException("Unexpected token while reading a value "+token);
+		}
+	}
+	
+	/**
+	 * Read an object whose START_OBJECT token has already been consumed into
+	 * an ObjectParseTree
+	 */
+	private ObjectParseTree readTree(FieldName field_name) throws Exception
+	{
+		return tree_parser.processObjectTokens(tree_parser.createNode(field_name), null);
+	}
+	
+	/**
+	 * Read an object whose START_OBJECT token has already been consumed. If
+	 * the object's type has a streaming constructor, the object is streamed,
+	 * otherwise it is read via ObjectParseTree
+	 */
+	private Object readObjectBody(FieldName field_name, Object default_value, boolean complete_standard_object) throws Exception
+	{
+		int level = ++open_objects;
+		
+		JsonToken token = json_parser.nextToken();
+		
+		if ( token == JsonToken.END_OBJECT )
+		{
+			open_objects--;
+			return default_value;
+		}
+		
+		if ( token != JsonToken.FIELD_NAME )
+			throw new SerializeException("Expected a field name, found "+token);
+		
+		FieldName first_field_name = Parser.getCurrentFieldName(json_parser);
+		
+		if ( !first_field_name.equals(FieldName.FIELD_NAME_TYPE_HINT) )
+			return readObjectAsTree(field_name, null, first_field_name, default_value, complete_standard_object);
+		
+		if ( json_parser.nextToken() != JsonToken.VALUE_STRING )
+			throw new SerializeException("Unable to read type hint");
+		
+		String type_hint = json_parser.getText();
+		TypeName type_name = TypeName.intern(type_hint);
+		
+		MethodHandle constructor = type_name.isPrimative() ? null : streaming_object_constructors.get(type_name);
+		
+		if ( constructor == null )
+			return readObjectAsTree(field_name, type_hint, null, default_value, complete_standard_object);
+		
+		try
+		{
+			current_field_name = FieldName.FIELD_NAME_TYPE_HINT;
+			value_pending = false;
+			
+			Object ret = constructor.invokeExact(this);
+			
+			// Consume anything the constructor did not
+			while ( open_objects >= level && nextField() ) {}
+			
+			if ( complete_standard_object && ret instanceof StandardObject )
+			{
+				((StandardObject)ret).complete();
+			}
+			
+			return ret;
+		}
+		catch(SerializeException e2)
+		{
+			throw e2;
+		}
+		catch(Exception e3)
+		{
+			throw new SerializeException("Error reading object",e3);
+		}
+		catch(Throwable t)
+		{
+			throw (Error)t;
+		}
+	}
+	
+	/**
+	 * Read the rest of an object (whose START_OBJECT token and, possibly,
+	 * type hint have already been consumed) via ObjectParseTree
+	 */
+	private Object readObjectAsTree(FieldName field_name, String type_hint, FieldName pending_field_name, Object default_value, boolean complete_standard_object) throws Exception
+	{
+		ObjectParseTree root = tree_parser.createNode(field_name);
+		
+		if ( type_hint != null )
+		{
+			ObjectParseTree type_hint_object = tree_parser.createNode(FieldName.FIELD_NAME_TYPE_HINT);
+			type_hint_object.setValue(type_hint);
+			
+			root.add(type_hint_object);
+		}
+		
+		tree_parser.processObjectTokens(root, pending_field_name);
+		open_objects--;
+		
+		Object ret = root.asObject(default_value, complete_standard_object);
+		tree_parser.releaseTree(root);
+		
+		return ret;
+	}
+	
+	/**
+	 * Called by ObjectParseTree.registerTypeName. If c has a constructor that
+	 * takes an ObjectStreamReader, instances of c will be streamed
+	 *
+	 * @param type_name
+	 *            The type name being registered
+	 * @param c
+	 *            The class being registered
+	 */
+	static void registerStreamingType(TypeName type_name, Class c)
+	{
+		try
+		{
+			streaming_object_constructors.put(type_name, ObjectParseTree.findConstructor(c, ObjectStreamReader.class));
+		}
+		catch(Exception e)
+		{
+			streaming_object_constructors.remove(type_name); // last registration wins
+		}
+	}
+	
+	/**
+	 * Check to see if a given TypeName has been registered with a streaming
+	 * constructor
+	 *
+	 * @param type
+	 *            The TypeName to check
+	 * @return true if instances of the type will be streamed, false otherwise
+	 */
+	static public boolean isStreamingTypeRegistered(TypeName type)
+	{
+		if ( type == null ) return false;
+		return streaming_object_constructors.containsKey(type);
+	}
+	
+	/**
+	 * Construct an object from previously serialized data, without building an
+	 * ObjectParseTree (when possible). The format is automatically detected.
+	 * StandardObject(s) are completed.
+	 *
+	 * As with ObjectParseTree.deserialize, both SerializeException and
+	 * ValidationException may be thrown
+	 *
+	 * @param document
+	 *            The data to read from
+	 * @return The object previously serialized
+	 */
+	static public Object deserialize(String document)
+	{
+		return deserialize(new StringReader(document), true);
+	}
+	
+	/**
+	 * Construct an object from previously serialized data, without building an
+	 * ObjectParseTree (when possible). The format is automatically detected.
+	 *
+	 * @param r
+	 *            The reader to consume raw data from
+	 * @param complete_standard_object
+	 *            Should the StandardObject read be completed prior to being
+	 *            returned?
+	 * @return The object previously serialized
+	 */
+	static public Object deserialize(Reader r, boolean complete_standard_object)
+	{
+		JsonParser json_parser = null;
+		
+		try
+		{
+			if ( !r.markSupported() ) r = new BufferedReader(r);
+			
+			json_parser = Parser.createJsonParser(Parser.figureFormat(r), r);
+			
+			if ( json_parser.nextToken() != JsonToken.START_OBJECT )
+				throw new SerializeException("Expected the start of an object");
+			
+			ObjectStreamReader reader = new ObjectStreamReader(json_parser);
+			
+			Object ret = reader.readObjectBody(FieldName.FIELD_DOCUMENT_ROOT, null, complete_standard_object);
+			
+			if ( ret == null )
+				throw new SerializeException("Unable to read document!");
+			
+			return ret;
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while reading document",e2);
+		}
+		finally
+		{
+			try
+			{
+				if ( json_parser != null ) json_parser.close();
+			}
+			catch(Exception e)
+			{
+				// nothing to do, we are done reading
+			}
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package org.jimmutable.core.serialization.reader;
+
+import java.util.Arrays;
+
+import org.jimmutable.core.serialization.FieldName;
+
+/**
+ * A per thread pool of ObjectParseTree nodes. When a thread has an arena, the
+ * parse trees built on that thread draw their nodes (and their child arrays)
+ * from the arena, and the trees that jimmutable builds for its own use (e.g.
+ * by ObjectParseTree.deserialize and ObjectStreamReader) are handed back to
+ * the arena as soon as the object they hold has been constructed. A thread
+ * reading millions of documents then allocates (almost) no parse tree nodes
+ * at all.
+ *
+ * Arenas are opt-in, and are typically enabled by the worker threads of a bulk
+ * load (see SmallDocumentBulkLoader):
+ *
+ * <pre>
+ * ParseTreeArena.enableForCurrentThread();
+ * ...
+ * Object obj = ObjectStreamReader.deserialize(document);
+ * </pre>
+ *
+ * A node is only ever reused once the object built from its tree has been
+ * constructed, and no part of a tree ever becomes part of the object built
+ * from it (the values read are Strings, primitives and objects, never nodes).
+ * The one rule: an ObjectParseTree constructor (or ReadAs) must not keep a
+ * reference to the tree it is handed, which no well behaved constructor does.
+ * Released nodes are wiped (they no longer have a field name or value), so a
+ * constructor that breaks this rule fails fast instead of reading another
+ * document's data.
+ *
+ * Trees returned by Parser.parse belong to the caller, and are never reused.
+ *
+ * An arena is only ever used by the thread that owns it, and so is not thread
+ * safe (and does not need to be). A reader that is handed to another thread
+ * simply stops reusing nodes
+ *
+ * @author jim.kane
+ *
+ */
+final public class ParseTreeArena
+{
+	/**
+	 * The most nodes an arena will hold on to. Enough for the largest trees of
+	 * a typical bulk load, while bounding the memory each thread keeps
+	 */
+	static public final int MAXIMUM_POOLED_NODES = 64*1024;
+	
+	static private final ThreadLocal<ParseTreeArena> thread_arenas = new ThreadLocal<>();
+	
+	private Thread owner; // required, the only thread that may use this arena
+	
+	private ObjectParseTree free_nodes[] = new ObjectParseTree[256]; // required, the pool
+	private int free_count;
+	
+	private ObjectParseTree work[] = new ObjectParseTree[64]; // required, scratch stack used to walk trees being released
+	
+	private ParseTreeArena(Thread owner)
+	{
+		this.owner = owner;
+	}
+	
+	/**
+	 * Enable parse tree node reuse on the calling thread. Safe to call more
+	 * than once (the thread keeps the arena it already has)
+	 *
+	 * @return The arena of the calling thread
+	 */
+	static public ParseTreeArena enableForCurrentThread()
+	{
+		ParseTreeArena ret = thread_arenas.get();
+		
+		if ( ret == null )
+		{
+			ret = new ParseTreeArena(Thread.currentThread());
+			thread_arenas.set(ret);
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Disable parse tree node reuse on the calling thread, releasing all of
+	 * the pooled nodes
+	 */
+	static public void disableForCurrentThread()
+	{
+		thread_arenas.remove();
+	}
+	
+	/**
+	 * Get the arena of the calling thread
+	 *
+	 * @param default_value
+	 *            The value to return if the calling thread does not have an
+	 *            arena
+	 * @return The arena of the calling thread, or default_value
+	 */
+	static public ParseTreeArena getOptionalCurrentThreadArena(ParseTreeArena default_value)
+	{
+		ParseTreeArena ret = thread_arenas.get();
+		
+		return ret == null ? default_value : ret;
+	}
+	
+	/**
+	 * Hand a tree back to the arena of the calling thread (if it has one).
+	 * Only called once the object the tree was read into has been constructed
+	 *
+	 * @param root
+	 *            The tree to release (can be null)
+	 */
+	static void releaseToCurrentThreadArena(ObjectParseTree root)
+	{
+		if ( root == null ) return;
+		
+		ParseTreeArena arena = thread_arenas.get();
+		
+		if ( arena != null ) arena.release(root);
+	}
+	
+	/**
+	 * Get a node, reusing a pooled node when one is available
+	 *
+	 * @param field_name
+	 *            The field name of the node
+	 * @return A node with no value and no children
+	 */
+	ObjectParseTree createNode(FieldName field_name)
+	{
+		if ( free_count == 0 || owner != Thread.currentThread() ) return new ObjectParseTree(field_name);
+		
+		ObjectParseTree ret = free_nodes[--free_count];
+		free_nodes[free_count] = null;
+		
+		ret.reuse(field_name);
+		
+		return ret;
+	}
+	
+	/**
+	 * Wipe a tree, and add its nodes to the pool. The nodes are pooled so
+	 * that they are handed out again in the order the parser created them
+	 * (depth first, children in order), so that each node of the next tree of
+	 * the same shape reuses the node (and the child and field name index
+	 * arrays) from the same position
+	 *
+	 * @param root
+	 *            The tree to release
+	 */
+	void release(ObjectParseTree root)
+	{
+		if ( owner != Thread.currentThread() ) return;
+		
+		int first_pooled = free_count;
+		int work_count = 0;
+		
+		work[work_count++] = root;
+		
+		while ( work_count > 0 )
+		{
+			ObjectParseTree node = work[--work_count];
+			work[work_count] = null;
+			
+			int child_count = node.getSimpleChildCount();
+			
+			if ( work_count + child_count > work.length )
+				work = Arrays.copyOf(work, Math.max(work.length*2, work_count + child_count));
+			
+			for ( int i = child_count-1; i >= 0; i-- ) // so that the first child is visited next
+			{
+				work[work_count++] = node.getSimpleChild(i);
+			}
+			
+			node.clear();
+			
+			if ( free_count == MAXIMUM_POOLED_NODES ) continue; // let the GC have it
+			
+			if ( free_count == free_nodes.length )
+				free_nodes = Arrays.copyOf(free_nodes, free_nodes.length*2);
+			
+			free_nodes[free_count++] = node;
+		}
+		
+		// The root was pooled first, reverse so that it is handed out first
+		for ( int i = first_pooled, j = free_count-1; i < j; i++, j-- )
+		{
+			ObjectParseTree tmp = free_nodes[i];
+			free_nodes[i] = free_nodes[j];
+			free_nodes[j] = tmp;
+		}
+	}
+	
+	/**
+	 * Get the number of nodes in the pool (waiting to be reused)
+	 *
+	 * @return The number of pooled nodes
+	 */
+	public int getSimplePooledNodeCount()
+	{
+		return free_count;
+	}
+}
@@ -1,19 +1,26 @@
 package org.jimmutable.core.serialization.reader;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
-import java.util.Stack;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import org.jimmutable.core.exceptions.SerializeException;
 import org.jimmutable.core.serialization.FieldName;
 import org.jimmutable.core.serialization.Format;
+import org.jimmutable.core.serialization.JacksonFactories;
+import org.jimmutable.core.serialization.binary.BinaryFormat;
+import org.jimmutable.core.serialization.binary.BinaryParser;
+import org.jimmutable.core.utils.Validator;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
 import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import com.fasterxml.jackson.databind.util.TokenBuffer;
-import com.fasterxml.jackson.dataformat.xml.XmlFactory;
 
 /**
  * The job of the Parser class is to convert XML/JSON/TokenBuffer data back into
@@ -28,8 +35,11 @@ import com.fasterxml.jackson.dataformat.xml.XmlFactory;
  */
 public class Parser 
 {
-	static private JsonFactory json_factory = null;
-	static private XmlFactory xml_factor = null;
+	/**
+	 * The number of bytes examined (at most) when figuring out the format of
+	 * raw data
+	 */
+	static private final int FORMAT_SNIFF_BYTES = 64;
 	
 	private Format format;
 	
@@ -39,45 +49,165 @@ public class Parser
 	
 	private JsonParser json_parser;
 	
-	private Parser(Reader r) throws Exception
+	private ParseTreeArena arena; // optional, the arena nodes are drawn from
+	
+	private ObjectParseTree stack[] = new ObjectParseTree[16]; // required, the objects being read (reused by every object this parser reads)
+	private int stack_size;
+	
+	private Parser(Format format, JsonParser json_parser, FieldProjection projection) throws Exception
 	{
-		format = figureFormat(r);
+		this.format = format;
+		this.json_parser = json_parser;
+		this.arena = ParseTreeArena.getOptionalCurrentThreadArena(null);
 		
-		if ( format == Format.JSON || format == Format.JSON_PRETTY_PRINT )
+		if ( projection == null )
 		{
-			if ( json_factory == null ) json_factory = new JsonFactory();
-			json_parser = json_factory.createJsonParser(r);
+			result = processObjectTokens(FieldName.FIELD_DOCUMENT_ROOT);
 		}
 		else
 		{
-			if ( xml_factor == null ) xml_factor = new XmlFactory();
-			json_parser = xml_factor.createJsonParser(r);
+			if ( json_parser.nextToken() != JsonToken.START_OBJECT )
+				throw new SerializeException("Expected the start of an object");
+			
+			result = processProjectedObjectTokens(createNode(FieldName.FIELD_DOCUMENT_ROOT), projection);
 		}
 		
+		json_parser.close();
+	}
+	
+	/**
+	 * Construct a parser that builds ObjectParseTree(s) from a JsonParser that
+	 * is already in use (used by ObjectStreamReader for the objects it can not
+	 * stream)
+	 * 
+	 * @param json_parser
+	 *            The (already positioned) parser to consume tokens from
+	 */
+	Parser(JsonParser json_parser)
+	{
+		this.json_parser = json_parser;
+		this.arena = ParseTreeArena.getOptionalCurrentThreadArena(null);
+	}
+	
+	/**
+	 * Create a node, drawing it from the arena of the thread that created
+	 * this parser (if it has one)
+	 * 
+	 * @param field_name
+	 *            The field name of the node
+	 * @return A new (or reused) node
+	 */
+	ObjectParseTree createNode(FieldName field_name)
+	{
+		if ( arena == null ) return new ObjectParseTree(field_name);
+		
+		return arena.createNode(field_name);
+	}
+	
+	/**
+	 * Hand a tree created by this parser back to its arena (if it has one),
+	 * once nothing refers to the tree any more
+	 */
+	void releaseTree(ObjectParseTree root)
+	{
+		if ( arena != null ) arena.release(root);
+	}
+	
+	/**
+	 * Create a Jackson parser for the specified format
+	 * 
+	 * @param format
+	 *            The format of the data in r (JSON or XML)
+	 * @param r
+	 *            The reader to consume raw data from
+	 * @return A parser, positioned before the first token
+	 */
+	static JsonParser createJsonParser(Format format, Reader r) throws Exception
+	{
+		if ( format.isBinary() )
+			throw new SerializeException("The binary format "+format+" can not be read from chars");
+		
+		JsonParser json_parser = JacksonFactories.getSimpleFactory(format).createParser(r);
+		
 		if ( json_parser == null )
 			throw new SerializeException("Could not create a parser for the format "+format);
 		
-		result = processObjectTokens(FieldName.FIELD_DOCUMENT_ROOT);
+		return json_parser;
+	}
+	
+	/**
+	 * Create a Jackson parser for the specified format that reads (encoded)
+	 * bytes directly, without first decoding them into chars
+	 * 
+	 * @param format
+	 *            The format of the data in in (JSON, XML, SMILE or CBOR)
+	 * @param in
+	 *            The stream to consume raw data from
+	 * @return A parser, positioned before the first token
+	 */
+	static JsonParser createJsonParser(Format format, InputStream in) throws Exception
+	{
+		JsonParser json_parser = JacksonFactories.getSimpleFactory(format).createParser(in);
+		
+		if ( json_parser == null )
+			throw new SerializeException("Could not create a parser for the format "+format);
 		
-		json_parser.close();
+		return json_parser;
 	}
 	
-	private Parser(TokenBuffer buffer) throws Exception
+	/**
+	 * Create a Jackson parser for the specified format that reads (encoded)
+	 * bytes directly, without first decoding them into chars
+	 * 
+	 * @param format
+	 *            The format of the data (JSON, XML, SMILE or CBOR)
+	 * @param data
+	 *            The array holding the raw data
+	 * @param offset
+	 *            The index of the first byte of the raw data
+	 * @param length
+	 *            The number of bytes of raw data
+	 * @return A parser, positioned before the first token
+	 */
+	static JsonParser createJsonParser(Format format, byte data[], int offset, int length) throws Exception
 	{
-		format = Format.TOKEN_BUFFER;
-		json_parser = buffer.asParser();
+		JsonParser json_parser = JacksonFactories.getSimpleFactory(format).createParser(data, offset, length);
 		
-		result = processObjectTokens(FieldName.FIELD_DOCUMENT_ROOT);
+		if ( json_parser == null )
+			throw new SerializeException("Could not create a parser for the format "+format);
 		
-		json_parser.close();
+		return json_parser;
 	}
 	
 	private ObjectParseTree processObjectTokens(FieldName object_field_name) throws Exception
 	{
-		Stack<ObjectParseTree> stack = new Stack<>();
+		return processObjectTokens(createNode(object_field_name), null);
+	}
+	
+	/**
+	 * Read the tokens of an object (up to and including its END_OBJECT) into
+	 * root
+	 * 
+	 * @param root
+	 *            The node to add the fields of the object to
+	 * @param pending_field_name
+	 *            If the FIELD_NAME token of the first field has already been
+	 *            consumed, its name (otherwise null)
+	 * @return root, "filled"
+	 */
+	ObjectParseTree processObjectTokens(ObjectParseTree root, FieldName pending_field_name) throws Exception
+	{
+		int base = stack_size; // objects (in arrays) are read by nested calls, which share the stack
+		
+		push(root);
 		
-		ObjectParseTree root = new ObjectParseTree(object_field_name);
-		stack.push(root);
+		if ( pending_field_name != null )
+		{
+			ObjectParseTree pending_object = createNode(pending_field_name);
+			root.add(pending_object);
+			
+			push(pending_object);
+		}
 		
 		while(true)
 		{
@@ -97,16 +227,16 @@ public class Parser
 				break; 
 				
 			case END_OBJECT:
-				stack.pop(); 
-				if ( stack.isEmpty() ) return root;
+				pop().buildFieldIndex(); // all of the fields of the object are now known
+				if ( stack_size == base ) return root;
 				break;
 				
 			case START_ARRAY:
-				FieldName array_name = stack.peek().getSimpleFieldName(); // get the field name of the stub object
-				stack.pop(); // pop out the "stub" object created by the preceding field event
-				stack.peek().removeLast(); // Remove the "stub" object added to the current object by the preceding field event
+				ObjectParseTree stub = pop(); // pop out the "stub" object created by the preceding field event
+				peek().removeLast(); // Remove the "stub" object added to the current object by the preceding field event
 				
-				processArrayTokens(array_name, stack.peek());
+				processArrayTokens(stub.getSimpleFieldName(), peek());
+				releaseTree(stub);
 				break; 
 				
 			case END_ARRAY: 
@@ -114,10 +244,10 @@ public class Parser
 				
 			case FIELD_NAME:
 				
-				ObjectParseTree new_object = new ObjectParseTree(new FieldName(json_parser.getValueAsString()));
-				stack.peek().add(new_object);
+				ObjectParseTree new_object = createNode(getCurrentFieldName(json_parser));
+				peek().add(new_object);
 				
-				stack.push(new_object);
+				push(new_object);
 				
 				break;
 			
@@ -130,21 +260,217 @@ public class Parser
 			case VALUE_TRUE:
 			case VALUE_FALSE:
 				
-				stack.peek().setValue(json_parser.getValueAsString());
-				stack.pop();
+				setValue(pop(), json_parser, token);
 				
 				break;
 				
 			case VALUE_NULL:
 				
-				stack.peek().setValue(null);
-				stack.pop();
+				pop().setValue(null);
+				
+				break;
+			}
+		}
+	}
+	
+	private void push(ObjectParseTree node)
+	{
+		if ( stack_size == stack.length ) 
+			stack = Arrays.copyOf(stack, stack_size*2);
+		
+		stack[stack_size++] = node;
+	}
+	
+	private ObjectParseTree pop()
+	{
+		ObjectParseTree ret = stack[--stack_size];
+		stack[stack_size] = null;
+		
+		return ret;
+	}
+	
+	private ObjectParseTree peek()
+	{
+		return stack[stack_size-1];
+	}
+	
+	/**
+	 * Read the fields of an object (whose START_OBJECT token has already been
+	 * consumed, up to and including its END_OBJECT) into node, skipping every
+	 * field not selected by projection
+	 * 
+	 * @param node
+	 *            The node to add the selected fields of the object to
+	 * @param projection
+	 *            The fields to read
+	 * @return node, "filled"
+	 */
+	private ObjectParseTree processProjectedObjectTokens(ObjectParseTree node, FieldProjection projection) throws Exception
+	{
+		while(true)
+		{
+			JsonToken token = json_parser.nextToken();
+			if ( token == null ) 
+				throw new SerializeException("Unexpected end of input");
+			
+			if ( token == JsonToken.END_OBJECT )
+			{
+				node.buildFieldIndex();
+				return node;
+			}
+			
+			if ( token != JsonToken.FIELD_NAME )
+				throw new SerializeException("ERROR: Expected a field name, found "+token);
+			
+			FieldName field_name = getCurrentFieldName(json_parser);
+			token = json_parser.nextToken();
+			
+			if ( !projection.includes(field_name) )
+			{
+				json_parser.skipChildren(); // no-op for scalars
+				continue;
+			}
+			
+			FieldProjection nested_projection = projection.getOptionalNestedProjection(field_name, null);
+			
+			switch(token)
+			{
+			case START_OBJECT:
+				if ( nested_projection == null )
+					node.add(processObjectTokens(createNode(field_name), null));
+				else
+					node.add(processProjectedObjectTokens(createNode(field_name), nested_projection));
+				break;
+				
+			case START_ARRAY:
+				if ( nested_projection == null )
+					processArrayTokens(field_name, node);
+				else
+					processProjectedArrayTokens(field_name, node, nested_projection);
+				break;
+				
+			default:
+				node.add(createLeaf(field_name, token));
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Read the elements of an array (whose START_ARRAY token has already been
+	 * consumed), applying projection to each object in the array
+	 */
+	private void processProjectedArrayTokens(FieldName array_name, ObjectParseTree parent, FieldProjection projection) throws Exception
+	{
+		while(true)
+		{
+			JsonToken token = json_parser.nextToken();
+			if ( token == null ) 
+				throw new SerializeException("Unexpected end of input");
+			
+			switch(token)
+			{
+			case END_ARRAY:
+				return; // done processing array!
+				
+			case START_OBJECT:
+				parent.add(processProjectedObjectTokens(createNode(array_name), projection));
+				break;
 				
+			default:
+				parent.add(createLeaf(array_name, token));
 				break;
 			}
 		}
 	}
 	
+	/**
+	 * Create a node for the scalar value the parser is currently positioned on
+	 */
+	private ObjectParseTree createLeaf(FieldName field_name, JsonToken token) throws Exception
+	{
+		switch(token)
+		{
+		case VALUE_STRING:
+		case VALUE_NUMBER_INT:
+		case VALUE_NUMBER_FLOAT:
+		case VALUE_TRUE:
+		case VALUE_FALSE:
+		case VALUE_NULL:
+			break;
+			
+		default:
+			throw new SerializeException("ERROR: Unexpected token "+token);
+		}
+		
+		ObjectParseTree ret = createNode(field_name);
+		setValue(ret, json_parser, token);
+		
+		return ret;
+	}
+	
+	/**
+	 * Get the field name of the current FIELD_NAME token. Binary parsers hand
+	 * back the (interned) FieldName of a field straight from their dictionary,
+	 * every other parser's name is interned
+	 * 
+	 * @param json_parser
+	 *            The parser (positioned on a FIELD_NAME token)
+	 * @return The current field name
+	 */
+	static FieldName getCurrentFieldName(JsonParser json_parser) throws Exception
+	{
+		if ( json_parser instanceof BinaryParser )
+			return ((BinaryParser)json_parser).getCurrentFieldName();
+		
+		return FieldName.intern(json_parser.getCurrentName());
+	}
+	
+	/**
+	 * Set the value of node to the scalar the parser is positioned on (token).
+	 * Native (JSON) numbers and booleans are stored unboxed, without ever
+	 * being turned into a String; everything else (including all XML values)
+	 * is stored as text
+	 */
+	static void setValue(ObjectParseTree node, JsonParser json_parser, JsonToken token) throws Exception
+	{
+		switch(token)
+		{
+		case VALUE_NUMBER_INT:
+			if ( json_parser.getNumberType() != NumberType.BIG_INTEGER )
+			{
+				node.setValue(json_parser.getLongValue());
+				return;
+			}
+			break;
+			
+		case VALUE_NUMBER_FLOAT:
+			if ( json_parser.getNumberType() == NumberType.DOUBLE ) // (a float, from a TokenBuffer, keeps its exact text)
+			{
+				node.setValue(json_parser.getDoubleValue());
+				return;
+			}
+			break;
+			
+		case VALUE_TRUE:
+			node.setValue(true);
+			return;
+			
+		case VALUE_FALSE:
+			node.setValue(false);
+			return;
+			
+		case VALUE_NULL:
+			node.setValue((String)null);
+			return;
+			
+		default:
+			break;
+		}
+		
+		node.setValue(json_parser.getValueAsString());
+	}
+	
 	private void processArrayTokens(FieldName array_name, ObjectParseTree parent) throws Exception
 	{
 		while(true)
@@ -184,8 +510,8 @@ public class Parser
 			case VALUE_FALSE:
 				
 				
-				ObjectParseTree value_object = new ObjectParseTree(array_name);
-				value_object.setValue(json_parser.getValueAsString());
+				ObjectParseTree value_object = createNode(array_name);
+				setValue(value_object, json_parser, token);
 				
 				parent.add(value_object);
 				
@@ -193,7 +519,7 @@ public class Parser
 				
 			case VALUE_NULL:
 				
-				ObjectParseTree null_object = new ObjectParseTree(array_name);
+				ObjectParseTree null_object = createNode(array_name);
 				null_object.setValue(null);
 				
 				parent.add(null_object);
@@ -204,22 +530,27 @@ public class Parser
 	}
 
 	
-	private Format figureFormat(Reader reader)
+	/**
+	 * Figure out the format of the data in reader, without consuming any of it
+	 * 
+	 * @param reader
+	 *            The reader to examine. Must support mark and reset (wrap it
+	 *            in a BufferedReader if it does not)
+	 * @return The format of the data in reader
+	 */
+	static Format figureFormat(Reader reader)
 	{
 		try
 		{
-			// Make sure that reader supports mark and reset
-			if ( !reader.markSupported()  )
-			{
-				reader = new BufferedReader(reader);
-			}
+			if ( !reader.markSupported() )
+				throw new SerializeException("Unable to determine the input format: reader does not support mark");
 	
 			reader.mark(11);
 			char buf[] = new char[10];
 			int ar = reader.read(buf, 0, 10);
 			reader.reset();
 			
-			String start = new String(buf,0,ar);
+			String start = new String(buf,0,Math.max(ar, 0));
 			start = start.trim();
 			
 			if ( start.startsWith("{") ) return Format.JSON;
@@ -228,12 +559,128 @@ public class Parser
 			
 			throw new SerializeException("Unable to determine the input format: read 10 characters without a definitive answer");
 		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e)
+		{
+			throw new SerializeException("Unable to determine the input format",e);
+		}
+	}
+	
+	/**
+	 * Figure out the format of raw data from its first few bytes. SMILE and
+	 * JIMMUTABLE_BINARY are recognized by their headers and CBOR by its self
+	 * describe tag or the initial byte of a map. Anything else must be (UTF-8, or other ASCII
+	 * compatible encoded) text: a byte order mark and leading whitespace are
+	 * skipped.
+	 * 
+	 * @param data
+	 *            The array holding the raw data
+	 * @param offset
+	 *            The index of the first byte of the raw data
+	 * @param length
+	 *            The number of bytes of raw data available
+	 * @return The format of the data
+	 */
+	static Format figureFormat(byte data[], int offset, int length)
+	{
+		int end = offset + length;
+		int i = offset;
+		
+		if ( length >= 3 && data[i] == ':' && data[i+1] == ')' && data[i+2] == '\n' )
+			return Format.SMILE;
+		
+		if ( BinaryFormat.hasHeader(data, i, length) )
+			return Format.JIMMUTABLE_BINARY;
+		
+		if ( length >= 3 && data[i] == (byte)0xD9 && data[i+1] == (byte)0xD9 && data[i+2] == (byte)0xF7 )
+			return Format.CBOR;
+		
+		if ( length >= 1 && (data[i] & 0xE0) == 0xA0 ) // CBOR major type 5 (map)
+			return Format.CBOR;
+		
+		// Skip the UTF-8 byte order mark, if present
+		if ( length >= 3 && data[i] == (byte)0xEF && data[i+1] == (byte)0xBB && data[i+2] == (byte)0xBF )
+			i += 3;
+		
+		for ( ; i < end; i++ )
+		{
+			switch(data[i])
+			{
+			case ' ': case '\t': case '\r': case '\n': 
+				continue;
+				
+			case '{': 
+				return Format.JSON;
+				
+			case '<': 
+				return Format.XML;
+				
+			default:
+				throw new SerializeException(String.format("Unable to determine the input format: unexpected byte 0x%02x", data[i] & 0xFF));
+			}
+		}
+		
+		throw new SerializeException(String.format("Unable to determine the input format: read %d bytes without a definitive answer", length));
+	}
+	
+	/**
+	 * Figure out the format of the data in in, without consuming any of it
+	 * 
+	 * @param in
+	 *            The stream to examine. Must support mark and reset (wrap it
+	 *            in a BufferedInputStream if it does not)
+	 * @return The format of the data in in
+	 */
+	static Format figureFormat(InputStream in)
+	{
+		try
+		{
+			if ( !in.markSupported() )
+				throw new SerializeException("Unable to determine the input format: stream does not support mark");
+			
+			in.mark(FORMAT_SNIFF_BYTES);
+			
+			byte buf[] = new byte[FORMAT_SNIFF_BYTES];
+			int ar = 0;
+			
+			while ( ar < buf.length )
+			{
+				int count = in.read(buf, ar, buf.length - ar);
+				if ( count < 0 ) break;
+				ar += count;
+			}
+			
+			in.reset();
+			
+			return figureFormat(buf, 0, ar);
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
 		catch(Exception e)
 		{
 			throw new SerializeException("Unable to determine the input format",e);
 		}
 	}
 	
+	/**
+	 * Build an ObjectParseTree (the whole document, or just the fields
+	 * selected by projection) from a freshly created JsonParser
+	 */
+	static private ObjectParseTree parse(Format format, JsonParser json_parser, FieldProjection projection) throws Exception
+	{
+		Parser p = new Parser(format, json_parser, projection);
+		
+		if ( p.result == null ) 
+			throw new SerializeException("Unknown error while parsing ReadTree (null result)");
+		
+		return p.result;
+	}
+	
 	/**
 	 * Create an ObjectParseTree from a Reader
 	 * 
@@ -248,15 +695,200 @@ public class Parser
 	 *             this function)
 	 */
 	static public ObjectParseTree parse(Reader r) throws SerializeException
+	{
+		return parse(r, null);
+	}
+	
+	/**
+	 * Create an ObjectParseTree, holding only the fields selected by
+	 * projection, from a Reader
+	 * 
+	 * @param r
+	 *            The reader to consume raw data from
+	 * @param projection
+	 *            The fields to read (null reads every field)
+	 * 
+	 * @return The ObjectParseTree created from the data
+	 * 
+	 * @throws SerializeException
+	 *             Any read errors (IO, parse, etc.) will be thrown as
+	 *             SerializeException (the only exception that can come out of
+	 *             this function)
+	 */
+	static public ObjectParseTree parse(Reader r, FieldProjection projection) throws SerializeException
+	{
+		try
+		{
+			if ( !r.markSupported() ) r = new BufferedReader(r);
+			
+			Format format = figureFormat(r);
+			return parse(format, createJsonParser(format, r), projection);
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while parsing ReadTree",e2);
+		}
+	}
+	
+	/**
+	 * Create an ObjectParseTree from encoded (typically UTF-8) bytes. The
+	 * bytes are handed to Jackson as is (they are never decoded into a
+	 * String)
+	 * 
+	 * @param data
+	 *            The raw data
+	 * 
+	 * @return The ObjectParseTree created from the data
+	 * 
+	 * @throws SerializeException
+	 *             Any read errors (IO, parse, etc.) will be thrown as
+	 *             SerializeException (the only exception that can come out of
+	 *             this function)
+	 */
+	static public ObjectParseTree parse(byte data[]) throws SerializeException
+	{
+		return parse(data, null);
+	}
+	
+	/**
+	 * Create an ObjectParseTree, holding only the fields selected by
+	 * projection, from encoded (typically UTF-8) bytes. The
+	 * bytes are handed to Jackson as is (they are never decoded into a
+	 * String)
+	 * 
+	 * @param data
+	 *            The raw data
+	 * @param projection
+	 *            The fields to read (null reads every field)
+	 * 
+	 * @return The ObjectParseTree created from the data
+	 * 
+	 * @throws SerializeException
+	 *             Any read errors (IO, parse, etc.) will be thrown as
+	 *             SerializeException (the only exception that can come out of
+	 *             this function)
+	 */
+	static public ObjectParseTree parse(byte data[], FieldProjection projection) throws SerializeException
+	{
+		Validator.notNull(data);
+		return parse(data, 0, data.length, projection);
+	}
+	
+	/**
+	 * Create an ObjectParseTree from a range of encoded (typically UTF-8)
+	 * bytes. The bytes are handed to Jackson as is (they are never decoded
+	 * into a String)
+	 * 
+	 * @param data
+	 *            The array holding the raw data
+	 * @param offset
+	 *            The index of the first byte of the raw data
+	 * @param length
+	 *            The number of bytes of raw data
+	 * 
+	 * @return The ObjectParseTree created from the data
+	 * 
+	 * @throws SerializeException
+	 *             Any read errors (IO, parse, etc.) will be thrown as
+	 *             SerializeException (the only exception that can come out of
+	 *             this function)
+	 */
+	static public ObjectParseTree parse(byte data[], int offset, int length) throws SerializeException
+	{
+		return parse(data, offset, length, null);
+	}
+	
+	/**
+	 * Create an ObjectParseTree, holding only the fields selected by
+	 * projection, from a range of encoded (typically UTF-8)
+	 * bytes. The bytes are handed to Jackson as is (they are never decoded
+	 * into a String)
+	 * 
+	 * @param data
+	 *            The array holding the raw data
+	 * @param offset
+	 *            The index of the first byte of the raw data
+	 * @param length
+	 *            The number of bytes of raw data
+	 * @param projection
+	 *            The fields to read (null reads every field)
+	 * 
+	 * @return The ObjectParseTree created from the data
+	 * 
+	 * @throws SerializeException
+	 *             Any read errors (IO, parse, etc.) will be thrown as
+	 *             SerializeException (the only exception that can come out of
+	 *             this function)
+	 */
+	static public ObjectParseTree parse(byte data[], int offset, int length, FieldProjection projection) throws SerializeException
+	{
+		try
+		{
+			Format format = figureFormat(data, offset, Math.min(length, FORMAT_SNIFF_BYTES));
+			return parse(format, createJsonParser(format, data, offset, length), projection);
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while parsing ReadTree",e2);
+		}
+	}
+	
+	/**
+	 * Create an ObjectParseTree from a stream of encoded (typically UTF-8)
+	 * bytes. The stream is read to the end of the document, but not closed
+	 * 
+	 * @param in
+	 *            The stream to consume raw data from
+	 * 
+	 * @return The ObjectParseTree created from the data
+	 * 
+	 * @throws SerializeException
+	 *             Any read errors (IO, parse, etc.) will be thrown as
+	 *             SerializeException (the only exception that can come out of
+	 *             this function)
+	 */
+	static public ObjectParseTree parse(InputStream in) throws SerializeException
+	{
+		return parse(in, null);
+	}
+	
+	/**
+	 * Create an ObjectParseTree, holding only the fields selected by
+	 * projection, from a stream of encoded (typically UTF-8)
+	 * bytes. The stream is read to the end of the document, but not closed
+	 * 
+	 * @param in
+	 *            The stream to consume raw data from
+	 * @param projection
+	 *            The fields to read (null reads every field)
+	 * 
+	 * @return The ObjectParseTree created from the data
+	 * 
+	 * @throws SerializeException
+	 *             Any read errors (IO, parse, etc.) will be thrown as
+	 *             SerializeException (the only exception that can come out of
+	 *             this function)
+	 */
+	static public ObjectParseTree parse(InputStream in, FieldProjection projection) throws SerializeException
 	{
 		try
 		{
-			Parser p = new Parser(r);
+			if ( !in.markSupported() ) in = new BufferedInputStream(in);
+			
+			Format format = figureFormat(in);
 			
-			if ( p.result == null ) 
-				throw new SerializeException("Unknown error while parsing ReadTree (null result)");
+			JsonParser json_parser = createJsonParser(format, in);
+			json_parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
 			
-			return p.result;
+			return parse(format, json_parser, projection);
 		}
 		catch(SerializeException e)
 		{
@@ -268,6 +900,54 @@ public class Parser
 		}
 	}
 	
+	/**
+	 * Create an ObjectParseTree from the remaining bytes (position to limit)
+	 * of a ByteBuffer. The position of buffer is not changed. Heap buffers are
+	 * parsed in place; direct buffers are streamed.
+	 * 
+	 * @param buffer
+	 *            The buffer holding the raw data
+	 * 
+	 * @return The ObjectParseTree created from the data
+	 * 
+	 * @throws SerializeException
+	 *             Any read errors (IO, parse, etc.) will be thrown as
+	 *             SerializeException (the only exception that can come out of
+	 *             this function)
+	 */
+	static public ObjectParseTree parse(ByteBuffer buffer) throws SerializeException
+	{
+		return parse(buffer, null);
+	}
+	
+	/**
+	 * Create an ObjectParseTree, holding only the fields selected by
+	 * projection, from the remaining bytes (position to limit)
+	 * of a ByteBuffer. The position of buffer is not changed. Heap buffers are
+	 * parsed in place; direct buffers are streamed.
+	 * 
+	 * @param buffer
+	 *            The buffer holding the raw data
+	 * @param projection
+	 *            The fields to read (null reads every field)
+	 * 
+	 * @return The ObjectParseTree created from the data
+	 * 
+	 * @throws SerializeException
+	 *             Any read errors (IO, parse, etc.) will be thrown as
+	 *             SerializeException (the only exception that can come out of
+	 *             this function)
+	 */
+	static public ObjectParseTree parse(ByteBuffer buffer, FieldProjection projection) throws SerializeException
+	{
+		Validator.notNull(buffer);
+		
+		if ( buffer.hasArray() )
+			return parse(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), projection);
+		
+		return parse(new ByteBufferBackedInputStream(buffer.duplicate()), projection);
+	}
+	
 	/**
 	 * Create an ObjectParseTree from a String
 	 * 
@@ -282,9 +962,30 @@ public class Parser
 	 *             this function)
 	 */
 	static public ObjectParseTree parse(String str) throws SerializeException
+	{
+		return parse(str, null);
+	}
+	
+	/**
+	 * Create an ObjectParseTree, holding only the fields selected by
+	 * projection, from a String
+	 * 
+	 * @param str
+	 *            The string to consume raw data from
+	 * @param projection
+	 *            The fields to read (null reads every field)
+	 * 
+	 * @return The ObjectParseTree created from the data
+	 * 
+	 * @throws SerializeException
+	 *             Any read errors (IO, parse, etc.) will be thrown as
+	 *             SerializeException (the only exception that can come out of
+	 *             this function)
+	 */
+	static public ObjectParseTree parse(String str, FieldProjection projection) throws SerializeException
 	{
 		StringReader r = new StringReader(str);
-		return parse(r);
+		return parse(r, projection);
 	}
 	
 	/**
@@ -304,12 +1005,7 @@ public class Parser
 	{
 		try
 		{
-			Parser p = new Parser(buffer);
-			
-			if ( p.result == null ) 
-				throw new SerializeException("Unknown error while parsing ReadTree (null result)");
-			
-			return p.result;
+			return parse(Format.TOKEN_BUFFER, buffer.asParser(), null);
 		}
 		catch(SerializeException e)
 		{
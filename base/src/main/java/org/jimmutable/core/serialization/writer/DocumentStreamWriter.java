@@ -0,0 +1,90 @@
+package org.jimmutable.core.serialization.writer;
+
+import java.io.OutputStream;
+
+import org.jimmutable.core.exceptions.SerializeException;
+import org.jimmutable.core.serialization.Format;
+import org.jimmutable.core.utils.Validator;
+
+/**
+ * Writes a sequence of documents (objects) to a single stream, one after the
+ * other. Read them back with DocumentStreamReader.
+ *
+ * This is the most efficient way to write bulk data (exports, snapshots,
+ * etc.) In Format.JIMMUTABLE_BINARY every document in the stream shares the
+ * same field name and type name dictionaries, so the names are only ever
+ * written once per stream, not once per document.
+ *
+ * XML can not hold more than one document per stream, and is not supported.
+ *
+ * <pre>
+ * DocumentStreamWriter w = new DocumentStreamWriter(Format.JIMMUTABLE_BINARY, out);
+ * for ( Item item : items ) w.writeDocument(item);
+ * w.close();
+ * </pre>
+ *
+ * @author jim.kane
+ *
+ */
+public class DocumentStreamWriter
+{
+	private LowLevelWriter low_level_writer; // required
+	private int document_count;
+	
+	/**
+	 * Create a writer that writes documents to out. out is not closed when
+	 * this writer is closed
+	 *
+	 * @param format
+	 *            The format to write (JSON, JSON_PRETTY_PRINT, SMILE, CBOR or
+	 *            JIMMUTABLE_BINARY)
+	 * @param out
+	 *            The stream to write to
+	 */
+	public DocumentStreamWriter(Format format, OutputStream out)
+	{
+		Validator.notNull(format, out);
+		
+		if ( format == Format.XML || format == Format.XML_PRETTY_PRINT || format == Format.TOKEN_BUFFER )
+			throw new SerializeException("The format "+format+" can not hold a stream of documents");
+		
+		low_level_writer = new LowLevelWriter(format, out);
+		low_level_writer.keepTargetOpen();
+	}
+	
+	/**
+	 * Write a document
+	 *
+	 * @param obj
+	 *            The object to write (can be null)
+	 */
+	public void writeDocument(Object obj)
+	{
+		ObjectWriter.writeRootObject(low_level_writer, obj);
+		document_count++;
+	}
+	
+	/**
+	 * Get the number of documents written so far
+	 *
+	 * @return The number of documents written
+	 */
+	public int getSimpleDocumentCount() { return document_count; }
+	
+	/**
+	 * Flush any buffered data to the underlying stream
+	 */
+	public void flush()
+	{
+		low_level_writer.flush();
+	}
+	
+	/**
+	 * Flush any buffered data, and prevent any further writing (the underlying
+	 * stream is not closed)
+	 */
+	public void close()
+	{
+		low_level_writer.close();
+	}
+}
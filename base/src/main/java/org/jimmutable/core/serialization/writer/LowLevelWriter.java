@@ -1,23 +1,27 @@
 package org.jimmutable.core.serialization.writer;
 
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
 import javax.xml.namespace.QName;
 
 import org.jimmutable.core.exceptions.SerializeException;
+import org.jimmutable.core.objects.SerializedFormCache;
+import org.jimmutable.core.objects.StandardImmutableObject;
 import org.jimmutable.core.serialization.FieldName;
 import org.jimmutable.core.serialization.Format;
+import org.jimmutable.core.serialization.JacksonFactories;
 import org.jimmutable.core.serialization.TypeName;
 import org.jimmutable.core.serialization.reader.ObjectParseTree;
 import org.jimmutable.core.utils.Validator;
 
-import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
 import com.fasterxml.jackson.databind.util.TokenBuffer;
-import com.fasterxml.jackson.dataformat.xml.XmlFactory;
 import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
 
 /**
@@ -41,14 +45,28 @@ public class LowLevelWriter
 	private JsonGenerator gen; // required, the JSON geneator
 	
 	/**
-	 * Construct a low level writer
+	 * Construct a low level writer that writes UTF-8 encoded bytes directly to
+	 * a stream (no intermediate chars)
 	 * 
 	 * @param format The format to write data in
 	 * @param out The output stream to write the data to
 	 */
 	public LowLevelWriter(Format format, OutputStream out)
 	{
-		this(format, new OutputStreamWriter(out));
+		Validator.notNull(format, out);
+		
+		this.format = format;
+		
+		try
+		{
+			gen = JacksonFactories.getSimpleFactory(format).createGenerator(out, JsonEncoding.UTF8);
+			
+			startDocument();
+		}
+		catch(Exception e)
+		{
+			throw new SerializeException("Error creating low level writer", e);
+		}
 	}
 	
 	/**
@@ -61,31 +79,16 @@ public class LowLevelWriter
 	{
 		Validator.notNull(format);
 		
+		if ( format.isBinary() )
+			throw new SerializeException("The binary format "+format+" can not be written to chars (write to an OutputStream)");
+		
 		this.format = format;
 		
 		try
 		{
-			if ( format == Format.JSON || format == Format.JSON_PRETTY_PRINT )
-			{
-				JsonFactory jfactory = new JsonFactory();
-				gen = jfactory.createGenerator(writer);
-				
-				if ( format == Format.JSON_PRETTY_PRINT )
-					gen.useDefaultPrettyPrinter();
-			}
-			else
-			{
-				XmlFactory xfactory = new XmlFactory();
-				ToXmlGenerator xgen = xfactory.createGenerator(writer);
-
-				if ( format == Format.XML_PRETTY_PRINT )
-					xgen.useDefaultPrettyPrinter();
-				
-				xgen.writeRaw("<?xml version='1.0' encoding='UTF-8'?>");
-				xgen.setNextName(new QName("object"));
-				
-				gen = xgen;
-			}
+			gen = JacksonFactories.getSimpleFactory(format).createGenerator(writer);
+			
+			startDocument();
 		}
 		catch(Exception e)
 		{
@@ -93,6 +96,29 @@ public class LowLevelWriter
 		}
 	}
 	
+	/**
+	 * Configure a newly created generator for format, and write anything that
+	 * must precede the first object
+	 */
+	private void startDocument() throws Exception
+	{
+		if ( format == Format.JSON_PRETTY_PRINT )
+		{
+			gen.useDefaultPrettyPrinter();
+		}
+		
+		if ( isXML() )
+		{
+			ToXmlGenerator xgen = (ToXmlGenerator)gen;
+			
+			if ( format == Format.XML_PRETTY_PRINT )
+				xgen.useDefaultPrettyPrinter();
+			
+			xgen.writeRaw("<?xml version='1.0' encoding='UTF-8'?>");
+			xgen.setNextName(new QName("object"));
+		}
+	}
+	
 	/**
 	 * Construct a LowLevelWriter that writes to a TokenBuffer
 	 * 
@@ -124,7 +150,7 @@ public class LowLevelWriter
 			if ( field_name.equals(FieldName.FIELD_ARRAY_ELEMENT) ) 
 				return; // This is an array element, do not write the field name
 			
-			gen.writeFieldName(field_name.getSimpleName());
+			gen.writeFieldName(field_name.getSimpleSerializedName());
 		}
 		catch(Exception e)
 		{
@@ -132,6 +158,32 @@ public class LowLevelWriter
 		}
 	}
 	
+	/**
+	 * Write the type hint field of an object (the field name and the type
+	 * name are both written in their pre-encoded forms)
+	 * 
+	 * @param type_name
+	 *            The type of the object being written
+	 */
+	public void writeTypeHint(TypeName type_name)
+	{
+		try
+		{
+			Validator.notNull(type_name);
+			
+			writeFieldName(FieldName.FIELD_NAME_TYPE_HINT);
+			gen.writeString(type_name.getSimpleSerializedName());
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Serialization error", e2);
+		}
+	}
+	
 	/**
 	 * Write a null
 	 */
@@ -146,8 +198,7 @@ public class LowLevelWriter
 				
 				gen.writeStartObject();
 				
-				writeFieldName(FieldName.FIELD_NAME_TYPE_HINT);
-				gen.writeString(TypeName.TYPE_NAME_NULL.getSimpleName());
+				writeTypeHint(TypeName.TYPE_NAME_NULL);
 				
 				writeFieldName(FieldName.FIELD_NAME_PRIMITIVE_VALUE);
 				gen.writeNull();
@@ -198,6 +249,22 @@ public class LowLevelWriter
 		}
 	}
 	
+	/**
+	 * Write a string, as a plain string if it can be, otherwise as a (base64
+	 * encoded) string object. The string is only scanned once
+	 * 
+	 * @param str
+	 *            The string to write. Can be null, the empty string, or can
+	 *            contain any character
+	 */
+	public void writeStringOrStringObject(String str)
+	{
+		if ( str != null && isBase64Required(str) )
+			writeStringObject(str, true);
+		else
+			writeString(str);
+	}
+	
 	/**
 	 * Test to see if the string can be written without base64 encoding
 	 * 
@@ -209,12 +276,12 @@ public class LowLevelWriter
 	{
 		if ( src == null ) return false;
 		
-		char chars[] = src.toCharArray();
+		int length = src.length();
 		
-		boolean needs_strip = false;
-		
-		for ( char ch : chars )
+		for ( int i = 0; i < length; i++ )
 		{
+			char ch = src.charAt(i);
+			
 			if ( ch >= 32 && ch <= 10_000 ) continue;
 			if ( ch == 9 ) continue; // tab
 			if ( ch == 10 ) continue; // newline
@@ -235,7 +302,7 @@ public class LowLevelWriter
 	static public String base64EncodeString(String str)
 	{
 		Validator.notNull(str);
-		return Base64.getEncoder().encodeToString(str.getBytes());
+		return Base64.getEncoder().encodeToString(str.getBytes(StandardCharsets.UTF_8));
 	}
 	
 	/**
@@ -381,18 +448,29 @@ public class LowLevelWriter
 	 *            contain any character
 	 */
 	public void writeStringObject(String str)
+	{
+		writeStringObject(str, str != null && isBase64Required(str));
+	}
+	
+	private void writeStringObject(String str, boolean base64_required)
 	{
 		try
 		{
 			gen.writeStartObject();
 			
-			writeFieldName(FieldName.FIELD_NAME_TYPE_HINT);
-			gen.writeString(TypeName.TYPE_NAME_STRING.getSimpleName());
+			writeTypeHint(TypeName.TYPE_NAME_STRING);
 			
-			if ( str != null && isBase64Required(str) )
+			if ( base64_required )
 			{
 				writeFieldName(FieldName.FIELD_NAME_PRIMITIVE_VALUE_BASE64);
-				gen.writeString(this.base64EncodeString(str));
+				
+				byte utf8[] = str.getBytes(StandardCharsets.UTF_8);
+				
+				// JSON generators encode binary as (standard, unbroken) base64 text, in place
+				if ( format == Format.JSON || format == Format.JSON_PRETTY_PRINT )
+					gen.writeBinary(Base64Variants.MIME_NO_LINEFEEDS, utf8, 0, utf8.length);
+				else
+					gen.writeString(Base64.getEncoder().encodeToString(utf8));
 			}
 			else
 			{
@@ -438,6 +516,18 @@ public class LowLevelWriter
 				return;
 			}
 			
+			// An already cached (compact JSON) form of a nested object is spliced in as is (nested writes never fill the cache)
+			if ( format == Format.JSON && obj instanceof StandardImmutableObject && !gen.getOutputContext().inRoot() )
+			{
+				SerializableString cached_form = SerializedFormCache.getOptional((StandardImmutableObject)obj, format, null);
+				
+				if ( cached_form != null )
+				{
+					gen.writeRawValue(cached_form);
+					return;
+				}
+			}
+			
 			gen.writeStartObject();
 			{
 				if ( obj instanceof StandardWritable )
@@ -455,8 +545,7 @@ public class LowLevelWriter
 						System.err.println("Register the class by calling ObjectReader.registerType");
 					}
 					
-					writeFieldName(FieldName.FIELD_NAME_TYPE_HINT);
-					writeString(type_name.getSimpleName());
+					writeTypeHint(type_name);
 					
 					std.write(new ObjectWriter(this));
 				}
@@ -465,8 +554,7 @@ public class LowLevelWriter
 				{
 					Boolean value = (Boolean)obj;
 					
-					writeFieldName(FieldName.FIELD_NAME_TYPE_HINT);
-					writeString(TypeName.TYPE_NAME_BOOLEAN.getSimpleName());
+					writeTypeHint(TypeName.TYPE_NAME_BOOLEAN);
 					
 					writeFieldName(FieldName.FIELD_NAME_PRIMITIVE_VALUE);
 					writeBoolean(value.booleanValue());
@@ -476,8 +564,7 @@ public class LowLevelWriter
 				{
 					Character value = (Character)obj;
 					
-					writeFieldName(FieldName.FIELD_NAME_TYPE_HINT);
-					writeString(TypeName.TYPE_NAME_CHAR.getSimpleName());
+					writeTypeHint(TypeName.TYPE_NAME_CHAR);
 					
 					writeFieldName(FieldName.FIELD_NAME_PRIMITIVE_VALUE);
 					writeString(value.toString());
@@ -487,8 +574,7 @@ public class LowLevelWriter
 				{
 					Byte value = (Byte)obj;
 					
-					writeFieldName(FieldName.FIELD_NAME_TYPE_HINT);
-					writeString(TypeName.TYPE_NAME_BYTE.getSimpleName());
+					writeTypeHint(TypeName.TYPE_NAME_BYTE);
 					
 					writeFieldName(FieldName.FIELD_NAME_PRIMITIVE_VALUE);
 					writeByte(value.byteValue());
@@ -498,8 +584,7 @@ public class LowLevelWriter
 				{
 					Short value = (Short)obj;
 					
-					writeFieldName(FieldName.FIELD_NAME_TYPE_HINT);
-					writeString(TypeName.TYPE_NAME_SHORT.getSimpleName());
+					writeTypeHint(TypeName.TYPE_NAME_SHORT);
 					
 					writeFieldName(FieldName.FIELD_NAME_PRIMITIVE_VALUE);
 					writeInt(value.shortValue());
@@ -509,8 +594,7 @@ public class LowLevelWriter
 				{
 					Integer value = (Integer)obj;
 					
-					writeFieldName(FieldName.FIELD_NAME_TYPE_HINT);
-					writeString(TypeName.TYPE_NAME_INT.getSimpleName());
+					writeTypeHint(TypeName.TYPE_NAME_INT);
 					
 					writeFieldName(FieldName.FIELD_NAME_PRIMITIVE_VALUE);
 					writeInt(value.intValue());
@@ -520,8 +604,7 @@ public class LowLevelWriter
 				{
 					Long value = (Long)obj;
 					
-					writeFieldName(FieldName.FIELD_NAME_TYPE_HINT);
-					writeString(TypeName.TYPE_NAME_LONG.getSimpleName());
+					writeTypeHint(TypeName.TYPE_NAME_LONG);
 					
 					writeFieldName(FieldName.FIELD_NAME_PRIMITIVE_VALUE);
 					writeLong(value.longValue());
@@ -531,8 +614,7 @@ public class LowLevelWriter
 				{
 					Float value = (Float)obj;
 					
-					writeFieldName(FieldName.FIELD_NAME_TYPE_HINT);
-					writeString(TypeName.TYPE_NAME_FLOAT.getSimpleName());
+					writeTypeHint(TypeName.TYPE_NAME_FLOAT);
 					
 					writeFieldName(FieldName.FIELD_NAME_PRIMITIVE_VALUE);
 					writeFloat(value.floatValue());
@@ -542,8 +624,7 @@ public class LowLevelWriter
 				{
 					Double value = (Double)obj;
 					
-					writeFieldName(FieldName.FIELD_NAME_TYPE_HINT);
-					writeString(TypeName.TYPE_NAME_DOUBLE.getSimpleName());
+					writeTypeHint(TypeName.TYPE_NAME_DOUBLE);
 					
 					writeFieldName(FieldName.FIELD_NAME_PRIMITIVE_VALUE);
 					writeDouble(value.doubleValue());
@@ -612,6 +693,15 @@ public class LowLevelWriter
 		}
 	}
 	
+	/**
+	 * Do not close the underlying stream/writer when this writer is closed
+	 * (close will still flush it)
+	 */
+	void keepTargetOpen()
+	{
+		gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+	
 	/**
 	 * Close (prevents any further writing)
 	 */
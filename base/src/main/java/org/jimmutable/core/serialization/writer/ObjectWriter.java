@@ -1,16 +1,30 @@
 package org.jimmutable.core.serialization.writer;
 
-import java.io.StringWriter;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Map;
 
 import org.jimmutable.core.exceptions.SerializeException;
+import org.jimmutable.core.fields.FieldDoubleArrayList;
+import org.jimmutable.core.fields.FieldIntArrayList;
+import org.jimmutable.core.fields.FieldLongArrayList;
+import org.jimmutable.core.fields.FieldLongDoubleHashMap;
+import org.jimmutable.core.fields.FieldLongHashSet;
+import org.jimmutable.core.objects.SerializedFormCache;
+import org.jimmutable.core.objects.StandardImmutableObject;
 import org.jimmutable.core.objects.Stringable;
 import org.jimmutable.core.serialization.FieldName;
 import org.jimmutable.core.serialization.Format;
+import org.jimmutable.core.serialization.JacksonFactories;
 import org.jimmutable.core.serialization.TypeName;
 import org.jimmutable.core.utils.Validator;
 
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedOutputStream;
 import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 /**
@@ -88,15 +102,7 @@ public class ObjectWriter
 		if ( writer.isXML() && value == null ) return; // in xml, a null is written by simply "not writing" the field...
 		
 		writer.writeFieldName(field_name);
-		
-		if ( writer.isBase64Required(value) )
-		{
-			writer.writeStringObject(value);
-		}
-		else
-		{
-			writer.writeString(value);
-		}
+		writer.writeStringOrStringObject(value);
 	}
 	
 	
@@ -239,8 +245,7 @@ public class ObjectWriter
 		writer.writeFieldName(field_name);
 		
 		writer.openObject();
-		writer.writeFieldName(FieldName.FIELD_NAME_TYPE_HINT);
-		writer.writeString(type_name.getSimpleName());
+		writer.writeTypeHint(type_name);
 	}
 	
 	/**
@@ -297,6 +302,131 @@ public class ObjectWriter
 		writeCollection(field_name, m.entrySet(), new WriteAs.MapWriteAs(write_keys_as, write_values_as));
 	}
 	
+	/**
+	 * Write a list of int(s), without boxing. Written exactly as
+	 * writeCollection(field_name, list, WriteAs.NUMBER) writes a list of
+	 * Integer(s)
+	 * 
+	 * @param field_name
+	 *            The field name of the list
+	 * @param list
+	 *            The list to write (may not be null, can be empty)
+	 */
+	public void writeIntList(FieldName field_name, FieldIntArrayList list)
+	{
+		Validator.notNull(field_name, list);
+		
+		writer.writeFieldName(field_name);
+		writer.openArray();
+		
+		for ( int i = 0; i < list.size(); i++ )
+		{
+			writeInt(FieldName.FIELD_ARRAY_ELEMENT, list.get(i));
+		}
+		
+		writer.closeArray();
+	}
+	
+	/**
+	 * Write a list of long(s), without boxing. Written exactly as
+	 * writeCollection(field_name, list, WriteAs.NUMBER) writes a list of
+	 * Long(s)
+	 * 
+	 * @param field_name
+	 *            The field name of the list
+	 * @param list
+	 *            The list to write (may not be null, can be empty)
+	 */
+	public void writeLongList(FieldName field_name, FieldLongArrayList list)
+	{
+		Validator.notNull(field_name, list);
+		
+		writer.writeFieldName(field_name);
+		writer.openArray();
+		
+		for ( int i = 0; i < list.size(); i++ )
+		{
+			writeLong(FieldName.FIELD_ARRAY_ELEMENT, list.get(i));
+		}
+		
+		writer.closeArray();
+	}
+	
+	/**
+	 * Write a list of double(s), without boxing. Written exactly as
+	 * writeCollection(field_name, list, WriteAs.NUMBER) writes a list of
+	 * Double(s)
+	 * 
+	 * @param field_name
+	 *            The field name of the list
+	 * @param list
+	 *            The list to write (may not be null, can be empty)
+	 */
+	public void writeDoubleList(FieldName field_name, FieldDoubleArrayList list)
+	{
+		Validator.notNull(field_name, list);
+		
+		writer.writeFieldName(field_name);
+		writer.openArray();
+		
+		for ( int i = 0; i < list.size(); i++ )
+		{
+			writeDouble(FieldName.FIELD_ARRAY_ELEMENT, list.get(i));
+		}
+		
+		writer.closeArray();
+	}
+	
+	/**
+	 * Write a set of long(s), without boxing. Written exactly as
+	 * writeCollection(field_name, set, WriteAs.NUMBER) writes a set of
+	 * Long(s)
+	 * 
+	 * @param field_name
+	 *            The field name of the set
+	 * @param set
+	 *            The set to write (may not be null, can be empty)
+	 */
+	public void writeLongSet(FieldName field_name, FieldLongHashSet set)
+	{
+		Validator.notNull(field_name, set);
+		
+		writer.writeFieldName(field_name);
+		writer.openArray();
+		
+		set.forEach(value -> writeLong(FieldName.FIELD_ARRAY_ELEMENT, value));
+		
+		writer.closeArray();
+	}
+	
+	/**
+	 * Write a map of long(s) to double(s), without boxing. Written exactly as
+	 * writeMap(field_name, map, WriteAs.NUMBER, WriteAs.NUMBER) writes a map
+	 * of Long(s) to Double(s)
+	 * 
+	 * @param field_name
+	 *            The field name of the map
+	 * @param map
+	 *            The map to write (may not be null, can be empty)
+	 */
+	public void writeLongDoubleMap(FieldName field_name, FieldLongDoubleHashMap map)
+	{
+		Validator.notNull(field_name, map);
+		
+		writer.writeFieldName(field_name);
+		writer.openArray();
+		
+		map.forEach((key, value) -> 
+		{
+			openObject(FieldName.FIELD_ARRAY_ELEMENT, TypeName.TYPE_NAME_MAP_ENTRY);
+			writeLong(FieldName.FIELD_KEY, key);
+			writeDouble(FieldName.FIELD_VALUE, value);
+			closeObject();
+		});
+		
+		writer.closeArray();
+	}
+	
 	/**
 	 * Get the data format being written
 	 * 
@@ -333,31 +463,38 @@ public class ObjectWriter
 	 * @return obj serialized in the specified format
 	 */
 	static public String serialize(Format format, Object obj)
+	{
+		if ( obj instanceof StandardImmutableObject && SerializedFormCache.isCacheable((StandardImmutableObject)obj, format) )
+			return getSimpleSerializedForm((StandardImmutableObject)obj, format).getValue();
+		
+		return serializeUncached(format, obj);
+	}
+	
+	/**
+	 * Get the serialized form of a (cacheable) object, from the
+	 * SerializedFormCache if it is there, caching it if it is not
+	 */
+	static SerializableString getSimpleSerializedForm(StandardImmutableObject obj, Format format)
+	{
+		SerializableString ret = SerializedFormCache.getOptional(obj, format, null);
+		if ( ret != null ) return ret;
+		
+		ret = new SerializedString(serializeUncached(format, obj));
+		SerializedFormCache.put(obj, format, ret);
+		
+		return ret;
+	}
+	
+	static private String serializeUncached(Format format, Object obj)
 	{
 		try
 		{
-			if ( obj == null )
-			{
-				obj = NullPrimative.NULL_PRIMATIVE;
-			}
-			
-			StringWriter writer = new StringWriter();
+			SegmentedStringWriter writer = JacksonFactories.createStringWriter();
 			LowLevelWriter low_level_writer = new LowLevelWriter(format,writer);
 			
-			if ( obj instanceof String )
-			{
-				low_level_writer.writeStringObject((String)obj);
-			}
-			else
-			{
-				low_level_writer.writeObject(obj);
-			}
-			
-			low_level_writer.close();
-			
-			writer.close();
+			writeDocument(low_level_writer, obj);
 			
-			return writer.toString();
+			return writer.getAndClear();
 		}
 		catch(SerializeException e)
 		{
@@ -381,27 +518,51 @@ public class ObjectWriter
 	{
 		try
 		{
-			if ( obj == null )
-			{
-				obj = NullPrimative.NULL_PRIMATIVE;
-			}
-			
 			TokenBuffer ret = new TokenBuffer(null,false);
 			
 			LowLevelWriter low_level_writer = new LowLevelWriter(ret);
 			
-			if ( obj instanceof String )
-			{
-				low_level_writer.writeStringObject((String)obj);
-			}
-			else
+			writeDocument(low_level_writer, obj);
+			
+			return ret;
+		}
+		catch(SerializeException e)
+		{
+			throw e;
+		}
+		catch(Exception e2)
+		{
+			throw new SerializeException("Error while writing object: "+e2.getMessage(), e2);
+		}
+	}
+	
+	/**
+	 * Serialize an object as UTF-8 encoded bytes, writing them directly to an
+	 * OutputStream (no intermediate String is created). out is flushed, but
+	 * not closed
+	 * 
+	 * @param format
+	 *            The format to serialize in
+	 * @param obj
+	 *            The object to serialize (can be null)
+	 * @param out
+	 *            The stream to write to
+	 */
+	static public void serialize(Format format, Object obj, OutputStream out)
+	{
+		try
+		{
+			if ( obj instanceof StandardImmutableObject && SerializedFormCache.isCacheable((StandardImmutableObject)obj, format) )
 			{
-				low_level_writer.writeObject(obj);
+				out.write(getSimpleSerializedForm((StandardImmutableObject)obj, format).asUnquotedUTF8());
+				out.flush();
+				return;
 			}
 			
-			low_level_writer.close();
+			LowLevelWriter low_level_writer = new LowLevelWriter(format,out);
+			low_level_writer.keepTargetOpen();
 			
-			return ret;
+			writeDocument(low_level_writer, obj);
 		}
 		catch(SerializeException e)
 		{
@@ -412,4 +573,77 @@ public class ObjectWriter
 			throw new SerializeException("Error while writing object: "+e2.getMessage(), e2);
 		}
 	}
+	
+	/**
+	 * Serialize an object as UTF-8 encoded bytes, putting them into a
+	 * ByteBuffer (starting at, and advancing, the buffer's position)
+	 * 
+	 * @param format
+	 *            The format to serialize in
+	 * @param obj
+	 *            The object to serialize (can be null)
+	 * @param buffer
+	 *            The buffer to write to. A SerializeException is thrown if
+	 *            the serialized object does not fit in the buffer's remaining
+	 *            space (in which case the buffer's contents are undefined)
+	 */
+	static public void serialize(Format format, Object obj, ByteBuffer buffer)
+	{
+		Validator.notNull(buffer);
+		
+		serialize(format, obj, new ByteBufferBackedOutputStream(buffer));
+	}
+	
+	/**
+	 * Serialize an object, return UTF-8 encoded bytes (no intermediate String
+	 * is created)
+	 * 
+	 * @param format
+	 *            The format to serialize in
+	 * @param obj
+	 *            The object to serialize (can be null)
+	 * @return obj serialized in the specified format
+	 */
+	static public byte[] serializeToBytes(Format format, Object obj)
+	{
+		ByteArrayBuilder out = JacksonFactories.createByteArrayBuilder();
+		
+		serialize(format, obj, out);
+		
+		byte ret[] = out.toByteArray();
+		out.release();
+		
+		return ret;
+	}
+	
+	/**
+	 * Write obj (as the document's root object) and then close
+	 * low_level_writer
+	 */
+	static private void writeDocument(LowLevelWriter low_level_writer, Object obj)
+	{
+		writeRootObject(low_level_writer, obj);
+		
+		low_level_writer.close();
+	}
+	
+	/**
+	 * Write obj as a root object (a null obj is written as a NullPrimative)
+	 */
+	static void writeRootObject(LowLevelWriter low_level_writer, Object obj)
+	{
+		if ( obj == null )
+		{
+			obj = NullPrimative.NULL_PRIMATIVE;
+		}
+		
+		if ( obj instanceof String )
+		{
+			low_level_writer.writeStringObject((String)obj);
+		}
+		else
+		{
+			low_level_writer.writeObject(obj);
+		}
+	}
 }
@@ -3,7 +3,8 @@ package org.jimmutable.core.small_document;
 import java.io.Reader;
 
 import org.jimmutable.core.objects.StandardObject;
-import org.jimmutable.core.serialization.reader.Parser;
+import org.jimmutable.core.serialization.reader.ObjectStreamReader;
+import org.jimmutable.core.serialization.reader.ParseTreeArena;
 import org.jimmutable.core.threading.OperationPool;
 import org.jimmutable.core.threading.OperationRunnable;
 import org.jimmutable.core.utils.Validator;
@@ -13,13 +14,32 @@ public class SmallDocumentBulkLoader extends OperationRunnable
 	private SmallDocumentReader reader;
 	private Listener listener;
 	private OperationPool pool;
+	private boolean use_parse_tree_arena;
 	
 	public SmallDocumentBulkLoader(Reader src, Listener listener)
+	{
+		this(src, listener, false);
+	}
+	
+	/**
+	 * Create a bulk loader
+	 * 
+	 * @param src
+	 *            The small documents to load
+	 * @param listener
+	 *            Notified of each object loaded
+	 * @param use_parse_tree_arena
+	 *            If true, each worker thread reuses parse tree nodes from one
+	 *            document to the next (see ParseTreeArena), which greatly
+	 *            reduces the garbage created by large loads
+	 */
+	public SmallDocumentBulkLoader(Reader src, Listener listener, boolean use_parse_tree_arena)
 	{
 		Validator.notNull(src,listener);
 		
 		this.reader = new SmallDocumentReader(src);
 		this.listener = listener;
+		this.use_parse_tree_arena = use_parse_tree_arena;
 	}
 	
 
@@ -76,7 +96,9 @@ public class SmallDocumentBulkLoader extends OperationRunnable
 			
 			try
 			{
-				listener.onObjectLoaded(StandardObject.deserialize(doc));
+				if ( use_parse_tree_arena ) ParseTreeArena.enableForCurrentThread();
+				
+				listener.onObjectLoaded((StandardObject)ObjectStreamReader.deserialize(doc));
 				
 				
 				
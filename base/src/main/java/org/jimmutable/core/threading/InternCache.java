@@ -0,0 +1,113 @@
+package org.jimmutable.core.threading;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jimmutable.core.utils.Validator;
+
+
+/**
+ * A thread safe, bounded cache of canonical instances (for example, one
+ * FieldName object for each distinct field name).
+ *
+ * Unlike LRUCache, reads never take a lock, which makes InternCache suitable
+ * for the very hot paths of parsing. The price is that nothing is ever
+ * evicted: once the cache is full, new keys are simply not cached (callers
+ * still get a perfectly good, just not shared, instance).
+ *
+ * @author jim.kane
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ *
+ */
+public class InternCache<K,V>
+{
+	private ConcurrentHashMap<K,V> inner_map;
+	private int maximum_size;
+	
+	/**
+	 * Create an empty InternCache
+	 *
+	 * @param maximum_size
+	 *            The maximum number of canonical instances the cache will
+	 *            hold. Valid values are zero and greater.
+	 */
+	public InternCache(int maximum_size)
+	{
+		Validator.min(maximum_size, 0);
+		
+		this.maximum_size = maximum_size;
+		inner_map = new ConcurrentHashMap<>();
+	}
+	
+	/**
+	 * Get the maximum size of the cache
+	 *
+	 * @return The maximum number of canonical instances the cache will hold
+	 */
+	public int getSimpleMaximumSize() { return maximum_size; }
+	
+	/**
+	 * Get the canonical instance associated with a given key
+	 *
+	 * @param key
+	 *            The key of the instance to get. Null keys always return
+	 *            default_value
+	 * @param default_value
+	 *            The value to return if key is not in the cache
+	 * @return The canonical instance associated with key, or default_value if
+	 *         no instance is associated with the specified key
+	 */
+	public V get(K key, V default_value)
+	{
+		if ( key == null ) return default_value;
+		
+		V ret = inner_map.get(key);
+		if ( ret == null ) return default_value;
+		
+		return ret;
+	}
+	
+	/**
+	 * Make value the canonical instance for key, unless some other instance
+	 * got there first
+	 *
+	 * @param key
+	 *            The key. If key is null, value is returned (and not cached)
+	 * @param value
+	 *            The candidate canonical instance. If value is null, null is
+	 *            returned
+	 * @return The canonical instance for key (value, if value is now the
+	 *         canonical instance or the cache is full)
+	 */
+	public V intern(K key, V value)
+	{
+		if ( key == null || value == null ) return value;
+		
+		if ( inner_map.size() >= maximum_size )
+			return get(key, value);
+		
+		V existing = inner_map.putIfAbsent(key, value);
+		if ( existing != null ) return existing;
+		
+		return value;
+	}
+	
+	/**
+	 * Get the number of canonical instances in the cache
+	 *
+	 * @return The number of canonical instances in the cache
+	 */
+	public int size()
+	{
+		return inner_map.size();
+	}
+	
+	/**
+	 * Remove all entries from the cache
+	 */
+	public void clear()
+	{
+		inner_map.clear();
+	}
+}
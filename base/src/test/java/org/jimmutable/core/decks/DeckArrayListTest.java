@@ -11,6 +11,8 @@ import org.jimmutable.core.objects.StandardObject;
 import org.jimmutable.core.serialization.Format;
 import org.jimmutable.core.serialization.JavaCodeUtils;
 import org.jimmutable.core.serialization.JimmutableTypeNameRegister;
+import org.jimmutable.core.serialization.reader.ObjectStreamReader;
+import org.jimmutable.core.serialization.reader.ParseTreeArena;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -187,5 +189,65 @@ public class DeckArrayListTest extends TestCase
     		
     		assertEquals(second_library,obj);
     }
+    
+    public void testLargeDeck()
+    {
+    	// Large enough to be read in parallel (see ObjectParseTree.MINIMUM_ELEMENTS_TO_READ_IN_PARALLEL)
+    	Builder builder = new Builder();
+    	
+    	for ( int i = 0; i < 5000; i++ )
+    	{
+    		builder.addBook(new Book("Volume "+i, i+1, "isbn"+i, BindingType.TRADE_PAPER_BACK, "Author "+(i % 10)));
+    	}
+    	
+    	BookDeckList library = builder.create();
+    	
+    	for ( Format format : new Format[] { Format.JSON, Format.XML } )
+    	{
+    		BookDeckList obj = (BookDeckList)StandardObject.deserialize(library.serialize(format));
+    		
+    		assertEquals(library, obj);
+    		
+    		for ( int i = 0; i < 5000; i++ )
+    		{
+    			assertEquals("VOLUME "+i, obj.getSimpleContents().get(i).getSimpleTitle());
+    		}
+    	}
+    }
+    
+    public void testParseTreeArena()
+    {
+    	Builder builder = new Builder();
+    	
+    	for ( int i = 0; i < 100; i++ )
+    	{
+    		builder.addBook(new Book("Volume "+i, i+1, "isbn"+i, BindingType.TRADE_PAPER_BACK, "Author "+(i % 10)));
+    	}
+    	
+    	BookDeckList library = builder.create();
+    	String json = library.serialize(Format.JSON);
+    	
+    	ParseTreeArena arena = ParseTreeArena.enableForCurrentThread();
+    	
+    	try
+    	{
+    		// Every document is read from the nodes released by the one before it
+    		for ( int i = 0; i < 10; i++ )
+    		{
+    			assertEquals(library, StandardObject.deserialize(json));
+    			assertEquals(library, ObjectStreamReader.deserialize(json));
+    		}
+    		
+    		int pooled_node_count = arena.getSimplePooledNodeCount();
+    		assertTrue(pooled_node_count > 0);
+    		
+    		// ... so the pool does not grow
+    		StandardObject.deserialize(json);
+    		assertEquals(pooled_node_count, arena.getSimplePooledNodeCount());
+    	}
+    	finally
+    	{
+    		ParseTreeArena.disableForCurrentThread();
+    	}
+    }
 }
-
@@ -68,6 +68,9 @@ public class DeckHashMapTest extends TestCase
 		
 		// Confirm that first library has not changed...
 		assertEquals(second_library.getSimpleContents().size(),3); 
+		assertEquals(first_library.getSimpleContents().size(),2);
+		assertEquals(first_library.getSimpleContents().get("jim_first_book"),test_books.get(0));
+		assert(!first_library.getSimpleContents().containsKey("jim_third_book"));
 		
 		System.out.println(second_library.toJavaCode(Format.XML_PRETTY_PRINT,"obj"));
 		
@@ -209,4 +212,22 @@ public class DeckHashMapTest extends TestCase
     	
     	assertEquals(obj,second_library);
     }
+    
+    public void testLargeDeck()
+    {
+    	// Large enough to be read in parallel (see ObjectParseTree.MINIMUM_ELEMENTS_TO_READ_IN_PARALLEL)
+    	Builder builder = new Builder();
+    	
+    	for ( int i = 0; i < 5000; i++ )
+    	{
+    		builder.putBook("book_"+i, new Book("Volume "+i, i+1, "isbn"+i, BindingType.TRADE_PAPER_BACK, "Author "+(i % 10)));
+    	}
+    	
+    	BookDeckMap library = builder.create();
+    	BookDeckMap obj = (BookDeckMap)StandardObject.deserialize(library.serialize(Format.JSON));
+    	
+    	assertEquals(5000, obj.getSimpleContents().size());
+    	assertEquals(library, obj);
+    	assertEquals("VOLUME 4999", obj.getSimpleContents().get("book_4999").getSimpleTitle());
+    }
 }
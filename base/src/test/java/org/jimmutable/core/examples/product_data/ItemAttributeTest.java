@@ -2,7 +2,10 @@ package org.jimmutable.core.examples.product_data;
 
 import org.jimmutable.core.examples.product_data.ItemAttribute;
 import org.jimmutable.core.exceptions.ValidationException;
+import org.jimmutable.core.objects.StandardObject;
 import org.jimmutable.core.objects.Stringable;
+import org.jimmutable.core.serialization.Format;
+import org.jimmutable.core.serialization.JimmutableTypeNameRegister;
 import org.jimmutable.core.serialization.StringableTest;
 
 import junit.framework.Test;
@@ -47,4 +50,34 @@ public class ItemAttributeTest extends StringableTest
 		assertValid("NEW_LONG_DESCRIPTION","NEW_LONG_DESCRIPTION");
 		assertValid("New_LONG_DeSCRIPTION","NEW_LONG_DESCRIPTION");
 	}
+	
+	public void testIntern()
+	{
+		ItemAttribute color = ItemAttribute.intern("COLOR");
+		
+		assertSame(color, ItemAttribute.intern("COLOR"));
+		assertSame(color, ItemAttribute.intern(" color ")); // interned by normalized value too
+		assertSame(color, ItemAttribute.intern(" color "));
+		assertEquals(new ItemAttribute("color"), color);
+		assertSame(ItemAttribute.ATTRIBUTE_BRAND, ItemAttribute.intern("brand"));
+		
+		try { ItemAttribute.intern("foo-bar"); fail(); } catch(ValidationException e) { }
+		try { ItemAttribute.intern(null); fail(); } catch(ValidationException e) { }
+		
+		// Attributes read by READ_AS are shared by every object read
+		JimmutableTypeNameRegister.registerAllTypes();
+		
+		ItemSpecifications.Builder builder = new ItemSpecifications.Builder();
+		builder.setItemKey(new ItemKey("brand","pn"));
+		builder.putAttribute(new ItemAttribute("COLOR"), "red");
+		
+		String serialized = builder.create().serialize(Format.JSON);
+		
+		ItemSpecifications first = (ItemSpecifications)StandardObject.deserialize(serialized);
+		ItemSpecifications second = (ItemSpecifications)StandardObject.deserialize(serialized);
+		
+		assertSame(color, first.getSimpleAttributes().keySet().iterator().next());
+		assertSame(color, second.getSimpleAttributes().keySet().iterator().next());
+		assertSame(first.getSimpleItemKey().getSimpleBrand(), second.getSimpleItemKey().getSimpleBrand()); // (BrandCode is interned too)
+	}
 }
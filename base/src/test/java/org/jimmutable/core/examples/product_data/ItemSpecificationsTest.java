@@ -1,11 +1,35 @@
 package org.jimmutable.core.examples.product_data;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jimmutable.core.examples.book.BindingType;
+import org.jimmutable.core.examples.book.Book;
 import org.jimmutable.core.examples.product_data.ItemAttribute;
 import org.jimmutable.core.examples.product_data.ItemKey;
 import org.jimmutable.core.examples.product_data.ItemSpecifications;
+import org.jimmutable.core.exceptions.ImmutableException;
+import org.jimmutable.core.exceptions.SerializeException;
+import org.jimmutable.core.objects.SerializedFormCache;
 import org.jimmutable.core.objects.StandardObject;
+import org.jimmutable.core.serialization.FieldName;
 import org.jimmutable.core.serialization.Format;
 import org.jimmutable.core.serialization.JimmutableTypeNameRegister;
+import org.jimmutable.core.serialization.reader.DocumentStreamReader;
+import org.jimmutable.core.serialization.reader.FieldProjection;
+import org.jimmutable.core.serialization.reader.ObjectParseTree;
+import org.jimmutable.core.serialization.reader.ObjectStreamReader;
+import org.jimmutable.core.serialization.reader.Parser;
+import org.jimmutable.core.serialization.writer.DocumentStreamWriter;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -112,4 +136,392 @@ public class ItemSpecificationsTest extends TestCase
 		assertEquals(some_specs.getSimpleAttributes().get(new ItemAttribute("DOC_SRC_URL0")),"http://toolbox.legacyclassic.com/customer_images/assemblypdf/490-8900_Assembly.pdf");
 		assertEquals(some_specs.getSimpleAttributes().get(new ItemAttribute("DOC_SRC_FILE0")),"FRBJHKQALSYB.PDF");
 	}
+	
+	public void testStreamingDeserialization()
+	{
+		ItemSpecifications.Builder builder = new ItemSpecifications.Builder();
+		
+		builder.setItemKey(new ItemKey("foo","bar"));
+		builder.putAttribute(new ItemAttribute("DOC_SRC_URL0"), "http://toolbox.legacyclassic.com/customer_images/assemblypdf/490-8900_Assembly.pdf");
+		builder.putAttribute(new ItemAttribute("DOC_SRC_FILE0"), "FRBJHKQALSYB.PDF");
+		builder.putAttribute(new ItemAttribute("EMPTY"), "");
+		builder.putAttribute(new ItemAttribute("CONTROL"), String.format("Hello: %c", (char)0));
+		
+		ItemSpecifications specs = builder.create();
+		
+		for ( Format format : new Format[] { Format.JSON, Format.JSON_PRETTY_PRINT, Format.XML, Format.XML_PRETTY_PRINT } )
+		{
+			String serialized_data = specs.serialize(format);
+			
+			ItemSpecifications streamed = (ItemSpecifications)ObjectStreamReader.deserialize(serialized_data);
+			
+			assert(streamed.isComplete());
+			assertEquals(specs, streamed);
+			assertEquals(StandardObject.deserialize(serialized_data), streamed);
+		}
+		
+		for ( Format format : new Format[] { Format.SMILE, Format.CBOR, Format.JIMMUTABLE_BINARY } )
+		{
+			byte serialized_data[] = specs.serializeToBytes(format);
+			
+			assertTrue(serialized_data.length < specs.serializeToBytes(Format.JSON).length);
+			assertEquals(specs, StandardObject.deserialize(serialized_data));
+			
+			try
+			{
+				specs.serialize(format);
+				fail(); // binary formats can not be written as a String
+			}
+			catch(SerializeException e)
+			{
+				assert(true);
+			}
+		}
+		
+		// Types without a streaming constructor are read via ObjectParseTree
+		Book book = new Book("The Hobbit", 310, null, BindingType.TRADE_PAPER_BACK, "Tolkien");
+		
+		assertEquals(book, ObjectStreamReader.deserialize(book.serialize(Format.JSON)));
+		assertEquals(book, ObjectStreamReader.deserialize(book.serialize(Format.XML)));
+	}
+	
+	public void testWideSpecifications()
+	{
+		ItemSpecifications.Builder builder = new ItemSpecifications.Builder();
+		
+		builder.setItemKey(new ItemKey("foo","bar"));
+		
+		for ( int i = 0; i < 500; i++ )
+		{
+			builder.putAttribute(new ItemAttribute("ATTRIBUTE_"+i), "value "+i);
+		}
+		
+		ItemSpecifications specs = builder.create();
+		
+		assertEquals(specs.getSimpleAttributes().size(),500);
+		
+		for ( Format format : new Format[] { Format.JSON, Format.XML } )
+		{
+			ItemSpecifications from_tree = (ItemSpecifications)StandardObject.deserialize(specs.serialize(format));
+			
+			assertEquals(specs, from_tree);
+			assertEquals(from_tree.getSimpleAttributes().get(new ItemAttribute("ATTRIBUTE_499")),"value 499");
+		}
+	}
+	
+	public void testProjection()
+	{
+		ItemSpecifications.Builder builder = new ItemSpecifications.Builder();
+		
+		builder.setItemKey(new ItemKey("foo","bar"));
+		
+		for ( int i = 0; i < 100; i++ )
+		{
+			builder.putAttribute(new ItemAttribute("ATTRIBUTE_"+i), "value "+i);
+		}
+		
+		ItemSpecifications specs = builder.create();
+		
+		FieldName item_key = new FieldName("item_key");
+		FieldName attributes = new FieldName("attributes");
+		FieldName brand = new FieldName("brand");
+		
+		FieldProjection key_only = new FieldProjection(item_key);
+		FieldProjection brand_only = new FieldProjection().withField(item_key, new FieldProjection(brand));
+		FieldProjection attribute_keys_only = new FieldProjection().withField(attributes, new FieldProjection(FieldName.FIELD_KEY));
+		
+		for ( Format format : new Format[] { Format.JSON, Format.JSON_PRETTY_PRINT, Format.XML, Format.XML_PRETTY_PRINT } )
+		{
+			String serialized_data = specs.serialize(format);
+			
+			ObjectParseTree t = Parser.parse(serialized_data, key_only);
+			
+			assertEquals(new ItemKey("foo","bar"), t.getObject(item_key, null));
+			assertNull(t.findChild(attributes, null));
+			assertTrue(t.isTypeHint(ItemSpecifications.TYPE_NAME));
+			
+			t = Parser.parse(serialized_data.getBytes(StandardCharsets.UTF_8), brand_only);
+			
+			assertEquals("FOO", t.findChild(item_key, null).getString(brand, null));
+			assertNull(t.findChild(item_key, null).findChild(new FieldName("pn"), null));
+			
+			t = Parser.parse(serialized_data, attribute_keys_only);
+			
+			assertNull(t.findChild(item_key, null));
+			
+			int entry_count = 0;
+			
+			for ( ObjectParseTree entry : t )
+			{
+				if ( !entry.getSimpleFieldName().equals(attributes) ) continue;
+				
+				assertNotNull(entry.getString(FieldName.FIELD_KEY, null));
+				assertNull(entry.findChild(FieldName.FIELD_VALUE, null));
+				
+				entry_count++;
+			}
+			
+			assertEquals(100, entry_count);
+		}
+	}
+	
+	public void testDocumentStream()
+	{
+		Map<Format,Integer> stream_sizes = new HashMap<>();
+		
+		for ( Format format : new Format[] { Format.JSON, Format.SMILE, Format.CBOR, Format.JIMMUTABLE_BINARY } )
+		{
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			DocumentStreamWriter writer = new DocumentStreamWriter(format, out);
+			
+			for ( int i = 0; i < 50; i++ )
+			{
+				ItemSpecifications.Builder builder = new ItemSpecifications.Builder();
+				
+				builder.setItemKey(new ItemKey("brand"+i,"pn"+i));
+				builder.putAttribute(new ItemAttribute("COLOR"), "red "+i);
+				
+				writer.writeDocument(builder.create());
+			}
+			
+			writer.writeDocument(null);
+			writer.close();
+			
+			assertEquals(51, writer.getSimpleDocumentCount());
+			
+			DocumentStreamReader reader = new DocumentStreamReader(new ByteArrayInputStream(out.toByteArray()));
+			
+			for ( int i = 0; i < 50; i++ )
+			{
+				ItemSpecifications specs = (ItemSpecifications)reader.readDocument(null);
+				
+				assertEquals(new ItemKey("brand"+i,"pn"+i), specs.getSimpleItemKey());
+				assertEquals("red "+i, specs.getSimpleAttributes().get(new ItemAttribute("COLOR")));
+			}
+			
+			assertNull(reader.readDocument("not null"));
+			assertEquals("end", reader.readDocument("end"));
+			
+			reader.close();
+			
+			stream_sizes.put(format, out.size());
+		}
+		
+		// Each field name (and type name) is written once per stream, not once per document
+		assertTrue(stream_sizes.get(Format.JIMMUTABLE_BINARY) < stream_sizes.get(Format.JSON));
+		assertTrue(stream_sizes.get(Format.JIMMUTABLE_BINARY) < stream_sizes.get(Format.CBOR));
+		assertTrue(stream_sizes.get(Format.JIMMUTABLE_BINARY) < stream_sizes.get(Format.SMILE));
+	}
+	
+	public void testSerializedFormCache()
+	{
+		ItemSpecifications.Builder builder = new ItemSpecifications.Builder();
+		builder.setItemKey(new ItemKey("brand","pn"));
+		builder.putAttribute(new ItemAttribute("COLOR"), "red");
+		
+		ItemSpecifications specs = builder.create();
+		ItemKey key = specs.getSimpleItemKey();
+		
+		try
+		{
+			SerializedFormCache.setMaximumCachedBytes(0); // nothing is cached
+			
+			String expected_key_json = key.serialize(Format.JSON);
+			String expected_specs_json = specs.serialize(Format.JSON);
+			String expected_key_xml = key.serialize(Format.XML);
+			
+			assertEquals(0, SerializedFormCache.getSimpleCachedBytes());
+			assertNull(SerializedFormCache.getOptional(key, Format.JSON, null));
+			
+			SerializedFormCache.setMaximumCachedBytes(SerializedFormCache.DEFAULT_MAXIMUM_CACHED_BYTES);
+			
+			// Writing the key into a larger document does not cache it
+			assertEquals(expected_specs_json, specs.serialize(Format.JSON));
+			assertNull(SerializedFormCache.getOptional(key, Format.JSON, null));
+			
+			// The key is cached the first time it is serialized, and spliced in from then on
+			assertEquals(expected_key_json, key.serialize(Format.JSON));
+			assertNotNull(SerializedFormCache.getOptional(key, Format.JSON, null));
+			
+			assertEquals(expected_specs_json, specs.serialize(Format.JSON));
+			assertNull(SerializedFormCache.getOptional(specs, Format.JSON, null)); // ItemSpecifications does not opt in
+			
+			assertEquals(expected_specs_json, specs.serialize(Format.JSON));
+			assertEquals(expected_specs_json, new String(specs.serializeToBytes(Format.JSON), StandardCharsets.UTF_8));
+			assertEquals(specs, StandardObject.deserialize(specs.serialize(Format.JSON)));
+			
+			assertEquals(expected_key_json, key.serialize(Format.JSON));
+			assertEquals(expected_key_json, new String(key.serializeToBytes(Format.JSON), StandardCharsets.UTF_8));
+			assertEquals(expected_key_xml, key.serialize(Format.XML));
+			
+			assertTrue(SerializedFormCache.getSimpleCachedBytes() > 0);
+			
+			// Binary formats are never cached
+			key.serializeToBytes(Format.SMILE);
+			assertNull(SerializedFormCache.getOptional(key, Format.SMILE, null));
+			
+			SerializedFormCache.setMaximumCachedBytes(0);
+			
+			assertEquals(0, SerializedFormCache.getSimpleCachedBytes());
+			assertNull(SerializedFormCache.getOptional(key, Format.JSON, null));
+		}
+		finally
+		{
+			SerializedFormCache.setMaximumCachedBytes(SerializedFormCache.DEFAULT_MAXIMUM_CACHED_BYTES);
+		}
+	}
+	
+	public void testSerializedFormCacheChurn() throws Exception
+	{
+		SerializedFormCache.clear();
+		
+		// Short lived keys, each serialized (and so cached) once
+		for ( int i = 0; i < 100000; i++ )
+		{
+			new ItemKey("brand", "pn"+i).serialize(Format.JSON);
+		}
+		
+		// The forms of the collected keys are dropped, once the collection is noticed
+		for ( int attempt = 0; attempt < 50 && SerializedFormCache.getSimpleCachedFormCount() > 1000; attempt++ )
+		{
+			System.gc();
+			Thread.sleep(20);
+			
+			new ItemKey("brand", "attempt"+attempt).serialize(Format.JSON);
+		}
+		
+		assertTrue(SerializedFormCache.getSimpleCachedFormCount() <= 1000);
+		
+		SerializedFormCache.clear();
+		
+		assertEquals(0, SerializedFormCache.getSimpleCachedFormCount());
+		assertEquals(0, SerializedFormCache.getSimpleCachedBytes());
+	}
+	
+	public void testStructuralClone()
+	{
+		ItemSpecifications.Builder builder = new ItemSpecifications.Builder();
+		builder.setItemKey(new ItemKey("brand","pn"));
+		builder.putAttribute(new ItemAttribute("COLOR"), "red");
+		builder.putAttribute(new ItemAttribute("BRAND"), "ignored");
+		
+		ItemSpecifications specs = builder.create();
+		
+		// create still normalizes, validates and freezes the clone
+		assertTrue(specs.isComplete());
+		assertTrue(specs.getSimpleAttributes().isFrozen());
+		assertEquals(1, specs.getSimpleAttributes().size());
+		
+		// ... without freezing (or sharing) the builder's object
+		builder.putAttribute(new ItemAttribute("SIZE"), "large");
+		assertEquals(1, specs.getSimpleAttributes().size());
+		assertEquals(2, builder.create().getSimpleAttributes().size());
+		
+		// A builder started from a complete object gets its own, mutable copy
+		ItemSpecifications.Builder edit = new ItemSpecifications.Builder(specs);
+		edit.putAttribute(new ItemAttribute("WEIGHT"), "10");
+		
+		ItemSpecifications edited = edit.create();
+		
+		assertEquals(1, specs.getSimpleAttributes().size());
+		assertEquals(2, edited.getSimpleAttributes().size());
+		assertSame(specs.getSimpleItemKey(), edited.getSimpleItemKey()); // complete immutable objects are shared
+		
+		// Cloning a complete object shares its frozen fields
+		ItemSpecifications clone = specs.deepClone();
+		
+		assertNotSame(specs, clone);
+		assertEquals(specs, clone);
+		assertTrue(clone.isComplete());
+		assertSame(specs.getSimpleAttributes(), clone.getSimpleAttributes());
+		
+		Book book = new Book("the title", 100, "1234", BindingType.HARD_COVER, "jim");
+		assertEquals(book, book.deepClone());
+	}
+	
+	public void testCachedHashCode()
+	{
+		ItemKey key = new ItemKey("brand","pn");
+		
+		assertEquals(Objects.hash(key.getSimpleBrand(), key.getSimplePN()), key.hashCode()); // unchanged by caching
+		assertEquals(key.hashCode(), key.hashCode());
+		assertEquals(new ItemKey("BRAND","PN").hashCode(), key.hashCode());
+		
+		Book book = new Book("the title", 100, "1234", BindingType.HARD_COVER, "jim");
+		int hash_code = book.hashCode();
+		
+		assertEquals(Objects.hash("THE TITLE", 100, "1234", BindingType.HARD_COVER), hash_code);
+		assertEquals(hash_code, book.hashCode());
+		
+		// A builder's copy of an object whose hash code is cached hashes its own contents
+		Book.Builder builder = new Book.Builder(book);
+		builder.setTitle("another title");
+		
+		Book edited = builder.create();
+		
+		assertEquals(Objects.hash("ANOTHER TITLE", 100, "1234", BindingType.HARD_COVER), edited.hashCode());
+		assertEquals(hash_code, book.hashCode());
+		
+		ItemSpecifications.Builder specs_builder = new ItemSpecifications.Builder();
+		specs_builder.setItemKey(key);
+		specs_builder.putAttribute(new ItemAttribute("COLOR"), "red");
+		
+		ItemSpecifications specs = specs_builder.create();
+		
+		assertEquals(specs.hashCode(), specs.deepClone().hashCode());
+		assertEquals(specs.getSimpleAttributes().hashCode(), new HashMap(specs.getSimpleAttributes()).hashCode());
+	}
+	
+	public void testCompleteOnce() throws Exception
+	{
+		ItemSpecifications.Builder builder = new ItemSpecifications.Builder();
+		builder.setItemKey(new ItemKey("brand","pn"));
+		
+		ItemSpecifications specs = builder.create();
+		
+		try
+		{
+			specs.complete();
+			fail(); // complete may only be called once
+		}
+		catch(ImmutableException e)
+		{
+			// expected
+		}
+		
+		// Objects built on one thread are complete (and frozen) when read on another
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		
+		try
+		{
+			List<Future<ItemSpecifications>> results = new ArrayList<>();
+			
+			for ( int i = 0; i < 100; i++ )
+			{
+				final int id = i;
+				
+				results.add(pool.submit(() -> 
+				{
+					ItemSpecifications.Builder b = new ItemSpecifications.Builder(specs);
+					b.putAttribute(new ItemAttribute("SIZE"), "size"+id);
+					return b.create();
+				}));
+			}
+			
+			for ( int i = 0; i < 100; i++ )
+			{
+				ItemSpecifications result = results.get(i).get();
+				
+				assertTrue(result.isComplete());
+				assertTrue(result.getSimpleAttributes().isFrozen());
+				assertEquals("size"+i, result.getSimpleAttributes().get(new ItemAttribute("SIZE")));
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+		
+		assertTrue(specs.getSimpleAttributes().isEmpty());
+	}
 }
@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Random;
 import java.util.Set;
 
 import org.jimmutable.core.exceptions.ImmutableException;
@@ -308,6 +309,26 @@ public class FieldCollectionTest extends TestCase
 	}
 	
 	
+    /**
+     * An object holding a list of any objects (used to test deepClone)
+     */
+    static public class HolderObject extends StandardImmutableObject<HolderObject>
+    {
+    	static public final TypeName TYPE_NAME = new TypeName("jimmutable.test.field_collection.holder_object"); public TypeName getTypeName() { return TYPE_NAME; }
+    	
+    	static private final FieldName FIELD_ELEMENTS = new FieldName("elements");
+    	
+    	private FieldList<Object> elements = new FieldArrayList();
+    	
+    	public void write(ObjectWriter writer) { writer.writeCollection(FIELD_ELEMENTS, elements, WriteAs.OBJECT); }
+    	public int compareTo(HolderObject o) { return 0; }
+    	public void normalize() {}
+    	public void validate() {}
+    	public void freeze() { elements.freeze(); }
+    	public int hashCode() { return elements.size(); }
+    	public boolean equals(Object obj) { return obj instanceof HolderObject && elements.equals(((HolderObject)obj).elements); }
+    }
+    
     public FieldCollectionTest( String testName )
     {
         super( testName );
@@ -328,6 +349,55 @@ public class FieldCollectionTest extends TestCase
     	testCollection(FieldConcurrentSkipListSet.class, true);
     	testCollection(FieldHashSet.class, true);
     	testCollection(FieldTreeSet.class, true);
+    	testCollection(FieldPersistentVector.class, true);
+    	testCollection(FieldPersistentHashSet.class, true);
+    }
+    
+    public void testPersistentVector()
+    {
+    	Random r = new Random(1234);
+    	
+    	List<Integer> expected = new ArrayList();
+    	FieldPersistentVector<Integer> vector = new FieldPersistentVector();
+    	
+    	for ( int i = 0; i < 5000; i++ )
+    	{
+    		expected.add(i);
+    		vector.add(i);
+    	}
+    	
+    	vector.freeze();
+    	
+    	FieldPersistentVector<Integer> copy = vector.createMutableCopy();
+    	List<Integer> expected_copy = new ArrayList(expected);
+    	
+    	assert(!copy.isFrozen());
+    	assert(copy.containsOnlyImmutableValues());
+    	
+    	for ( int i = 0; i < 2000; i++ )
+    	{
+    		int index = r.nextInt(expected_copy.size());
+    		
+    		switch ( r.nextInt(4) )
+    		{
+    		case 0: expected_copy.set(index, -i); copy.set(index, -i); break;
+    		case 1: expected_copy.add(-i); copy.add(-i); break;
+    		case 2: expected_copy.remove(expected_copy.size()-1); copy.remove(copy.size()-1); break;
+    		case 3: expected_copy.add(index, -i); copy.add(index, -i); break;
+    		}
+    	}
+    	
+    	assertEquals(expected, vector); // the original is untouched
+    	assertEquals(expected_copy, copy);
+    	
+    	while ( !copy.isEmpty() )
+    	{
+    		expected_copy.remove(0);
+    		copy.remove(0);
+    	}
+    	
+    	assertEquals(expected_copy, copy);
+    	assertEquals(expected, vector);
     }
     
     public void testCollection(Class c, boolean print_output)
@@ -364,6 +434,139 @@ public class FieldCollectionTest extends TestCase
     	assertEquals(obj.field_class.getName(),c.getName());
     }
     
+    public void testFreezeCompact()
+    {
+    	FieldCollection<String> collections[] = new FieldCollection[] { new FieldHashSet(), new FieldTreeSet(), new FieldArrayList() };
+    	
+    	for ( FieldCollection<String> collection : collections )
+    	{
+    		for ( int i = 0; i < 1000; i++ ) collection.add("element"+i);
+    		
+    		List<String> expected_order = new ArrayList(collection);
+    		Set<String> expected = new HashSet(collection);
+    		
+    		collection.freezeCompact();
+    		
+    		assert(collection.isFrozen());
+    		assertEquals(expected_order, new ArrayList(collection)); // iteration order is kept
+    		assertEquals(1000, collection.size());
+    		assert(collection.containsAll(expected));
+    		assert(collection.contains("element999"));
+    		assert(!collection.contains("element1000"));
+    		
+    		try { collection.add("foo"); assert(false); } catch(ImmutableException e) { }
+    		try { collection.iterator().remove(); assert(false); } catch(ImmutableException e) { }
+    	}
+    	
+    	assertEquals(new HashSet(collections[0]), collections[0]);
+    	assertEquals(collections[0], collections[1]);
+    }
+    
+    public void testHashCode()
+    {
+    	FieldCollection<String> list = new FieldArrayList();
+    	list.add("foo");
+    	list.add("bar");
+    	
+    	assertEquals(new ArrayList(list).hashCode(), list.hashCode());
+    	
+    	list.freeze();
+    	
+    	assertEquals(new ArrayList(list).hashCode(), list.hashCode());
+    	assertEquals(list.hashCode(), list.hashCode()); // cached
+    	
+    	// The hash code of a collection holding mutable elements is never cached
+    	FieldCollection<List<Integer>> lists = new FieldArrayList();
+    	List<Integer> element = new ArrayList();
+    	
+    	lists.add(element);
+    	lists.freeze();
+    	
+    	int hash_code = lists.hashCode();
+    	element.add(1);
+    	
+    	assert(hash_code != lists.hashCode());
+    	assertEquals(new ArrayList(lists).hashCode(), lists.hashCode());
+    }
+    
+    public void testEquals()
+    {
+    	FieldList<String> list = new FieldArrayList();
+    	list.add("foo");
+    	list.add("bar");
+    	
+    	List<String> expected = new ArrayList();
+    	expected.add("foo");
+    	expected.add("bar");
+    	
+    	assertEquals(list, list);
+    	assertEquals(expected, list);
+    	assertEquals(list, expected);
+    	assertEquals(list, new FieldPersistentVector(expected));
+    	
+    	List<String> reversed = new ArrayList();
+    	reversed.add("bar");
+    	reversed.add("foo");
+    	
+    	assert(!list.equals(reversed)); // lists are ordered
+    	assert(!list.equals(new HashSet(expected))); // ... and never equal to a set
+    	
+    	FieldList<String> other = new FieldArrayList(reversed);
+    	
+    	list.freeze();
+    	other.freeze();
+    	list.hashCode();
+    	other.hashCode();
+    	
+    	assert(!list.equals(other)); // (by cached hash codes)
+    	assertEquals(list, new FieldArrayList(expected));
+    	
+    	Set<String> set = new FieldHashSet(expected);
+    	
+    	assertEquals(set, new HashSet(reversed));
+    	assertEquals(new HashSet(reversed), set);
+    	assertEquals(set, new FieldTreeSet(reversed));
+    	assertEquals(set, new FieldPersistentHashSet(reversed));
+    	assert(!set.equals(expected)); // sets are never equal to a list
+    	
+    	FieldSet<String> frozen_set = new FieldHashSet(expected);
+    	FieldSet<String> another_set = new FieldHashSet(expected);
+    	another_set.add("baz");
+    	another_set.remove("foo");
+    	
+    	frozen_set.freeze();
+    	another_set.freeze();
+    	frozen_set.hashCode();
+    	another_set.hashCode();
+    	
+    	assert(!frozen_set.equals(another_set));
+    	assertEquals(set, frozen_set);
+    }
+    
+    public void testDeepCloneFreezesCopiedFields()
+    {
+    	// A frozen list holding an incomplete object can not be shared by a clone...
+    	HolderObject obj = new HolderObject();
+    	obj.elements.add(new HolderObject());
+    	obj.complete();
+    	
+    	assert(obj.isComplete());
+    	assert(obj.elements.isFrozen());
+    	assert(!((HolderObject)obj.elements.get(0)).isComplete());
+    	
+    	HolderObject clone = obj.deepClone();
+    	
+    	assertNotSame(obj.elements, clone.elements);
+    	
+    	// ... so it is copied, and the copy frozen
+    	assert(clone.isComplete());
+    	assert(clone.elements.isFrozen());
+    	assert(((HolderObject)clone.elements.get(0)).isComplete());
+    	assert(((HolderObject)clone.elements.get(0)).elements.isFrozen());
+    	
+    	try { clone.elements.add("foo"); assert(false); } catch(ImmutableException e) { }
+    }
+    
     public void testBulkAddNulls()
     {
     	List<String> src_with_nulls = new ArrayList();
@@ -2,12 +2,14 @@ package org.jimmutable.core.fields;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import org.jimmutable.core.exceptions.ImmutableException;
@@ -253,6 +255,213 @@ public class FieldMapTest extends TestCase
     	
     	testMap(FieldHashMap.class, true);
     	testMap(FieldConcurrentHashMap.class, true);
+    	testMap(FieldPersistentHashMap.class, true);
+    }
+    
+    public void testPersistentHashMap()
+    {
+    	Random r = new Random(1234);
+    	
+    	Map<Integer,String> expected = new HashMap();
+    	FieldPersistentHashMap<Integer,String> map = new FieldPersistentHashMap();
+    	
+    	for ( int i = 0; i < 5000; i++ )
+    	{
+    		expected.put(i, "v"+i);
+    		map.put(i, "v"+i);
+    	}
+    	
+    	map.freeze();
+    	
+    	FieldPersistentHashMap<Integer,String> copy = map.createMutableCopy();
+    	Map<Integer,String> expected_copy = new HashMap(expected);
+    	
+    	assert(!copy.isFrozen());
+    	assert(copy.containsOnlyImmutableValues());
+    	
+    	for ( int i = 0; i < 20000; i++ )
+    	{
+    		Integer key = r.nextInt(10000);
+    		
+    		if ( r.nextBoolean() )
+    		{
+    			assertEquals(expected_copy.put(key, "w"+i), copy.put(key, "w"+i));
+    		}
+    		else
+    		{
+    			assertEquals(expected_copy.remove(key), copy.remove(key));
+    		}
+    	}
+    	
+    	assertEquals(expected, map); // the original is untouched
+    	assertEquals(expected_copy, copy);
+    	
+    	// Keys whose hash codes collide
+    	FieldPersistentHashMap<CollidingKey,Integer> colliding = new FieldPersistentHashMap();
+    	
+    	for ( int i = 0; i < 100; i++ ) colliding.put(new CollidingKey(i), i);
+    	for ( int i = 0; i < 100; i += 2 ) colliding.remove(new CollidingKey(i));
+    	
+    	assertEquals(50, colliding.size());
+    	assertEquals(new Integer(51), colliding.get(new CollidingKey(51)));
+    	assertNull(colliding.get(new CollidingKey(50)));
+    	
+    	Iterator<CollidingKey> itr = colliding.keySet().iterator();
+    	
+    	while ( itr.hasNext() ) 
+    	{
+    		itr.next();
+    		itr.remove();
+    	}
+    	
+    	assert(colliding.isEmpty());
+    }
+    
+    public void testPersistentHashMapIteration()
+    {
+    	FieldPersistentHashMap<Integer,String> map = new FieldPersistentHashMap();
+    	Map<Integer,String> expected = new HashMap();
+    	
+    	for ( int i = 0; i < 2000; i++ )
+    	{
+    		map.put(i, "v"+i);
+    		expected.put(i, "v"+i);
+    	}
+    	
+    	map.freeze();
+    	
+    	FieldPersistentHashMap<Integer,String> copy = map.createMutableCopy();
+    	Map<Integer,String> expected_copy = new HashMap(expected);
+    	
+    	// Removing (and setting values) while iterating visits every key once
+    	Set<Integer> visited = new HashSet();
+    	Iterator<Map.Entry<Integer,String>> itr = copy.entrySet().iterator();
+    	
+    	while ( itr.hasNext() )
+    	{
+    		Map.Entry<Integer,String> entry = itr.next();
+    		
+    		assert(visited.add(entry.getKey()));
+    		
+    		if ( entry.getKey() % 2 == 0 )
+    		{
+    			itr.remove();
+    			expected_copy.remove(entry.getKey());
+    		}
+    		else
+    		{
+    			assertEquals("v"+entry.getKey(), entry.setValue("w"+entry.getKey()));
+    			expected_copy.put(entry.getKey(), "w"+entry.getKey());
+    		}
+    	}
+    	
+    	assertEquals(expected.keySet(), visited);
+    	assertEquals(expected_copy, copy);
+    	assertEquals(expected, map); // the original is untouched
+    	
+    	// Adding a key while iterating fails fast
+    	itr = copy.entrySet().iterator();
+    	itr.next();
+    	copy.put(-1, "new");
+    	
+    	try { itr.next(); fail(); } catch(ConcurrentModificationException e) { }
+    	
+    	// A set iterates over the keys of its map
+    	FieldPersistentHashSet<Integer> set = new FieldPersistentHashSet(expected.keySet());
+    	
+    	assertEquals(expected.keySet(), new HashSet(set));
+    }
+    
+    public void testFreezeCompact()
+    {
+    	FieldMap<String,Integer> map = new FieldHashMap();
+    	
+    	for ( int i = 0; i < 1000; i++ ) map.put("key"+i, i);
+    	
+    	Map<String,Integer> expected = new HashMap(map);
+    	List<String> expected_order = new ArrayList(map.keySet());
+    	int expected_hash_code = expected.hashCode();
+    	
+    	map.freezeCompact();
+    	
+    	assert(map.isFrozen());
+    	assertEquals(expected, map);
+    	assertEquals(map, expected);
+    	assertEquals(expected_hash_code, map.entrySet().hashCode());
+    	assertEquals(expected_order, new ArrayList(map.keySet())); // iteration order is kept
+    	assertEquals(new Integer(999), map.get("key999"));
+    	assertNull(map.get("key1000"));
+    	assertNull(map.get(null));
+    	assert(map.containsKey("key0"));
+    	assert(!map.containsKey("key1000"));
+    	assert(map.containsValue(500));
+    	
+    	try { map.put("foo", 1); assert(false); } catch(ImmutableException e) { }
+    	try { map.remove("key0"); assert(false); } catch(ImmutableException e) { }
+    	try { map.keySet().iterator().remove(); assert(false); } catch(ImmutableException e) { }
+    	
+    	FieldMap<String,Integer> empty = new FieldHashMap();
+    	empty.freezeCompact();
+    	
+    	assert(empty.isEmpty());
+    	assert(!empty.containsKey("foo"));
+    }
+    
+    public void testHashCode()
+    {
+    	FieldMap<String,Integer> map = new FieldHashMap();
+    	
+    	assertEquals(0, map.hashCode());
+    	
+    	map.put("foo", 1);
+    	assertEquals(new HashMap(map).hashCode(), map.hashCode());
+    	
+    	map.put("bar", 2); // not cached until frozen
+    	assertEquals(new HashMap(map).hashCode(), map.hashCode());
+    	
+    	map.freeze();
+    	
+    	assertEquals(new HashMap(map).hashCode(), map.hashCode());
+    	assertEquals(map.hashCode(), map.hashCode());
+    	
+    	FieldMap<String,Integer> other = new FieldConcurrentHashMap();
+    	other.put("bar", 2);
+    	other.put("foo", 1);
+    	
+    	assertEquals(map, other);
+    	assertEquals(map.hashCode(), other.hashCode()); // the Map contract
+    	
+    	other.put("bar", 3);
+    	other.freeze();
+    	other.hashCode();
+    	
+    	assert(!map.equals(other)); // (by cached hash codes)
+    	assert(!other.equals(map));
+    	assertEquals(map, map);
+    	assertEquals(map, new HashMap(map));
+    	
+    	// The hash code of a map holding mutable values is never cached
+    	FieldMap<String,List<Integer>> mutable_values = new FieldHashMap();
+    	List<Integer> list = new ArrayList();
+    	
+    	mutable_values.put("foo", list);
+    	mutable_values.freeze();
+    	
+    	int hash_code = mutable_values.hashCode();
+    	list.add(1);
+    	
+    	assert(hash_code != mutable_values.hashCode());
+    	assertEquals(new HashMap(mutable_values).hashCode(), mutable_values.hashCode());
+    }
+    
+    static private class CollidingKey
+    {
+    	private int id;
+    	
+    	public CollidingKey(int id) { this.id = id; }
+    	
+    	public int hashCode() { return id % 3; }
+    	public boolean equals(Object obj) { return obj instanceof CollidingKey && ((CollidingKey)obj).id == id; }
     }
     
     public void testMap(Class c, boolean print_output)
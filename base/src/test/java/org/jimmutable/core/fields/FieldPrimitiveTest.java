@@ -0,0 +1,295 @@
+package org.jimmutable.core.fields;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.jimmutable.core.exceptions.ImmutableException;
+import org.jimmutable.core.objects.StandardImmutableObject;
+import org.jimmutable.core.objects.StandardObject;
+import org.jimmutable.core.serialization.FieldName;
+import org.jimmutable.core.serialization.Format;
+import org.jimmutable.core.serialization.TypeName;
+import org.jimmutable.core.serialization.reader.ObjectParseTree;
+import org.jimmutable.core.serialization.writer.ObjectWriter;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class FieldPrimitiveTest extends TestCase
+{
+	static public class TestObject extends StandardImmutableObject<TestObject>
+	{
+		static public final TypeName TYPE_NAME = new TypeName("jimmutable.test.field_primitive.dummy_object"); public TypeName getTypeName() { return TYPE_NAME; }
+		
+		static private final FieldName FIELD_COUNTS = new FieldName("counts");
+		static private final FieldName FIELD_TIMESTAMPS = new FieldName("timestamps");
+		static private final FieldName FIELD_PRICES = new FieldName("prices");
+		static private final FieldName FIELD_IDS = new FieldName("ids");
+		static private final FieldName FIELD_STOCK = new FieldName("stock");
+		
+		private FieldIntArrayList counts = new FieldIntArrayList();
+		private FieldLongArrayList timestamps = new FieldLongArrayList();
+		private FieldDoubleArrayList prices = new FieldDoubleArrayList();
+		private FieldLongHashSet ids = new FieldLongHashSet();
+		private FieldLongDoubleHashMap stock = new FieldLongDoubleHashMap();
+		
+		public TestObject()
+		{
+		}
+		
+		public TestObject(ObjectParseTree t)
+		{
+			counts = t.getIntList(FIELD_COUNTS, new FieldIntArrayList(), ObjectParseTree.OnError.THROW_EXCEPTION);
+			timestamps = t.getLongList(FIELD_TIMESTAMPS, new FieldLongArrayList(), ObjectParseTree.OnError.THROW_EXCEPTION);
+			prices = t.getDoubleList(FIELD_PRICES, new FieldDoubleArrayList(), ObjectParseTree.OnError.THROW_EXCEPTION);
+			ids = t.getLongSet(FIELD_IDS, new FieldLongHashSet(), ObjectParseTree.OnError.THROW_EXCEPTION);
+			stock = t.getLongDoubleMap(FIELD_STOCK, new FieldLongDoubleHashMap(), ObjectParseTree.OnError.THROW_EXCEPTION);
+		}
+		
+		public void write(ObjectWriter writer)
+		{
+			writer.writeIntList(FIELD_COUNTS, counts);
+			writer.writeLongList(FIELD_TIMESTAMPS, timestamps);
+			writer.writeDoubleList(FIELD_PRICES, prices);
+			writer.writeLongSet(FIELD_IDS, ids);
+			writer.writeLongDoubleMap(FIELD_STOCK, stock);
+		}
+		
+		public int compareTo(TestObject o) { return 0; }
+		public void normalize() {}
+		public void validate() {}
+		
+		public void freeze()
+		{
+			counts.freeze();
+			timestamps.freeze();
+			prices.freeze();
+			ids.freeze();
+			stock.freezeCompact();
+		}
+		
+		public int hashCode() { return counts.hashCode(); }
+		public TestObject createMutableCopy() { return deepMutableCloneForBuilder(); }
+		
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof TestObject) ) return false;
+			
+			TestObject other = (TestObject)obj;
+			
+			return counts.equals(other.counts) && timestamps.equals(other.timestamps) && prices.equals(other.prices) && ids.equals(other.ids) && stock.equals(other.stock);
+		}
+	}
+	
+	public FieldPrimitiveTest( String testName )
+	{
+		super( testName );
+	}
+	
+	public static Test suite()
+	{
+		return new TestSuite( FieldPrimitiveTest.class );
+	}
+	
+	public void testArrayLists()
+	{
+		FieldIntArrayList list = new FieldIntArrayList();
+		List<Integer> expected = new ArrayList();
+		
+		for ( int i = 0; i < 100; i++ )
+		{
+			list.add(i);
+			expected.add(i);
+		}
+		
+		list.add(0, -1);
+		expected.add(0, -1);
+		
+		assertEquals(49, list.removeAt(50));
+		expected.remove(50);
+		
+		list.set(10, 1000);
+		expected.set(10, 1000);
+		
+		assertEquals(expected.size(), list.size());
+		
+		for ( int i = 0; i < list.size(); i++ )
+		{
+			assertEquals((int)expected.get(i), list.get(i));
+		}
+		
+		assertEquals(expected.hashCode(), list.hashCode());
+		assertEquals(expected.toString(), list.toString());
+		assertEquals(10, list.indexOf(1000));
+		assert(!list.contains(49));
+		assertEquals(list, new FieldIntArrayList(list.toArray()));
+		
+		try { list.get(list.size()); assert(false); } catch(IndexOutOfBoundsException e) { }
+		
+		list.freezeCompact();
+		
+		try { list.add(1); assert(false); } catch(ImmutableException e) { }
+		try { list.set(0, 1); assert(false); } catch(ImmutableException e) { }
+		try { list.removeAt(0); assert(false); } catch(ImmutableException e) { }
+		try { list.clear(); assert(false); } catch(ImmutableException e) { }
+		
+		assertEquals(expected.hashCode(), list.hashCode());
+		
+		FieldIntArrayList copy = list.createMutableCopy();
+		copy.add(5);
+		
+		assert(!copy.isFrozen());
+		assertEquals(expected.size(), list.size());
+		assert(!copy.equals(list));
+		
+		FieldDoubleArrayList doubles = new FieldDoubleArrayList(new double[] { 1.5, Double.NaN, -0.0 });
+		
+		assertEquals(Arrays.asList(1.5, Double.NaN, -0.0).hashCode(), doubles.hashCode());
+		assertEquals(1, doubles.indexOf(Double.NaN));
+		assertEquals(-1, doubles.indexOf(0.0));
+		
+		FieldLongArrayList longs = new FieldLongArrayList();
+		longs.addAll(new long[] { Long.MAX_VALUE, Long.MIN_VALUE });
+		
+		assertEquals(Arrays.asList(Long.MAX_VALUE, Long.MIN_VALUE).hashCode(), longs.hashCode());
+	}
+	
+	public void testLongHashSet()
+	{
+		FieldLongHashSet set = new FieldLongHashSet();
+		Set<Long> expected = new HashSet();
+		
+		Random r = new Random(7);
+		
+		for ( int i = 0; i < 10000; i++ )
+		{
+			long value = r.nextInt(2000) - 1000;
+			
+			if ( r.nextInt(3) == 0 )
+				assertEquals(expected.remove(value), set.remove(value));
+			else
+				assertEquals(expected.add(value), set.add(value));
+		}
+		
+		assertEquals(expected.size(), set.size());
+		
+		for ( long value = -1001; value <= 1001; value++ )
+		{
+			assertEquals(expected.contains(value), set.contains(value));
+		}
+		
+		assertEquals(expected.hashCode(), set.hashCode());
+		
+		Set<Long> values = new HashSet();
+		set.forEach(value -> values.add(value));
+		assertEquals(expected, values);
+		
+		FieldLongHashSet copy = set.createMutableCopy();
+		set.freezeCompact();
+		
+		assertEquals(copy, set);
+		assertEquals(expected.hashCode(), set.hashCode());
+		assertEquals(expected.size(), set.toArray().length);
+		
+		try { set.add(5000); assert(false); } catch(ImmutableException e) { }
+		try { set.remove(0); assert(false); } catch(ImmutableException e) { }
+		
+		copy.add(5000);
+		assert(!set.contains(5000));
+		assert(!copy.equals(set));
+	}
+	
+	public void testLongDoubleHashMap()
+	{
+		FieldLongDoubleHashMap map = new FieldLongDoubleHashMap();
+		Map<Long,Double> expected = new HashMap();
+		
+		Random r = new Random(11);
+		
+		for ( int i = 0; i < 10000; i++ )
+		{
+			long key = r.nextInt(2000) * 1000000007L;
+			
+			if ( r.nextInt(3) == 0 )
+			{
+				assertEquals(expected.remove(key) != null, map.remove(key));
+			}
+			else
+			{
+				double value = r.nextDouble();
+				
+				expected.put(key, value);
+				map.put(key, value);
+			}
+		}
+		
+		assertEquals(expected.size(), map.size());
+		
+		for ( Map.Entry<Long,Double> entry : expected.entrySet() )
+		{
+			assertEquals(entry.getValue(), map.get(entry.getKey(), -1), 0);
+		}
+		
+		assertEquals(-1, map.get(1, -1), 0);
+		assert(!map.containsKey(1));
+		assertEquals(expected.hashCode(), map.hashCode());
+		
+		Map<Long,Double> entries = new HashMap();
+		map.forEach((key, value) -> entries.put(key, value));
+		assertEquals(expected, entries);
+		
+		FieldLongDoubleHashMap copy = map.createMutableCopy();
+		map.freezeCompact();
+		
+		assertEquals(copy, map);
+		assertEquals(expected.hashCode(), map.hashCode());
+		
+		try { map.put(1, 1); assert(false); } catch(ImmutableException e) { }
+		
+		copy.put(copy.keysToArray()[0], -1);
+		assert(!copy.equals(map));
+	}
+	
+	public void testSerialization()
+	{
+		ObjectParseTree.registerTypeName(TestObject.class);
+		
+		TestObject obj = new TestObject();
+		
+		obj.counts.addAll(new int[] { 1, Integer.MIN_VALUE, Integer.MAX_VALUE });
+		obj.timestamps.addAll(new long[] { 0, Long.MIN_VALUE, 1500000000000L });
+		obj.prices.addAll(new double[] { 0.99, -1e300, Double.NaN });
+		obj.ids.add(Long.MIN_VALUE);
+		obj.ids.add(42);
+		obj.stock.put(7, 2.5);
+		obj.stock.put(Long.MIN_VALUE, Double.NaN);
+		
+		obj.complete();
+		
+		for ( Format format : new Format[] { Format.JSON, Format.XML } )
+		{
+			TestObject read = (TestObject)StandardObject.deserialize(obj.serialize(format));
+			
+			assertEquals(obj, read);
+			assert(read.counts.isFrozen());
+		}
+		
+		// A copy shares the frozen primitive fields, a builder's copy gets its own
+		TestObject clone = obj.deepClone();
+		
+		assertSame(obj.stock, clone.stock);
+		
+		TestObject mutable = obj.createMutableCopy();
+		mutable.counts.add(5);
+		
+		assertEquals(3, obj.counts.size());
+		assertEquals(4, mutable.counts.size());
+	}
+}
@@ -74,4 +74,40 @@ public class FieldNameTest extends TestCase
 		assertInvalid("FOO");
 		assertInvalid("fOO");
 	}
+	
+	public void testIntern()
+	{
+		assertSame(FieldName.intern("foo_bar"), FieldName.intern(new String("foo_bar")));
+		assertEquals(FieldName.intern("foo_bar"), new FieldName("foo_bar"));
+		
+		assertSame(FieldName.FIELD_NAME_TYPE_HINT, FieldName.intern("type_hint"));
+		
+		try
+		{
+			FieldName.intern("FOO");
+			assert(false);
+		}
+		catch(Exception e)
+		{
+			assert(true);
+		}
+		
+		try
+		{
+			FieldName.intern(null);
+			assert(false);
+		}
+		catch(Exception e)
+		{
+			assert(true);
+		}
+	}
+	
+	public void testSerializedName()
+	{
+		FieldName name = FieldName.intern("foo_bar");
+		
+		assertEquals("foo_bar", name.getSimpleSerializedName().getValue());
+		assertSame(name.getSimpleSerializedName(), name.getSimpleSerializedName());
+	}
 }
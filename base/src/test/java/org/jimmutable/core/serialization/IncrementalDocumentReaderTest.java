@@ -0,0 +1,202 @@
+package org.jimmutable.core.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.jimmutable.core.examples.product_data.ItemAttribute;
+import org.jimmutable.core.examples.product_data.ItemKey;
+import org.jimmutable.core.examples.product_data.ItemSpecifications;
+import org.jimmutable.core.exceptions.SerializeException;
+import org.jimmutable.core.serialization.reader.IncrementalDocumentReader;
+import org.jimmutable.core.serialization.writer.DocumentStreamWriter;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class IncrementalDocumentReaderTest extends TestCase
+{
+	/**
+	 * Create the test case
+	 *
+	 * @param testName name of the test case
+	 */
+	public IncrementalDocumentReaderTest( String testName )
+	{
+		super( testName );
+	}
+	
+	/**
+	 * @return the suite of tests being tested
+	 */
+	public static Test suite()
+	{
+		JimmutableTypeNameRegister.registerAllTypes();
+		return new TestSuite( IncrementalDocumentReaderTest.class );
+	}
+	
+	public void testChunks()
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DocumentStreamWriter writer = new DocumentStreamWriter(Format.JSON_PRETTY_PRINT, out);
+		
+		for ( int i = 0; i < 20; i++ )
+		{
+			ItemSpecifications.Builder builder = new ItemSpecifications.Builder();
+			
+			builder.setItemKey(new ItemKey("brand"+i,"pn"+i));
+			builder.putAttribute(new ItemAttribute("NOTE"), "{ \"tricky\" ] \u00e9 "+i); // braces, quotes and non ASCII characters in a string
+			
+			writer.writeDocument(builder.create());
+		}
+		
+		writer.close();
+		
+		byte stream[] = out.toByteArray();
+		
+		IncrementalDocumentReader reader = new IncrementalDocumentReader(4096);
+		int document_count = 0;
+		
+		for ( int offset = 0; offset < stream.length; offset += 7 ) // feed the stream in small chunks
+		{
+			reader.feed(ByteBuffer.wrap(stream, offset, Math.min(7, stream.length - offset)));
+			
+			Object document;
+			
+			while ( (document = reader.readDocument(null)) != null )
+			{
+				ItemSpecifications specs = (ItemSpecifications)document;
+				
+				assertEquals(new ItemKey("brand"+document_count,"pn"+document_count), specs.getSimpleItemKey());
+				assertEquals("{ \"tricky\" ] \u00e9 "+document_count, specs.getSimpleAttributes().get(new ItemAttribute("NOTE")));
+				
+				document_count++;
+			}
+		}
+		
+		assertEquals(20, document_count);
+		assertFalse(reader.hasPartialDocument());
+		
+		// Documents larger than the maximum size are rejected
+		reader = new IncrementalDocumentReader(64);
+		
+		try
+		{
+			reader.feed(stream, 0, stream.length);
+			fail();
+		}
+		catch(SerializeException e)
+		{
+			assert(true);
+		}
+	}
+	
+	public void testBadDocument()
+	{
+		ItemSpecifications.Builder builder = new ItemSpecifications.Builder();
+		builder.setItemKey(new ItemKey("brand","pn"));
+		
+		ItemSpecifications specs = builder.create();
+		
+		byte good[] = specs.serializeToBytes(Format.JSON);
+		byte bad[] = "{ \"type_hint\" : , }".getBytes(StandardCharsets.UTF_8);
+		
+		IncrementalDocumentReader reader = new IncrementalDocumentReader(4096);
+		
+		// A bad document is discarded, and the good document after it is read
+		try
+		{
+			reader.feed(bad, 0, bad.length);
+			fail();
+		}
+		catch(SerializeException e)
+		{
+			assert(true);
+		}
+		
+		assertFalse(reader.hasPartialDocument());
+		
+		reader.feed(good, 0, good.length);
+		
+		assertEquals(specs, reader.readDocument(null));
+		assertNull(reader.readDocument(null));
+		
+		// ... even when both arrive in the same chunk
+		ByteBuffer chunk = ByteBuffer.allocate(bad.length + good.length);
+		chunk.put(bad).put(good).flip();
+		
+		try
+		{
+			reader.feed(chunk);
+			fail();
+		}
+		catch(SerializeException e)
+		{
+			assert(true);
+		}
+		
+		assertEquals(specs, reader.readDocument(null));
+		assertNull(reader.readDocument(null));
+		assertFalse(reader.hasPartialDocument());
+	}
+	
+	public void testDocumentTooLarge()
+	{
+		ItemSpecifications.Builder builder = new ItemSpecifications.Builder();
+		builder.setItemKey(new ItemKey("brand","pn"));
+		
+		ItemSpecifications specs = builder.create();
+		
+		byte good[] = specs.serializeToBytes(Format.JSON);
+		
+		builder.putAttribute(new ItemAttribute("NOTE"), "{ \"tricky\" ] "+new String(new char[1000]).replace('\0', 'x'));
+		byte large[] = builder.create().serializeToBytes(Format.JSON);
+		
+		IncrementalDocumentReader reader = new IncrementalDocumentReader(good.length + 10);
+		
+		// The large document is rejected as soon as it is too large, and its later chunks are skipped (one error only)
+		int errors = 0;
+		
+		for ( int offset = 0; offset < large.length; offset += 50 )
+		{
+			try
+			{
+				reader.feed(large, offset, Math.min(50, large.length - offset));
+			}
+			catch(SerializeException e)
+			{
+				errors++;
+			}
+			
+			assertNull(reader.readDocument(null));
+		}
+		
+		assertEquals(1, errors);
+		assertFalse(reader.hasPartialDocument());
+		
+		// ... and reading resumes with the next document
+		reader.feed(good, 0, good.length);
+		
+		assertEquals(specs, reader.readDocument(null));
+		
+		// A single chunk holding a large document between two good ones
+		ByteBuffer chunk = ByteBuffer.allocate(good.length * 2 + large.length);
+		chunk.put(good).put(large).put(good).flip();
+		
+		try
+		{
+			reader.feed(chunk);
+			fail();
+		}
+		catch(SerializeException e)
+		{
+			assert(true);
+		}
+		
+		assertEquals(specs, reader.readDocument(null));
+		assertEquals(specs, reader.readDocument(null));
+		assertNull(reader.readDocument(null));
+		assertFalse(reader.hasPartialDocument());
+	}
+}
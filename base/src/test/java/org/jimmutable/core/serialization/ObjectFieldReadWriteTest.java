@@ -1,11 +1,20 @@
 package org.jimmutable.core.serialization;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Objects;
 
+import org.jimmutable.core.exceptions.SerializeException;
 import org.jimmutable.core.serialization.FieldName;
 import org.jimmutable.core.serialization.Format;
 import org.jimmutable.core.serialization.TypeName;
+import org.jimmutable.core.serialization.reader.FieldSwitch;
 import org.jimmutable.core.serialization.reader.ObjectParseTree;
+import org.jimmutable.core.serialization.reader.ObjectStreamReader;
+import org.jimmutable.core.serialization.reader.ParseTreeArena;
+import org.jimmutable.core.serialization.reader.Parser;
 import org.jimmutable.core.serialization.writer.ObjectWriter;
 import org.jimmutable.core.serialization.writer.StandardWritable;
 
@@ -25,6 +34,8 @@ public class ObjectFieldReadWriteTest extends TestCase
         super( testName );
         
         ObjectParseTree.registerTypeName(StringFieldBoundaryTest.class);
+        ObjectParseTree.registerTypeName(StreamedScalars.class);
+        ObjectParseTree.registerTypeName(WideObject.class);
     }
 
     /**
@@ -77,7 +88,230 @@ public class ObjectFieldReadWriteTest extends TestCase
 		}
 	}
 	
-
+	static public class NoReadConstructor implements StandardWritable
+	{
+		static public TypeName TYPE_NAME = new TypeName("serialization_tests.NoReadConstructor");
+		
+		public TypeName getTypeName() { return TYPE_NAME; }
+		
+		public void write(ObjectWriter writer) 
+		{
+		}
+	}
+	
+	static public class StreamedScalars implements StandardWritable
+	{
+		static public TypeName TYPE_NAME = new TypeName("serialization_tests.StreamedScalars");
+		
+		static private FieldName FIELD_FLAG = new FieldName("flag");
+		static private FieldName FIELD_COUNT = new FieldName("count");
+		static private FieldName FIELD_ID = new FieldName("id");
+		static private FieldName FIELD_RATIO = new FieldName("ratio");
+		static private FieldName FIELD_SCORE = new FieldName("score");
+		static private FieldName FIELD_IGNORED = new FieldName("ignored");
+		
+		static private final FieldSwitch STREAMED_FIELDS = new FieldSwitch(FIELD_FLAG, FIELD_COUNT, FIELD_ID, FIELD_RATIO, FIELD_SCORE);
+		
+		public boolean flag;
+		public int count;
+		public long id;
+		public float ratio;
+		public double score;
+		
+		public StreamedScalars(boolean flag, int count, long id, float ratio, double score) 
+		{
+			this.flag = flag;
+			this.count = count;
+			this.id = id;
+			this.ratio = ratio;
+			this.score = score;
+		}
+		
+		public StreamedScalars(ObjectParseTree t) 
+		{
+			flag = t.getBooleanValue(FIELD_FLAG, false);
+			count = t.getIntValue(FIELD_COUNT, 0);
+			id = t.getLongValue(FIELD_ID, 0);
+			ratio = t.getFloatValue(FIELD_RATIO, 0);
+			score = t.getDoubleValue(FIELD_SCORE, 0);
+		}
+		
+		public StreamedScalars(ObjectStreamReader r) 
+		{
+			int field;
+			
+			while ( (field = r.nextField(STREAMED_FIELDS)) != FieldSwitch.END_OF_OBJECT )
+			{
+				switch(field)
+				{
+				case 0: flag = r.readBooleanValue(false); break;
+				case 1: count = r.readIntValue(0); break;
+				case 2: id = r.readLongValue(0); break;
+				case 3: ratio = r.readFloatValue(0); break;
+				case 4: score = r.readDoubleValue(0); break;
+				case FieldSwitch.NO_MATCH: assertEquals(FIELD_IGNORED, r.getSimpleFieldName()); break;
+				}
+			}
+		}
+		
+		public TypeName getTypeName() { return TYPE_NAME; }
+		
+		public void write(ObjectWriter writer) 
+		{
+			writer.writeString(FIELD_IGNORED, "skipped by the streaming constructor");
+			writer.writeBoolean(FIELD_FLAG, flag);
+			writer.writeInt(FIELD_COUNT, count);
+			writer.writeLong(FIELD_ID, id);
+			writer.writeFloat(FIELD_RATIO, ratio);
+			writer.writeDouble(FIELD_SCORE, score);
+		}
+		
+		public boolean equals(Object obj) 
+		{
+			if (!(obj instanceof StreamedScalars)) return false;
+			
+			StreamedScalars other = (StreamedScalars)obj;
+			
+			return flag == other.flag && count == other.count && id == other.id && ratio == other.ratio && score == other.score;
+		}
+	}
+	
+	static public class WideObject implements StandardWritable
+	{
+		static public TypeName TYPE_NAME = new TypeName("serialization_tests.WideObject");
+		
+		static private FieldName FIELD_COUNT = new FieldName("count");
+		
+		public int values[];
+		
+		public WideObject(int count) 
+		{
+			values = new int[count];
+			
+			for ( int i = 0; i < count; i++ ) values[i] = i * 7;
+		}
+		
+		public WideObject(ObjectParseTree t) 
+		{
+			values = new int[t.getIntValue(FIELD_COUNT, 0)];
+			
+			// Read backwards, so that every field is found through the field name index
+			for ( int i = values.length - 1; i >= 0; i-- ) values[i] = t.getIntValue(new FieldName("value_"+i), -1);
+		}
+		
+		public TypeName getTypeName() { return TYPE_NAME; }
+		
+		public void write(ObjectWriter writer) 
+		{
+			writer.writeInt(FIELD_COUNT, values.length);
+			
+			for ( int i = 0; i < values.length; i++ ) writer.writeInt(new FieldName("value_"+i), values[i]);
+		}
+		
+		public boolean equals(Object obj) 
+		{
+			if (!(obj instanceof WideObject)) return false;
+			
+			return Arrays.equals(values, ((WideObject)obj).values);
+		}
+	}
+	
+    public void testFieldIndexInArena()
+    {
+    	String wide = ObjectWriter.serialize(Format.JSON, new WideObject(40));
+    	String narrow = ObjectWriter.serialize(Format.JSON, new WideObject(12));
+    	
+    	ParseTreeArena.enableForCurrentThread();
+    	
+    	try
+    	{
+    		// Pooled nodes reuse the field name index arrays of the (wider or narrower) nodes read before them
+    		for ( int i = 0; i < 10; i++ )
+    		{
+    			assertEquals(new WideObject(40), ObjectParseTree.deserialize(wide));
+    			assertEquals(new WideObject(12), ObjectParseTree.deserialize(narrow));
+    			assertEquals(new WideObject(3), ObjectParseTree.deserialize(ObjectWriter.serialize(Format.JSON, new WideObject(3))));
+    		}
+    	}
+    	finally
+    	{
+    		ParseTreeArena.disableForCurrentThread();
+    	}
+    }
+    
+    public void testStreamedScalars()
+    {
+    	StreamedScalars obj = new StreamedScalars(true, -17, Long.MAX_VALUE, 0.1f, 3.14159);
+    	
+    	for ( Format format : new Format[] { Format.JSON, Format.JSON_PRETTY_PRINT, Format.XML, Format.XML_PRETTY_PRINT } )
+    	{
+    		String serialized_data = ObjectWriter.serialize(format, obj);
+    		
+    		assertEquals(obj, ObjectStreamReader.deserialize(serialized_data));
+    		assertEquals(obj, ObjectParseTree.deserialize(serialized_data));
+    	}
+    	
+    	testBytes(Format.JIMMUTABLE_BINARY, obj);
+    	
+    	FieldSwitch fields = new FieldSwitch(new FieldName("a"), new FieldName("b"));
+    	
+    	assertEquals(2, fields.size());
+    	assertEquals(1, fields.getSimpleCase(new FieldName("b")));
+    	assertEquals(FieldSwitch.NO_MATCH, fields.getSimpleCase(new FieldName("c")));
+    	assertEquals(FieldSwitch.NO_MATCH, fields.getSimpleCase(null));
+    	
+    	try
+    	{
+    		new FieldSwitch(new FieldName("a"), new FieldName("a"));
+    		fail();
+    	}
+    	catch(SerializeException e)
+    	{
+    		assert(true);
+    	}
+    }
+    
+    public void testCorruptBinaryStringLength()
+    {
+    	// A header, the start of an object, then a field name that claims to be (almost) 2GB long
+    	byte data[] = { (byte)0x89, 'J', 'B', 1, 0x01, 0x05, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x07, 'a', 'b', 'c' };
+    	
+    	try
+    	{
+    		Parser.parse(new ByteArrayInputStream(data));
+    		fail();
+    	}
+    	catch(SerializeException e)
+    	{
+    		assert(true);
+    	}
+    	
+    	try
+    	{
+    		Parser.parse(data);
+    		fail();
+    	}
+    	catch(SerializeException e)
+    	{
+    		assert(true);
+    	}
+    }
+    
+    public void testRegisterWithoutReadConstructor()
+    {
+    	try
+    	{
+    		ObjectParseTree.registerTypeName(NoReadConstructor.class);
+    		fail();
+    	}
+    	catch(SerializeException e)
+    	{
+    		assert(true);
+    	}
+    	
+    	assertFalse(ObjectParseTree.isTypeRegistered(NoReadConstructor.TYPE_NAME));
+    	assertTrue(ObjectParseTree.isTypeRegistered(StringFieldBoundaryTest.TYPE_NAME));
+    }
 
     public void testStringField()
     {
@@ -124,6 +358,10 @@ public class ObjectFieldReadWriteTest extends TestCase
     	
     	testObject(Format.XML,obj,print_diagnostics_in_format);
     	testObject(Format.JSON,obj,print_diagnostics_in_format);
+    	
+    	testBytes(Format.SMILE,obj);
+    	testBytes(Format.CBOR,obj);
+    	testBytes(Format.JIMMUTABLE_BINARY,obj);
     }
     
     private void testObject(Format format, Object obj, Format print_diagnostics_in_format)
@@ -140,6 +378,35 @@ public class ObjectFieldReadWriteTest extends TestCase
     	Object from_reader = ObjectParseTree.deserialize(serialized_data);
     	
     	assertEquals(obj,from_reader);
+    	
+    	testBytes(format, obj);
+    }
+    
+    private void testBytes(Format format, Object obj)
+    {
+    	byte serialized_bytes[] = ObjectWriter.serializeToBytes(format, obj);
+    	
+    	assertEquals(obj,ObjectParseTree.deserialize(serialized_bytes, true));
+    	assertEquals(obj,Parser.parse(new ByteArrayInputStream(serialized_bytes)).asObject(null));
+    	
+    	// Streams
+    	ByteArrayOutputStream out = new ByteArrayOutputStream();
+    	ObjectWriter.serialize(format, obj, out);
+    	assertTrue(Arrays.equals(serialized_bytes, out.toByteArray()));
+    	
+    	// Heap and direct byte buffers (with data not at the start of the buffer)
+    	for ( ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(serialized_bytes.length+10), ByteBuffer.allocateDirect(serialized_bytes.length+10) } )
+    	{
+    		buffer.put(new byte[5]);
+    		ObjectWriter.serialize(format, obj, buffer);
+    		assertEquals(serialized_bytes.length+5, buffer.position());
+    		
+    		buffer.flip();
+    		buffer.position(5);
+    		
+    		assertEquals(obj,Parser.parse(buffer).asObject(null));
+    		assertEquals(5, buffer.position());
+    	}
     }
 }
 
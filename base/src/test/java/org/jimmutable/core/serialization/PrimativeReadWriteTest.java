@@ -1,7 +1,11 @@
 package org.jimmutable.core.serialization;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
 import org.jimmutable.core.serialization.Format;
 import org.jimmutable.core.serialization.reader.ObjectParseTree;
+import org.jimmutable.core.serialization.reader.Parser;
 import org.jimmutable.core.serialization.writer.ObjectWriter;
 
 import junit.framework.Test;
@@ -87,6 +91,63 @@ public class PrimativeReadWriteTest extends TestCase
     	testObject(new Double(2.8/2.1));
     }
     
+    public void testPrimitiveGetters()
+    {
+    	String json = "{ \"i\" : 5, \"d\" : 1.5, \"b\" : true, \"s\" : \"7\", \"big\" : 12345678901, \"huge\" : 123456789012345678901234567890 }";
+    	String xml = "<?xml version='1.0' encoding='UTF-8'?><object><i>5</i><d>1.5</d><b>true</b><s>7</s><big>12345678901</big><huge>123456789012345678901234567890</huge></object>";
+    	
+    	FieldName i = new FieldName("i");
+    	FieldName d = new FieldName("d");
+    	FieldName b = new FieldName("b");
+    	FieldName str = new FieldName("s");
+    	FieldName big = new FieldName("big");
+    	FieldName huge = new FieldName("huge");
+    	FieldName missing = new FieldName("missing");
+    	
+    	for ( String document : new String[] { json, xml } )
+    	{
+    		ObjectParseTree t = Parser.parse(document);
+    		
+    		assertEquals(5, t.getIntValue(i, -1));
+    		assertEquals(5L, t.getLongValue(i, -1));
+    		assertEquals(5, t.getByteValue(i, (byte)-1));
+    		assertEquals(5.0, t.getDoubleValue(i, -1), 0);
+    		assertEquals("5", t.getString(i, null));
+    		
+    		assertEquals(1.5, t.getDoubleValue(d, -1), 0);
+    		assertEquals(1.5f, t.getFloatValue(d, -1), 0);
+    		assertEquals(-1, t.getIntValue(d, -1));
+    		assertEquals("1.5", t.getString(d, null));
+    		
+    		assertEquals(true, t.getBooleanValue(b, false));
+    		assertEquals(Boolean.TRUE, t.getBoolean(b, null));
+    		assertEquals("true", t.getString(b, null));
+    		
+    		assertEquals(7, t.getIntValue(str, -1));
+    		assertEquals(new Integer(7), t.getInt(str, (Integer)null));
+    		
+    		assertEquals(-1, t.getIntValue(big, -1));
+    		assertEquals(12345678901L, t.getLongValue(big, -1));
+    		assertEquals(new Long(12345678901L), t.getInt(big, (Long)null));
+    		
+    		assertEquals(-1L, t.getLongValue(huge, -1));
+    		assertEquals("123456789012345678901234567890", t.getString(huge, null));
+    		
+    		assertEquals(-1, t.getIntValue(missing, -1));
+    		assertEquals(false, t.getBooleanValue(missing, false));
+    	}
+    }
+    
+    public void testTokenBuffer()
+    {
+    	float f = (float)(2.8/2.1);
+    	
+    	assertEquals(f, ObjectParseTree.deserialize(ObjectWriter.serializeToTokenBuffer(f), true));
+    	assertEquals(2.8/2.1, ObjectParseTree.deserialize(ObjectWriter.serializeToTokenBuffer(2.8/2.1), true));
+    	assertEquals(Long.MIN_VALUE, ObjectParseTree.deserialize(ObjectWriter.serializeToTokenBuffer(Long.MIN_VALUE), true));
+    	assertEquals(Boolean.FALSE, ObjectParseTree.deserialize(ObjectWriter.serializeToTokenBuffer(false), true));
+    }
+    
     public void testStings()
     {
     	testObject("Hello World");
@@ -103,6 +164,15 @@ public class PrimativeReadWriteTest extends TestCase
     	// The acid string...
     	testObject(createNonBase64AcidString());
     	testObject(createAcidString());
+    	
+    	// Strings that need it are base64 encoded (standard alphabet, no line breaks) from their UTF-8 bytes
+    	String needs_base64 = "caf\u00e9 \u0001 \u4e2d";
+    	String base64 = Base64.getEncoder().encodeToString(needs_base64.getBytes(StandardCharsets.UTF_8));
+    	
+    	testObject(needs_base64);
+    	
+    	assertTrue(ObjectWriter.serialize(Format.JSON, needs_base64).contains("\""+base64+"\""));
+    	assertTrue(ObjectWriter.serialize(Format.XML, needs_base64).contains(">"+base64+"<"));
     }
     
     static public String createAcidString()
@@ -143,6 +213,17 @@ public class PrimativeReadWriteTest extends TestCase
     	testObject(Format.XML_PRETTY_PRINT,obj);
     	testObject(Format.JSON,obj);
     	testObject(Format.JSON_PRETTY_PRINT,obj);;
+    	
+    	testBinaryObject(Format.SMILE,obj);
+    	testBinaryObject(Format.CBOR,obj);
+    	testBinaryObject(Format.JIMMUTABLE_BINARY,obj);
+    }
+    
+    private void testBinaryObject(Format format, Object obj)
+    {
+    	byte serialized_bytes[] = ObjectWriter.serializeToBytes(format, obj);
+    	
+    	assertEquals(obj,ObjectParseTree.deserialize(serialized_bytes, true));
     }
     
     private void testObject(Format format, Object obj)
@@ -162,5 +243,11 @@ public class PrimativeReadWriteTest extends TestCase
     	Object from_reader = ObjectParseTree.deserialize(serialized_data);
     	
     	assertEquals(obj,from_reader);
+    	
+    	// The byte oriented path must produce (and consume) the same document, UTF-8 encoded
+    	byte serialized_bytes[] = ObjectWriter.serializeToBytes(format, obj);
+    	assertEquals(serialized_data, new String(serialized_bytes, StandardCharsets.UTF_8));
+    	
+    	assertEquals(obj,ObjectParseTree.deserialize(serialized_bytes, true));
     }
 }
\ No newline at end of file
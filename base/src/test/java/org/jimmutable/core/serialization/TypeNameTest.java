@@ -76,4 +76,40 @@ public class TypeNameTest extends TestCase
 		assertInvalid("!f");
 		
 	}
+	
+	public void testIntern()
+	{
+		assertSame(TypeName.intern("com.Foo$Bar"), TypeName.intern(new String("com.Foo$Bar")));
+		assertEquals(TypeName.intern("com.Foo$Bar"), new TypeName("com.Foo$Bar"));
+		
+		assertSame(TypeName.TYPE_NAME_STRING, TypeName.intern("string"));
+		
+		try
+		{
+			TypeName.intern("jim bob");
+			assert(false);
+		}
+		catch(Exception e)
+		{
+			assert(true);
+		}
+		
+		try
+		{
+			TypeName.intern(null);
+			assert(false);
+		}
+		catch(Exception e)
+		{
+			assert(true);
+		}
+	}
+	
+	public void testSerializedName()
+	{
+		TypeName name = TypeName.intern("com.Foo$Bar");
+		
+		assertEquals("com.Foo$Bar", name.getSimpleSerializedName().getValue());
+		assertSame(name.getSimpleSerializedName(), name.getSimpleSerializedName());
+	}
 }